@@ -18,22 +18,25 @@
 
 package eu.fasten.analyzer.graphplugin;
 
+import eu.fasten.core.data.CallGraphCodec;
+import eu.fasten.core.data.CallGraphParser;
 import eu.fasten.core.data.graphdb.GidGraph;
 import eu.fasten.core.data.graphdb.RocksDao;
+import eu.fasten.core.data.store.ClaimCheck;
+import eu.fasten.core.data.store.FilePayloadStore;
+import eu.fasten.core.data.store.PayloadStore;
+import eu.fasten.core.plugins.BatchKafkaPlugin;
 import eu.fasten.core.plugins.GraphDBConnector;
-import eu.fasten.core.plugins.KafkaPlugin;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import eu.fasten.core.plugins.PayloadReader;
+import eu.fasten.core.plugins.PipelinePlugin;
 import java.io.IOException;
 import java.nio.file.Paths;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 import org.pf4j.Extension;
 import org.pf4j.Plugin;
 import org.pf4j.PluginWrapper;
@@ -48,18 +51,24 @@ public class GraphDatabasePlugin extends Plugin {
     }
 
     @Extension
-    public static class GraphDBExtension implements KafkaPlugin, GraphDBConnector {
+    public static class GraphDBExtension implements BatchKafkaPlugin, PipelinePlugin,
+            GraphDBConnector, PayloadReader {
 
         private String consumerTopic = "fasten.MetadataDBExtension.out";
         private Throwable pluginError = null;
         private final Logger logger = LoggerFactory.getLogger(GraphDBExtension.class.getName());
         private static RocksDao rocksDao;
-        private String outputPath;
+        private ClaimCheck claimCheck = new ClaimCheck(new FilePayloadStore(".", null));
 
         public void setRocksDao(RocksDao rocksDao) {
             GraphDBExtension.rocksDao = rocksDao;
         }
 
+        @Override
+        public void setPayloadStore(PayloadStore store) {
+            this.claimCheck = new ClaimCheck(store);
+        }
+
         @Override
         public Optional<List<String>> consumeTopic() {
             return Optional.of(Collections.singletonList(consumerTopic));
@@ -76,75 +85,142 @@ public class GraphDatabasePlugin extends Plugin {
         }
 
         @Override
-        public String getOutputPath() {
-            return this.outputPath;
+        public void consume(String record) {
+            this.pluginError = null;
+            final GidGraph gidGraph;
+            try {
+                gidGraph = parseGraph(record);
+            } catch (JSONException | IOException e) {
+                setPluginError(e);
+                return;
+            }
+            saveGraph(gidGraph);
         }
 
         @Override
-        public void consume(String record) {
+        public boolean accepts(Object record) {
+            return record instanceof GidGraph;
+        }
+
+        @Override
+        public void consumeObject(Object record) {
             this.pluginError = null;
+            saveGraph((GidGraph) record);
+        }
+
+        /**
+         * Saves a GID graph into RocksDB.
+         *
+         * @param gidGraph GID graph to save
+         */
+        private void saveGraph(GidGraph gidGraph) {
+            var artifact = gidGraph.getProduct() + "@" + gidGraph.getVersion();
+            try {
+                rocksDao.saveToRocksDb(gidGraph);
+            } catch (RocksDBException | IOException e) {
+                logger.error("Could not save GID graph of '" + artifact + "' into RocksDB", e);
+                setPluginError(e);
+                return;
+            }
+            if (getPluginError() == null) {
+                logger.info("Saved the '" + artifact
+                        + "' GID graph into RocksDB graph database with index "
+                        + gidGraph.getIndex());
+            }
+        }
+
+        /**
+         * Consumes a batch of records, writing all the GID graphs into RocksDB with a single
+         * write batch. Records that cannot be parsed fail individually; if the write fails,
+         * all other records of the batch fail.
+         *
+         * @param records records to process
+         * @return results of processing the records
+         */
+        @Override
+        public List<Result> consumeBatch(List<String> records) {
+            var results = new ArrayList<Result>(records.size());
+            var gidGraphs = new ArrayList<GidGraph>(records.size());
+            for (var record : records) {
+                try {
+                    var gidGraph = parseGraph(record);
+                    gidGraphs.add(gidGraph);
+                    results.add(Result.success(null));
+                } catch (JSONException | IOException e) {
+                    results.add(Result.failure(e));
+                }
+            }
+            if (gidGraphs.isEmpty()) {
+                return results;
+            }
+            try {
+                rocksDao.saveToRocksDb(gidGraphs);
+                logger.info("Saved " + gidGraphs.size()
+                        + " GID graphs into RocksDB graph database");
+            } catch (RocksDBException | IOException e) {
+                logger.error("Could not save a batch of " + gidGraphs.size()
+                        + " GID graphs into RocksDB", e);
+                for (int i = 0; i < results.size(); i++) {
+                    if (results.get(i).getError() == null) {
+                        results.set(i, Result.failure(e));
+                    }
+                }
+            }
+            return results;
+        }
+
+        /**
+         * Parses the GID graph contained in a record, or in the file the record points to.
+         *
+         * @param record consumed record
+         * @return GID graph
+         * @throws JSONException if the graph could not be parsed
+         * @throws IOException   if the file containing the graph could not be read
+         */
+        private GidGraph parseGraph(String record) throws JSONException, IOException {
             var json = new JSONObject(record);
             if (json.has("payload")) {
                 json = json.getJSONObject("payload");
             }
             final var path = json.optString("dir");
 
-            final GidGraph gidGraph;
             if (!path.isEmpty()) {
-                try {
-                    JSONTokener tokener = new JSONTokener(new FileReader(path));
-                    gidGraph = GidGraph.getGraph(new JSONObject(tokener));
+                try (var reader = claimCheck.open(json)) {
+                    return CallGraphParser.parseGidGraph(reader);
                 } catch (JSONException e) {
                     logger.error("Could not parse GID graph", e);
-                    setPluginError(e);
-                    return;
-                } catch (FileNotFoundException e) {
+                    throw e;
+                } catch (IOException e) {
                     logger.error("Error parsing JSON callgraph for '"
                             + Paths.get(path).getFileName() + "'", e);
-                    setPluginError(e);
-                    return;
+                    throw e;
                 }
             } else {
                 try {
-                    gidGraph = GidGraph.getGraph(json);
+                    return toGidGraph(json);
                 } catch (JSONException e) {
                     logger.error("Could not parse GID graph", e);
-                    setPluginError(e);
-                    return;
+                    throw e;
                 }
             }
+        }
 
-            var artifact = gidGraph.getProduct() + "@" + gidGraph.getVersion();
-
-            final String groupId;
-            final String artifactId;
-            if (gidGraph.getProduct().contains(":")) {
-                groupId = gidGraph.getProduct().split(":")[0];
-                artifactId = gidGraph.getProduct().split(":")[1];
-            } else {
-                final var productParts = gidGraph.getProduct().split("\\.");
-                groupId = String.join(".", Arrays.copyOf(productParts, productParts.length - 1));
-                artifactId = productParts[productParts.length - 1];
+        /**
+         * Converts a payload to a GID graph, whether it contains the JSON or the binary
+         * representation of the graph.
+         *
+         * @param payload JSON payload
+         * @return GID graph
+         * @throws JSONException if the graph could not be parsed or decoded
+         */
+        private GidGraph toGidGraph(JSONObject payload) throws JSONException {
+            if (!CallGraphCodec.isBinaryPayload(payload)) {
+                return GidGraph.getGraph(payload);
             }
-            var version = gidGraph.getVersion();
-            var product = artifactId + "_" + groupId + "_" + version;
-
-            var firstLetter = artifactId.substring(0, 1);
-
-            outputPath = File.separator + firstLetter + File.separator
-                    + artifactId + File.separator + product + ".json";
             try {
-                rocksDao.saveToRocksDb(gidGraph.getIndex(), gidGraph.getNodes(),
-                        gidGraph.getNumInternalNodes(), gidGraph.getEdges());
-            } catch (RocksDBException | IOException e) {
-                logger.error("Could not save GID graph of '" + artifact + "' into RocksDB", e);
-                setPluginError(e);
-                return;
-            }
-            if (getPluginError() == null) {
-                logger.info("Saved the '" + artifact
-                        + "' GID graph into RocksDB graph database with index "
-                        + gidGraph.getIndex());
+                return GidGraph.fromBinary(CallGraphCodec.fromPayload(payload));
+            } catch (IllegalArgumentException e) {
+                throw new JSONException("Could not decode binary GID graph", e);
             }
         }
 
@@ -20,6 +20,7 @@ package eu.fasten.analyzer.graphplugin;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import eu.fasten.core.data.graphdb.RocksDao;
 import eu.fasten.core.data.graphdb.GidGraph;
@@ -54,7 +55,26 @@ public class GraphDatabasePluginTest {
         var graph = GidGraph.getGraph(json.getJSONObject("payload"));
         graphDBExtension.setRocksDao(rocksDao);
         graphDBExtension.consume(json.toString());
-        Mockito.verify(rocksDao).saveToRocksDb(graph.getIndex(), graph.getNodes(), graph.getNumInternalNodes(), graph.getEdges());
+        Mockito.verify(rocksDao).saveToRocksDb(graph);
+    }
+
+    @Test
+    public void consumeObjectTest() throws IOException, RocksDBException {
+        var rocksDao = Mockito.mock(RocksDao.class);
+        var graph = GidGraph.getGraph(new JSONObject("{" +
+                "\"index\": 1," +
+                "\"product\": \"test\"," +
+                "\"version\": \"0.0.1\"," +
+                "\"nodes\": [1, 2, 3]," +
+                "\"numInternalNodes\": 2," +
+                "\"edges\": [[1, 2], [2, 3]]" +
+                "}"));
+        assertTrue(graphDBExtension.accepts(graph));
+        assertFalse(graphDBExtension.accepts(graph.toJSONString()));
+        graphDBExtension.setRocksDao(rocksDao);
+        graphDBExtension.consumeObject(graph);
+        assertNull(graphDBExtension.getPluginError());
+        Mockito.verify(rocksDao).saveToRocksDb(graph);
     }
 
     @Test
@@ -71,6 +91,28 @@ public class GraphDatabasePluginTest {
         assertNull(graphDBExtension.getPluginError());
     }
 
+    @Test
+    public void consumeBatchTest() throws IOException, RocksDBException {
+        var rocksDao = Mockito.mock(RocksDao.class);
+        var json = "{\"payload\": {" +
+                "\"index\": 1," +
+                "\"product\": \"test\"," +
+                "\"version\": \"0.0.1\"," +
+                "\"nodes\": [1, 2, 3]," +
+                "\"numInternalNodes\": 2," +
+                "\"edges\": [[1, 2], [2, 3]]" +
+                "}}";
+        var graph = GidGraph.getGraph(new JSONObject(json).getJSONObject("payload"));
+        graphDBExtension.setRocksDao(rocksDao);
+        var results = graphDBExtension.consumeBatch(
+                List.of(json, "{\"payload\":{\"foo\":\"bar\"}}"));
+        Mockito.verify(rocksDao).saveToRocksDb(List.of(graph));
+        assertEquals(2, results.size());
+        assertNull(results.get(0).getError());
+        assertTrue(results.get(0).getPayload().isEmpty());
+        assertNotNull(results.get(1).getError());
+    }
+
     @Test
     public void consumeJsonErrorTest() {
         graphDBExtension.consume("{\"payload\":{\"foo\":\"bar\"}}");
@@ -20,9 +20,9 @@ package eu.fasten.analyzer.javacgopal;
 
 import eu.fasten.analyzer.javacgopal.data.MavenCoordinate;
 import eu.fasten.analyzer.javacgopal.data.PartialCallGraph;
+import eu.fasten.core.data.CallGraphCodec;
 import eu.fasten.core.data.ExtendedRevisionCallGraph;
-import eu.fasten.core.plugins.KafkaPlugin;
-import java.io.File;
+import eu.fasten.core.plugins.PipelinePlugin;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -43,14 +43,13 @@ public class OPALPlugin extends Plugin {
     }
 
     @Extension
-    public static class OPAL implements KafkaPlugin {
+    public static class OPAL implements PipelinePlugin {
 
         private final Logger logger = LoggerFactory.getLogger(getClass());
 
         private String consumeTopic = "fasten.maven.pkg";
         private Throwable pluginError;
         private ExtendedRevisionCallGraph graph;
-        private String outputPath;
 
         @Override
         public Optional<List<String>> consumeTopic() {
@@ -60,6 +59,7 @@ public class OPALPlugin extends Plugin {
         @Override
         public void consume(String kafkaRecord) {
             pluginError = null;
+            graph = null;
             try {
                 var kafkaConsumedJson = new JSONObject(kafkaRecord);
                 if (kafkaConsumedJson.has("payload")) {
@@ -76,17 +76,6 @@ public class OPALPlugin extends Plugin {
                     return;
                 }
 
-                var groupId = graph.product.split(":")[0];
-                var artifactId = graph.product.split(":")[1];
-                var version = graph.version;
-                var product = artifactId + "_" + groupId + "_" + version;
-
-                var firstLetter = artifactId.substring(0, 1);
-
-                outputPath = File.separator + "mvn" + File.separator
-                        + firstLetter + File.separator
-                        + artifactId + File.separator + product + ".json";
-
                 logger.info("Call graph successfully generated for {}!",
                         mavenCoordinate.getCoordinate());
 
@@ -116,16 +105,19 @@ public class OPALPlugin extends Plugin {
 
         @Override
         public Optional<String> produce() {
-            if (this.graph != null) {
-                return Optional.of(graph.toJSON().toString());
-            } else {
+            if (this.graph == null) {
                 return Optional.empty();
             }
+            // Large graphs would exceed the maximum size of Kafka messages as JSON
+            if (CallGraphCodec.exceedsBinaryThreshold(graph)) {
+                return Optional.of(CallGraphCodec.toPayload(graph.toBinary(true)));
+            }
+            return Optional.of(graph.toJSON().toString());
         }
 
         @Override
-        public String getOutputPath() {
-            return outputPath;
+        public Optional<Object> produceObject() {
+            return Optional.ofNullable(graph);
         }
 
         /**
@@ -18,28 +18,46 @@
 
 package eu.fasten.analyzer.metadataplugin;
 
+import eu.fasten.core.data.CallGraphCodec;
+import eu.fasten.core.data.CallGraphParser;
 import eu.fasten.core.data.ExtendedRevisionCallGraph;
+import eu.fasten.core.data.metadatadb.CallSites;
 import eu.fasten.core.data.metadatadb.MetadataDao;
+import eu.fasten.core.data.metadatadb.MetadataPartitions;
+import eu.fasten.core.data.metadatadb.RetryPolicy;
+import eu.fasten.core.data.store.ClaimCheck;
+import eu.fasten.core.data.store.FilePayloadStore;
+import eu.fasten.core.data.store.PayloadStore;
 import eu.fasten.core.data.RevisionCallGraph;
 import eu.fasten.core.data.graphdb.GidGraph;
 import eu.fasten.core.data.metadatadb.codegen.tables.records.CallablesRecord;
 import eu.fasten.core.data.metadatadb.codegen.tables.records.EdgesRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.FilesRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.ModuleContentsRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.ModulesRecord;
+import eu.fasten.core.metrics.Counter;
+import eu.fasten.core.metrics.Histogram;
+import eu.fasten.core.metrics.MetricsRegistry;
+import eu.fasten.core.metrics.SimpleMetricsRegistry;
 import eu.fasten.core.plugins.DBConnector;
-import eu.fasten.core.plugins.KafkaPlugin;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import eu.fasten.core.plugins.MetricsReporter;
+import eu.fasten.core.plugins.PayloadReader;
+import eu.fasten.core.plugins.PipelinePlugin;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.function.Function;
 import org.jooq.DSLContext;
 import org.jooq.JSONB;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 import org.pf4j.Extension;
 import org.pf4j.Plugin;
 import org.pf4j.PluginWrapper;
@@ -53,21 +71,58 @@ public class MetadataDatabasePlugin extends Plugin {
     }
 
     @Extension
-    public static class MetadataDBExtension implements KafkaPlugin, DBConnector {
+    public static class MetadataDBExtension implements PipelinePlugin, DBConnector, MetricsReporter,
+            PayloadReader {
+
+        /**
+         * Number of callables or edges above which they are loaded with the COPY protocol
+         * instead of batched INSERT statements.
+         */
+        static final int BULK_LOAD_THRESHOLD = 4096;
+
+        /**
+         * Number of edges read at once when rebuilding the graph of GIDs of a callgraph that has
+         * already been saved.
+         */
+        static final int EDGES_PAGE_SIZE = 10000;
 
         private String consumerTopic = "fasten.OPAL.out";
-        private static DSLContext dslContext;
+        private DSLContext dslContext;
+        private MetadataPartitions partitions;
         private boolean processedRecord = false;
         private Throwable pluginError = null;
         private final Logger logger = LoggerFactory.getLogger(MetadataDBExtension.class.getName());
-        private boolean restartTransaction = false;
-        private final int transactionRestartLimit = 3;
+        private RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
         private GidGraph gidGraph = null;
-        private String outputPath;
+        private Histogram transactionLatency;
+        private Counter transactionFailures;
+        // References to files hold absolute paths, so the root of the default store is unused
+        private ClaimCheck claimCheck = new ClaimCheck(new FilePayloadStore(".", null));
+
+        public MetadataDBExtension() {
+            setMetricsRegistry(new SimpleMetricsRegistry());
+        }
 
         @Override
         public void setDBConnection(DSLContext dslContext) {
-            MetadataDBExtension.dslContext = dslContext;
+            this.dslContext = dslContext;
+            this.partitions = new MetadataPartitions(dslContext);
+        }
+
+        @Override
+        public void setMetricsRegistry(MetricsRegistry registry) {
+            // Same label as the metrics of the Kafka plug-in running this extension
+            var plugin = getClass().getSimpleName();
+            transactionLatency = registry.histogram("fasten_db_transaction_seconds",
+                    "Time taken by database transactions, including failed ones.",
+                    Histogram.LATENCY_BUCKETS, "plugin", plugin);
+            transactionFailures = registry.counter("fasten_db_transaction_failures_total",
+                    "Database transactions rolled back after a database error.", "plugin", plugin);
+        }
+
+        @Override
+        public void setPayloadStore(PayloadStore store) {
+            this.claimCheck = new ClaimCheck(store);
         }
 
         @Override
@@ -83,8 +138,8 @@ public class MetadataDatabasePlugin extends Plugin {
         @Override
         public void consume(String record) {
             this.processedRecord = false;
-            this.restartTransaction = false;
             this.pluginError = null;
+            this.gidGraph = null;
             var consumedJson = new JSONObject(record);
             if (consumedJson.has("payload")) {
                 consumedJson = consumedJson.getJSONObject("payload");
@@ -97,6 +152,24 @@ public class MetadataDatabasePlugin extends Plugin {
             }
         }
 
+        @Override
+        public boolean accepts(Object record) {
+            return record instanceof ExtendedRevisionCallGraph;
+        }
+
+        @Override
+        public void consumeObject(Object record) {
+            this.processedRecord = false;
+            this.pluginError = null;
+            this.gidGraph = null;
+            saveCallGraph((ExtendedRevisionCallGraph) record);
+        }
+
+        @Override
+        public Optional<Object> produceObject() {
+            return Optional.ofNullable(gidGraph);
+        }
+
         /**
          * Consumes callgraph record of the old format.
          *
@@ -106,10 +179,9 @@ public class MetadataDatabasePlugin extends Plugin {
         private void consumeOldFormat(JSONObject consumedJson, String path) {
             final RevisionCallGraph callgraph;
             if (!path.isEmpty()) {
-                try {
-                    JSONTokener tokener = new JSONTokener(new FileReader(path));
-                    callgraph = new RevisionCallGraph(new JSONObject(tokener));
-                } catch (JSONException | FileNotFoundException e) {
+                try (var reader = claimCheck.open(consumedJson)) {
+                    callgraph = CallGraphParser.parseRevisionCallGraph(reader);
+                } catch (JSONException | IOException e) {
                     logger.error("Error parsing JSON callgraph from path for '"
                             + Paths.get(path).getFileName() + "'", e);
                     processedRecord = false;
@@ -128,56 +200,192 @@ public class MetadataDatabasePlugin extends Plugin {
                 }
             }
             final var artifact = callgraph.product + "@" + callgraph.version;
-            final String groupId;
-            final String artifactId;
-            if (callgraph.product.contains(":")) {
-                groupId = callgraph.product.split(":")[0];
-                artifactId = callgraph.product.split(":")[1];
-            } else {
-                final var productParts = callgraph.product.split("\\.");
-                groupId = String.join(".", Arrays.copyOf(productParts, productParts.length - 1));
-                artifactId = productParts[productParts.length - 1];
-            }
-            var version = callgraph.version;
-            var forge = callgraph.forge;
-            var product = artifactId + "_" + groupId + "_" + version;
-            var firstLetter = artifactId.substring(0, 1);
-            outputPath = File.separator + forge + File.separator
-                    + firstLetter + File.separator
-                    + artifactId + File.separator + product + ".json";
-            int transactionRestartCount = 0;
-            do {
+            try {
+                if (isSaved(callgraph.product, callgraph.forge, callgraph.version,
+                        callgraph.getCgGenerator(), artifact)) {
+                    return;
+                }
+                ensurePartitions();
+                long id = runTransaction(metadataDao ->
+                        saveToDatabaseOldFormat(callgraph, metadataDao), artifact);
+                saved(artifact, id);
+            } catch (RuntimeException e) {
+                failed(artifact, e);
+            }
+        }
+
+        /**
+         * Returns whether the callgraph of a package version has already been saved, in which
+         * case it is not saved again, but its graph of GIDs is read back from the database, so
+         * that consuming it again produces the same output (see
+         * {@link #findSavedGidGraph(String, String, String, String, MetadataDao)}).
+         *
+         * @param product   name of the package
+         * @param forge     forge of the package
+         * @param version   version of the package
+         * @param generator generator of the callgraph
+         * @param artifact  artifact of the callgraph, for logging
+         * @return true if the callgraph has already been saved
+         */
+        private boolean isSaved(String product, String forge, String version, String generator,
+                                String artifact) {
+            var graph = runTransaction(metadataDao ->
+                    findSavedGidGraph(product, forge, version, generator, metadataDao), artifact);
+            if (graph == null) {
+                return false;
+            }
+            this.gidGraph = graph;
+            processedRecord = true;
+            logger.info("The '" + artifact + "' callgraph metadata is already in the database "
+                    + "with package version ID = " + graph.getIndex());
+            return true;
+        }
+
+        /**
+         * Returns the graph of GIDs of a callgraph that has already been saved, or null if it has
+         * not been saved. A package version may exist without its callgraph, as other plug-ins
+         * (e.g., the POM analyzer) create package versions too, so the callgraph is deemed saved
+         * only if the package version has modules: they are written in the same transaction as
+         * the rest of the callgraph. A callgraph without any type is thus saved again on replay,
+         * which is harmless as all inserts are upserts.
+         *
+         * @param product     name of the package
+         * @param forge       forge of the package
+         * @param version     version of the package
+         * @param generator   generator of the callgraph
+         * @param metadataDao Data Access Object to read the callgraph
+         * @return graph of GIDs of the saved callgraph, or null
+         */
+        GidGraph findSavedGidGraph(String product, String forge, String version, String generator,
+                                   MetadataDao metadataDao) {
+            var id = metadataDao.getPackageVersionId(product, forge, version, generator);
+            if (id == null || !metadataDao.hasModules(id)) {
+                return null;
+            }
+            return loadGidGraph(id, product, version, metadataDao);
+        }
+
+        /**
+         * Rebuilds the graph of GIDs of a callgraph that has already been saved. Its nodes are
+         * the internal callables of the package version, followed by the external callables
+         * they call; external callables that are not called are shared by all package versions,
+         * so they cannot be told apart and are left out.
+         *
+         * @param packageVersionId ID of the package version of the callgraph
+         * @param product          name of the package
+         * @param version          version of the package
+         * @param metadataDao      Data Access Object to read the callgraph
+         * @return graph of GIDs of the callgraph
+         */
+        GidGraph loadGidGraph(long packageVersionId, String product, String version,
+                              MetadataDao metadataDao) {
+            var internalIds = metadataDao.getInternalCallableIds(packageVersionId);
+            var internal = new LongOpenHashSet(internalIds);
+            var external = new LongLinkedOpenHashSet();
+            var sources = new LongArrayList();
+            var targets = new LongArrayList();
+            EdgesRecord last = null;
+            while (!internalIds.isEmpty()) {
+                var page = metadataDao.getEdges(internalIds, last, EDGES_PAGE_SIZE);
+                for (var edge : page) {
+                    sources.add(edge.getSourceId().longValue());
+                    targets.add(edge.getTargetId().longValue());
+                    if (!internal.contains(edge.getTargetId().longValue())) {
+                        external.add(edge.getTargetId().longValue());
+                    }
+                }
+                if (page.size() < EDGES_PAGE_SIZE) {
+                    break;
+                }
+                last = page.get(page.size() - 1);
+            }
+            var nodes = new LongArrayList(internalIds.size() + external.size());
+            nodes.addAll(internalIds);
+            nodes.addAll(external);
+            return new GidGraph(packageVersionId, product, version, nodes.toLongArray(),
+                    internalIds.size(), sources.toLongArray(), targets.toLongArray());
+        }
+
+        private void saved(String artifact, long id) {
+            processedRecord = true;
+            logger.info("Saved the '" + artifact + "' callgraph metadata "
+                    + "to the database with package version ID = " + id);
+        }
+
+        private void failed(String artifact, RuntimeException e) {
+            logger.error("Error saving to the database: '" + artifact + "'", e);
+            processedRecord = false;
+            setPluginError(e);
+        }
+
+        /**
+         * Runs a transaction, and runs it again after transient database errors, waiting as
+         * specified by the retry policy.
+         *
+         * @param transaction work of the transaction, given a Data Access Object bound to it
+         * @param artifact    artifact the transaction is about, for logging
+         * @param <T>         type of the result of the transaction
+         * @return result of the transaction
+         * @throws DataAccessException if the last attempt failed
+         */
+        private <T> T runTransaction(Function<MetadataDao, T> transaction, String artifact) {
+            for (int attempt = 1; ; attempt++) {
+                long start = System.nanoTime();
                 try {
-                    var metadataDao = new MetadataDao(dslContext);
-                    dslContext.transaction(transaction -> {
-                        metadataDao.setContext(DSL.using(transaction));
-                        long id;
-                        try {
-                            id = saveToDatabaseOldFormat(callgraph, metadataDao);
-                        } catch (RuntimeException e) {
-                            logger.error("Error saving to the database: '" + artifact + "'", e);
-                            processedRecord = false;
-                            setPluginError(e);
-                            if (e instanceof DataAccessException) {
-                                logger.info("Restarting transaction for '" + artifact + "'");
-                                restartTransaction = true;
-                            } else {
-                                restartTransaction = false;
-                            }
-                            throw e;
-                        }
-                        if (getPluginError() == null) {
-                            processedRecord = true;
-                            restartTransaction = false;
-                            logger.info("Saved the '" + artifact + "' callgraph metadata "
-                                    + "to the database with package version ID = " + id);
-                        }
-                    });
-                } catch (Exception expected) {
+                    try {
+                        return dslContext.transactionResult(configuration ->
+                                transaction.apply(new MetadataDao(DSL.using(configuration))));
+                    } finally {
+                        transactionLatency.observeNanos(System.nanoTime() - start);
+                    }
+                } catch (DataAccessException e) {
+                    transactionFailures.increment();
+                    if (!retryPolicy.shouldRetry(e, attempt)) {
+                        throw e;
+                    }
+                    logger.info("Restarting transaction for '" + artifact + "': "
+                            + e.getMessage());
+                    try {
+                        retryPolicy.backoff(attempt);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
                 }
-                transactionRestartCount++;
-            } while (restartTransaction && !processedRecord
-                    && transactionRestartCount < transactionRestartLimit);
+            }
+        }
+
+        /**
+         * Creates the partitions of the metadata tables that the next callgraph may need. This
+         * is done before the transaction saving it, as creating a partition locks its table.
+         */
+        private void ensurePartitions() {
+            try {
+                partitions.ensurePartitions();
+            } catch (DataAccessException e) {
+                // The rows go to the default partitions until their partitions are created
+                logger.error("Could not create the partitions of the metadata tables, retrying in "
+                        + MetadataPartitions.RETRY_INTERVAL_MS / 1000 + " s", e);
+            }
+        }
+
+        /**
+         * Converts a payload to a callgraph of the new format, whether it contains the JSON or
+         * the binary representation of the callgraph.
+         *
+         * @param payload JSON payload
+         * @return callgraph
+         * @throws JSONException if the callgraph could not be parsed or decoded
+         */
+        private ExtendedRevisionCallGraph toCallGraph(JSONObject payload) throws JSONException {
+            if (!CallGraphCodec.isBinaryPayload(payload)) {
+                return new ExtendedRevisionCallGraph(payload);
+            }
+            try {
+                return ExtendedRevisionCallGraph.fromBinary(CallGraphCodec.fromPayload(payload));
+            } catch (IllegalArgumentException e) {
+                throw new JSONException("Could not decode binary callgraph", e);
+            }
         }
 
         /**
@@ -189,9 +397,8 @@ public class MetadataDatabasePlugin extends Plugin {
         private void consumeNewFormat(JSONObject consumedJson, String path) {
             final ExtendedRevisionCallGraph callgraph;
             if (!path.isEmpty()) {
-                try {
-                    JSONTokener tokener = new JSONTokener(new FileReader(path));
-                    callgraph = new ExtendedRevisionCallGraph(new JSONObject(tokener));
+                try (var reader = claimCheck.open(consumedJson)) {
+                    callgraph = CallGraphParser.parseExtendedRevisionCallGraph(reader);
                 } catch (JSONException | IOException e) {
                     logger.error("Error parsing JSON callgraph from path for '"
                             + Paths.get(path).getFileName() + "'", e);
@@ -201,7 +408,7 @@ public class MetadataDatabasePlugin extends Plugin {
                 }
             } else {
                 try {
-                    callgraph = new ExtendedRevisionCallGraph(consumedJson);
+                    callgraph = toCallGraph(consumedJson);
                 } catch (JSONException e) {
                     logger.error("Error parsing JSON callgraph for '"
                             + Paths.get(path).getFileName() + "'", e);
@@ -210,74 +417,44 @@ public class MetadataDatabasePlugin extends Plugin {
                     return;
                 }
             }
-            final var artifact = callgraph.product + "@" + callgraph.version;
-            final String groupId;
-            final String artifactId;
-            if (callgraph.product.contains(":")) {
-                groupId = callgraph.product.split(":")[0];
-                artifactId = callgraph.product.split(":")[1];
-            } else {
-                final var productParts = callgraph.product.split("\\.");
-                groupId = String.join(".", Arrays.copyOf(productParts, productParts.length - 1));
-                artifactId = productParts[productParts.length - 1];
-            }
-            var version = callgraph.version;
-            var forge = callgraph.forge;
-            var product = artifactId + "_" + groupId + "_" + version;
-
-            var firstLetter = artifactId.substring(0, 1);
-
-            outputPath = File.separator + forge + File.separator
-                    + firstLetter + File.separator
-                    + artifactId + File.separator + product + ".json";
+            saveCallGraph(callgraph);
+        }
 
-            int transactionRestartCount = 0;
-            do {
-                try {
-                    var metadataDao = new MetadataDao(dslContext);
-                    dslContext.transaction(transaction -> {
-                        metadataDao.setContext(DSL.using(transaction));
-                        long id;
-                        try {
-                            id = saveToDatabaseNewFormat(callgraph, metadataDao);
-                        } catch (RuntimeException e) {
-                            logger.error("Error saving to the database: '" + artifact + "'", e);
-                            processedRecord = false;
-                            setPluginError(e);
-                            if (e instanceof DataAccessException) {
-                                logger.info("Restarting transaction for '" + artifact + "'");
-                                restartTransaction = true;
-                            } else {
-                                restartTransaction = false;
-                            }
-                            throw e;
-                        }
-                        if (getPluginError() == null) {
-                            processedRecord = true;
-                            restartTransaction = false;
-                            logger.info("Saved the '" + artifact + "' callgraph metadata "
-                                    + "to the database with package version ID = " + id);
-                        }
-                    });
-                } catch (Exception expected) {
+        /**
+         * Saves a callgraph of the new format to the database, restarting the transaction
+         * if needed.
+         *
+         * @param callgraph callgraph to save
+         */
+        private void saveCallGraph(ExtendedRevisionCallGraph callgraph) {
+            final var artifact = callgraph.product + "@" + callgraph.version;
+            try {
+                if (isSaved(callgraph.product, callgraph.forge, callgraph.version,
+                        callgraph.getCgGenerator(), artifact)) {
+                    return;
                 }
-                transactionRestartCount++;
-            } while (restartTransaction && !processedRecord
-                    && transactionRestartCount < transactionRestartLimit);
+                ensurePartitions();
+                // Built once, whatever the number of attempts to save them
+                var records = runTransaction(metadataDao ->
+                        prepareNewFormat(callgraph, metadataDao), artifact);
+                long id = runTransaction(metadataDao ->
+                        saveToDatabaseNewFormat(callgraph, records, metadataDao), artifact);
+                saved(artifact, id);
+            } catch (RuntimeException e) {
+                failed(artifact, e);
+            }
         }
 
         @Override
         public Optional<String> produce() {
             if (gidGraph == null) {
                 return Optional.empty();
-            } else {
-                return Optional.of(gidGraph.toJSONString());
             }
-        }
-
-        @Override
-        public String getOutputPath() {
-            return outputPath;
+            // Large graphs would exceed the maximum size of Kafka messages as JSON
+            if (CallGraphCodec.exceedsBinaryThreshold(gidGraph)) {
+                return Optional.of(CallGraphCodec.toPayload(gidGraph.toBinary(true)));
+            }
+            return Optional.of(gidGraph.toJSONString());
         }
 
         /**
@@ -315,6 +492,7 @@ public class MetadataDatabasePlugin extends Plugin {
             }
             final var cha = callGraph.getClassHierarchy();
             var internalCallables = new ArrayList<CallablesRecord>();
+            var internalUris = new ArrayList<String>();
             for (var fastenUri : cha.keySet()) {
                 var type = cha.get(fastenUri);
                 var moduleMetadata = new JSONObject();
@@ -330,8 +508,9 @@ public class MetadataDatabasePlugin extends Plugin {
                 for (var methodEntry : type.getMethods().entrySet()) {
                     var localId = (long) methodEntry.getKey();
                     var uri = methodEntry.getValue().toString();
-                    internalCallables.add(new CallablesRecord(localId, moduleId, uri, true,
+                    internalCallables.add(new CallablesRecord(localId, moduleId, null, true,
                             null, null));
+                    internalUris.add(uri);
                 }
             }
             final var graph = callGraph.getGraph();
@@ -340,36 +519,45 @@ public class MetadataDatabasePlugin extends Plugin {
             for (var call : internalCalls) {
                 var sourceLocalId = (long) call.get(0);
                 var targetLocalId = (long) call.get(1);
-                internalEdges.add(
-                        new EdgesRecord(sourceLocalId, targetLocalId, JSONB.valueOf("{}")));
+                internalEdges.add(new EdgesRecord(sourceLocalId, targetLocalId, null));
             }
-            var nodes = new LinkedList<Long>();
             final var externalCalls = graph.getExternalCalls();
             var externalEdges = new ArrayList<EdgesRecord>(graph.getExternalCalls().size());
+            // Each external callable is inserted once, however many calls target it
+            var externalIndices = new LinkedHashMap<String, Integer>();
+            var externalTargets = new ArrayList<Integer>(externalCalls.size());
             for (var callEntry : externalCalls.entrySet()) {
                 var call = callEntry.getKey();
                 var sourceLocalId = (long) call.getKey();
                 var uri = call.getValue().toString();
-                var targetId = metadataDao.insertCallable(-1L, uri, false, null, null);
-                nodes.add(targetId);
-                var edgeMetadata = new JSONObject(callEntry.getValue());
-                externalEdges.add(new EdgesRecord(sourceLocalId, targetId,
-                        JSONB.valueOf(edgeMetadata.toString())));
-            }
-            final int batchSize = 4096;
-            var internalCallablesIds = new ArrayList<Long>(internalCallables.size());
-            final var internalCallablesIterator = internalCallables.iterator();
-            while (internalCallablesIterator.hasNext()) {
-                var callablesBatch = new ArrayList<CallablesRecord>(batchSize);
-                while (internalCallablesIterator.hasNext() && callablesBatch.size() < batchSize) {
-                    callablesBatch.add(internalCallablesIterator.next());
-                }
-                var ids = metadataDao.batchInsertCallables(callablesBatch);
-                internalCallablesIds.addAll(ids);
+                externalTargets.add(externalIndices.computeIfAbsent(uri,
+                        u -> externalIndices.size()));
+                // Legacy call graphs only count invocation types, without call sites
+                externalEdges.add(new EdgesRecord(sourceLocalId, null, null));
             }
+            var callables = new ArrayList<CallablesRecord>(internalCallables);
+            var uris = new ArrayList<String>(internalUris);
+            for (var uri : externalIndices.keySet()) {
+                callables.add(new CallablesRecord(null, -1L, null, false, null, null));
+                uris.add(uri);
+            }
+            var uriIds = internUris(uris, metadataDao);
+            for (int i = 0; i < callables.size(); i++) {
+                callables.get(i).setUriId(uriIds.get(i));
+            }
+            var callablesIds = insertCallables(callables, metadataDao);
+            var internalCallablesIds = callablesIds.subList(0, internalCallables.size());
+            var externalCallablesIds = callablesIds.subList(internalCallables.size(),
+                    callablesIds.size());
+            var nodes = new LinkedList<Long>();
             for (var internalId : internalCallablesIds) {
                 nodes.addFirst(internalId);
             }
+            for (int i = 0; i < externalEdges.size(); i++) {
+                var targetId = externalCallablesIds.get(externalTargets.get(i));
+                nodes.add(targetId);
+                externalEdges.get(i).setTargetId(targetId);
+            }
             var internalLidToGidMap = new HashMap<Long, Long>();
             for (int i = 0; i < internalCallables.size(); i++) {
                 internalLidToGidMap.put(internalCallables.get(i).getId(),
@@ -385,14 +573,7 @@ public class MetadataDatabasePlugin extends Plugin {
             var edges = new ArrayList<EdgesRecord>(graph.size());
             edges.addAll(internalEdges);
             edges.addAll(externalEdges);
-            final var edgesIterator = edges.iterator();
-            while (edgesIterator.hasNext()) {
-                var edgesBatch = new ArrayList<EdgesRecord>(batchSize);
-                while (edgesIterator.hasNext() && edgesBatch.size() < batchSize) {
-                    edgesBatch.add(edgesIterator.next());
-                }
-                metadataDao.batchInsertEdges(edgesBatch);
-            }
+            insertEdges(edges, metadataDao);
             this.gidGraph = new GidGraph(packageVersionId, callGraph.product, callGraph.version,
                     nodes, internalCallablesIds.size(), edges);
             return packageVersionId;
@@ -407,112 +588,245 @@ public class MetadataDatabasePlugin extends Plugin {
          */
         public long saveToDatabaseNewFormat(ExtendedRevisionCallGraph callGraph,
                                             MetadataDao metadataDao) {
-            final var timestamp = this.getProperTimestamp(callGraph.timestamp);
-            final long packageId = metadataDao.insertPackage(callGraph.product, callGraph.forge,
-                    null, null, null);
-            final long packageVersionId = metadataDao.insertPackageVersion(packageId,
-                    callGraph.getCgGenerator(), callGraph.version, timestamp, null);
+            return saveToDatabaseNewFormat(callGraph, prepareNewFormat(callGraph, metadataDao),
+                    metadataDao);
+        }
+
+        /**
+         * Records of a callgraph of the new format, built once and reused by every attempt to
+         * save it. The URIs of its callables and receiver types are interned beforehand, as
+         * their IDs in the dictionary do not depend on the attempt, while the IDs allocated by
+         * an attempt are set on the records by the attempt.
+         */
+        static class CallGraphRecords {
+
+            final List<ModulesRecord> modules = new ArrayList<>();
+
+            // Types of the same source file (e.g., nested classes) share the file record
+            final List<FilesRecord> files = new ArrayList<>();
+
+            /**
+             * Index in {@link #files} of the file of each module.
+             */
+            final List<Integer> moduleFiles = new ArrayList<>();
+
+            /**
+             * Callables, identified by their local ID, internal ones first.
+             */
+            final List<CallablesRecord> callables = new ArrayList<>();
+
+            /**
+             * Index in {@link #modules} of the module of each callable, or -1 for the global
+             * module of external callables.
+             */
+            final List<Integer> callableModules = new ArrayList<>();
+
+            int numInternal = 0;
+
+            final List<EdgesRecord> edges = new ArrayList<>();
+
+            /**
+             * Local IDs of the source and target callables of each edge.
+             */
+            final List<long[]> edgeCallables = new ArrayList<>();
+        }
+
+        /**
+         * Builds the records of a callgraph of the new format, and interns their URIs.
+         *
+         * @param callGraph   Call graph to save to the database.
+         * @param metadataDao Data Access Object to intern the URIs in the database
+         * @return records of the callgraph
+         */
+        CallGraphRecords prepareNewFormat(ExtendedRevisionCallGraph callGraph,
+                                          MetadataDao metadataDao) {
+            var records = new CallGraphRecords();
             var cha = callGraph.getClassHierarchy();
             var internalTypes = cha.get(ExtendedRevisionCallGraph.Scope.internalTypes);
-            var callables = new ArrayList<CallablesRecord>();
-            for (var fastenUri : internalTypes.keySet()) {
-                var type = internalTypes.get(fastenUri);
-                var moduleMetadata = new JSONObject();
-                moduleMetadata.put("superInterfaces",
-                        ExtendedRevisionCallGraph.Type.toListOfString(type.getSuperInterfaces()));
-                moduleMetadata.put("superClasses",
-                        ExtendedRevisionCallGraph.Type.toListOfString(type.getSuperClasses()));
-                moduleMetadata.put("access", type.getAccess());
-                moduleMetadata.put("final", type.isFinal());
-                long moduleId = metadataDao.insertModule(packageVersionId, fastenUri.toString(),
-                        null, moduleMetadata);
-                var fileName = type.getSourceFileName();
-                var fileId = metadataDao.insertFile(packageVersionId, fileName, null, null, null);
-                metadataDao.insertModuleContent(moduleId, fileId);
-                for (var methodEntry : type.getMethods().entrySet()) {
-                    var localId = (long) methodEntry.getKey();
-                    var uri = methodEntry.getValue().getUri().toString();
-                    var callableMetadata = new JSONObject(methodEntry.getValue().getMetadata());
-                    callables.add(new CallablesRecord(localId, moduleId, uri, true,
-                            null, JSONB.valueOf(callableMetadata.toString())));
-                }
-            }
-            final var numInternal = callables.size();
             var externalTypes = cha.get(ExtendedRevisionCallGraph.Scope.externalTypes);
-            for (var fastenUri : externalTypes.keySet()) {
-                var type = externalTypes.get(fastenUri);
-                var moduleMetadata = new JSONObject();
-                moduleMetadata.put("superInterfaces",
-                        ExtendedRevisionCallGraph.Type.toListOfString(type.getSuperInterfaces()));
-                moduleMetadata.put("superClasses",
-                        ExtendedRevisionCallGraph.Type.toListOfString(type.getSuperClasses()));
-                moduleMetadata.put("access", type.getAccess());
-                moduleMetadata.put("final", type.isFinal());
-                long moduleId = metadataDao.insertModule(packageVersionId, fastenUri.toString(),
-                        null, moduleMetadata);
-                var fileName = type.getSourceFileName();
-                var fileId = metadataDao.insertFile(packageVersionId, fileName, null, null, null);
-                metadataDao.insertModuleContent(moduleId, fileId);
-                for (var methodEntry : type.getMethods().entrySet()) {
-                    var localId = (long) methodEntry.getKey();
-                    var uri = methodEntry.getValue().getUri().toString();
-                    var callableMetadata = new JSONObject(methodEntry.getValue().getMetadata());
-                    callables.add(new CallablesRecord(localId, -1L, uri, false,
-                            null, JSONB.valueOf(callableMetadata.toString())));
+            var fileIndices = new HashMap<String, Integer>();
+            var uris = new ArrayList<String>();
+            for (var typeMap : List.of(internalTypes, externalTypes)) {
+                // Callables of external types belong to the global module of external callables
+                final var internal = typeMap == internalTypes;
+                for (var typeEntry : typeMap.entrySet()) {
+                    var type = typeEntry.getValue();
+                    var moduleMetadata = new JSONObject();
+                    moduleMetadata.put("superInterfaces", ExtendedRevisionCallGraph.Type
+                            .toListOfString(type.getSuperInterfaces()));
+                    moduleMetadata.put("superClasses", ExtendedRevisionCallGraph.Type
+                            .toListOfString(type.getSuperClasses()));
+                    moduleMetadata.put("access", type.getAccess());
+                    moduleMetadata.put("final", type.isFinal());
+                    final var moduleIndex = records.modules.size();
+                    records.modules.add(new ModulesRecord(null, null,
+                            typeEntry.getKey().toString(), null,
+                            JSONB.valueOf(moduleMetadata.toString())));
+                    var fileName = type.getSourceFileName();
+                    records.moduleFiles.add(fileIndices.computeIfAbsent(fileName, f -> {
+                        records.files.add(new FilesRecord(null, null, f, null, null, null));
+                        return records.files.size() - 1;
+                    }));
+                    for (var methodEntry : type.getMethods().entrySet()) {
+                        var localId = (long) methodEntry.getKey();
+                        var uri = methodEntry.getValue().getUri().toString();
+                        var callableMetadata = new JSONObject(methodEntry.getValue().getMetadata());
+                        records.callables.add(new CallablesRecord(localId, null, null, internal,
+                                null, JSONB.valueOf(callableMetadata.toString())));
+                        records.callableModules.add(internal ? moduleIndex : -1);
+                        uris.add(uri);
+                    }
                 }
-            }
-            final int batchSize = 4096;
-            var callablesIds = new ArrayList<Long>(callables.size());
-            final var callablesIterator = callables.iterator();
-            while (callablesIterator.hasNext()) {
-                var callablesBatch = new ArrayList<CallablesRecord>(batchSize);
-                while (callablesIterator.hasNext() && callablesBatch.size() < batchSize) {
-                    callablesBatch.add(callablesIterator.next());
+                if (internal) {
+                    records.numInternal = records.callables.size();
                 }
-                var ids = metadataDao.batchInsertCallables(callablesBatch);
-                callablesIds.addAll(ids);
             }
-            var lidToGidMap = new HashMap<Long, Long>();
-            for (int i = 0; i < callables.size(); i++) {
-                lidToGidMap.put(callables.get(i).getId(), callablesIds.get(i));
+            var uriIds = internUris(uris, metadataDao);
+            for (int i = 0; i < records.callables.size(); i++) {
+                records.callables.get(i).setUriId(uriIds.get(i));
             }
+
             final var graph = callGraph.getGraph();
-            final var numEdges = graph.getInternalCalls().size() + graph.getExternalCalls().size();
-            var graphCalls = graph.getInternalCalls();
-            graphCalls.putAll(graph.getExternalCalls());
-            var edges = new ArrayList<EdgesRecord>(numEdges);
-            for (var edgeEntry : graphCalls.entrySet()) {
-                var localSource = (long) edgeEntry.getKey().get(0);
-                var localTarget = (long) edgeEntry.getKey().get(1);
-                var globalSource = lidToGidMap.get(localSource);
-                var globalTarget = lidToGidMap.get(localTarget);
-                var metadata = new JSONObject();
-                for (var obj : edgeEntry.getValue().keySet()) {
-                    var pc = obj.toString();
-                    var metadataMap = (Map<String, Object>) edgeEntry.getValue()
-                            .get(Integer.parseInt(pc));
-                    var callMetadata = new JSONObject();
-                    for (var key : metadataMap.keySet()) {
-                        callMetadata.put(key, metadataMap.get(key));
+            final var graphCalls = List.of(graph.getInternalCalls(), graph.getExternalCalls());
+            var receivers = new LinkedHashSet<String>();
+            for (var calls : graphCalls) {
+                for (var callSites : calls.values()) {
+                    for (var callSite : callSites.values()) {
+                        var receiver = ((Map<?, ?>) callSite).get("receiver");
+                        if (receiver != null) {
+                            receivers.add(receiver.toString());
+                        }
                     }
-                    metadata.put(pc, callMetadata);
                 }
-                edges.add(new EdgesRecord(globalSource, globalTarget,
-                        JSONB.valueOf(metadata.toString())));
-            }
-            final var edgesIterator = edges.iterator();
-            while (edgesIterator.hasNext()) {
-                var edgesBatch = new ArrayList<EdgesRecord>(batchSize);
-                while (edgesIterator.hasNext() && edgesBatch.size() < batchSize) {
-                    edgesBatch.add(edgesIterator.next());
+            }
+            var receiverUris = new ArrayList<>(receivers);
+            var receiverIds = internUris(receiverUris, metadataDao);
+            var receiverIdMap = new HashMap<String, Long>(receiverUris.size());
+            for (int i = 0; i < receiverUris.size(); i++) {
+                receiverIdMap.put(receiverUris.get(i), receiverIds.get(i));
+            }
+            for (var calls : graphCalls) {
+                for (var edgeEntry : calls.entrySet()) {
+                    var localSource = (long) edgeEntry.getKey().get(0);
+                    var localTarget = (long) edgeEntry.getKey().get(1);
+                    var callSites = CallSites.fromJSON(edgeEntry.getValue(), receiverIdMap::get);
+                    records.edges.add(callSites.toRecord(localSource, localTarget));
+                    records.edgeCallables.add(new long[]{localSource, localTarget});
                 }
-                metadataDao.batchInsertEdges(edgesBatch);
             }
+            return records;
+        }
+
+        /**
+         * Saves the records of a callgraph of new format to the database.
+         *
+         * @param callGraph   Call graph to save to the database.
+         * @param records     Records of the callgraph, built by
+         *                    {@link #prepareNewFormat(ExtendedRevisionCallGraph, MetadataDao)}
+         * @param metadataDao Data Access Object to insert records in the database
+         * @return Package ID saved in the database
+         */
+        long saveToDatabaseNewFormat(ExtendedRevisionCallGraph callGraph,
+                                     CallGraphRecords records, MetadataDao metadataDao) {
+            final var timestamp = this.getProperTimestamp(callGraph.timestamp);
+            final long packageId = metadataDao.insertPackage(callGraph.product, callGraph.forge,
+                    null, null, null);
+            final long packageVersionId = metadataDao.insertPackageVersion(packageId,
+                    callGraph.getCgGenerator(), callGraph.version, timestamp, null);
+            for (var module : records.modules) {
+                module.setPackageVersionId(packageVersionId);
+            }
+            for (var file : records.files) {
+                file.setPackageVersionId(packageVersionId);
+            }
+            var moduleIds = metadataDao.batchInsertModules(records.modules);
+            var fileIds = metadataDao.batchInsertFiles(records.files);
+            var moduleContents = new ArrayList<ModuleContentsRecord>(records.modules.size());
+            for (int i = 0; i < records.modules.size(); i++) {
+                moduleContents.add(new ModuleContentsRecord(moduleIds.get(i),
+                        fileIds.get(records.moduleFiles.get(i))));
+            }
+            metadataDao.batchInsertModuleContents(moduleContents);
+
+            for (int i = 0; i < records.callables.size(); i++) {
+                final int moduleIndex = records.callableModules.get(i);
+                records.callables.get(i)
+                        .setModuleId(moduleIndex >= 0 ? moduleIds.get(moduleIndex) : -1L);
+            }
+            var callablesIds = insertCallables(records.callables, metadataDao);
+            var nodes = new long[callablesIds.size()];
+            var lidToGidMap = new Long2LongOpenHashMap(nodes.length);
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = callablesIds.get(i);
+                lidToGidMap.put(records.callables.get(i).getId().longValue(), nodes[i]);
+            }
+            var sources = new long[records.edges.size()];
+            var targets = new long[records.edges.size()];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = lidToGidMap.get(records.edgeCallables.get(i)[0]);
+                targets[i] = lidToGidMap.get(records.edgeCallables.get(i)[1]);
+                var edge = records.edges.get(i);
+                edge.setSourceId(sources[i]);
+                edge.setTargetId(targets[i]);
+            }
+            insertEdges(records.edges, metadataDao);
             this.gidGraph = new GidGraph(packageVersionId, callGraph.product, callGraph.version,
-                    callablesIds, numInternal, edges);
+                    nodes, records.numInternal, sources, targets);
             return packageVersionId;
         }
 
+        /**
+         * Inserts callables in the database, with a single batch or, for large graphs, with
+         * the COPY protocol. Their URIs must have been interned.
+         *
+         * @param callables   callables to insert
+         * @param metadataDao Data Access Object to insert records in the database
+         * @return IDs of the callables, in the same order
+         */
+        private List<Long> insertCallables(List<CallablesRecord> callables,
+                                           MetadataDao metadataDao) {
+            if (callables.isEmpty()) {
+                return new ArrayList<>();
+            }
+            if (callables.size() > BULK_LOAD_THRESHOLD) {
+                return metadataDao.bulkInsertCallables(callables);
+            }
+            return metadataDao.batchInsertCallables(callables);
+        }
+
+        /**
+         * Interns URIs in the 'callable_uris' dictionary, with a single batch or, for many URIs,
+         * with the COPY protocol.
+         *
+         * @param uris        URIs to intern
+         * @param metadataDao Data Access Object to insert records in the database
+         * @return IDs of the URIs, in the same order
+         */
+        private List<Long> internUris(List<String> uris, MetadataDao metadataDao) {
+            if (uris.isEmpty()) {
+                return new ArrayList<>();
+            }
+            if (uris.size() > BULK_LOAD_THRESHOLD) {
+                return metadataDao.bulkInsertCallableUris(uris);
+            }
+            return metadataDao.batchInsertCallableUris(uris);
+        }
+
+        /**
+         * Inserts edges in the database, with a single batch or, for large graphs, with the COPY
+         * protocol.
+         *
+         * @param edges       edges to insert
+         * @param metadataDao Data Access Object to insert records in the database
+         */
+        private void insertEdges(List<EdgesRecord> edges, MetadataDao metadataDao) {
+            if (edges.size() > BULK_LOAD_THRESHOLD) {
+                metadataDao.bulkInsertEdges(edges);
+            } else if (!edges.isEmpty()) {
+                metadataDao.batchInsertEdges(edges);
+            }
+        }
+
         private Timestamp getProperTimestamp(long timestamp) {
             if (timestamp == -1) {
                 return null;
@@ -8,19 +8,35 @@ CREATE TABLE packages
     created_at   TIMESTAMP
 );
 
+-- Package versions, callables and edges are partitioned (see MetadataPartitions). As the
+-- partition key must be part of every unique constraint, their primary keys include it, and
+-- the foreign keys referencing them are not declared.
 CREATE TABLE package_versions
 (
-    id           BIGSERIAL PRIMARY KEY,
+    id           BIGSERIAL,
     package_id   BIGINT NOT NULL REFERENCES packages (id),
     version      TEXT   NOT NULL,
     cg_generator TEXT   NOT NULL,
     created_at   TIMESTAMP,
-    metadata     JSONB
-);
+    metadata     JSONB,
+    PRIMARY KEY (id, package_id),
+    CONSTRAINT unique_package_version_generator UNIQUE (package_id, version, cg_generator)
+) PARTITION BY HASH (package_id);
+
+DO
+$$
+    BEGIN
+        FOR i IN 0..15
+            LOOP
+                EXECUTE format('CREATE TABLE package_versions_p%s PARTITION OF package_versions '
+                                   'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', i, i);
+            END LOOP;
+    END
+$$;
 
 CREATE TABLE dependencies
 (
-    package_version_id BIGINT NOT NULL REFERENCES package_versions (id),
+    package_version_id BIGINT NOT NULL,
     dependency_id      BIGINT NOT NULL REFERENCES packages (id),
     version_range      TEXT[] NOT NULL,
     metadata           JSONB
@@ -29,7 +45,7 @@ CREATE TABLE dependencies
 CREATE TABLE modules
 (
     id                 BIGSERIAL PRIMARY KEY,
-    package_version_id BIGINT NOT NULL REFERENCES package_versions (id),
+    package_version_id BIGINT NOT NULL,
     namespace          TEXT   NOT NULL,
     created_at         TIMESTAMP,
     metadata           JSONB
@@ -38,7 +54,7 @@ CREATE TABLE modules
 CREATE TABLE files
 (
     id                 BIGSERIAL PRIMARY KEY,
-    package_version_id BIGINT NOT NULL REFERENCES package_versions (id),
+    package_version_id BIGINT NOT NULL,
     path               TEXT   NOT NULL,
     checksum           BYTEA,
     created_at         TIMESTAMP,
@@ -54,7 +70,7 @@ CREATE TABLE module_contents
 CREATE TABLE binary_modules
 (
     id                 BIGSERIAL PRIMARY KEY,
-    package_version_id BIGINT NOT NULL REFERENCES package_versions (id),
+    package_version_id BIGINT NOT NULL,
     name               TEXT   NOT NULL,
     created_at         TIMESTAMP,
     metadata           JSONB
@@ -66,24 +82,40 @@ CREATE TABLE binary_module_contents
     file_id          BIGINT NOT NULL REFERENCES files (id)
 );
 
+-- Dictionary of the FASTEN URIs of callables, keyed by their MD5 digest
+CREATE TABLE callable_uris
+(
+    id         BIGSERIAL PRIMARY KEY,
+    uri_hash   BYTEA NOT NULL,
+    fasten_uri TEXT  NOT NULL
+);
+
 CREATE TABLE callables
 (
-    id               BIGSERIAL PRIMARY KEY,
+    id               BIGSERIAL,
     module_id        BIGINT  NOT NULL REFERENCES modules (id),
-    fasten_uri       TEXT    NOT NULL,
+    uri_id           BIGINT  NOT NULL REFERENCES callable_uris (id),
     is_internal_call BOOLEAN NOT NULL,
     created_at       TIMESTAMP,
-    metadata         JSONB
-);
+    metadata         JSONB,
+    PRIMARY KEY (id, module_id),
+    CONSTRAINT unique_uri_call UNIQUE (module_id, uri_id, is_internal_call)
+) PARTITION BY RANGE (module_id);
+
+-- External callables all belong to the module -1
+CREATE TABLE callables_external PARTITION OF callables FOR VALUES FROM (MINVALUE) TO (0);
+CREATE TABLE callables_default PARTITION OF callables DEFAULT;
 
 CREATE TABLE edges
 (
-    source_id BIGINT NOT NULL REFERENCES callables (id),
-    target_id BIGINT NOT NULL REFERENCES callables (id),
-    metadata  JSONB  NOT NULL
-);
+    source_id  BIGINT NOT NULL,
+    target_id  BIGINT NOT NULL,
+    call_sites BYTEA  NOT NULL,
+    CONSTRAINT unique_source_target UNIQUE (source_id, target_id)
+) PARTITION BY RANGE (source_id);
+
+CREATE TABLE edges_default PARTITION OF edges DEFAULT;
 
--- CREATE INDEX CONCURRENTLY package_versions_package_id ON package_versions USING btree (package_id);
 -- CREATE INDEX CONCURRENTLY dependencies_package_version_id ON dependencies USING btree (package_version_id);
 -- CREATE INDEX CONCURRENTLY dependencies_dependency_id ON dependencies USING btree (dependency_id);
 -- CREATE INDEX CONCURRENTLY files_package_version_id ON files USING btree (package_version_id);
@@ -101,10 +133,6 @@ CREATE UNIQUE INDEX CONCURRENTLY unique_package_forge ON packages USING btree (p
 ALTER TABLE packages
     ADD CONSTRAINT unique_package_forge UNIQUE USING INDEX unique_package_forge;
 
-CREATE UNIQUE INDEX CONCURRENTLY unique_package_version_generator ON package_versions USING btree (package_id, version, cg_generator);
-ALTER TABLE package_versions
-    ADD CONSTRAINT unique_package_version_generator UNIQUE USING INDEX unique_package_version_generator;
-
 CREATE UNIQUE INDEX CONCURRENTLY unique_version_dependency_range ON dependencies USING btree (package_version_id, dependency_id, version_range);
 ALTER TABLE dependencies
     ADD CONSTRAINT unique_version_dependency_range UNIQUE USING INDEX unique_version_dependency_range;
@@ -129,13 +157,13 @@ CREATE UNIQUE INDEX CONCURRENTLY unique_version_path ON files USING btree (packa
 ALTER TABLE files
     ADD CONSTRAINT unique_version_path UNIQUE USING INDEX unique_version_path;
 
-CREATE UNIQUE INDEX CONCURRENTLY unique_uri_call ON callables USING btree (module_id, fasten_uri, is_internal_call);
-ALTER TABLE callables
-    ADD CONSTRAINT unique_uri_call UNIQUE USING INDEX unique_uri_call;
+CREATE UNIQUE INDEX CONCURRENTLY unique_uri_hash ON callable_uris USING btree (uri_hash);
+ALTER TABLE callable_uris
+    ADD CONSTRAINT unique_uri_hash UNIQUE USING INDEX unique_uri_hash;
 
-CREATE UNIQUE INDEX CONCURRENTLY unique_source_target ON edges USING btree (source_id, target_id);
-ALTER TABLE edges
-    ADD CONSTRAINT unique_source_target UNIQUE USING INDEX unique_source_target;
+-- Indexes of the lookups of MetadataDao (partitioned indexes cannot be built concurrently)
+CREATE INDEX callables_uri_id ON callables USING btree (uri_id);
+CREATE INDEX package_versions_package_id ON package_versions USING btree (package_id, id);
 
 ALTER TABLE callables
     ADD CONSTRAINT check_module_id CHECK ((module_id = -1 AND is_internal_call IS false) OR
@@ -19,23 +19,109 @@
 package eu.fasten.analyzer.metadataplugin;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import eu.fasten.core.data.ExtendedRevisionCallGraph;
+import eu.fasten.core.data.metadatadb.CallSites;
 import eu.fasten.core.data.metadatadb.MetadataDao;
+import eu.fasten.core.data.metadatadb.codegen.tables.Callables;
+import eu.fasten.core.data.metadatadb.codegen.tables.Edges;
+import eu.fasten.core.data.metadatadb.codegen.tables.PackageVersions;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.CallablesRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.EdgesRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.FilesRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.ModuleContentsRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.ModulesRecord;
 import eu.fasten.core.data.RevisionCallGraph;
+import eu.fasten.core.data.graphdb.GidGraph;
+import eu.fasten.core.metrics.SimpleMetricsRegistry;
 import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockDataProvider;
+import org.jooq.tools.jdbc.MockResult;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class MetadataDatabasePluginTest {
 
+    private static final String NEW_FORMAT_CALL_GRAPH = "{\n" +
+            "    \"product\": \"groupID:artifactID\",\n" +
+            "    \"nodes\": 2,\n" +
+            "    \"forge\": \"mvn\",\n" +
+            "    \"generator\": \"OPAL\",\n" +
+            "    \"version\": \"2.6\",\n" +
+            "    \"cha\": {\n" +
+            "        \"externalTypes\": {\n" +
+            "            \"/external.package/A\": {\n" +
+            "                \"access\": \"\",\n" +
+            "                \"methods\": {\n" +
+            "                    \"1\": {\n" +
+            "                        \"metadata\": {},\n" +
+            "                        \"uri\": \"/external.package/A.someMethod()%2Fjava.lang%2FObject\"\n" +
+            "                    }\n" +
+            "                },\n" +
+            "                \"final\": false,\n" +
+            "                \"superInterfaces\": [],\n" +
+            "                \"sourceFile\": \"\",\n" +
+            "                \"superClasses\": []\n" +
+            "            }\n" +
+            "        },\n" +
+            "        \"internalTypes\": {\n" +
+            "            \"/internal.package/B\": {\n" +
+            "                \"access\": \"public\",\n" +
+            "                \"methods\": {\n" +
+            "                    \"2\": {\n" +
+            "                        \"metadata\": {\n" +
+            "                            \"access\": \"public\",\n" +
+            "                            \"last\": 14,\n" +
+            "                            \"defined\": true,\n" +
+            "                            \"first\": 25\n" +
+            "                        },\n" +
+            "                        \"uri\": \"/internal.package/B.internalMethod(%2Fjava.lang%2FClass)%2Fjava.lang%2FVoidType\"\n" +
+            "                    }\n" +
+            "                },\n" +
+            "                \"final\": false,\n" +
+            "                \"superInterfaces\": [\n" +
+            "                    \"/internal.package/BInterface\"\n" +
+            "                ],\n" +
+            "                \"sourceFile\": \"B.java\",\n" +
+            "                \"superClasses\": [\n" +
+            "                    \"/java.lang/Object\"\n" +
+            "                ]\n" +
+            "            }\n" +
+            "        },\n" +
+            "        \"resolvedTypes\": {}\n" +
+            "    },\n" +
+            "    \"graph\": {\n" +
+            "        \"internalCalls\": [],\n" +
+            "        \"externalCalls\": [\n" +
+            "            [\n" +
+            "                \"2\",\n" +
+            "                \"1\",\n" +
+            "                {\"1\": {\n" +
+            "                    \"receiver\": \"/java.lang/Object\",\n" +
+            "                    \"line\": 42,\n" +
+            "                    \"type\": \"invokespecial\"\n" +
+            "                }}\n" +
+            "            ]\n" +
+            "        ],\n" +
+            "        \"resolvedCalls\": []\n" +
+            "    },\n" +
+            "    \"timestamp\": 123\n" +
+            "}\n";
+
     private MetadataDatabasePlugin.MetadataDBExtension metadataDBExtension;
 
     @BeforeEach
@@ -55,105 +141,102 @@ public class MetadataDatabasePluginTest {
     @Test
     public void saveToDatabaseNewFormatTest() throws IOException {
         var metadataDao = Mockito.mock(MetadataDao.class);
-        var json = new JSONObject("{\n" +
-                "    \"product\": \"groupID:artifactID\",\n" +
-                "    \"nodes\": 2,\n" +
-                "    \"forge\": \"mvn\",\n" +
-                "    \"generator\": \"OPAL\",\n" +
-                "    \"version\": \"2.6\",\n" +
-                "    \"cha\": {\n" +
-                "        \"externalTypes\": {\n" +
-                "            \"/external.package/A\": {\n" +
-                "                \"access\": \"\",\n" +
-                "                \"methods\": {\n" +
-                "                    \"1\": {\n" +
-                "                        \"metadata\": {},\n" +
-                "                        \"uri\": \"/external.package/A.someMethod()%2Fjava.lang%2FObject\"\n" +
-                "                    }\n" +
-                "                },\n" +
-                "                \"final\": false,\n" +
-                "                \"superInterfaces\": [],\n" +
-                "                \"sourceFile\": \"\",\n" +
-                "                \"superClasses\": []\n" +
-                "            }\n" +
-                "        },\n" +
-                "        \"internalTypes\": {\n" +
-                "            \"/internal.package/B\": {\n" +
-                "                \"access\": \"public\",\n" +
-                "                \"methods\": {\n" +
-                "                    \"2\": {\n" +
-                "                        \"metadata\": {\n" +
-                "                            \"access\": \"public\",\n" +
-                "                            \"last\": 14,\n" +
-                "                            \"defined\": true,\n" +
-                "                            \"first\": 25\n" +
-                "                        },\n" +
-                "                        \"uri\": \"/internal.package/B.internalMethod(%2Fjava.lang%2FClass)%2Fjava.lang%2FVoidType\"\n" +
-                "                    }\n" +
-                "                },\n" +
-                "                \"final\": false,\n" +
-                "                \"superInterfaces\": [\n" +
-                "                    \"/internal.package/BInterface\"\n" +
-                "                ],\n" +
-                "                \"sourceFile\": \"B.java\",\n" +
-                "                \"superClasses\": [\n" +
-                "                    \"/java.lang/Object\"\n" +
-                "                ]\n" +
-                "            }\n" +
-                "        },\n" +
-                "        \"resolvedTypes\": {}\n" +
-                "    },\n" +
-                "    \"graph\": {\n" +
-                "        \"internalCalls\": [],\n" +
-                "        \"externalCalls\": [\n" +
-                "            [\n" +
-                "                \"2\",\n" +
-                "                \"1\",\n" +
-                "                {\"1\": {\n" +
-                "                    \"receiver\": \"/java.lang/Object\",\n" +
-                "                    \"line\": 42,\n" +
-                "                    \"type\": \"invokespecial\"\n" +
-                "                }}\n" +
-                "            ]\n" +
-                "        ],\n" +
-                "        \"resolvedCalls\": []\n" +
-                "    },\n" +
-                "    \"timestamp\": 123\n" +
-                "}\n");
+        var json = new JSONObject(NEW_FORMAT_CALL_GRAPH);
         long packageId = 8;
         Mockito.when(metadataDao.insertPackage(json.getString("product"), "mvn", null, null,
                 null)).thenReturn(packageId);
         long packageVersionId = 42;
         Mockito.when(metadataDao.insertPackageVersion(packageId, json.getString("generator"),
                 json.getString("version"), new Timestamp(json.getLong("timestamp") * 1000), null)).thenReturn(packageVersionId);
+        long internalModuleId = 17;
         long externalModuleId = 16;
-        var externalModuleMetadata = new JSONObject("{" +
-                "\"access\": \"\"," +
-                "\"final\": false," +
-                "\"superInterfaces\": []," +
-                "\"sourceFile\": \"\"," +
-                "\"superClasses\": []" +
-                "}");
-        Mockito.when(metadataDao.insertModule(packageVersionId, "/external.package/A", null,
-                externalModuleMetadata)).thenReturn(externalModuleId);
+        Mockito.when(metadataDao.batchInsertModules(Mockito.anyList()))
+                .thenReturn(List.of(internalModuleId, externalModuleId));
         long fileId1 = 3;
-        Mockito.when(metadataDao.insertFile(packageVersionId, "", null, null, null)).thenReturn(fileId1);
+        long fileId2 = 4;
+        Mockito.when(metadataDao.batchInsertFiles(Mockito.anyList()))
+                .thenReturn(List.of(fileId1, fileId2));
+        Mockito.when(metadataDao.batchInsertCallableUris(Mockito.anyList())).thenReturn(List.of(7L, 8L));
         Mockito.when(metadataDao.batchInsertCallables(Mockito.anyList())).thenReturn(List.of(64L, 65L));
-        long internalModuleId = 17;
-        var internalModuleMetadata = new JSONObject("{" +
-                "\"access\": \"public\"," +
-                "\"final\": false," +
-                "\"superInterfaces\": [\"/internal.package/BInterface\"]," +
-                "\"sourceFile\": \"B.java\"," +
-                "\"superClasses\": [\"/java.lang/Object\"]" +
-                "}");
-        Mockito.when(metadataDao.insertModule(packageVersionId, "/internal.package/B", null,
-                internalModuleMetadata)).thenReturn(internalModuleId);
         long id = metadataDBExtension.saveToDatabaseNewFormat(new ExtendedRevisionCallGraph(json), metadataDao);
         assertEquals(packageVersionId, id);
         Mockito.verify(metadataDao).insertPackage(json.getString("product"), "mvn", null, null, null);
         Mockito.verify(metadataDao).insertPackageVersion(packageId, json.getString("generator"),
                 json.getString("version"), new Timestamp(json.getLong("timestamp") * 1000), null);
+        Mockito.verify(metadataDao, Mockito.never()).insertModule(Mockito.anyLong(),
+                Mockito.anyString(), Mockito.any(), Mockito.any());
+        var modules = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(metadataDao).batchInsertModules(modules.capture());
+        assertEquals(2, modules.getValue().size());
+        var internalModule = (ModulesRecord) modules.getValue().get(0);
+        assertEquals(packageVersionId, internalModule.getPackageVersionId());
+        assertEquals("/internal.package/B", internalModule.getNamespace());
+        var internalMetadata = new JSONObject(internalModule.getMetadata().data());
+        assertEquals(List.of("/internal.package/BInterface"),
+                internalMetadata.getJSONArray("superInterfaces").toList());
+        assertEquals(List.of("/java.lang/Object"),
+                internalMetadata.getJSONArray("superClasses").toList());
+        assertEquals("public", internalMetadata.getString("access"));
+        assertFalse(internalMetadata.getBoolean("final"));
+        var externalModule = (ModulesRecord) modules.getValue().get(1);
+        assertEquals(packageVersionId, externalModule.getPackageVersionId());
+        assertEquals("/external.package/A", externalModule.getNamespace());
+        var externalMetadata = new JSONObject(externalModule.getMetadata().data());
+        assertTrue(externalMetadata.getJSONArray("superInterfaces").isEmpty());
+        assertTrue(externalMetadata.getJSONArray("superClasses").isEmpty());
+        assertEquals("", externalMetadata.getString("access"));
+        assertFalse(externalMetadata.getBoolean("final"));
+        var files = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(metadataDao).batchInsertFiles(files.capture());
+        assertEquals(2, files.getValue().size());
+        var internalFile = (FilesRecord) files.getValue().get(0);
+        assertEquals(packageVersionId, internalFile.getPackageVersionId());
+        assertEquals("B.java", internalFile.getPath());
+        var externalFile = (FilesRecord) files.getValue().get(1);
+        assertEquals(packageVersionId, externalFile.getPackageVersionId());
+        assertEquals("", externalFile.getPath());
+        Mockito.verify(metadataDao).batchInsertModuleContents(List.of(
+                new ModuleContentsRecord(internalModuleId, fileId1),
+                new ModuleContentsRecord(externalModuleId, fileId2)));
+        Mockito.verify(metadataDao).batchInsertCallables(Mockito.argThat(callables ->
+                callables.size() == 2
+                        && callables.get(0).getModuleId() == internalModuleId
+                        && callables.get(1).getModuleId() == -1L
+                        && callables.get(0).getUriId() == 7L
+                        && callables.get(1).getUriId() == 8L));
+    }
+
+    @Test
+    public void saveToDatabaseNewFormatRetryTest() {
+        var metadataDao = Mockito.mock(MetadataDao.class);
+        var callGraph = new ExtendedRevisionCallGraph(new JSONObject(NEW_FORMAT_CALL_GRAPH));
+        Mockito.when(metadataDao.batchInsertCallableUris(Mockito.anyList()))
+                .thenReturn(List.of(7L, 8L)).thenReturn(List.of(9L));
+        var records = metadataDBExtension.prepareNewFormat(callGraph, metadataDao);
+        Mockito.verify(metadataDao, Mockito.times(2)).batchInsertCallableUris(Mockito.anyList());
+        assertEquals(2, records.callables.size());
+        assertEquals(1, records.edges.size());
+
+        // Each attempt sets the IDs allocated by the database on the same records
+        Mockito.when(metadataDao.insertPackageVersion(Mockito.anyLong(), Mockito.anyString(),
+                Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(42L, 43L);
+        Mockito.when(metadataDao.batchInsertModules(Mockito.anyList()))
+                .thenReturn(List.of(17L, 16L), List.of(27L, 26L));
+        Mockito.when(metadataDao.batchInsertFiles(Mockito.anyList()))
+                .thenReturn(List.of(3L, 4L), List.of(13L, 14L));
+        Mockito.when(metadataDao.batchInsertCallables(Mockito.anyList()))
+                .thenReturn(List.of(64L, 65L), List.of(74L, 75L));
+        assertEquals(42L, metadataDBExtension.saveToDatabaseNewFormat(callGraph, records,
+                metadataDao));
+        assertEquals(43L, metadataDBExtension.saveToDatabaseNewFormat(callGraph, records,
+                metadataDao));
+
+        Mockito.verify(metadataDao, Mockito.times(2)).batchInsertCallableUris(Mockito.anyList());
+        assertEquals(27L, records.callables.get(0).getModuleId());
+        assertEquals(43L, records.modules.get(0).getPackageVersionId());
+        assertEquals(74L, records.edges.get(0).getSourceId());
+        assertEquals(75L, records.edges.get(0).getTargetId());
+        assertEquals(9L, CallSites.of(records.edges.get(0)).getReceiver(0));
     }
 
     @Test
@@ -212,6 +295,7 @@ public class MetadataDatabasePluginTest {
                 moduleMetadata)).thenReturn(moduleId);
         long fileId = 3;
         Mockito.when(metadataDao.insertFile(packageVersionId, "file.java", null, null, null)).thenReturn(fileId);
+        Mockito.when(metadataDao.batchInsertCallableUris(Mockito.anyList())).thenReturn(List.of(7L, 8L, 9L));
         Mockito.when(metadataDao.batchInsertCallables(Mockito.anyList())).thenReturn(List.of(64L, 65L, 100L));
         long id = metadataDBExtension.saveToDatabaseOldFormat(new RevisionCallGraph(json), metadataDao);
         assertEquals(packageVersionId, id);
@@ -219,6 +303,19 @@ public class MetadataDatabasePluginTest {
         Mockito.verify(metadataDao).insertPackage(json.getString("product"), "mvn", null, null, null);
         Mockito.verify(metadataDao).insertPackageVersion(packageId, json.getString("generator"),
                 json.getString("version"), new Timestamp(json.getLong("timestamp") * 1000), null);
+        // Internal and external callables are inserted together in a single batch
+        var uris = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(metadataDao).batchInsertCallableUris(uris.capture());
+        assertEquals(3, uris.getValue().size());
+        assertEquals("///dep/service.call()%2Fjava.lang%2FObject", uris.getValue().get(2));
+        var callables = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(metadataDao).batchInsertCallables(callables.capture());
+        var external = (CallablesRecord) callables.getValue().get(2);
+        assertEquals(-1L, external.getModuleId());
+        assertEquals(9L, external.getUriId());
+        assertFalse(external.getIsInternalCall());
+        Mockito.verify(metadataDao, Mockito.never()).insertCallable(Mockito.anyLong(),
+                Mockito.anyString(), Mockito.anyBoolean(), Mockito.any(), Mockito.any());
     }
 
     @Test
@@ -293,6 +390,7 @@ public class MetadataDatabasePluginTest {
                 moduleMetadata)).thenReturn(moduleId);
         long fileId = 3;
         Mockito.when(metadataDao.insertFile(packageVersionId, "file.java", null, null, null)).thenReturn(fileId);
+        Mockito.when(metadataDao.batchInsertCallableUris(Mockito.anyList())).thenReturn(List.of(7L, 8L, 9L));
         Mockito.when(metadataDao.batchInsertCallables(Mockito.anyList())).thenReturn(List.of(64L, 65L, 100L));
         long id = metadataDBExtension.saveToDatabaseOldFormat(new RevisionCallGraph(json), metadataDao);
         assertEquals(packageVersionId, id);
@@ -375,6 +473,7 @@ public class MetadataDatabasePluginTest {
                 moduleMetadata)).thenReturn(moduleId);
         long fileId = 3;
         Mockito.when(metadataDao.insertFile(packageVersionId, "file.java", null, null, null)).thenReturn(fileId);
+        Mockito.when(metadataDao.batchInsertCallableUris(Mockito.anyList())).thenReturn(List.of(7L, 8L, 9L));
         Mockito.when(metadataDao.batchInsertCallables(Mockito.anyList())).thenReturn(List.of(64L, 65L, 100L));
         metadataDBExtension.setPluginError(new RuntimeException());
         long id = metadataDBExtension.saveToDatabaseOldFormat(new RevisionCallGraph(json), metadataDao);
@@ -386,6 +485,68 @@ public class MetadataDatabasePluginTest {
                 json.getString("version"), null, null);
     }
 
+    @Test
+    public void replayTest() {
+        // The callgraph has already been saved with package version ID 42
+        MockDataProvider provider = ctx -> {
+            var sql = ctx.sql();
+            var mock = DSL.using(SQLDialect.POSTGRES);
+            if (sql.contains("\"edges\"")) {
+                var result = mock.newResult(Edges.EDGES);
+                result.add(new EdgesRecord(100L, 7L, new byte[0]));
+                result.add(new EdgesRecord(100L, 101L, new byte[0]));
+                return new MockResult[]{new MockResult(result.size(), result)};
+            }
+            if (sql.contains("where exists")) {
+                var one = DSL.field("one", SQLDataType.INTEGER);
+                var result = mock.newResult(one);
+                var record = mock.newRecord(one);
+                record.set(one, 1);
+                result.add(record);
+                return new MockResult[]{new MockResult(1, result)};
+            }
+            if (sql.contains("\"modules\"")) {
+                var result = mock.newResult(Callables.CALLABLES.ID);
+                for (long id : new long[]{100, 101}) {
+                    var record = mock.newRecord(Callables.CALLABLES.ID);
+                    record.set(Callables.CALLABLES.ID, id);
+                    result.add(record);
+                }
+                return new MockResult[]{new MockResult(result.size(), result)};
+            }
+            if (sql.contains("\"package_versions\"")) {
+                var result = mock.newResult(PackageVersions.PACKAGE_VERSIONS.ID);
+                var record = mock.newRecord(PackageVersions.PACKAGE_VERSIONS.ID);
+                record.set(PackageVersions.PACKAGE_VERSIONS.ID, 42L);
+                result.add(record);
+                return new MockResult[]{new MockResult(1, result)};
+            }
+            throw new SQLException("Unexpected statement: " + sql);
+        };
+        metadataDBExtension.setDBConnection(
+                DSL.using(new MockConnection(provider), SQLDialect.POSTGRES));
+
+        metadataDBExtension.consume(NEW_FORMAT_CALL_GRAPH);
+        assertNull(metadataDBExtension.getPluginError());
+        var expected = new GidGraph(42, "groupID:artifactID", "2.6", new long[]{100, 101, 7}, 2,
+                new long[]{100, 100}, new long[]{7, 101});
+        assertEquals(Optional.of(expected), metadataDBExtension.produceObject());
+        assertEquals(expected, GidGraph.getGraph(
+                new JSONObject(metadataDBExtension.produce().orElseThrow())));
+    }
+
+    @Test
+    public void packageVersionWithoutCallGraphTest() {
+        // E.g., a package version created by the POM analyzer
+        var metadataDao = Mockito.mock(MetadataDao.class);
+        Mockito.when(metadataDao.getPackageVersionId("groupID:artifactID", "mvn", "2.6", "OPAL"))
+                .thenReturn(42L);
+        assertNull(metadataDBExtension.findSavedGidGraph("groupID:artifactID", "mvn", "2.6",
+                "OPAL", metadataDao));
+        Mockito.verify(metadataDao).hasModules(42L);
+        Mockito.verify(metadataDao, Mockito.never()).getInternalCallableIds(Mockito.anyLong());
+    }
+
     @Test
     public void saveToDatabaseEmptyJsonTest() {
         var metadataDao = Mockito.mock(MetadataDao.class);
@@ -410,6 +571,15 @@ public class MetadataDatabasePluginTest {
         assertEquals(topics2, metadataDBExtension.consumeTopic());
     }
 
+    @Test
+    public void metricsLabelTest() throws IOException {
+        var registry = new SimpleMetricsRegistry();
+        metadataDBExtension.setMetricsRegistry(registry);
+        var text = new StringWriter();
+        registry.write(text);
+        assertTrue(text.toString().contains("{plugin=\"MetadataDBExtension\"}"));
+    }
+
     @Test
     public void nameTest() {
         var name = "Metadata plugin";
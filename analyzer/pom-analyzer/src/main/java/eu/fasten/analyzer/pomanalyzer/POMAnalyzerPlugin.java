@@ -23,7 +23,6 @@ import eu.fasten.analyzer.pomanalyzer.pom.data.DependencyData;
 import eu.fasten.core.data.metadatadb.MetadataDao;
 import eu.fasten.core.plugins.DBConnector;
 import eu.fasten.core.plugins.KafkaPlugin;
-import java.io.File;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -49,7 +48,7 @@ public class POMAnalyzerPlugin extends Plugin {
         private String consumerTopic = "fasten.mvn.pkg";
         private final Logger logger = LoggerFactory.getLogger(POMAnalyzer.class.getName());
         private Throwable pluginError = null;
-        private static DSLContext dslContext;
+        private DSLContext dslContext;
         private String artifact = null;
         private String group = null;
         private String version = null;
@@ -75,7 +74,7 @@ public class POMAnalyzerPlugin extends Plugin {
 
         @Override
         public void setDBConnection(DSLContext dslContext) {
-            POMAnalyzer.dslContext = dslContext;
+            this.dslContext = dslContext;
         }
 
         @Override
@@ -203,12 +202,6 @@ public class POMAnalyzerPlugin extends Plugin {
             return Optional.of(json.toString());
         }
 
-        @Override
-        public String getOutputPath() {
-            return File.separator + artifact.charAt(0) + File.separator
-                    + artifact + File.separator + artifact + "_" + group + "_" + version + ".json";
-        }
-
         @Override
         public String name() {
             return "POM Analyzer plugin";
@@ -0,0 +1,484 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.github.luben.zstd.Zstd;
+import com.google.common.collect.HashBiMap;
+import eu.fasten.core.data.ExtendedRevisionCallGraph.Graph;
+import eu.fasten.core.data.ExtendedRevisionCallGraph.Node;
+import eu.fasten.core.data.ExtendedRevisionCallGraph.Scope;
+import eu.fasten.core.data.ExtendedRevisionCallGraph.Type;
+import eu.fasten.core.data.graphdb.GidGraph;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONObject;
+
+/**
+ * Compact binary encoding of {@link ExtendedRevisionCallGraph} and {@link GidGraph}.
+ *
+ * <p>An encoded graph starts with a header made of the magic bytes {@code FCG}, the format
+ * version, the kind of graph and a flags byte telling whether the body is compressed with zstd.
+ * In the body, integers are variable-length coded, and IDs in call and edge arrays are
+ * delta-coded; in revision call graphs, every string (URIs and JSON-encoded metadata) is stored
+ * once in a string table and referred to by its position.
+ *
+ * <p>Since Kafka messages are JSON strings, encoded graphs travel as a payload of the form
+ * <code>{"content_type": "application/vnd.fasten.callgraph", "data": "&lt;base64&gt;"}</code>
+ * (see {@link #toPayload(byte[])}). Consumers check {@link #isBinaryPayload(JSONObject)} and
+ * fall back to the JSON representation otherwise, so producers can switch format freely.
+ */
+public final class CallGraphCodec {
+
+    /** Content type of JSON payloads. */
+    public static final String JSON_CONTENT_TYPE = "application/json";
+
+    /** Content type of payloads encoded by this class. */
+    public static final String BINARY_CONTENT_TYPE = "application/vnd.fasten.callgraph";
+
+    /**
+     * Size in characters of the JSON representation above which producers should emit the
+     * binary representation instead (the default maximum Kafka request size is 1 MiB).
+     */
+    public static final int DEFAULT_BINARY_THRESHOLD = 512 * 1024;
+
+    /** Estimated length in characters of a method (URI and metadata) in JSON revision graphs. */
+    private static final int ESTIMATED_METHOD_LENGTH = 200;
+
+    /** Estimated length in characters of a call (IDs and metadata) in JSON revision graphs. */
+    private static final int ESTIMATED_CALL_LENGTH = 100;
+
+    /** Estimated length in characters of an ID, with its separator, in JSON GID graphs. */
+    private static final int ESTIMATED_GID_LENGTH = 12;
+
+    /** Default zstd compression level. */
+    public static final int DEFAULT_COMPRESSION_LEVEL = 3;
+
+    private static final byte[] MAGIC = {'F', 'C', 'G'};
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte EXTENDED_REVISION_CALL_GRAPH = 1;
+    private static final byte GID_GRAPH = 2;
+    private static final byte FLAG_ZSTD = 1;
+    private static final int HEADER_LENGTH = MAGIC.length + 3;
+
+    private CallGraphCodec() {
+    }
+
+    /**
+     * Tells whether the JSON representation of a revision call graph is likely to be longer than
+     * {@link #DEFAULT_BINARY_THRESHOLD}. The length is estimated from the number of methods and
+     * calls, so that producers can pick a representation without building the JSON one.
+     *
+     * @param graph revision call graph
+     * @return whether the binary representation should be emitted
+     */
+    public static boolean exceedsBinaryThreshold(final ExtendedRevisionCallGraph graph) {
+        long methods = 0;
+        for (final var types : graph.getClassHierarchy().values()) {
+            for (final var type : types.values()) {
+                methods += type.getMethods().size();
+            }
+        }
+        final var graphCalls = graph.getGraph();
+        final long calls = graphCalls.size() + graphCalls.getResolvedCalls().size();
+        return methods * ESTIMATED_METHOD_LENGTH + calls * ESTIMATED_CALL_LENGTH
+                > DEFAULT_BINARY_THRESHOLD;
+    }
+
+    /**
+     * Tells whether the JSON representation of a GID graph is likely to be longer than
+     * {@link #DEFAULT_BINARY_THRESHOLD}. The length is estimated from the number of nodes and
+     * edges.
+     *
+     * @param graph GID graph
+     * @return whether the binary representation should be emitted
+     */
+    public static boolean exceedsBinaryThreshold(final GidGraph graph) {
+        final long ids = graph.getNodes().length + 2L * graph.getNumEdges();
+        // Each edge is an array of two IDs
+        return ids * ESTIMATED_GID_LENGTH + 2L * graph.getNumEdges() > DEFAULT_BINARY_THRESHOLD;
+    }
+
+    /**
+     * Encodes an extended revision call graph.
+     *
+     * @param graph    revision call graph
+     * @param compress whether the body should be compressed with zstd
+     * @return binary representation of the graph
+     */
+    public static byte[] encode(final ExtendedRevisionCallGraph graph, final boolean compress) {
+        final var strings = new StringTable();
+        final var body = new Output(4096, -1);
+        body.writeVarInt(strings.ref(graph.forge), true);
+        body.writeVarInt(strings.ref(graph.product), true);
+        body.writeVarInt(strings.ref(graph.version), true);
+        body.writeVarInt(strings.ref(graph.getCgGenerator()), true);
+        body.writeVarLong(graph.timestamp, false);
+        body.writeVarInt(graph.getNodeCount(), true);
+
+        for (final var scope : Scope.values()) {
+            final var types = graph.getClassHierarchy().get(scope);
+            body.writeVarInt(types.size(), true);
+            for (final var entry : types.entrySet()) {
+                writeType(body, strings, entry.getKey(), entry.getValue());
+            }
+        }
+
+        final var calls = graph.getGraph();
+        writeCalls(body, strings, calls.getInternalCalls());
+        writeCalls(body, strings, calls.getExternalCalls());
+        writeCalls(body, strings, calls.getResolvedCalls());
+
+        final var table = new Output(4096, -1);
+        table.writeVarInt(strings.strings.size(), true);
+        for (final var string : strings.strings) {
+            table.writeString(string);
+        }
+        table.writeBytes(body.getBuffer(), 0, body.position());
+        return frame(EXTENDED_REVISION_CALL_GRAPH, table, compress);
+    }
+
+    /**
+     * Decodes an extended revision call graph.
+     *
+     * @param data binary representation of the graph
+     * @return revision call graph
+     * @throws IllegalArgumentException if the data does not contain a revision call graph
+     */
+    public static ExtendedRevisionCallGraph decodeExtendedRevisionCallGraph(final byte[] data) {
+        final var input = unframe(data, EXTENDED_REVISION_CALL_GRAPH);
+        try {
+            final var strings = new String[input.readVarInt(true)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = input.readString();
+            }
+            final var forge = strings[input.readVarInt(true)];
+            final var product = strings[input.readVarInt(true)];
+            final var version = strings[input.readVarInt(true)];
+            final var generator = strings[input.readVarInt(true)];
+            final var timestamp = input.readVarLong(false);
+            final var nodeCount = input.readVarInt(true);
+
+            final Map<Scope, Map<FastenURI, Type>> cha = new HashMap<>();
+            for (final var scope : Scope.values()) {
+                final var size = input.readVarInt(true);
+                final Map<FastenURI, Type> types = new HashMap<>(size);
+                for (int i = 0; i < size; i++) {
+                    final var uri = FastenURI.create(strings[input.readVarInt(true)]);
+                    types.put(uri, readType(input, strings));
+                }
+                cha.put(scope, types);
+            }
+
+            final var internalCalls = readCalls(input, strings);
+            final var externalCalls = readCalls(input, strings);
+            final var resolvedCalls = readCalls(input, strings);
+            return new ExtendedRevisionCallGraph(forge, product, version, timestamp, nodeCount,
+                    generator, cha, new Graph(internalCalls, externalCalls, resolvedCalls));
+        } catch (KryoException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupted revision call graph", e);
+        }
+    }
+
+    /**
+     * Encodes a GID graph.
+     *
+     * @param graph    GID graph
+     * @param compress whether the body should be compressed with zstd
+     * @return binary representation of the graph
+     */
+    public static byte[] encode(final GidGraph graph, final boolean compress) {
+        final var body = new Output(4096, -1);
+        body.writeVarLong(graph.getIndex(), true);
+        body.writeString(graph.getProduct());
+        body.writeString(graph.getVersion());
+        body.writeVarInt(graph.getNumInternalNodes(), true);
+
+        final var nodes = graph.getNodes();
+        body.writeVarInt(nodes.length, true);
+        long previous = 0;
+        for (final long node : nodes) {
+            body.writeVarLong(node - previous, false);
+            previous = node;
+        }
+
+        final var sources = graph.getSources();
+        final var targets = graph.getTargets();
+        body.writeVarInt(sources.length, true);
+        previous = 0;
+        for (int i = 0; i < sources.length; i++) {
+            body.writeVarLong(sources[i] - previous, false);
+            body.writeVarLong(targets[i] - sources[i], false);
+            previous = sources[i];
+        }
+        return frame(GID_GRAPH, body, compress);
+    }
+
+    /**
+     * Decodes a GID graph.
+     *
+     * @param data binary representation of the graph
+     * @return GID graph
+     * @throws IllegalArgumentException if the data does not contain a GID graph
+     */
+    public static GidGraph decodeGidGraph(final byte[] data) {
+        final var input = unframe(data, GID_GRAPH);
+        try {
+            final var index = input.readVarLong(true);
+            final var product = input.readString();
+            final var version = input.readString();
+            final var numInternalNodes = input.readVarInt(true);
+
+            final var numNodes = input.readVarInt(true);
+            final var nodes = new long[numNodes];
+            long previous = 0;
+            for (int i = 0; i < numNodes; i++) {
+                previous += input.readVarLong(false);
+                nodes[i] = previous;
+            }
+
+            final var numEdges = input.readVarInt(true);
+            final var sources = new long[numEdges];
+            final var targets = new long[numEdges];
+            previous = 0;
+            for (int i = 0; i < numEdges; i++) {
+                sources[i] = previous + input.readVarLong(false);
+                targets[i] = sources[i] + input.readVarLong(false);
+                previous = sources[i];
+            }
+            return new GidGraph(index, product, version, nodes, numInternalNodes, sources,
+                    targets);
+        } catch (KryoException e) {
+            throw new IllegalArgumentException("Corrupted GID graph", e);
+        }
+    }
+
+    /**
+     * Checks whether some data starts with the header of this format.
+     *
+     * @param data some data
+     * @return true if the data has been encoded by this class
+     */
+    public static boolean isBinary(final byte[] data) {
+        if (data.length < HEADER_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Wraps an encoded graph in a JSON payload that can be sent through Kafka.
+     *
+     * @param data binary representation of a graph
+     * @return JSON payload, as a string
+     */
+    public static String toPayload(final byte[] data) {
+        final var payload = new JSONObject();
+        payload.put("content_type", BINARY_CONTENT_TYPE);
+        payload.put("data", Base64.getEncoder().encodeToString(data));
+        return payload.toString();
+    }
+
+    /**
+     * Checks whether a payload contains an encoded graph rather than a JSON graph.
+     *
+     * @param payload JSON payload
+     * @return true if the payload has been created by {@link #toPayload(byte[])}
+     */
+    public static boolean isBinaryPayload(final JSONObject payload) {
+        return BINARY_CONTENT_TYPE.equals(payload.optString("content_type"));
+    }
+
+    /**
+     * Extracts the encoded graph from a payload created by {@link #toPayload(byte[])}.
+     *
+     * @param payload JSON payload
+     * @return binary representation of the graph
+     */
+    public static byte[] fromPayload(final JSONObject payload) {
+        return Base64.getDecoder().decode(payload.getString("data"));
+    }
+
+    private static void writeType(final Output output, final StringTable strings,
+                                  final FastenURI uri, final Type type) {
+        output.writeVarInt(strings.ref(uri.toString()), true);
+        output.writeVarInt(strings.ref(type.getSourceFileName()), true);
+        output.writeVarInt(strings.ref(type.getAccess()), true);
+        output.writeBoolean(type.isFinal());
+
+        final var methods = new ArrayList<>(type.getMethods().entrySet());
+        methods.sort(Map.Entry.comparingByKey());
+        output.writeVarInt(methods.size(), true);
+        int previous = 0;
+        for (final var method : methods) {
+            output.writeVarInt(method.getKey() - previous, false);
+            output.writeVarInt(strings.ref(method.getValue().getUri().toString()), true);
+            output.writeVarInt(strings.ref(new JSONObject(method.getValue().getMetadata())
+                    .toString()), true);
+            previous = method.getKey();
+        }
+
+        output.writeVarInt(type.getSuperClasses().size(), true);
+        for (final var superClass : type.getSuperClasses()) {
+            output.writeVarInt(strings.ref(superClass.toString()), true);
+        }
+        output.writeVarInt(type.getSuperInterfaces().size(), true);
+        for (final var superInterface : type.getSuperInterfaces()) {
+            output.writeVarInt(strings.ref(superInterface.toString()), true);
+        }
+    }
+
+    private static Type readType(final Input input, final String[] strings) {
+        final var sourceFile = strings[input.readVarInt(true)];
+        final var access = strings[input.readVarInt(true)];
+        final var isFinal = input.readBoolean();
+
+        final var numMethods = input.readVarInt(true);
+        final HashBiMap<Integer, Node> methods = HashBiMap.create(numMethods);
+        int id = 0;
+        for (int i = 0; i < numMethods; i++) {
+            id += input.readVarInt(false);
+            final var uri = FastenURI.create(strings[input.readVarInt(true)]);
+            final var metadata = new JSONObject(strings[input.readVarInt(true)]).toMap();
+            methods.put(id, new Node(uri, metadata));
+        }
+
+        final var numSuperClasses = input.readVarInt(true);
+        final var superClasses = new LinkedList<FastenURI>();
+        for (int i = 0; i < numSuperClasses; i++) {
+            superClasses.add(FastenURI.create(strings[input.readVarInt(true)]));
+        }
+        final var numSuperInterfaces = input.readVarInt(true);
+        final List<FastenURI> superInterfaces = new ArrayList<>(numSuperInterfaces);
+        for (int i = 0; i < numSuperInterfaces; i++) {
+            superInterfaces.add(FastenURI.create(strings[input.readVarInt(true)]));
+        }
+        return new Type(sourceFile, methods, superClasses, superInterfaces, access, isFinal);
+    }
+
+    /**
+     * Writes calls sorted by source and target, so that sources can be delta-coded with respect
+     * to the previous call and targets with respect to their source.
+     */
+    private static void writeCalls(final Output output, final StringTable strings,
+                                   final Map<List<Integer>, Map<Object, Object>> calls) {
+        final var sorted = new ArrayList<>(calls.entrySet());
+        sorted.sort(Comparator.comparing((Map.Entry<List<Integer>, Map<Object, Object>> e)
+                -> e.getKey().get(0)).thenComparing(e -> e.getKey().get(1)));
+        output.writeVarInt(sorted.size(), true);
+        int previous = 0;
+        for (final var call : sorted) {
+            final int source = call.getKey().get(0);
+            output.writeVarInt(source - previous, false);
+            output.writeVarInt(call.getKey().get(1) - source, false);
+            previous = source;
+
+            final var callSites = call.getValue();
+            output.writeVarInt(callSites.size(), true);
+            for (final var callSite : callSites.entrySet()) {
+                output.writeVarInt(strings.ref(String.valueOf(callSite.getKey())), true);
+                output.writeVarInt(strings.ref(JSONObject.valueToString(callSite.getValue())),
+                        true);
+            }
+        }
+    }
+
+    private static Map<List<Integer>, Map<Object, Object>> readCalls(final Input input,
+                                                                    final String[] strings) {
+        final var size = input.readVarInt(true);
+        final Map<List<Integer>, Map<Object, Object>> calls = new HashMap<>(size);
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            final int source = previous + input.readVarInt(false);
+            final int target = source + input.readVarInt(false);
+            previous = source;
+
+            final var numCallSites = input.readVarInt(true);
+            final Map<Object, Object> callSites = new HashMap<>(numCallSites);
+            for (int j = 0; j < numCallSites; j++) {
+                final var pc = Integer.valueOf(strings[input.readVarInt(true)]);
+                callSites.put(pc, new JSONObject(strings[input.readVarInt(true)]).toMap());
+            }
+            calls.put(new ArrayList<>(List.of(source, target)), callSites);
+        }
+        return calls;
+    }
+
+    private static byte[] frame(final byte kind, final Output body, final boolean compress) {
+        final var output = new Output(HEADER_LENGTH + 5 + body.position(), -1);
+        output.writeBytes(MAGIC);
+        output.writeByte(FORMAT_VERSION);
+        output.writeByte(kind);
+        output.writeByte(compress ? FLAG_ZSTD : 0);
+        if (compress) {
+            final var raw = body.toBytes();
+            output.writeVarInt(raw.length, true);
+            output.writeBytes(Zstd.compress(raw, DEFAULT_COMPRESSION_LEVEL));
+        } else {
+            output.writeBytes(body.getBuffer(), 0, body.position());
+        }
+        return output.toBytes();
+    }
+
+    private static Input unframe(final byte[] data, final byte kind) {
+        if (!isBinary(data)) {
+            throw new IllegalArgumentException("Not a binary call graph");
+        }
+        if (data[MAGIC.length] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported format version "
+                    + data[MAGIC.length]);
+        }
+        if (data[MAGIC.length + 1] != kind) {
+            throw new IllegalArgumentException("Unexpected kind of graph "
+                    + data[MAGIC.length + 1]);
+        }
+        final var input = new Input(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+        if ((data[MAGIC.length + 2] & FLAG_ZSTD) == 0) {
+            return input;
+        }
+        final var length = input.readVarInt(true);
+        final var compressed = input.readBytes(input.limit() - input.position());
+        return new Input(Zstd.decompress(compressed, length));
+    }
+
+    /** Assigns consecutive positions to distinct strings, in order of appearance. */
+    private static final class StringTable {
+        private final Map<String, Integer> positions = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        int ref(final String string) {
+            return positions.computeIfAbsent(string, s -> {
+                strings.add(s);
+                return strings.size() - 1;
+            });
+        }
+    }
+}
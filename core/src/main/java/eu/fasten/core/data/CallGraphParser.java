@@ -0,0 +1,810 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.collect.HashBiMap;
+import eu.fasten.core.data.graphdb.GidGraph;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.tuple.MutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.json.JSONException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streaming parsers for the JSON representations of {@link RevisionCallGraph},
+ * {@link ExtendedRevisionCallGraph} and {@link GidGraph}.
+ *
+ * <p>Unlike the constructors accepting a {@link org.json.JSONObject}, these parsers read the
+ * JSON representation token by token and build the graph directly, so the memory needed is that
+ * of the resulting graph rather than a multiple of the size of the JSON text. Fields may appear
+ * in any order, and unknown fields are skipped.
+ *
+ * <p>Extended revision call graphs and GID graphs may also be represented by a binary payload
+ * (see {@link CallGraphCodec#toPayload(byte[])}), which is decoded transparently.
+ *
+ * <p>Malformed input causes a {@link JSONException}, as with the other parsers.
+ */
+public final class CallGraphParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallGraphParser.class);
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private CallGraphParser() {
+    }
+
+    /**
+     * Parses a revision call graph.
+     *
+     * @param reader reader returning the JSON representation of the graph
+     * @return revision call graph
+     * @throws IOException   if the reader fails
+     * @throws JSONException if the JSON representation is malformed
+     */
+    public static RevisionCallGraph parseRevisionCallGraph(final Reader reader) throws IOException {
+        try (var parser = FACTORY.createParser(reader)) {
+            return parseRevisionCallGraph(parser);
+        } catch (JsonProcessingException e) {
+            throw new JSONException(e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Parses a revision call graph.
+     *
+     * @param in stream returning the JSON representation of the graph (in UTF-8, UTF-16 or UTF-32)
+     * @return revision call graph
+     * @throws IOException   if the stream fails
+     * @throws JSONException if the JSON representation is malformed
+     */
+    public static RevisionCallGraph parseRevisionCallGraph(final InputStream in) throws IOException {
+        try (var parser = FACTORY.createParser(in)) {
+            return parseRevisionCallGraph(parser);
+        } catch (JsonProcessingException e) {
+            throw new JSONException(e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Parses an extended revision call graph.
+     *
+     * @param reader reader returning the JSON representation of the graph
+     * @return extended revision call graph
+     * @throws IOException   if the reader fails
+     * @throws JSONException if the JSON representation is malformed
+     */
+    public static ExtendedRevisionCallGraph parseExtendedRevisionCallGraph(final Reader reader)
+            throws IOException {
+        try (var parser = FACTORY.createParser(reader)) {
+            return parseExtendedRevisionCallGraph(parser);
+        } catch (JsonProcessingException e) {
+            throw new JSONException(e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Parses an extended revision call graph.
+     *
+     * @param in stream returning the JSON representation of the graph (in UTF-8, UTF-16 or UTF-32)
+     * @return extended revision call graph
+     * @throws IOException   if the stream fails
+     * @throws JSONException if the JSON representation is malformed
+     */
+    public static ExtendedRevisionCallGraph parseExtendedRevisionCallGraph(final InputStream in)
+            throws IOException {
+        try (var parser = FACTORY.createParser(in)) {
+            return parseExtendedRevisionCallGraph(parser);
+        } catch (JsonProcessingException e) {
+            throw new JSONException(e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Parses a GID graph.
+     *
+     * @param reader reader returning the JSON representation of the graph
+     * @return GID graph
+     * @throws IOException   if the reader fails
+     * @throws JSONException if the JSON representation is malformed
+     */
+    public static GidGraph parseGidGraph(final Reader reader) throws IOException {
+        try (var parser = FACTORY.createParser(reader)) {
+            return parseGidGraph(parser);
+        } catch (JsonProcessingException e) {
+            throw new JSONException(e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Parses a GID graph.
+     *
+     * @param in stream returning the JSON representation of the graph (in UTF-8, UTF-16 or UTF-32)
+     * @return GID graph
+     * @throws IOException   if the stream fails
+     * @throws JSONException if the JSON representation is malformed
+     */
+    public static GidGraph parseGidGraph(final InputStream in) throws IOException {
+        try (var parser = FACTORY.createParser(in)) {
+            return parseGidGraph(parser);
+        } catch (JsonProcessingException e) {
+            throw new JSONException(e.getOriginalMessage(), e);
+        }
+    }
+
+    private static RevisionCallGraph parseRevisionCallGraph(final JsonParser parser)
+            throws IOException {
+        String forge = null;
+        String product = null;
+        String version = null;
+        String generator = null;
+        long timestamp = -1;
+        boolean hasTimestamp = false;
+        List<List<RevisionCallGraph.Dependency>> depset = null;
+        Map<FastenURI, RevisionCallGraph.Type> cha = null;
+        RevisionCallGraph.Graph graph = null;
+
+        start(parser, JsonToken.START_OBJECT);
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "forge":
+                    forge = string(parser);
+                    break;
+                case "product":
+                    product = string(parser);
+                    break;
+                case "version":
+                    version = string(parser);
+                    break;
+                case "generator":
+                    generator = string(parser);
+                    break;
+                case "timestamp":
+                    timestamp = longValue(parser);
+                    hasTimestamp = true;
+                    break;
+                case "depset":
+                    depset = depset(parser);
+                    break;
+                case "cha":
+                    cha = new HashMap<>();
+                    start(parser, JsonToken.START_OBJECT);
+                    for (String key; (key = nextField(parser)) != null; ) {
+                        final var uri = uri(parser, key);
+                        cha.put(uri, revisionType(parser));
+                    }
+                    break;
+                case "graph":
+                    graph = revisionGraph(parser);
+                    break;
+                default:
+                    skip(parser);
+            }
+        }
+        if (!hasTimestamp) {
+            logger.warn("No timestamp provided: assuming -1");
+        }
+        return new RevisionCallGraph(require(forge, "forge"), require(product, "product"),
+                require(version, "version"), timestamp, require(generator, "generator"),
+                require(depset, "depset"), require(cha, "cha"), require(graph, "graph"));
+    }
+
+    private static List<List<RevisionCallGraph.Dependency>> depset(final JsonParser parser)
+            throws IOException {
+        final List<List<RevisionCallGraph.Dependency>> depset = new ObjectArrayList<>();
+        start(parser, JsonToken.START_ARRAY);
+        while (nextElement(parser)) {
+            final List<RevisionCallGraph.Dependency> clause = new ObjectArrayList<>();
+            start(parser, JsonToken.START_ARRAY);
+            while (nextElement(parser)) {
+                String forge = null;
+                String product = null;
+                List<RevisionCallGraph.Constraint> constraints = null;
+                start(parser, JsonToken.START_OBJECT);
+                for (String field; (field = nextField(parser)) != null; ) {
+                    switch (field) {
+                        case "forge":
+                            forge = string(parser);
+                            break;
+                        case "product":
+                            product = string(parser);
+                            break;
+                        case "constraints":
+                            constraints = new ObjectArrayList<>();
+                            start(parser, JsonToken.START_ARRAY);
+                            while (nextElement(parser)) {
+                                constraints.add(new RevisionCallGraph.Constraint(string(parser)));
+                            }
+                            break;
+                        default:
+                            skip(parser);
+                    }
+                }
+                clause.add(new RevisionCallGraph.Dependency(require(forge, "forge"),
+                        require(product, "product"), require(constraints, "constraints")));
+            }
+            depset.add(clause);
+        }
+        return depset;
+    }
+
+    private static RevisionCallGraph.Type revisionType(final JsonParser parser)
+            throws IOException {
+        String sourceFile = null;
+        Map<Integer, FastenURI> methods = null;
+        LinkedList<FastenURI> superClasses = null;
+        List<FastenURI> superInterfaces = null;
+
+        start(parser, JsonToken.START_OBJECT);
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "sourceFile":
+                    sourceFile = string(parser);
+                    break;
+                case "methods":
+                    methods = new HashMap<>();
+                    start(parser, JsonToken.START_OBJECT);
+                    for (String key; (key = nextField(parser)) != null; ) {
+                        final var id = id(parser, key);
+                        methods.put(id, uri(parser, string(parser)));
+                    }
+                    break;
+                case "superClasses":
+                    superClasses = uris(parser, new LinkedList<>());
+                    break;
+                case "superInterfaces":
+                    superInterfaces = uris(parser, new ArrayList<>());
+                    break;
+                default:
+                    skip(parser);
+            }
+        }
+        return new RevisionCallGraph.Type(require(sourceFile, "sourceFile"),
+                require(methods, "methods"), require(superClasses, "superClasses"),
+                require(superInterfaces, "superInterfaces"));
+    }
+
+    private static RevisionCallGraph.Graph revisionGraph(final JsonParser parser)
+            throws IOException {
+        List<List<Integer>> internalCalls = null;
+        Map<Pair<Integer, FastenURI>, Map<String, String>> externalCalls = null;
+
+        start(parser, JsonToken.START_OBJECT);
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "internalCalls":
+                    internalCalls = new ArrayList<>();
+                    start(parser, JsonToken.START_ARRAY);
+                    while (nextElement(parser)) {
+                        start(parser, JsonToken.START_ARRAY);
+                        parser.nextToken();
+                        final var source = intValue(parser);
+                        parser.nextToken();
+                        final var target = intValue(parser);
+                        end(parser, JsonToken.END_ARRAY);
+                        internalCalls.add(Arrays.asList(source, target));
+                    }
+                    break;
+                case "externalCalls":
+                    externalCalls = new HashMap<>();
+                    start(parser, JsonToken.START_ARRAY);
+                    while (nextElement(parser)) {
+                        start(parser, JsonToken.START_ARRAY);
+                        parser.nextToken();
+                        final var source = id(parser, string(parser));
+                        parser.nextToken();
+                        final var target = uri(parser, string(parser));
+                        parser.nextToken();
+                        final Map<String, String> callType = new HashMap<>();
+                        start(parser, JsonToken.START_OBJECT);
+                        for (String key; (key = nextField(parser)) != null; ) {
+                            callType.put(key, string(parser));
+                        }
+                        end(parser, JsonToken.END_ARRAY);
+                        externalCalls.put(new MutablePair<>(source, target), callType);
+                    }
+                    break;
+                default:
+                    skip(parser);
+            }
+        }
+        return new RevisionCallGraph.Graph(require(internalCalls, "internalCalls"),
+                require(externalCalls, "externalCalls"));
+    }
+
+    private static ExtendedRevisionCallGraph parseExtendedRevisionCallGraph(
+            final JsonParser parser) throws IOException {
+        String forge = null;
+        String product = null;
+        String version = null;
+        String generator = null;
+        long timestamp = -1;
+        boolean hasTimestamp = false;
+        Integer nodeCount = null;
+        Map<ExtendedRevisionCallGraph.Scope, Map<FastenURI, ExtendedRevisionCallGraph.Type>> cha =
+                null;
+        ExtendedRevisionCallGraph.Graph graph = null;
+        String contentType = null;
+        String data = null;
+
+        start(parser, JsonToken.START_OBJECT);
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "forge":
+                    forge = string(parser);
+                    break;
+                case "product":
+                    product = string(parser);
+                    break;
+                case "version":
+                    version = string(parser);
+                    break;
+                case "generator":
+                    generator = string(parser);
+                    break;
+                case "timestamp":
+                    timestamp = longValue(parser);
+                    hasTimestamp = true;
+                    break;
+                case "nodes":
+                    nodeCount = intValue(parser);
+                    break;
+                case "cha":
+                    cha = extendedClassHierarchy(parser);
+                    break;
+                case "graph":
+                    graph = extendedGraph(parser);
+                    break;
+                case "content_type":
+                    contentType = string(parser);
+                    break;
+                case "data":
+                    data = string(parser);
+                    break;
+                default:
+                    skip(parser);
+            }
+        }
+        if (CallGraphCodec.BINARY_CONTENT_TYPE.equals(contentType)) {
+            return ExtendedRevisionCallGraph.fromBinary(decode(data));
+        }
+        if (!hasTimestamp) {
+            logger.warn("No timestamp provided: assuming -1");
+        }
+        return new ExtendedRevisionCallGraph(require(forge, "forge"), require(product, "product"),
+                require(version, "version"), timestamp, require(nodeCount, "nodes"),
+                require(generator, "generator"), require(cha, "cha"), require(graph, "graph"));
+    }
+
+    private static Map<ExtendedRevisionCallGraph.Scope, Map<FastenURI,
+            ExtendedRevisionCallGraph.Type>> extendedClassHierarchy(final JsonParser parser)
+            throws IOException {
+        final Map<ExtendedRevisionCallGraph.Scope, Map<FastenURI, ExtendedRevisionCallGraph.Type>>
+                cha = new HashMap<>();
+        start(parser, JsonToken.START_OBJECT);
+        for (String field; (field = nextField(parser)) != null; ) {
+            final ExtendedRevisionCallGraph.Scope scope;
+            try {
+                scope = ExtendedRevisionCallGraph.Scope.valueOf(field);
+            } catch (IllegalArgumentException e) {
+                skip(parser);
+                continue;
+            }
+            final Map<FastenURI, ExtendedRevisionCallGraph.Type> types = new HashMap<>();
+            start(parser, JsonToken.START_OBJECT);
+            for (String key; (key = nextField(parser)) != null; ) {
+                final var uri = uri(parser, key);
+                types.put(uri, extendedType(parser));
+            }
+            cha.put(scope, types);
+        }
+        for (final var scope : ExtendedRevisionCallGraph.Scope.values()) {
+            require(cha.get(scope), scope.name());
+        }
+        return cha;
+    }
+
+    private static ExtendedRevisionCallGraph.Type extendedType(final JsonParser parser)
+            throws IOException {
+        String sourceFile = null;
+        HashBiMap<Integer, ExtendedRevisionCallGraph.Node> methods = null;
+        LinkedList<FastenURI> superClasses = null;
+        List<FastenURI> superInterfaces = null;
+        String access = null;
+        Boolean isFinal = null;
+
+        start(parser, JsonToken.START_OBJECT);
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "sourceFile":
+                    sourceFile = string(parser);
+                    break;
+                case "methods":
+                    methods = HashBiMap.create();
+                    start(parser, JsonToken.START_OBJECT);
+                    for (String key; (key = nextField(parser)) != null; ) {
+                        final var id = id(parser, key);
+                        methods.put(id, node(parser));
+                    }
+                    break;
+                case "superClasses":
+                    superClasses = uris(parser, new LinkedList<>());
+                    break;
+                case "superInterfaces":
+                    superInterfaces = uris(parser, new ArrayList<>());
+                    break;
+                case "access":
+                    access = string(parser);
+                    break;
+                case "final":
+                    isFinal = booleanValue(parser);
+                    break;
+                default:
+                    skip(parser);
+            }
+        }
+        return new ExtendedRevisionCallGraph.Type(require(sourceFile, "sourceFile"),
+                require(methods, "methods"), require(superClasses, "superClasses"),
+                require(superInterfaces, "superInterfaces"), require(access, "access"),
+                require(isFinal, "final"));
+    }
+
+    private static ExtendedRevisionCallGraph.Node node(final JsonParser parser)
+            throws IOException {
+        FastenURI uri = null;
+        Map<String, Object> metadata = null;
+        start(parser, JsonToken.START_OBJECT);
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "uri":
+                    uri = uri(parser, string(parser));
+                    break;
+                case "metadata":
+                    metadata = map(parser);
+                    break;
+                default:
+                    skip(parser);
+            }
+        }
+        return new ExtendedRevisionCallGraph.Node(require(uri, "uri"),
+                require(metadata, "metadata"));
+    }
+
+    private static ExtendedRevisionCallGraph.Graph extendedGraph(final JsonParser parser)
+            throws IOException {
+        Map<List<Integer>, Map<Object, Object>> internalCalls = null;
+        Map<List<Integer>, Map<Object, Object>> externalCalls = null;
+        Map<List<Integer>, Map<Object, Object>> resolvedCalls = null;
+        start(parser, JsonToken.START_OBJECT);
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "internalCalls":
+                    internalCalls = extendedCalls(parser);
+                    break;
+                case "externalCalls":
+                    externalCalls = extendedCalls(parser);
+                    break;
+                case "resolvedCalls":
+                    resolvedCalls = extendedCalls(parser);
+                    break;
+                default:
+                    skip(parser);
+            }
+        }
+        return new ExtendedRevisionCallGraph.Graph(require(internalCalls, "internalCalls"),
+                require(externalCalls, "externalCalls"), require(resolvedCalls, "resolvedCalls"));
+    }
+
+    private static Map<List<Integer>, Map<Object, Object>> extendedCalls(final JsonParser parser)
+            throws IOException {
+        final Map<List<Integer>, Map<Object, Object>> calls = new HashMap<>();
+        start(parser, JsonToken.START_ARRAY);
+        while (nextElement(parser)) {
+            start(parser, JsonToken.START_ARRAY);
+            parser.nextToken();
+            final var source = intValue(parser);
+            parser.nextToken();
+            final var target = intValue(parser);
+            parser.nextToken();
+            final Map<Object, Object> callSite = new HashMap<>();
+            start(parser, JsonToken.START_OBJECT);
+            for (String field; (field = nextField(parser)) != null; ) {
+                final var pc = Integer.valueOf(field);
+                start(parser, JsonToken.START_OBJECT);
+                callSite.put(pc, map(parser));
+            }
+            end(parser, JsonToken.END_ARRAY);
+            calls.put(new ArrayList<>(Arrays.asList(source, target)), callSite);
+        }
+        return calls;
+    }
+
+    private static GidGraph parseGidGraph(final JsonParser parser) throws IOException {
+        Long index = null;
+        String product = null;
+        String version = null;
+        LongArrayList nodes = null;
+        Integer numInternalNodes = null;
+        LongArrayList sources = null;
+        LongArrayList targets = null;
+        String contentType = null;
+        String data = null;
+
+        start(parser, JsonToken.START_OBJECT);
+        for (String field; (field = nextField(parser)) != null; ) {
+            switch (field) {
+                case "index":
+                    index = longValue(parser);
+                    break;
+                case "product":
+                    product = string(parser);
+                    break;
+                case "version":
+                    version = string(parser);
+                    break;
+                case "nodes":
+                    nodes = new LongArrayList();
+                    start(parser, JsonToken.START_ARRAY);
+                    while (nextElement(parser)) {
+                        nodes.add(longValue(parser));
+                    }
+                    break;
+                case "numInternalNodes":
+                    numInternalNodes = intValue(parser);
+                    break;
+                case "edges":
+                    sources = new LongArrayList();
+                    targets = new LongArrayList();
+                    start(parser, JsonToken.START_ARRAY);
+                    while (nextElement(parser)) {
+                        start(parser, JsonToken.START_ARRAY);
+                        parser.nextToken();
+                        sources.add(longValue(parser));
+                        parser.nextToken();
+                        targets.add(longValue(parser));
+                        end(parser, JsonToken.END_ARRAY);
+                    }
+                    break;
+                case "content_type":
+                    contentType = string(parser);
+                    break;
+                case "data":
+                    data = string(parser);
+                    break;
+                default:
+                    skip(parser);
+            }
+        }
+        if (CallGraphCodec.BINARY_CONTENT_TYPE.equals(contentType)) {
+            return GidGraph.fromBinary(decode(data));
+        }
+        return new GidGraph(require(index, "index"), require(product, "product"),
+                require(version, "version"), require(nodes, "nodes").toLongArray(),
+                require(numInternalNodes, "numInternalNodes"),
+                require(sources, "edges").toLongArray(), targets.toLongArray());
+    }
+
+    private static byte[] decode(final String data) {
+        try {
+            return Base64.getDecoder().decode(require(data, "data"));
+        } catch (IllegalArgumentException e) {
+            throw new JSONException("Malformed binary payload", e);
+        }
+    }
+
+    /**
+     * Parses the JSON object whose start token is the current token, converting it as
+     * {@link org.json.JSONObject#toMap()} does.
+     */
+    private static Map<String, Object> map(final JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw error(parser, "a JSON object");
+        }
+        final Map<String, Object> result = new HashMap<>();
+        for (String field; (field = nextField(parser)) != null; ) {
+            result.put(field, value(parser));
+        }
+        return result;
+    }
+
+    /** Parses the JSON value starting at the current token. */
+    private static Object value(final JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT:
+                return map(parser);
+            case START_ARRAY:
+                final List<Object> list = new ArrayList<>();
+                while (nextElement(parser)) {
+                    list.add(value(parser));
+                }
+                return list;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                throw error(parser, "a JSON value");
+        }
+    }
+
+    private static <T extends List<FastenURI>> T uris(final JsonParser parser, final T uris)
+            throws IOException {
+        start(parser, JsonToken.START_ARRAY);
+        while (nextElement(parser)) {
+            uris.add(uri(parser, string(parser)));
+        }
+        return uris;
+    }
+
+    /** Parses a method ID, given as a field name or a string. */
+    private static int id(final JsonParser parser, final String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw error(parser, "a number", e);
+        }
+    }
+
+    /** Parses a FASTEN URI, given as a field name or a string. */
+    private static FastenURI uri(final JsonParser parser, final String text) {
+        try {
+            return FastenURI.create(text);
+        } catch (IllegalArgumentException e) {
+            throw error(parser, "a FASTEN URI", e);
+        }
+    }
+
+    private static String string(final JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw error(parser, "a string");
+        }
+        return parser.getText();
+    }
+
+    /** Returns the current token as a long; as in org.json, numeric strings are accepted. */
+    private static long longValue(final JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        try {
+            return Long.parseLong(string(parser));
+        } catch (NumberFormatException e) {
+            throw error(parser, "a number");
+        }
+    }
+
+    /** Returns the current token as an int; as in org.json, numeric strings are accepted. */
+    private static int intValue(final JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        try {
+            return Integer.parseInt(string(parser));
+        } catch (NumberFormatException e) {
+            throw error(parser, "a number");
+        }
+    }
+
+    private static boolean booleanValue(final JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_TRUE:
+                return true;
+            case VALUE_FALSE:
+                return false;
+            default:
+                throw error(parser, "a boolean");
+        }
+    }
+
+    /**
+     * Checks that the current token is the given start token; if no token has been read yet, the
+     * first token is read.
+     */
+    private static void start(final JsonParser parser, final JsonToken token) throws IOException {
+        if (parser.currentToken() == null) {
+            parser.nextToken();
+        }
+        if (parser.currentToken() != token) {
+            throw error(parser, token == JsonToken.START_OBJECT ? "a JSON object" : "a JSON array");
+        }
+    }
+
+    /** Checks that the next token is the given end token. */
+    private static void end(final JsonParser parser, final JsonToken token) throws IOException {
+        if (parser.nextToken() != token) {
+            throw error(parser, "end of " + (token == JsonToken.END_OBJECT ? "object" : "array"));
+        }
+    }
+
+    /**
+     * Moves to the value of the next field of the current object.
+     *
+     * @return the name of the field, or null if the object has ended
+     */
+    private static String nextField(final JsonParser parser) throws IOException {
+        final var token = parser.nextToken();
+        if (token == JsonToken.END_OBJECT) {
+            return null;
+        }
+        if (token != JsonToken.FIELD_NAME) {
+            throw error(parser, "a field name");
+        }
+        final var name = parser.getCurrentName();
+        parser.nextToken();
+        return name;
+    }
+
+    /**
+     * Moves to the next element of the current array, leaving the parser on its first token.
+     *
+     * @return false if the array has ended
+     */
+    private static boolean nextElement(final JsonParser parser) throws IOException {
+        final var token = parser.nextToken();
+        if (token == null) {
+            throw error(parser, "end of array");
+        }
+        return token != JsonToken.END_ARRAY;
+    }
+
+    /** Skips the value of the current field. */
+    private static void skip(final JsonParser parser) throws IOException {
+        parser.skipChildren();
+    }
+
+    private static <T> T require(final T value, final String key) {
+        if (value == null) {
+            throw new JSONException("JSONObject[\"" + key + "\"] not found.");
+        }
+        return value;
+    }
+
+    private static JSONException error(final JsonParser parser, final String expected) {
+        return new JSONException("Expected " + expected + " at " + parser.getCurrentLocation());
+    }
+
+    private static JSONException error(final JsonParser parser, final String expected,
+                                       final Throwable cause) {
+        return new JSONException("Expected " + expected + " at " + parser.getCurrentLocation(),
+                cause);
+    }
+}
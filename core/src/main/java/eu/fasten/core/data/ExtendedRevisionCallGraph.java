@@ -304,6 +304,26 @@ public class ExtendedRevisionCallGraph {
         return result;
     }
 
+    /**
+     * Produces the compact binary representation of this {@link ExtendedRevisionCallGraph}.
+     *
+     * @param compress whether the representation should be compressed
+     * @return the binary representation (see {@link CallGraphCodec})
+     */
+    public byte[] toBinary(final boolean compress) {
+        return CallGraphCodec.encode(this, compress);
+    }
+
+    /**
+     * Creates {@link ExtendedRevisionCallGraph} from its binary representation.
+     *
+     * @param data binary representation produced by {@link #toBinary(boolean)}
+     * @return the revision call graph
+     */
+    public static ExtendedRevisionCallGraph fromBinary(final byte[] data) {
+        return CallGraphCodec.decodeExtendedRevisionCallGraph(data);
+    }
+
     /**
      * Builder for {@link ExtendedRevisionCallGraph}.
      */
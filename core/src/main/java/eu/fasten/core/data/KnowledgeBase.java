@@ -33,6 +33,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.rocksdb.ColumnFamilyDescriptor;
@@ -40,8 +42,11 @@ import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.CompressionType;
 import org.rocksdb.DBOptions;
+import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.Slice;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,6 +67,7 @@ import it.unimi.dsi.fastutil.ints.IntArrays;
 import it.unimi.dsi.fastutil.io.BinIO;
 import it.unimi.dsi.fastutil.io.FastByteArrayOutputStream;
 import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
@@ -74,11 +80,17 @@ import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.longs.LongSets;
 import it.unimi.dsi.fastutil.objects.AbstractObjectCollection;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayFIFOQueue;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectHeapPriorityQueue;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.unimi.dsi.fastutil.objects.ObjectLists;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import it.unimi.dsi.io.InputBitStream;
 import it.unimi.dsi.io.NullInputStream;
 import it.unimi.dsi.lang.MutableString;
@@ -102,6 +114,10 @@ import it.unimi.dsi.webgraph.Transform;
  *         to its internal nodes, and LIDs from <var>a</var> (inclusive) to <var>a</var>+<var>b</var> (exclusive) correspond to its external nodes;
  *       <li>for internal nodes only: through the JSON identifier, that is the integer used to identify that node within the JSON object that represents that call graph.
  *   </ul>
+ *
+ *   <p>Queries (successors, predecessors, reachability and shortest paths) only read the knowledge base,
+ *   so they can be executed concurrently by several threads, as long as no call graph is {@linkplain #add(RevisionCallGraph, long) added}
+ *   at the same time.
  */
 public class KnowledgeBase implements Serializable, Closeable {
 	private static final long serialVersionUID = 1L;
@@ -217,8 +233,11 @@ public class KnowledgeBase implements Serializable, Closeable {
 	/** The knowledged base is read-only. */
 	private boolean readOnly;
 
-	/** The {@link Kryo} object used to serialize data to the database. */
-	private transient Kryo kryo;
+	/**
+	 * The {@link Kryo} objects used to serialize data to the database; since {@link Kryo} is not
+	 * thread safe, each thread uses its own instance, so call graphs can be loaded concurrently.
+	 */
+	private transient ThreadLocal<Kryo> kryo;
 
 	/**
 	 * The pathname of the file containing the metadata of this knowledge base.
@@ -241,6 +260,18 @@ public class KnowledgeBase implements Serializable, Closeable {
 	/** The next GID available. */
 	private long nextGID;
 
+	/**
+	 * Maps each product to a map from its versions to the corresponding revision index. Product and
+	 * version strings are interned. This map is not serialized: it is rebuilt from {@link #callGraphs}
+	 * when the knowledge base is loaded.
+	 */
+	private transient Object2ObjectOpenHashMap<String, Object2LongOpenHashMap<String>> product2Version2Index;
+
+	/**
+	 * The same maps of {@link #product2Version2Index}, sorted by product, to support prefix lookups.
+	 */
+	private transient Object2ObjectAVLTreeMap<String, Object2LongOpenHashMap<String>> sortedProduct2Version2Index;
+
 	private FastenURI gid2URI(final long gid) {
 		byte[] result;
 		try {
@@ -308,9 +339,13 @@ public class KnowledgeBase implements Serializable, Closeable {
 		public LongList successors(final long node) {
 			final int lid = GID2LID.get(node);
 			if (lid < 0) throw new IllegalArgumentException("GID " + node + " does not exist");
-			final int outdegree = graph.outdegree(lid);
-			final LongArrayList gidList = new LongArrayList(outdegree);
-			for (final int s: graph.successorArray(lid)) gidList.add(LID2GID[s]);
+			final int[] successors;
+			// Random access to a BVGraph is not thread safe
+			synchronized (graph) {
+				successors = graph.successorArray(lid);
+			}
+			final LongArrayList gidList = new LongArrayList(successors.length);
+			for (final int s: successors) gidList.add(LID2GID[s]);
 			return gidList;
 		}
 
@@ -318,9 +353,12 @@ public class KnowledgeBase implements Serializable, Closeable {
 		public LongList predecessors(final long node) {
 			final int lid = GID2LID.get(node);
 			if (lid < 0) throw new IllegalArgumentException("GID " + node + " does not exist");
-			final int indegree = transpose.outdegree(lid);
-			final LongArrayList gidList = new LongArrayList(indegree);
-			for (final int s: transpose.successorArray(lid)) gidList.add(LID2GID[s]);
+			final int[] predecessors;
+			synchronized (transpose) {
+				predecessors = transpose.successorArray(lid);
+			}
+			final LongArrayList gidList = new LongArrayList(predecessors.length);
+			for (final int s: predecessors) gidList.add(LID2GID[s]);
 			return gidList;
 		}
 
@@ -429,8 +467,8 @@ public class KnowledgeBase implements Serializable, Closeable {
 		 * @param index the revision index.
 		 */
 		protected CallGraph(final RevisionCallGraph g, final long index) throws IOException, RocksDBException {
-			product = g.product;
-			version = g.version;
+			product = g.product.intern();
+			version = g.version.intern();
 			forge = g.forge;
 			this.index = index;
 
@@ -529,6 +567,7 @@ public class KnowledgeBase implements Serializable, Closeable {
 			graphProperties.load(propertyFile);
 			propertyFile.close();
 
+			final Kryo kryo = KnowledgeBase.this.kryo.get();
 			final FastByteArrayOutputStream fbaos = new FastByteArrayOutputStream();
 			final ByteBufferOutput bbo = new ByteBufferOutput(fbaos);
 			kryo.writeObject(bbo, BVGraph.load(f.toString()));
@@ -582,23 +621,7 @@ public class KnowledgeBase implements Serializable, Closeable {
 				if (callGraphData != null) return callGraphData;
 			}
 			try {
-				final byte[] buffer = callGraphDB.get(Longs.toByteArray(index));
-				final Input input = new Input(buffer);
-				assert kryo != null;
-				final var graphs = new ImmutableGraph[] { kryo.readObject(input, BVGraph.class), kryo.readObject(input, BVGraph.class) };
-				final Properties[] properties = new Properties[] { kryo.readObject(input, Properties.class), kryo.readObject(input, Properties.class) };
-				final long[] LID2GID = kryo.readObject(input, long[].class);
-				final Long2IntOpenHashMap GID2LID = kryo.readObject(input, Long2IntOpenHashMap.class);
-
-				/* This might be reinstated if incoming data is correct. See assert above.
-				// Rebuild GID2LID from LID2GID
-				final int n = LID2GID.length;
-				final Long2IntOpenHashMap GID2LID = new Long2IntOpenHashMap(n);
-				GID2LID.defaultReturnValue(-1);
-				for (int i = 0; i < n; i++) GID2LID.put(LID2GID[i], i);
-				*/
-
-				final CallGraphData callGraphData = new CallGraphData(graphs[0], graphs[1], properties[0], properties[1], LID2GID, GID2LID, nInternal, buffer.length);
+				final CallGraphData callGraphData = callGraphData(callGraphDB.get(Longs.toByteArray(index)));
 				this.callGraphData = new SoftReference<>(callGraphData);
 				return callGraphData;
 			} catch (final RocksDBException e) {
@@ -606,6 +629,32 @@ public class KnowledgeBase implements Serializable, Closeable {
 			}
 		}
 
+		/**
+		 * Decodes the call graph and its transpose from the content of the associated database entry.
+		 * The result is not cached.
+		 *
+		 * @param buffer the content of the database entry of this call graph.
+		 * @return the call graph data stored in <code>buffer</code>.
+		 */
+		public CallGraphData callGraphData(final byte[] buffer) {
+			final Input input = new Input(buffer);
+			final Kryo kryo = KnowledgeBase.this.kryo.get();
+			final var graphs = new ImmutableGraph[] { kryo.readObject(input, BVGraph.class), kryo.readObject(input, BVGraph.class) };
+			final Properties[] properties = new Properties[] { kryo.readObject(input, Properties.class), kryo.readObject(input, Properties.class) };
+			final long[] LID2GID = kryo.readObject(input, long[].class);
+			final Long2IntOpenHashMap GID2LID = kryo.readObject(input, Long2IntOpenHashMap.class);
+
+			/* This might be reinstated if incoming data is correct. See assert above.
+			// Rebuild GID2LID from LID2GID
+			final int n = LID2GID.length;
+			final Long2IntOpenHashMap GID2LID = new Long2IntOpenHashMap(n);
+			GID2LID.defaultReturnValue(-1);
+			for (int i = 0; i < n; i++) GID2LID.put(LID2GID[i], i);
+			*/
+
+			return new CallGraphData(graphs[0], graphs[1], properties[0], properties[1], LID2GID, GID2LID, nInternal, buffer.length);
+		}
+
 		@Override
 		public String toString() {
 			final StringBuilder b = new StringBuilder();
@@ -665,9 +714,14 @@ public class KnowledgeBase implements Serializable, Closeable {
 		}
 	}
 
-	/** Initializes the kryo instance used for serialization. */
+	/** Initializes the kryo instances used for serialization. */
 	private void initKryo() {
-		kryo = new Kryo();
+		kryo = ThreadLocal.withInitial(KnowledgeBase::createKryo);
+	}
+
+	/** Creates a kryo instance with the registrations needed for serialization. */
+	private static Kryo createKryo() {
+		final Kryo kryo = new Kryo();
 		kryo.register(BVGraph.class, new BVGraphSerializer(kryo));
 		kryo.register(byte[].class);
 		kryo.register(InputBitStream.class);
@@ -677,6 +731,31 @@ public class KnowledgeBase implements Serializable, Closeable {
 		kryo.register(Properties.class);
 		kryo.register(long[].class);
 		kryo.register(Long2IntOpenHashMap.class);
+		return kryo;
+	}
+
+	/** Initializes the maps from products and versions to revision indices. */
+	private void initRevisionIndex() {
+		product2Version2Index = new Object2ObjectOpenHashMap<>();
+		sortedProduct2Version2Index = new Object2ObjectAVLTreeMap<>();
+		for (final CallGraph callGraph : callGraphs.values()) indexRevision(callGraph);
+	}
+
+	/**
+	 * Adds a call graph to the maps from products and versions to revision indices.
+	 *
+	 * @param callGraph the call graph to be added.
+	 */
+	private void indexRevision(final CallGraph callGraph) {
+		final String product = callGraph.product.intern();
+		Object2LongOpenHashMap<String> version2Index = product2Version2Index.get(product);
+		if (version2Index == null) {
+			version2Index = new Object2LongOpenHashMap<>();
+			version2Index.defaultReturnValue(-1);
+			product2Version2Index.put(product, version2Index);
+			sortedProduct2Version2Index.put(product, version2Index);
+		}
+		version2Index.put(callGraph.version.intern(), callGraph.index);
 	}
 
 	/**
@@ -702,6 +781,7 @@ public class KnowledgeBase implements Serializable, Closeable {
 		this.uri2gidFamilyHandle = uri2GIDFamilyHandle;
 
 		initKryo();
+		initRevisionIndex();
 	}
 
 	/**
@@ -739,6 +819,41 @@ public class KnowledgeBase implements Serializable, Closeable {
 		return kb;
 	}
 
+	/**
+	 * Scans sequentially, in increasing index order, the call graphs whose revision index lies in a
+	 * given range.
+	 *
+	 * <p>
+	 * Differently from {@link CallGraph#callGraphData()}, this method reads the database with an
+	 * iterator (rather than with a point lookup per call graph), and it does not fill either the block
+	 * cache of the database or the cache of {@link CallGraph} instances. It can be called concurrently
+	 * on disjoint ranges.
+	 *
+	 * @param from the first revision index of the range (inclusive).
+	 * @param to the last revision index of the range (exclusive).
+	 * @param readaheadSize the readahead size of the underlying iterator, in bytes, or 0 for the
+	 *            database default.
+	 * @param filter a filter on call graphs: the data of call graphs that are not accepted by the
+	 *            filter is not decoded.
+	 * @param action an action that will be applied to each call graph accepted by
+	 *            <code>filter</code>, together with its data.
+	 */
+	public void scan(final long from, final long to, final long readaheadSize, final Predicate<CallGraph> filter, final BiConsumer<CallGraph, CallGraphData> action) {
+		// Keys are big-endian, so their lexicographical order is the numerical order of indices
+		try (final Slice upperBound = new Slice(Longs.toByteArray(to));
+				final ReadOptions readOptions = new ReadOptions().setFillCache(false).setReadaheadSize(readaheadSize).setIterateUpperBound(upperBound);
+				final RocksIterator iterator = callGraphDB.newIterator(defaultHandle, readOptions)) {
+			for (iterator.seek(Longs.toByteArray(from)); iterator.isValid(); iterator.next()) {
+				final CallGraph callGraph = callGraphs.get(Longs.fromByteArray(iterator.key()));
+				if (callGraph == null || !filter.test(callGraph)) continue;
+				action.accept(callGraph, callGraph.callGraphData(iterator.value()));
+			}
+			iterator.status();
+		} catch (final RocksDBException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	/**
 	 * Adds a given revision index to the set associated to the given gid.
 	 *
@@ -943,14 +1058,67 @@ public class KnowledgeBase implements Serializable, Closeable {
 	 */
 	public Node fastenURI2Node(final FastenURI fastenURI) {
 		if (fastenURI.getVersion() == null) throw new IllegalArgumentException("The FASTEN URI must be versioned");
-		final FastenURI genericURI = FastenURI.createSchemeless(null, fastenURI.getRawProduct(), null, fastenURI.getRawNamespace(), fastenURI.getRawEntity());
+		final long index = revisionIndex(fastenURI.getProduct(), fastenURI.getVersion());
+		if (index == -1) return null;
+		final FastenURI genericURI = FastenURI.createSchemeless(null, null, null, fastenURI.getRawNamespace(), fastenURI.getRawEntity());
 		final long gid = uri2GID(genericURI);
-		if (gid == -1) return null;
-		final String version = fastenURI.getVersion();
-		for (final long index : GIDAppearsIn.get(gid))
-			if (version.equals(callGraphs.get(index).version)) return new Node(gid, index);
+		if (gid == -1 || !GIDAppearsIn.get(gid).contains(index)) return null;
+		return new Node(gid, index);
+	}
 
-		return null;
+	/**
+	 * Returns the revision index of the call graph of a given product and version.
+	 *
+	 * @param product a product.
+	 * @param version a version of <code>product</code>.
+	 * @return the revision index of the call graph of <code>product</code> at <code>version</code>,
+	 *         or -1 if there is no such call graph.
+	 */
+	public long revisionIndex(final String product, final String version) {
+		final Object2LongOpenHashMap<String> version2Index = product2Version2Index.get(product);
+		return version2Index == null ? -1 : version2Index.getLong(version);
+	}
+
+	/**
+	 * Returns the revision indices of the call graphs of all products starting with a given prefix.
+	 *
+	 * @param productPrefix a prefix of product names (the empty string matches all products).
+	 * @return the revision indices of the call graphs of all versions of the products starting with
+	 *         <code>productPrefix</code>, grouped by product in lexicographical order.
+	 */
+	public LongList revisionIndices(final String productPrefix) {
+		final LongArrayList result = new LongArrayList();
+		for (final Entry<String, Object2LongOpenHashMap<String>> e : sortedProduct2Version2Index.tailMap(productPrefix).entrySet()) {
+			// Products starting with the prefix are contiguous in lexicographical order
+			if (!e.getKey().startsWith(productPrefix)) break;
+			result.addAll(e.getValue().values());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns all nodes corresponding to a given generic {@link FastenURI} in the call graphs of
+	 * products starting with a given prefix.
+	 *
+	 * @param genericURI a generic URI.
+	 * @param productPrefix a prefix of product names (the empty string matches all products).
+	 * @return the list of all nodes corresponding to <code>genericURI</code> in the revisions of
+	 *         products starting with <code>productPrefix</code>, or <code>null</code> if
+	 *         <code>genericURI</code> is not indexed.
+	 */
+	public ObjectList<Node> genericURI2Nodes(final FastenURI genericURI, final String productPrefix) {
+		if (genericURI.getVersion() != null || genericURI.getScheme() != null) throw new IllegalArgumentException("The FASTEN URI must be generic and schemeless");
+		final long gid = uri2GID(FastenURI.createSchemeless(null, null, null, genericURI.getRawNamespace(), genericURI.getRawEntity()));
+		if (gid == -1) return null;
+		final LongSet appearsIn = GIDAppearsIn.get(gid);
+		final ObjectArrayList<Node> result = new ObjectArrayList<>();
+		final LongList candidates = productPrefix.isEmpty() ? null : revisionIndices(productPrefix);
+		if (candidates != null && candidates.size() < appearsIn.size()) {
+			for (final long index : candidates) if (appearsIn.contains(index)) result.add(new Node(gid, index));
+		} else {
+			for (final long index : appearsIn) if (callGraphs.get(index).product.startsWith(productPrefix)) result.add(new Node(gid, index));
+		}
+		return result;
 	}
 
 	/**
@@ -978,7 +1146,7 @@ public class KnowledgeBase implements Serializable, Closeable {
 	 * @return the set of all nodes for which there is a directed path from
 	 *         <code>start</code> to that node.
 	 */
-	public synchronized ObjectLinkedOpenHashSet<Node> reaches(final Node start) {
+	public ObjectLinkedOpenHashSet<Node> reaches(final Node start) {
 		final ObjectLinkedOpenHashSet<Node> result = new ObjectLinkedOpenHashSet<>();
 		// Visit queue
 		final ObjectArrayFIFOQueue<Node> queue = new ObjectArrayFIFOQueue<>();
@@ -1003,7 +1171,7 @@ public class KnowledgeBase implements Serializable, Closeable {
 	 * @return the set of all node signatures for which there is a directed path from
 	 *         <code>startSig</code> to that node.
 	 */
-	public synchronized LongSet reaches(final long startSig) {
+	public LongSet reaches(final long startSig) {
 		final LongOpenHashSet result = new LongOpenHashSet();
 		// Visit queue
 		final LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
@@ -1041,7 +1209,7 @@ public class KnowledgeBase implements Serializable, Closeable {
 	 * @return the set of all nodes for which there is a directed path from that node to
 	 *         <code>start</code>.
 	 */
-	public synchronized ObjectLinkedOpenHashSet<Node> coreaches(final Node start) {
+	public ObjectLinkedOpenHashSet<Node> coreaches(final Node start) {
 		final ObjectLinkedOpenHashSet<Node> result = new ObjectLinkedOpenHashSet<>();
 		// Visit queue
 		final ObjectArrayFIFOQueue<Node> queue = new ObjectArrayFIFOQueue<>();
@@ -1067,7 +1235,7 @@ public class KnowledgeBase implements Serializable, Closeable {
 	 * @param fastenURI the starting node.
 	 * @return all the nodes that can be coreached from <code>fastenURI</code>.
 	 */
-	public synchronized Collection<FastenURI> coreaches(final FastenURI fastenURI) {
+	public Collection<FastenURI> coreaches(final FastenURI fastenURI) {
 		final Node start = fastenURI2Node(fastenURI);
 		if (start == null) return null;
 		return new NamedResult(coreaches(start));
@@ -1081,7 +1249,7 @@ public class KnowledgeBase implements Serializable, Closeable {
 	 * @return the set of all node signatures for which there is a directed path from that node to
 	 *         <code>startSig</code>.
 	 */
-	public synchronized LongSet coreaches(final long startSig) {
+	public LongSet coreaches(final long startSig) {
 		final LongOpenHashSet result = new LongOpenHashSet();
 		// Visit queue
 		final LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
@@ -1099,6 +1267,229 @@ public class KnowledgeBase implements Serializable, Closeable {
 		return result;
 	}
 
+	/**
+	 * Returns a shortest path between two node signatures, avoiding some nodes and arcs.
+	 *
+	 * <p>
+	 * The path is computed by a bidirectional breadth-first visit: at each step, we expand by one
+	 * level the smaller frontier, using {@link #successors(long)} for the forward visit and
+	 * {@link #predecessors(long)} for the backward visit. When a level completes with some node known
+	 * to both visits, the shortest path through such nodes is returned.
+	 *
+	 * @param sourceSig the signature of the source node.
+	 * @param targetSig the signature of the target node.
+	 * @param bannedNodes a set of node signatures that cannot appear on the path.
+	 * @param bannedSource the signature of the source of the banned arcs, or -1.
+	 * @param bannedTargets the signatures of the targets of the arcs leaving <code>bannedSource</code>
+	 *            that cannot appear on the path.
+	 * @return a shortest path from <code>sourceSig</code> to <code>targetSig</code> (both included),
+	 *         or <code>null</code> if no such path exists.
+	 */
+	private LongArrayList shortestPath(final long sourceSig, final long targetSig, final LongSet bannedNodes, final long bannedSource, final LongSet bannedTargets) {
+		if (sourceSig == targetSig) return LongArrayList.wrap(new long[] { sourceSig });
+
+		// Parents (children, for the backward visit) and distances of visited nodes
+		final Long2LongOpenHashMap forwardParent = new Long2LongOpenHashMap(), backwardParent = new Long2LongOpenHashMap();
+		final Long2IntOpenHashMap forwardDist = new Long2IntOpenHashMap(), backwardDist = new Long2IntOpenHashMap();
+		forwardDist.defaultReturnValue(-1);
+		backwardDist.defaultReturnValue(-1);
+		forwardParent.put(sourceSig, sourceSig);
+		forwardDist.put(sourceSig, 0);
+		backwardParent.put(targetSig, targetSig);
+		backwardDist.put(targetSig, 0);
+
+		LongArrayList forwardFrontier = LongArrayList.wrap(new long[] { sourceSig });
+		LongArrayList backwardFrontier = LongArrayList.wrap(new long[] { targetSig });
+
+		while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+			final boolean forward = forwardFrontier.size() <= backwardFrontier.size();
+			final LongArrayList frontier = forward ? forwardFrontier : backwardFrontier;
+			final Long2LongOpenHashMap parent = forward ? forwardParent : backwardParent;
+			final Long2IntOpenHashMap dist = forward ? forwardDist : backwardDist;
+			final Long2IntOpenHashMap otherDist = forward ? backwardDist : forwardDist;
+
+			final LongArrayList next = new LongArrayList();
+			long meet = 0;
+			int best = Integer.MAX_VALUE;
+
+			for (final long x : frontier) {
+				final int d = dist.get(x) + 1;
+				for (final long y : forward ? successors(x) : predecessors(x)) {
+					if (bannedNodes.contains(y) || dist.containsKey(y)) continue;
+					if (forward ? x == bannedSource && bannedTargets.contains(y) : y == bannedSource && bannedTargets.contains(x)) continue;
+					parent.put(y, x);
+					dist.put(y, d);
+					next.add(y);
+					final int o = otherDist.get(y);
+					if (o != -1 && d + o < best) {
+						best = d + o;
+						meet = y;
+					}
+				}
+			}
+
+			if (best != Integer.MAX_VALUE) {
+				final long[] path = new long[best + 1];
+				int pos = forwardDist.get(meet);
+				for (long x = meet; pos >= 0; x = forwardParent.get(x)) path[pos--] = x;
+				pos = forwardDist.get(meet);
+				for (long x = meet; x != targetSig;) path[++pos] = x = backwardParent.get(x);
+				return LongArrayList.wrap(path);
+			}
+
+			if (forward) forwardFrontier = next;
+			else backwardFrontier = next;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns a shortest path between two node signatures.
+	 *
+	 * This method is semantically equivalent to {@link #shortestPath(Node, Node)}, but it uses node
+	 * signatures.
+	 *
+	 * @param sourceSig the signature of the source node.
+	 * @param targetSig the signature of the target node.
+	 * @return the list of signatures of the nodes of a shortest path from <code>sourceSig</code> to
+	 *         <code>targetSig</code> (both included), or <code>null</code> if <code>targetSig</code> is
+	 *         not reachable from <code>sourceSig</code>.
+	 * @see #shortestPath(Node, Node)
+	 */
+	public LongList shortestPath(final long sourceSig, final long targetSig) {
+		return shortestPath(sourceSig, targetSig, LongSets.EMPTY_SET, -1, LongSets.EMPTY_SET);
+	}
+
+	/**
+	 * Returns the <code>k</code> shortest simple paths between two node signatures.
+	 *
+	 * <p>
+	 * Paths are computed using Yen's algorithm, with the bidirectional breadth-first visit of
+	 * {@link #shortestPath(long, long)} used to compute spur paths.
+	 *
+	 * @param sourceSig the signature of the source node.
+	 * @param targetSig the signature of the target node.
+	 * @param k the maximum number of paths to be returned.
+	 * @return at most <code>k</code> distinct simple paths from <code>sourceSig</code> to
+	 *         <code>targetSig</code>, in nondecreasing order of length; the list is empty if
+	 *         <code>targetSig</code> is not reachable from <code>sourceSig</code>.
+	 * @see #shortestPaths(Node, Node, int)
+	 */
+	public ObjectList<LongList> shortestPaths(final long sourceSig, final long targetSig, final int k) {
+		if (k <= 0) throw new IllegalArgumentException("The number of paths must be positive: " + k);
+		final ObjectArrayList<LongList> result = new ObjectArrayList<>();
+		final LongArrayList first = shortestPath(sourceSig, targetSig, LongSets.EMPTY_SET, -1, LongSets.EMPTY_SET);
+		if (first == null) return result;
+		result.add(first);
+
+		final ObjectHeapPriorityQueue<LongList> candidates = new ObjectHeapPriorityQueue<>((x, y) -> Integer.compare(x.size(), y.size()));
+		final ObjectOpenHashSet<LongList> known = new ObjectOpenHashSet<>();
+		known.add(first);
+
+		while (result.size() < k) {
+			final LongList last = result.get(result.size() - 1);
+			for (int i = 0; i < last.size() - 1; i++) {
+				final long spurSig = last.getLong(i);
+				final LongList root = last.subList(0, i + 1);
+				// Ban the arcs leaving the spur node along paths sharing the same root
+				final LongOpenHashSet bannedTargets = new LongOpenHashSet();
+				for (final LongList path : result) if (path.size() > i + 1 && path.subList(0, i + 1).equals(root)) bannedTargets.add(path.getLong(i + 1));
+				// Ban the nodes of the root, except for the spur node, to keep paths simple
+				final LongOpenHashSet bannedNodes = new LongOpenHashSet(last.subList(0, i));
+
+				final LongArrayList spurPath = shortestPath(spurSig, targetSig, bannedNodes, spurSig, bannedTargets);
+				if (spurPath == null) continue;
+				final LongArrayList candidate = new LongArrayList(last.subList(0, i));
+				candidate.addAll(spurPath);
+				if (known.add(candidate)) candidates.enqueue(candidate);
+			}
+			if (candidates.isEmpty()) break;
+			result.add(candidates.dequeue());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns a shortest path between two nodes.
+	 *
+	 * @param source the source node.
+	 * @param target the target node.
+	 * @return the list of nodes of a shortest path from <code>source</code> to <code>target</code>
+	 *         (both included), or <code>null</code> if <code>target</code> is not reachable from
+	 *         <code>source</code>.
+	 */
+	public ObjectList<Node> shortestPath(final Node source, final Node target) {
+		final LongList path = shortestPath(source.signature(), target.signature());
+		return path == null ? null : signatures2Nodes(path);
+	}
+
+	/**
+	 * Returns the <code>k</code> shortest simple paths between two nodes.
+	 *
+	 * @param source the source node.
+	 * @param target the target node.
+	 * @param k the maximum number of paths to be returned.
+	 * @return at most <code>k</code> distinct simple paths from <code>source</code> to
+	 *         <code>target</code>, in nondecreasing order of length.
+	 */
+	public ObjectList<ObjectList<Node>> shortestPaths(final Node source, final Node target, final int k) {
+		final ObjectArrayList<ObjectList<Node>> result = new ObjectArrayList<>();
+		for (final LongList path : shortestPaths(source.signature(), target.signature(), k)) result.add(signatures2Nodes(path));
+		return result;
+	}
+
+	/**
+	 * Returns a shortest path between two {@link FastenURI}s; just a convenience method to be used
+	 * instead of {@link #shortestPath(Node, Node)}.
+	 *
+	 * @param source the source node.
+	 * @param target the target node.
+	 * @return the {@link FastenURI}s of the nodes of a shortest path from <code>source</code> to
+	 *         <code>target</code>, an empty list if there is no such path, or <code>null</code> if
+	 *         one of the two nodes is not indexed.
+	 */
+	public List<FastenURI> shortestPath(final FastenURI source, final FastenURI target) {
+		final Node sourceNode = fastenURI2Node(source);
+		final Node targetNode = fastenURI2Node(target);
+		if (sourceNode == null || targetNode == null) return null;
+		final ObjectList<Node> path = shortestPath(sourceNode, targetNode);
+		return path == null ? ObjectLists.emptyList() : nodes2FastenURIs(path);
+	}
+
+	/**
+	 * Returns the <code>k</code> shortest simple paths between two {@link FastenURI}s; just a
+	 * convenience method to be used instead of {@link #shortestPaths(Node, Node, int)}.
+	 *
+	 * @param source the source node.
+	 * @param target the target node.
+	 * @param k the maximum number of paths to be returned.
+	 * @return at most <code>k</code> distinct simple paths from <code>source</code> to
+	 *         <code>target</code>, in nondecreasing order of length, or <code>null</code> if one
+	 *         of the two nodes is not indexed.
+	 */
+	public List<List<FastenURI>> shortestPaths(final FastenURI source, final FastenURI target, final int k) {
+		final Node sourceNode = fastenURI2Node(source);
+		final Node targetNode = fastenURI2Node(target);
+		if (sourceNode == null || targetNode == null) return null;
+		final ObjectArrayList<List<FastenURI>> result = new ObjectArrayList<>();
+		for (final ObjectList<Node> path : shortestPaths(sourceNode, targetNode, k)) result.add(nodes2FastenURIs(path));
+		return result;
+	}
+
+	private ObjectList<Node> signatures2Nodes(final LongList signatures) {
+		final ObjectArrayList<Node> nodes = new ObjectArrayList<>(signatures.size());
+		for (final long sig : signatures) nodes.add(new Node(gid(sig), index(sig)));
+		return nodes;
+	}
+
+	private static List<FastenURI> nodes2FastenURIs(final ObjectList<Node> nodes) {
+		final ObjectArrayList<FastenURI> uris = new ObjectArrayList<>(nodes.size());
+		for (final Node node : nodes) uris.add(node.toFastenURI());
+		return uris;
+	}
+
 	/**
 	 * Adds a new {@link CallGraph} to the list of all call graphs.
 	 *
@@ -1109,7 +1500,9 @@ public class KnowledgeBase implements Serializable, Closeable {
 	 */
 	public synchronized void add(final RevisionCallGraph g, final long index) throws IOException, RocksDBException {
 		if (readOnly) throw new IllegalStateException();
-		callGraphs.put(index, new CallGraph(g, index));
+		final CallGraph callGraph = new CallGraph(g, index);
+		callGraphs.put(index, callGraph);
+		indexRevision(callGraph);
 	}
 
 	@Override
@@ -1136,6 +1529,7 @@ public class KnowledgeBase implements Serializable, Closeable {
 	private void readObject(final ObjectInputStream s) throws IOException, ClassNotFoundException {
 		s.defaultReadObject();
 		initKryo();
+		initRevisionIndex();
 	}
 
 	/**
@@ -18,23 +18,31 @@
 
 package eu.fasten.core.data.graphdb;
 
+import eu.fasten.core.data.CallGraphCodec;
 import eu.fasten.core.data.metadatadb.codegen.tables.records.EdgesRecord;
-import org.jooq.JSONB;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
+/**
+ * Call graph whose nodes are identified by their global ID (GID) in the metadata database.
+ *
+ * <p>Nodes and edges are stored in primitive arrays, so that graphs with millions of arcs can be
+ * built, encoded (see {@link CallGraphCodec}) and stored in the graph database without boxing
+ * each ID. Edges are stored as two parallel arrays of source and target GIDs.
+ */
 public class GidGraph {
 
     private final long index;
     private final String product;
     private final String version;
-    private final List<Long> nodes;
+    private final long[] nodes;
     private final int numInternalNodes;
-    private final List<List<Long>> edges;
+    private final long[] sources;
+    private final long[] targets;
 
     /**
      * Constructor for Graph.
@@ -42,21 +50,46 @@ public class GidGraph {
      * @param index            ID of the graph (index from postgres)
      * @param product          Product name
      * @param version          Product version
-     * @param nodes            List of Global IDs of nodes of the graph
+     * @param nodes            Global IDs of nodes of the graph
      *                         (first internal nodes, then external nodes)
-     * @param numInternalNodes Number of internal nodes in nodes list
-     * @param edges            List of edges of the graph with pairs for Global IDs
+     * @param numInternalNodes Number of internal nodes in nodes array
+     * @param sources          Global IDs of the sources of the edges of the graph
+     * @param targets          Global IDs of the targets of the edges of the graph
+     * @throws IllegalArgumentException if sources and targets do not have the same length
      */
-    public GidGraph(long index, String product, String version, List<Long> nodes, int numInternalNodes,
-                    List<EdgesRecord> edges) {
+    public GidGraph(long index, String product, String version, long[] nodes, int numInternalNodes,
+                    long[] sources, long[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Sources and targets of edges differ in length");
+        }
         this.index = index;
         this.product = product;
         this.version = version;
         this.nodes = nodes;
         this.numInternalNodes = numInternalNodes;
-        this.edges = edges.parallelStream()
-                .map((r) -> List.of(r.getSourceId(), r.getTargetId()))
-                .collect(Collectors.toList());
+        this.sources = sources;
+        this.targets = targets;
+    }
+
+    /**
+     * Constructor for Graph.
+     *
+     * @param index            ID of the graph (index from postgres)
+     * @param product          Product name
+     * @param version          Product version
+     * @param nodes            List of Global IDs of nodes of the graph
+     *                         (first internal nodes, then external nodes)
+     * @param numInternalNodes Number of internal nodes in nodes list
+     * @param edges            List of edges of the graph with pairs for Global IDs
+     */
+    public GidGraph(long index, String product, String version, List<Long> nodes, int numInternalNodes,
+                    List<EdgesRecord> edges) {
+        this(index, product, version, nodes.stream().mapToLong(Long::longValue).toArray(),
+                numInternalNodes, new long[edges.size()], new long[edges.size()]);
+        for (int i = 0; i < edges.size(); i++) {
+            sources[i] = edges.get(i).getSourceId();
+            targets[i] = edges.get(i).getTargetId();
+        }
     }
 
     public long getIndex() {
@@ -71,7 +104,13 @@ public class GidGraph {
         return version;
     }
 
-    public List<Long> getNodes() {
+    /**
+     * Returns the Global IDs of the nodes of the graph, first internal nodes, then external
+     * nodes. The array is not copied and must not be modified.
+     *
+     * @return nodes of the graph
+     */
+    public long[] getNodes() {
         return nodes;
     }
 
@@ -79,8 +118,28 @@ public class GidGraph {
         return numInternalNodes;
     }
 
-    public List<List<Long>> getEdges() {
-        return edges;
+    public int getNumEdges() {
+        return sources.length;
+    }
+
+    /**
+     * Returns the Global IDs of the sources of the edges. The array is not copied and must not
+     * be modified.
+     *
+     * @return sources of the edges, in the same order as {@link #getTargets()}
+     */
+    public long[] getSources() {
+        return sources;
+    }
+
+    /**
+     * Returns the Global IDs of the targets of the edges. The array is not copied and must not
+     * be modified.
+     *
+     * @return targets of the edges, in the same order as {@link #getSources()}
+     */
+    public long[] getTargets() {
+        return targets;
     }
 
     /**
@@ -93,12 +152,36 @@ public class GidGraph {
         json.put("index", getIndex());
         json.put("product", getProduct());
         json.put("version", getVersion());
-        json.put("nodes", getNodes());
+        json.put("nodes", new JSONArray(nodes));
         json.put("numInternalNodes", getNumInternalNodes());
-        json.put("edges", getEdges());
+        var edges = new JSONArray();
+        for (int i = 0; i < sources.length; i++) {
+            edges.put(new JSONArray(new long[]{sources[i], targets[i]}));
+        }
+        json.put("edges", edges);
         return json.toString();
     }
 
+    /**
+     * Converts the Graph object into its compact binary representation.
+     *
+     * @param compress whether the representation should be compressed
+     * @return binary representation of the graph (see {@link CallGraphCodec})
+     */
+    public byte[] toBinary(boolean compress) {
+        return CallGraphCodec.encode(this, compress);
+    }
+
+    /**
+     * Creates Graph object from its binary representation.
+     *
+     * @param data binary representation produced by {@link #toBinary(boolean)}
+     * @return Graph instance
+     */
+    public static GidGraph fromBinary(byte[] data) {
+        return CallGraphCodec.decodeGidGraph(data);
+    }
+
     /**
      * Creates Graph object from JSON object.
      *
@@ -114,19 +197,20 @@ public class GidGraph {
         var product = jsonGraph.getString("product");
         var version = jsonGraph.getString("version");
         var jsonNodes = jsonGraph.getJSONArray("nodes");
-        List<Long> nodes = new ArrayList<>(jsonNodes.length());
-        for (int i = 0; i < jsonNodes.length(); i++) {
-            nodes.add(jsonNodes.getLong(i));
+        var nodes = new long[jsonNodes.length()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = jsonNodes.getLong(i);
         }
         var numInternalNodes = jsonGraph.getInt("numInternalNodes");
         var jsonEdges = jsonGraph.getJSONArray("edges");
-        List<EdgesRecord> edges = new ArrayList<>(jsonEdges.length());
-        for (int i = 0; i < jsonEdges.length(); i++) {
+        var sources = new long[jsonEdges.length()];
+        var targets = new long[jsonEdges.length()];
+        for (int i = 0; i < sources.length; i++) {
             var edgeArr = jsonEdges.getJSONArray(i);
-            var edge = new EdgesRecord(edgeArr.getLong(0), edgeArr.getLong(1), JSONB.valueOf(""));
-            edges.add(edge);
+            sources[i] = edgeArr.getLong(0);
+            targets[i] = edgeArr.getLong(1);
         }
-        return new GidGraph(index, product, version, nodes, numInternalNodes, edges);
+        return new GidGraph(index, product, version, nodes, numInternalNodes, sources, targets);
     }
 
     @Override
@@ -147,13 +231,21 @@ public class GidGraph {
         if (!Objects.equals(version, gidGraph.version)) {
             return false;
         }
-        if (!Objects.equals(nodes, gidGraph.nodes)) {
+        if (!Arrays.equals(nodes, gidGraph.nodes)) {
             return false;
         }
         if (!Objects.equals(numInternalNodes, gidGraph.numInternalNodes)) {
             return false;
         }
-        return Objects.equals(edges, gidGraph.edges);
+        return Arrays.equals(sources, gidGraph.sources) && Arrays.equals(targets, gidGraph.targets);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(index, product, version, numInternalNodes);
+        result = 31 * result + Arrays.hashCode(nodes);
+        result = 31 * result + Arrays.hashCode(sources);
+        return 31 * result + Arrays.hashCode(targets);
     }
 
     @Override
@@ -23,18 +23,32 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import it.unimi.dsi.fastutil.longs.*;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.DBOptions;
+import org.rocksdb.EnvOptions;
+import org.rocksdb.IngestExternalFileOptions;
+import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.SstFileWriter;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,7 +78,8 @@ public class RocksDao implements Closeable {
 
     private final RocksDB rocksDb;
     private final ColumnFamilyHandle defaultHandle;
-    private Kryo kryo;
+    /** Kryo instances are not thread safe, so each thread has its own. */
+    private ThreadLocal<Kryo> kryo;
     private final Logger logger = LoggerFactory.getLogger(RocksDao.class.getName());
 
     /**
@@ -88,7 +103,11 @@ public class RocksDao implements Closeable {
     }
 
     private void initKryo() {
-        kryo = new Kryo();
+        kryo = ThreadLocal.withInitial(RocksDao::createKryo);
+    }
+
+    private static Kryo createKryo() {
+        final Kryo kryo = new Kryo();
         kryo.register(BVGraph.class, new BVGraphSerializer(kryo));
 		kryo.register(Boolean.class);
         kryo.register(byte[].class);
@@ -100,50 +119,279 @@ public class RocksDao implements Closeable {
         kryo.register(long[].class);
         kryo.register(Long2IntOpenHashMap.class);
 		kryo.register(GOV3LongFunction.class, new JavaSerializer());
+        return kryo;
     }
 
     /**
      * Inserts graph (nodes and edges) into RocksDB database.
      *
      * @param index       Index of the graph (ID from postgres)
-     * @param nodes       List of GID nodes (first internal nodes, then external nodes)
-     * @param numInternal Number of internal nodes in nodes list
-     * @param edges       List of edges (pairs of GIDs)
+     * @param nodes       GID nodes (first internal nodes, then external nodes)
+     * @param numInternal Number of internal nodes in nodes array
+     * @param sources     GIDs of the sources of the edges
+     * @param targets     GIDs of the targets of the edges, in the same order as the sources
+     * @throws IOException      if there was a problem writing to files
+     * @throws RocksDBException if there was a problem inserting in the database
+     */
+    public void saveToRocksDb(final long index, final long[] nodes, final int numInternal,
+                              final long[] sources, final long[] targets)
+            throws IOException, RocksDBException {
+        final FastByteArrayOutputStream fbaos = serialize(nodes, numInternal, sources, targets);
+        rocksDb.put(defaultHandle, Longs.toByteArray(index), 0, 8, fbaos.array, 0, fbaos.length);
+    }
+
+    /**
+     * Inserts a graph into RocksDB database.
+     *
+     * @param gidGraph Graph to insert
+     * @throws IOException      if there was a problem writing to files
+     * @throws RocksDBException if there was a problem inserting in the database
+     */
+    public void saveToRocksDb(final GidGraph gidGraph) throws IOException, RocksDBException {
+        saveToRocksDb(gidGraph.getIndex(), gidGraph.getNodes(), gidGraph.getNumInternalNodes(),
+                gidGraph.getSources(), gidGraph.getTargets());
+    }
+
+    /**
+     * Inserts several graphs into RocksDB database with a single atomic write.
+     *
+     * @param gidGraphs Graphs to insert
      * @throws IOException      if there was a problem writing to files
      * @throws RocksDBException if there was a problem inserting in the database
      */
-    public void saveToRocksDb(final long index, List<Long> nodes, final int numInternal, final List<List<Long>> edges)
+    public void saveToRocksDb(final List<GidGraph> gidGraphs) throws IOException, RocksDBException {
+        try (final WriteBatch batch = new WriteBatch(); final WriteOptions options = new WriteOptions()) {
+            for (final GidGraph gidGraph : gidGraphs) {
+                final FastByteArrayOutputStream fbaos = serialize(gidGraph.getNodes(),
+                        gidGraph.getNumInternalNodes(), gidGraph.getSources(), gidGraph.getTargets());
+                fbaos.trim();
+                batch.put(defaultHandle, Longs.toByteArray(gidGraph.getIndex()), fbaos.array);
+            }
+            rocksDb.write(options, batch);
+        }
+    }
+
+    /**
+     * Loads a stream of graphs into RocksDB database, bypassing its write path.
+     *
+     * <p>Graphs are read in chunks of {@code graphsPerFile} graphs, and each chunk is serialized
+     * by one of {@code numWriters} parallel writers into an SST file sorted by index. The files
+     * are then ingested with {@link RocksDB#ingestExternalFile}, which moves them into the
+     * database without going through the write-ahead log and the memtables, and without the
+     * compactions that the same amount of writes would trigger. When graphs come sorted by
+     * index, e.g., when they are read from the metadata database by package version ID, the
+     * files cover disjoint index ranges and are ingested with a single call, which places them
+     * in the bottommost level when the database does not contain those indexes yet.
+     *
+     * <p>Writers are assigned consecutive chunks of the stream rather than fixed ranges of
+     * indexes, because the indexes of the graphs are not known in advance: the stream is read
+     * only once, and a writer never waits for graphs of its range. Thus, whether the files are
+     * disjoint depends only on the order of the stream, and an unsorted stream is still loaded
+     * correctly, with overlapping files ingested by separate calls.
+     *
+     * <p>If a graph index occurs several times in the stream, the last graph is kept.
+     *
+     * @param gidGraphs     Graphs to insert
+     * @param sstDir        Directory where SST files are written before their ingestion
+     * @param numWriters    Number of SST files written in parallel
+     * @param graphsPerFile Number of graphs written to each SST file
+     * @return the number of graphs ingested, including those replaced by a later SST file
+     * @throws IOException      if there was a problem writing to files
+     * @throws RocksDBException if there was a problem writing or ingesting SST files
+     */
+    public long bulkLoad(final Iterator<GidGraph> gidGraphs, final File sstDir,
+                         final int numWriters, final int graphsPerFile)
             throws IOException, RocksDBException {
-        final var nodesSet = new LongLinkedOpenHashSet(nodes);
-        nodes = nodesSet.parallelStream().collect(Collectors.toList());
-        final var edgeNodesSet = new LongOpenHashSet();
-        for (final var edge : edges) {
-            edgeNodesSet.addAll(edge);
+        if (numWriters < 1 || graphsPerFile < 1) {
+            throw new IllegalArgumentException("There must be at least one writer and one graph per file");
         }
-        // Nodes list must contain all nodes which are in edges
-        if (!nodesSet.containsAll(edgeNodesSet)) {
-            edgeNodesSet.removeAll(nodesSet);
-            throw new IllegalArgumentException("Some nodes from edges are not in the nodes list:\n"
-                    + edgeNodesSet);
+        if (!sstDir.isDirectory() && !sstDir.mkdirs()) {
+            throw new IOException("Could not create directory " + sstDir);
         }
-        final long[] temporary2GID = new long[nodes.size()];
-        final var nodesList = new LongArrayList(nodes);
-        LongIterators.unwrap(nodesList.iterator(), temporary2GID);
-        // Compute the reverse map
-        final Long2IntOpenHashMap GID2Temporary = new Long2IntOpenHashMap();
+        final ExecutorService executor = Executors.newFixedThreadPool(numWriters);
+        // At most two chunks per writer are kept in memory
+        final Semaphore inFlight = new Semaphore(2 * numWriters);
+        final List<Future<SstFile>> futures = new ArrayList<>();
+        final List<SstFile> files = new ArrayList<>();
+        try {
+            while (gidGraphs.hasNext()) {
+                final List<GidGraph> chunk = new ArrayList<>(graphsPerFile);
+                while (chunk.size() < graphsPerFile && gidGraphs.hasNext()) {
+                    chunk.add(gidGraphs.next());
+                }
+                final File file = sstFile(sstDir, futures.size());
+                inFlight.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return writeSstFile(chunk, file);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (final Future<SstFile> future : futures) {
+                files.add(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing SST files", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException)cause;
+            if (cause instanceof RocksDBException) throw (RocksDBException)cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+            if (files.size() < futures.size()) {
+                // Wait for the other writers before deleting their files
+                try {
+                    executor.awaitTermination(1, TimeUnit.MINUTES);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    sstFile(sstDir, i).delete();
+                }
+            }
+        }
+        return ingest(files);
+    }
+
+    private static File sstFile(final File sstDir, final int index) {
+        return new File(sstDir, String.format("graphs-%08d.sst", index));
+    }
+
+    /** An SST file written by {@link #writeSstFile(List, File)}. */
+    private static final class SstFile {
+        private final File file;
+        private final long firstIndex;
+        private final long lastIndex;
+        private final int numGraphs;
+
+        private SstFile(final File file, final long firstIndex, final long lastIndex, final int numGraphs) {
+            this.file = file;
+            this.firstIndex = firstIndex;
+            this.lastIndex = lastIndex;
+            this.numGraphs = numGraphs;
+        }
+    }
+
+    /**
+     * Writes a chunk of graphs to an SST file, sorted by index.
+     *
+     * @param chunk Graphs to write (at least one)
+     * @param file  SST file
+     * @return the written SST file
+     * @throws IOException      if there was a problem writing to files
+     * @throws RocksDBException if there was a problem writing the SST file
+     */
+    private SstFile writeSstFile(final List<GidGraph> chunk, final File file)
+            throws IOException, RocksDBException {
+        // Stable sort, so that the last of several graphs with the same index can be kept
+        chunk.sort(Comparator.comparingLong(GidGraph::getIndex));
+        int numGraphs = 0;
+        try (final Options options = new Options(); final EnvOptions envOptions = new EnvOptions();
+             final SstFileWriter writer = new SstFileWriter(envOptions, options)) {
+            writer.open(file.getPath());
+            for (int i = 0; i < chunk.size(); i++) {
+                final GidGraph gidGraph = chunk.get(i);
+                if (i + 1 < chunk.size() && chunk.get(i + 1).getIndex() == gidGraph.getIndex()) {
+                    continue;
+                }
+                final FastByteArrayOutputStream fbaos = serialize(gidGraph.getNodes(),
+                        gidGraph.getNumInternalNodes(), gidGraph.getSources(), gidGraph.getTargets());
+                fbaos.trim();
+                writer.put(Longs.toByteArray(gidGraph.getIndex()), fbaos.array);
+                numGraphs++;
+            }
+            writer.finish();
+        }
+        return new SstFile(file, chunk.get(0).getIndex(), chunk.get(chunk.size() - 1).getIndex(), numGraphs);
+    }
+
+    /**
+     * Ingests SST files in the order in which they have been written. Consecutive files covering
+     * disjoint index ranges are ingested together; a file overlapping with a previous one is
+     * ingested by a later call, so that its graphs replace those of previous files.
+     *
+     * @param files SST files, in the order of the stream of graphs
+     * @return the number of graphs ingested
+     * @throws RocksDBException if there was a problem ingesting the files
+     */
+    private long ingest(final List<SstFile> files) throws RocksDBException {
+        long numGraphs = 0;
+        try (final IngestExternalFileOptions options = new IngestExternalFileOptions()) {
+            options.setMoveFiles(true);
+            final List<String> batch = new ArrayList<>();
+            long batchLastIndex = Long.MIN_VALUE;
+            for (final SstFile file : files) {
+                if (!batch.isEmpty() && file.firstIndex <= batchLastIndex) {
+                    rocksDb.ingestExternalFile(defaultHandle, batch, options);
+                    batch.clear();
+                }
+                batch.add(file.file.getPath());
+                batchLastIndex = file.lastIndex;
+                numGraphs += file.numGraphs;
+            }
+            if (!batch.isEmpty()) {
+                rocksDb.ingestExternalFile(defaultHandle, batch, options);
+            }
+        } finally {
+            for (final SstFile file : files) {
+                file.file.delete();
+            }
+        }
+        logger.info("Ingested " + numGraphs + " graphs from " + files.size() + " SST files");
+        return numGraphs;
+    }
+
+    /**
+     * Compresses and serializes a graph in the format of database entries.
+     *
+     * @param nodes       GID nodes (first internal nodes, then external nodes)
+     * @param numInternal Number of internal nodes in nodes array
+     * @param sources     GIDs of the sources of the edges
+     * @param targets     GIDs of the targets of the edges, in the same order as the sources
+     * @return a stream containing the serialized graph
+     * @throws IOException if there was a problem writing to files
+     */
+    private FastByteArrayOutputStream serialize(final long[] nodes, final int numInternal,
+                                                final long[] sources, final long[] targets)
+            throws IOException {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Sources and targets of edges differ in length");
+        }
+        final Kryo kryo = this.kryo.get();
+        // Compute the temporary IDs (the positions of the distinct nodes) and the reverse map
+        final Long2IntOpenHashMap GID2Temporary = new Long2IntOpenHashMap(nodes.length);
         GID2Temporary.defaultReturnValue(-1);
-        for (int i = 0; i < temporary2GID.length; i++) {
-            final long result = GID2Temporary.put(temporary2GID[i], i);
-            assert result == -1; // Internal and external GIDs should be
-            // disjoint by construction
+        final long[] distinct = new long[nodes.length];
+        int numDistinct = 0;
+        for (final long node : nodes) {
+            if (GID2Temporary.putIfAbsent(node, numDistinct) == -1) {
+                distinct[numDistinct++] = node;
+            }
+        }
+        final long[] temporary2GID = numDistinct == nodes.length
+                ? distinct : Arrays.copyOf(distinct, numDistinct);
+        // Nodes list must contain all nodes which are in edges
+        final var missingNodes = new LongOpenHashSet();
+        for (int i = 0; i < sources.length; i++) {
+            if (!GID2Temporary.containsKey(sources[i])) missingNodes.add(sources[i]);
+            if (!GID2Temporary.containsKey(targets[i])) missingNodes.add(targets[i]);
+        }
+        if (!missingNodes.isEmpty()) {
+            throw new IllegalArgumentException("Some nodes from edges are not in the nodes list:\n"
+                    + missingNodes);
         }
         // Create, store and load compressed versions of the graph and of the transpose.
         // First create the graph as an ArrayListMutableGraph
         final ArrayListMutableGraph mutableGraph = new ArrayListMutableGraph(temporary2GID.length);
         // Add arcs between internal nodes
-        for (final List<Long> edge : edges) {
-            final int sourceId = GID2Temporary.applyAsInt(edge.get(0));
-            final int targetId = GID2Temporary.applyAsInt(edge.get(1));
+        for (int i = 0; i < sources.length; i++) {
+            final int sourceId = GID2Temporary.get(sources[i]);
+            final int targetId = GID2Temporary.get(targets[i]);
             try {
                 mutableGraph.addArc(sourceId, targetId);
             } catch (final IllegalArgumentException e) {
@@ -201,12 +449,11 @@ public class RocksDao implements Closeable {
         kryo.writeObject(bbo, LID2GID);
         kryo.writeObject(bbo, GID2LID);
         bbo.flush();
-        // Write to DB
-        rocksDb.put(defaultHandle, Longs.toByteArray(index), 0, 8, fbaos.array, 0, fbaos.length);
         new File(file.toString() + BVGraph.PROPERTIES_EXTENSION).delete();
         new File(file.toString() + BVGraph.OFFSETS_EXTENSION).delete();
         new File(file.toString() + BVGraph.GRAPH_EXTENSION).delete();
         file.delete();
+        return fbaos;
     }
 
     /**
@@ -220,7 +467,7 @@ public class RocksDao implements Closeable {
             throws RocksDBException {
         final byte[] buffer = rocksDb.get(Longs.toByteArray(index));
         final Input input = new Input(buffer);
-        assert kryo != null;
+        final Kryo kryo = this.kryo.get();
 		final boolean compressed = kryo.readObject(input, Boolean.class).booleanValue();
 
         final var graphs = new ImmutableGraph[]{
@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.metadatadb;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.EdgesRecord;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import org.json.JSONObject;
+
+/**
+ * Call sites of an edge, i.e., the instructions of the source callable that call the target
+ * one. This is the content of 'edges.call_sites', which replaces the JSON map from program
+ * counters to <code>{"receiver": ..., "line": ..., "type": ...}</code> objects produced by the
+ * call graph generators.
+ *
+ * <p>Call sites are kept sorted by program counter, in parallel arrays. Receiver types are
+ * referred to by their ID in the 'callable_uris' dictionary; 0 means that the receiver is
+ * unknown. The binary representation is the number of call sites followed, for each call site,
+ * by the deltas of its program counter, line and receiver from the previous call site, and by
+ * its call type; all integers are variable-length coded. A call site typically takes 4 bytes.
+ */
+public final class CallSites {
+
+    /**
+     * Types of the invocation instructions.
+     */
+    public enum CallType {
+        INVOKESTATIC, INVOKESPECIAL, INVOKEVIRTUAL, INVOKEINTERFACE, INVOKEDYNAMIC, UNKNOWN;
+
+        private static final CallType[] VALUES = values();
+
+        /**
+         * Returns the mnemonic of the instruction.
+         *
+         * @return mnemonic, e.g., "invokevirtual"
+         */
+        public String mnemonic() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Returns the type of an instruction.
+         *
+         * @param mnemonic mnemonic of the instruction
+         * @return type of the instruction, or {@link #UNKNOWN} if it is not an invocation
+         */
+        public static CallType of(String mnemonic) {
+            for (var type : VALUES) {
+                if (type.mnemonic().equals(mnemonic)) {
+                    return type;
+                }
+            }
+            return UNKNOWN;
+        }
+    }
+
+    /** An edge without call sites. */
+    public static final CallSites EMPTY = new CallSites(new int[0], new int[0], new CallType[0],
+            new long[0]);
+
+    private final int[] pcs;
+    private final int[] lines;
+    private final CallType[] types;
+    private final long[] receivers;
+
+    /**
+     * Creates call sites from parallel arrays, which are copied.
+     *
+     * @param pcs       program counters
+     * @param lines     line numbers
+     * @param types     call types
+     * @param receivers IDs of the receiver types
+     * @throws IllegalArgumentException if the arrays are not of the same size
+     */
+    public CallSites(int[] pcs, int[] lines, CallType[] types, long[] receivers) {
+        if (pcs.length != lines.length || lines.length != types.length
+                || types.length != receivers.length) {
+            throw new IllegalArgumentException("All arrays should have equal size");
+        }
+        var order = IntStream.range(0, pcs.length).boxed()
+                .sorted(Comparator.comparingInt(i -> pcs[i])).mapToInt(i -> i).toArray();
+        this.pcs = new int[pcs.length];
+        this.lines = new int[pcs.length];
+        this.types = new CallType[pcs.length];
+        this.receivers = new long[pcs.length];
+        for (int i = 0; i < order.length; i++) {
+            this.pcs[i] = pcs[order[i]];
+            this.lines[i] = lines[order[i]];
+            this.types[i] = types[order[i]];
+            this.receivers[i] = receivers[order[i]];
+        }
+    }
+
+    /**
+     * Creates call sites from their JSON representation in call graphs.
+     *
+     * @param callSites map from program counters to call site objects (maps or JSON objects)
+     * @param receivers returns the ID of a receiver type URI
+     * @return call sites
+     */
+    public static CallSites fromJSON(Map<?, ?> callSites, ToLongFunction<String> receivers) {
+        final int size = callSites.size();
+        var pcs = new int[size];
+        var lines = new int[size];
+        var types = new CallType[size];
+        var receiverIds = new long[size];
+        int i = 0;
+        for (var entry : callSites.entrySet()) {
+            var callSite = entry.getValue() instanceof JSONObject
+                    ? ((JSONObject) entry.getValue()).toMap() : (Map<?, ?>) entry.getValue();
+            pcs[i] = Integer.parseInt(entry.getKey().toString());
+            var line = callSite.get("line");
+            lines[i] = line != null ? Integer.parseInt(line.toString()) : -1;
+            var type = callSite.get("type");
+            types[i] = type != null ? CallType.of(type.toString()) : CallType.UNKNOWN;
+            var receiver = callSite.get("receiver");
+            receiverIds[i] = receiver != null ? receivers.applyAsLong(receiver.toString()) : 0;
+            i++;
+        }
+        return new CallSites(pcs, lines, types, receiverIds);
+    }
+
+    /**
+     * Returns the JSON representation of the call sites, as in call graphs.
+     *
+     * @param receivers returns the URI of a receiver type from its ID
+     * @return map from program counters to call site objects
+     */
+    public JSONObject toJSON(LongFunction<String> receivers) {
+        var json = new JSONObject();
+        for (int i = 0; i < size(); i++) {
+            var callSite = new JSONObject();
+            callSite.put("line", lines[i]);
+            callSite.put("type", types[i].mnemonic());
+            if (this.receivers[i] != 0) {
+                callSite.put("receiver", receivers.apply(this.receivers[i]));
+            }
+            json.put(String.valueOf(pcs[i]), callSite);
+        }
+        return json;
+    }
+
+    /**
+     * Encodes the call sites.
+     *
+     * @return binary representation of the call sites
+     */
+    public byte[] encode() {
+        var output = new Output(1 + 4 * size(), -1);
+        output.writeVarInt(size(), true);
+        int pc = 0;
+        int line = 0;
+        long receiver = 0;
+        for (int i = 0; i < size(); i++) {
+            output.writeVarInt(pcs[i] - pc, true);
+            output.writeVarInt(lines[i] - line, false);
+            output.writeVarLong(receivers[i] - receiver, false);
+            output.writeByte(types[i].ordinal());
+            pc = pcs[i];
+            line = lines[i];
+            receiver = receivers[i];
+        }
+        return output.toBytes();
+    }
+
+    /**
+     * Decodes call sites.
+     *
+     * @param data binary representation of call sites [can be null, for no call sites]
+     * @return call sites
+     * @throws IllegalArgumentException if the data is corrupted
+     */
+    public static CallSites decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return EMPTY;
+        }
+        try {
+            var input = new Input(data);
+            final int size = input.readVarInt(true);
+            var pcs = new int[size];
+            var lines = new int[size];
+            var types = new CallType[size];
+            var receivers = new long[size];
+            int pc = 0;
+            int line = 0;
+            long receiver = 0;
+            for (int i = 0; i < size; i++) {
+                pc += input.readVarInt(true);
+                line += input.readVarInt(false);
+                receiver += input.readVarLong(false);
+                pcs[i] = pc;
+                lines[i] = line;
+                receivers[i] = receiver;
+                types[i] = CallType.VALUES[input.readByte()];
+            }
+            return new CallSites(pcs, lines, types, receivers);
+        } catch (KryoException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupted call sites", e);
+        }
+    }
+
+    /**
+     * Decodes the call sites of an edge.
+     *
+     * @param edge edge record
+     * @return call sites of the edge
+     */
+    public static CallSites of(EdgesRecord edge) {
+        return decode(edge.getCallSites());
+    }
+
+    /**
+     * Creates an edge record with these call sites.
+     *
+     * @param sourceId ID of the source callable
+     * @param targetId ID of the target callable
+     * @return edge record
+     */
+    public EdgesRecord toRecord(long sourceId, long targetId) {
+        return new EdgesRecord(sourceId, targetId, encode());
+    }
+
+    public int size() {
+        return pcs.length;
+    }
+
+    public int getPc(int i) {
+        return pcs[i];
+    }
+
+    public int getLine(int i) {
+        return lines[i];
+    }
+
+    public CallType getType(int i) {
+        return types[i];
+    }
+
+    public long getReceiver(int i) {
+        return receivers[i];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        var that = (CallSites) o;
+        return Arrays.equals(pcs, that.pcs) && Arrays.equals(lines, that.lines)
+                && Arrays.equals(types, that.types) && Arrays.equals(receivers, that.receivers);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(pcs);
+        result = 31 * result + Arrays.hashCode(lines);
+        result = 31 * result + Arrays.hashCode(types);
+        result = 31 * result + Arrays.hashCode(receivers);
+        return result;
+    }
+}
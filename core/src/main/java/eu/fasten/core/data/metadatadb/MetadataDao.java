@@ -22,6 +22,7 @@ import com.github.t9t.jooq.json.JsonbDSL;
 import eu.fasten.core.data.metadatadb.codegen.Keys;
 import eu.fasten.core.data.metadatadb.codegen.tables.BinaryModuleContents;
 import eu.fasten.core.data.metadatadb.codegen.tables.BinaryModules;
+import eu.fasten.core.data.metadatadb.codegen.tables.CallableUris;
 import eu.fasten.core.data.metadatadb.codegen.tables.Callables;
 import eu.fasten.core.data.metadatadb.codegen.tables.Dependencies;
 import eu.fasten.core.data.metadatadb.codegen.tables.Edges;
@@ -31,17 +32,108 @@ import eu.fasten.core.data.metadatadb.codegen.tables.Modules;
 import eu.fasten.core.data.metadatadb.codegen.tables.PackageVersions;
 import eu.fasten.core.data.metadatadb.codegen.tables.Packages;
 import eu.fasten.core.data.metadatadb.codegen.tables.records.CallablesRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.DependenciesRecord;
 import eu.fasten.core.data.metadatadb.codegen.tables.records.EdgesRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.FilesRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.ModuleContentsRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.ModulesRecord;
+import eu.fasten.core.data.metadatadb.codegen.tables.records.PackageVersionsRecord;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.JSONB;
 import org.jooq.Query;
+import org.jooq.Result;
+import org.jooq.impl.DSL;
 import org.json.JSONObject;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
 
 public class MetadataDao {
 
+    /**
+     * Staging table for bulk-loaded callables. Temporary tables are not WAL-logged, like
+     * unlogged tables, but they are private to the session, so concurrent loads do not collide.
+     * The rows are deleted when the transaction commits.
+     */
+    private static final String CREATE_CALLABLES_STAGING = "CREATE TEMPORARY TABLE IF NOT EXISTS "
+            + "callables_staging (ord BIGINT NOT NULL, module_id BIGINT NOT NULL, "
+            + "uri_id BIGINT NOT NULL, is_internal_call BOOLEAN NOT NULL, "
+            + "created_at TIMESTAMP, metadata JSONB) ON COMMIT DELETE ROWS";
+
+    private static final String COPY_CALLABLES = "COPY callables_staging (ord, module_id, "
+            + "uri_id, is_internal_call, created_at, metadata) FROM STDIN (FORMAT BINARY)";
+
+    /**
+     * Merges staged callables into 'callables', and returns their IDs in the order they were
+     * staged.
+     */
+    private static final String MERGE_CALLABLES = "WITH merged AS ("
+            + "INSERT INTO callables (module_id, uri_id, is_internal_call, created_at, metadata) "
+            + "SELECT module_id, uri_id, is_internal_call, created_at, metadata "
+            + "FROM callables_staging "
+            + "ON CONFLICT ON CONSTRAINT unique_uri_call DO UPDATE "
+            + "SET module_id = EXCLUDED.module_id, created_at = EXCLUDED.created_at, "
+            + "metadata = callables.metadata || EXCLUDED.metadata "
+            + "RETURNING id, module_id, uri_id, is_internal_call) "
+            + "SELECT merged.id FROM callables_staging "
+            + "JOIN merged USING (module_id, uri_id, is_internal_call) "
+            + "ORDER BY callables_staging.ord";
+
+    /**
+     * Staging table for bulk-interned FASTEN URIs (see {@link #CREATE_CALLABLES_STAGING}).
+     */
+    private static final String CREATE_CALLABLE_URIS_STAGING = "CREATE TEMPORARY TABLE IF NOT "
+            + "EXISTS callable_uris_staging (ord BIGINT NOT NULL, uri_hash BYTEA NOT NULL, "
+            + "fasten_uri TEXT NOT NULL) ON COMMIT DELETE ROWS";
+
+    private static final String COPY_CALLABLE_URIS = "COPY callable_uris_staging (ord, uri_hash, "
+            + "fasten_uri) FROM STDIN (FORMAT BINARY)";
+
+    private static final String MERGE_CALLABLE_URIS = "INSERT INTO callable_uris "
+            + "(uri_hash, fasten_uri) "
+            + "SELECT DISTINCT ON (uri_hash) uri_hash, fasten_uri FROM callable_uris_staging "
+            + "ORDER BY uri_hash "
+            + "ON CONFLICT ON CONSTRAINT unique_uri_hash DO NOTHING";
+
+    private static final String SELECT_STAGED_CALLABLE_URIS = "SELECT callable_uris.id "
+            + "FROM callable_uris_staging JOIN callable_uris USING (uri_hash) "
+            + "ORDER BY callable_uris_staging.ord";
+
+    /**
+     * Staging table for bulk-loaded edges (see {@link #CREATE_CALLABLES_STAGING}).
+     */
+    private static final String CREATE_EDGES_STAGING = "CREATE TEMPORARY TABLE IF NOT EXISTS "
+            + "edges_staging (source_id BIGINT NOT NULL, target_id BIGINT NOT NULL, "
+            + "call_sites BYTEA NOT NULL) ON COMMIT DELETE ROWS";
+
+    private static final String COPY_EDGES = "COPY edges_staging (source_id, target_id, "
+            + "call_sites) FROM STDIN (FORMAT BINARY)";
+
+    private static final String MERGE_EDGES = "INSERT INTO edges (source_id, target_id, "
+            + "call_sites) SELECT source_id, target_id, call_sites FROM edges_staging "
+            + "ON CONFLICT ON CONSTRAINT unique_source_target DO UPDATE "
+            + "SET call_sites = EXCLUDED.call_sites";
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Maximum number of records upserted by a single statement of the batch methods, so that
+     * the number of bind values stays below the limit of PostgreSQL.
+     */
+    private static final int BATCH_SIZE = 4096;
+
     private DSLContext context;
 
     public MetadataDao(DSLContext context) {
@@ -271,6 +363,33 @@ public class MetadataDao {
         return recordIds;
     }
 
+    /**
+     * Executes batch insert for 'modules' table, with one statement per {@value #BATCH_SIZE}
+     * records. The records must not contain duplicates.
+     *
+     * @param modules List of modules records to insert
+     * @return List of IDs of the modules, in the same order as the records
+     */
+    public List<Long> batchInsertModules(List<ModulesRecord> modules) {
+        var ids = new ArrayList<Long>(modules.size());
+        for (int from = 0; from < modules.size(); from += BATCH_SIZE) {
+            var insert = context.insertInto(Modules.MODULES,
+                    Modules.MODULES.PACKAGE_VERSION_ID, Modules.MODULES.NAMESPACE,
+                    Modules.MODULES.CREATED_AT, Modules.MODULES.METADATA);
+            for (var module : modules.subList(from, Math.min(from + BATCH_SIZE, modules.size()))) {
+                insert = insert.values(module.getPackageVersionId(), module.getNamespace(),
+                        module.getCreatedAt(), module.getMetadata());
+            }
+            var result = insert.onConflictOnConstraint(Keys.UNIQUE_VERSION_NAMESPACE).doUpdate()
+                    .set(Modules.MODULES.CREATED_AT, Modules.MODULES.as("excluded").CREATED_AT)
+                    .set(Modules.MODULES.METADATA, JsonbDSL.concat(Modules.MODULES.METADATA,
+                            Modules.MODULES.as("excluded").METADATA))
+                    .returning(Modules.MODULES.ID).fetch();
+            ids.addAll(result.getValues(Modules.MODULES.ID));
+        }
+        return ids;
+    }
+
     /**
      * Inserts a record in 'binary_modules' table in the database.
      *
@@ -365,6 +484,25 @@ public class MetadataDao {
         return recordIds;
     }
 
+    /**
+     * Executes batch insert for 'module_contents' table, with one statement per
+     * {@value #BATCH_SIZE} records.
+     *
+     * @param moduleContents List of module contents records to insert
+     */
+    public void batchInsertModuleContents(List<ModuleContentsRecord> moduleContents) {
+        for (int from = 0; from < moduleContents.size(); from += BATCH_SIZE) {
+            var insert = context.insertInto(ModuleContents.MODULE_CONTENTS,
+                    ModuleContents.MODULE_CONTENTS.MODULE_ID,
+                    ModuleContents.MODULE_CONTENTS.FILE_ID);
+            for (var content : moduleContents.subList(from,
+                    Math.min(from + BATCH_SIZE, moduleContents.size()))) {
+                insert = insert.values(content.getModuleId(), content.getFileId());
+            }
+            insert.onConflictOnConstraint(Keys.UNIQUE_MODULE_FILE).doNothing().execute();
+        }
+    }
+
     /**
      * Inserts a record in 'binary_module_contents' table in the database.
      *
@@ -463,7 +601,37 @@ public class MetadataDao {
     }
 
     /**
-     * Inserts a record in the 'callables' table in the database.
+     * Executes batch insert for 'files' table, with one statement per {@value #BATCH_SIZE}
+     * records. The records must not contain duplicates.
+     *
+     * @param files List of files records to insert
+     * @return List of IDs of the files, in the same order as the records
+     */
+    public List<Long> batchInsertFiles(List<FilesRecord> files) {
+        var ids = new ArrayList<Long>(files.size());
+        for (int from = 0; from < files.size(); from += BATCH_SIZE) {
+            var insert = context.insertInto(Files.FILES,
+                    Files.FILES.PACKAGE_VERSION_ID, Files.FILES.PATH,
+                    Files.FILES.CHECKSUM, Files.FILES.CREATED_AT,
+                    Files.FILES.METADATA);
+            for (var file : files.subList(from, Math.min(from + BATCH_SIZE, files.size()))) {
+                insert = insert.values(file.getPackageVersionId(), file.getPath(),
+                        file.getChecksum(), file.getCreatedAt(), file.getMetadata());
+            }
+            var result = insert.onConflictOnConstraint(Keys.UNIQUE_VERSION_PATH).doUpdate()
+                    .set(Files.FILES.CHECKSUM, Files.FILES.as("excluded").CHECKSUM)
+                    .set(Files.FILES.CREATED_AT, Files.FILES.as("excluded").CREATED_AT)
+                    .set(Files.FILES.METADATA, JsonbDSL.concat(Files.FILES.METADATA,
+                            Files.FILES.as("excluded").METADATA))
+                    .returning(Files.FILES.ID).fetch();
+            ids.addAll(result.getValues(Files.FILES.ID));
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts a record in the 'callables' table in the database, and its FASTEN URI in the
+     * 'callable_uris' dictionary if needed.
      *
      * @param moduleId       ID of the module where the callable belongs (references 'modules.id')
      * @param fastenUri      URI of the callable in FASTEN
@@ -474,12 +642,18 @@ public class MetadataDao {
      */
     public long insertCallable(Long moduleId, String fastenUri, boolean isInternalCall,
                                Timestamp createdAt, JSONObject metadata) {
+        long uriId = batchInsertCallableUris(List.of(fastenUri)).get(0);
+        return insertCallable(moduleId, uriId, isInternalCall, createdAt, metadata);
+    }
+
+    private long insertCallable(Long moduleId, long uriId, boolean isInternalCall,
+                                Timestamp createdAt, JSONObject metadata) {
         var metadataJsonb = metadata != null ? JSONB.valueOf(metadata.toString()) : null;
         var resultRecord = context.insertInto(Callables.CALLABLES,
-                Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.FASTEN_URI,
+                Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.URI_ID,
                 Callables.CALLABLES.IS_INTERNAL_CALL, Callables.CALLABLES.CREATED_AT,
                 Callables.CALLABLES.METADATA)
-                .values(moduleId, fastenUri, isInternalCall, createdAt, metadataJsonb)
+                .values(moduleId, uriId, isInternalCall, createdAt, metadataJsonb)
                 .onConflictOnConstraint(Keys.UNIQUE_URI_CALL).doUpdate()
                 .set(Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.as("excluded").MODULE_ID)
                 .set(Callables.CALLABLES.CREATED_AT, Callables.CALLABLES.as("excluded").CREATED_AT)
@@ -509,9 +683,10 @@ public class MetadataDao {
             throw new IllegalArgumentException("All lists should have equal size");
         }
         int length = fastenUris.size();
+        var uriIds = batchInsertCallableUris(fastenUris);
         var recordIds = new ArrayList<Long>(length);
         for (int i = 0; i < length; i++) {
-            long result = insertCallable(moduleId, fastenUris.get(i),
+            long result = insertCallable(moduleId, uriIds.get(i),
                     areInternalCalls.get(i), createdAt.get(i), metadata.get(i));
             recordIds.add(result);
         }
@@ -519,22 +694,104 @@ public class MetadataDao {
     }
 
     /**
-     * Inserts a record in the 'edges' table in the database.
+     * Computes the key of a FASTEN URI in the 'callable_uris' dictionary: the MD5 digest of its
+     * UTF-8 encoding, that is, <code>decode(md5(fasten_uri), 'hex')</code> in SQL.
+     *
+     * @param fastenUri FASTEN URI
+     * @return 16-byte digest of the URI
+     */
+    public static byte[] hashUri(String fastenUri) {
+        try {
+            return MessageDigest.getInstance("MD5")
+                    .digest(fastenUri.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports MD5
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Interns FASTEN URIs in the 'callable_uris' dictionary, with one insert and one lookup per
+     * {@value #BATCH_SIZE} distinct URIs. URIs that are already in the dictionary are left
+     * untouched. The list may contain duplicates.
+     *
+     * @param fastenUris List of FASTEN URIs
+     * @return List of IDs of the URIs in the dictionary, in the same order as the URIs
+     */
+    public List<Long> batchInsertCallableUris(List<String> fastenUris) {
+        // Sorted by key, so that concurrent transactions lock the index entries in the same order
+        var uris = new TreeMap<ByteBuffer, String>();
+        for (var uri : fastenUris) {
+            uris.putIfAbsent(ByteBuffer.wrap(hashUri(uri)), uri);
+        }
+        var ids = new HashMap<ByteBuffer, Long>(uris.size());
+        var entries = new ArrayList<>(uris.entrySet());
+        for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+            var chunk = entries.subList(from, Math.min(from + BATCH_SIZE, entries.size()));
+            var insert = context.insertInto(CallableUris.CALLABLE_URIS,
+                    CallableUris.CALLABLE_URIS.URI_HASH, CallableUris.CALLABLE_URIS.FASTEN_URI);
+            var hashes = new byte[chunk.size()][];
+            for (int i = 0; i < chunk.size(); i++) {
+                hashes[i] = chunk.get(i).getKey().array();
+                insert = insert.values(hashes[i], chunk.get(i).getValue());
+            }
+            insert.onConflictOnConstraint(Keys.UNIQUE_URI_HASH).doNothing().execute();
+            // Rows that already existed are not returned by the insert
+            context.select(CallableUris.CALLABLE_URIS.URI_HASH, CallableUris.CALLABLE_URIS.ID)
+                    .from(CallableUris.CALLABLE_URIS)
+                    .where(CallableUris.CALLABLE_URIS.URI_HASH.eq(DSL.any(hashes)))
+                    .fetch()
+                    .forEach(r -> ids.put(ByteBuffer.wrap(r.value1()), r.value2()));
+        }
+        var result = new ArrayList<Long>(fastenUris.size());
+        for (var uri : fastenUris) {
+            result.add(ids.get(ByteBuffer.wrap(hashUri(uri))));
+        }
+        return result;
+    }
+
+    /**
+     * Interns FASTEN URIs in the 'callable_uris' dictionary with the COPY protocol, for large
+     * call graphs (see {@link #batchInsertCallableUris(List)}). This method must be called within
+     * a transaction.
      *
-     * @param sourceId ID of the source callable (references 'callables.id')
-     * @param targetId ID of the target callable (references 'callables.id')
-     * @param metadata Metadata of the edge between source and target
+     * @param fastenUris List of FASTEN URIs
+     * @return List of IDs of the URIs in the dictionary, in the same order as the URIs
+     */
+    public List<Long> bulkInsertCallableUris(List<String> fastenUris) {
+        if (fastenUris.isEmpty()) {
+            return new ArrayList<>();
+        }
+        stage(CREATE_CALLABLE_URIS_STAGING, "callable_uris_staging", COPY_CALLABLE_URIS,
+                writer -> {
+                    long ord = 0;
+                    for (var uri : fastenUris) {
+                        writer.startRow(3);
+                        writer.writeLong(ord++);
+                        writer.writeBytes(hashUri(uri));
+                        writer.writeText(uri);
+                    }
+                });
+        context.execute(MERGE_CALLABLE_URIS);
+        return context.fetch(SELECT_STAGED_CALLABLE_URIS).getValues(0, Long.class);
+    }
+
+    /**
+     * Inserts a record in the 'edges' table in the database. The call sites of an existing edge
+     * are replaced: they all come from the body of the source callable.
+     *
+     * @param sourceId  ID of the source callable (references 'callables.id')
+     * @param targetId  ID of the target callable (references 'callables.id')
+     * @param callSites Call sites of the edge between source and target
      * @return ID of the source callable (sourceId)
      */
-    public long insertEdge(long sourceId, long targetId, JSONObject metadata) {
-        var metadataJsonb = metadata != null ? JSONB.valueOf(metadata.toString())
-                : JSONB.valueOf("{}");
+    public long insertEdge(long sourceId, long targetId, CallSites callSites) {
+        var encoded = (callSites != null ? callSites : CallSites.EMPTY).encode();
         var resultRecord = context.insertInto(Edges.EDGES,
-                Edges.EDGES.SOURCE_ID, Edges.EDGES.TARGET_ID, Edges.EDGES.METADATA)
-                .values(sourceId, targetId, metadataJsonb)
+                Edges.EDGES.SOURCE_ID, Edges.EDGES.TARGET_ID, Edges.EDGES.CALL_SITES)
+                .values(sourceId, targetId, encoded)
                 .onConflictOnConstraint(Keys.UNIQUE_SOURCE_TARGET).doUpdate()
-                .set(Edges.EDGES.METADATA, JsonbDSL.concat(Edges.EDGES.METADATA,
-                        Edges.EDGES.as("excluded").METADATA))
+                .set(Edges.EDGES.CALL_SITES, Edges.EDGES.as("excluded").CALL_SITES)
                 .returning(Edges.EDGES.SOURCE_ID).fetchOne();
         return resultRecord.getValue(Edges.EDGES.SOURCE_ID);
     }
@@ -544,19 +801,19 @@ public class MetadataDao {
      *
      * @param sourceIds List of IDs of source callables
      * @param targetIds List of IDs of target callables
-     * @param metadata  List of metadata objects
+     * @param callSites List of call sites
      * @return List of IDs of source callables (sourceIds)
      * @throws IllegalArgumentException if lists are not of the same size
      */
     public List<Long> insertEdges(List<Long> sourceIds, List<Long> targetIds,
-                                  List<JSONObject> metadata) throws IllegalArgumentException {
-        if (sourceIds.size() != targetIds.size() || targetIds.size() != metadata.size()) {
+                                  List<CallSites> callSites) throws IllegalArgumentException {
+        if (sourceIds.size() != targetIds.size() || targetIds.size() != callSites.size()) {
             throw new IllegalArgumentException("All lists should have equal size");
         }
         int length = sourceIds.size();
         var recordIds = new ArrayList<Long>(length);
         for (int i = 0; i < length; i++) {
-            long result = insertEdge(sourceIds.get(i), targetIds.get(i), metadata.get(i));
+            long result = insertEdge(sourceIds.get(i), targetIds.get(i), callSites.get(i));
             recordIds.add(result);
         }
         return recordIds;
@@ -569,30 +826,35 @@ public class MetadataDao {
      */
     public void batchInsertEdges(List<EdgesRecord> edges) {
         Query batchQuery = context.insertInto(Edges.EDGES,
-                Edges.EDGES.SOURCE_ID, Edges.EDGES.TARGET_ID, Edges.EDGES.METADATA)
-                .values((Long) null, (Long) null, (JSONB) null)
+                Edges.EDGES.SOURCE_ID, Edges.EDGES.TARGET_ID, Edges.EDGES.CALL_SITES)
+                .values((Long) null, (Long) null, (byte[]) null)
                 .onConflictOnConstraint(Keys.UNIQUE_SOURCE_TARGET).doUpdate()
-                .set(Edges.EDGES.METADATA, JsonbDSL.concat(Edges.EDGES.METADATA,
-                        Edges.EDGES.as("excluded").METADATA));
+                .set(Edges.EDGES.CALL_SITES, Edges.EDGES.as("excluded").CALL_SITES);
         var batchBind = context.batch(batchQuery);
         for (var edge : edges) {
-            batchBind = batchBind.bind(edge.getSourceId(), edge.getTargetId(), edge.getMetadata());
+            batchBind = batchBind.bind(edge.getSourceId(), edge.getTargetId(),
+                    callSitesOf(edge));
         }
         batchBind.execute();
     }
 
+    private static byte[] callSitesOf(EdgesRecord edge) {
+        return edge.getCallSites() != null ? edge.getCallSites() : CallSites.EMPTY.encode();
+    }
+
     /**
-     * Executes batch insert for 'callables' table.
+     * Executes batch insert for 'callables' table. The URIs of the callables must have been
+     * interned with {@link #batchInsertCallableUris(List)} beforehand.
      *
      * @param callables List of callables records to insert
      */
     public List<Long> batchInsertCallables(List<CallablesRecord> callables) {
         var insert = context.insertInto(Callables.CALLABLES,
-                Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.FASTEN_URI,
+                Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.URI_ID,
                 Callables.CALLABLES.IS_INTERNAL_CALL, Callables.CALLABLES.CREATED_AT,
                 Callables.CALLABLES.METADATA);
         for (var callable : callables) {
-            insert = insert.values(callable.getModuleId(), callable.getFastenUri(),
+            insert = insert.values(callable.getModuleId(), callable.getUriId(),
                     callable.getIsInternalCall(), callable.getCreatedAt(), callable.getMetadata());
         }
         var result = insert.onConflictOnConstraint(Keys.UNIQUE_URI_CALL).doUpdate()
@@ -603,4 +865,275 @@ public class MetadataDao {
                 .returning(Callables.CALLABLES.ID).fetch();
         return result.getValues(Callables.CALLABLES.ID);
     }
-}
\ No newline at end of file
+
+    /**
+     * Inserts callables with the COPY protocol, for large call graphs. The records are streamed
+     * in binary format into a staging table, and then merged into 'callables' with a single
+     * statement, as {@link #batchInsertCallables(List)} does. This method must be called within a
+     * transaction, and the records must not contain duplicates.
+     *
+     * @param callables List of callables records to insert
+     * @return List of IDs of the callables, in the same order as the records
+     */
+    public List<Long> bulkInsertCallables(List<CallablesRecord> callables) {
+        if (callables.isEmpty()) {
+            return new ArrayList<>();
+        }
+        stage(CREATE_CALLABLES_STAGING, "callables_staging", COPY_CALLABLES, writer -> {
+            long ord = 0;
+            for (var callable : callables) {
+                writer.startRow(6);
+                writer.writeLong(ord++);
+                writer.writeLong(callable.getModuleId());
+                writer.writeLong(callable.getUriId());
+                writer.writeBoolean(callable.getIsInternalCall());
+                writer.writeTimestamp(callable.getCreatedAt());
+                writer.writeJsonb(callable.getMetadata());
+            }
+        });
+        var ids = context.fetch(MERGE_CALLABLES).getValues(0, Long.class);
+        if (ids.size() != callables.size()) {
+            throw new IllegalArgumentException("Callables must not contain duplicates");
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts edges with the COPY protocol, for large call graphs. The records are streamed in
+     * binary format into a staging table, and then merged into 'edges' with a single statement,
+     * as {@link #batchInsertEdges(List)} does. This method must be called within a transaction,
+     * and the records must not contain duplicates.
+     *
+     * @param edges List of edges records to insert
+     */
+    public void bulkInsertEdges(List<EdgesRecord> edges) {
+        if (edges.isEmpty()) {
+            return;
+        }
+        stage(CREATE_EDGES_STAGING, "edges_staging", COPY_EDGES, writer -> {
+            for (var edge : edges) {
+                writer.startRow(3);
+                writer.writeLong(edge.getSourceId());
+                writer.writeLong(edge.getTargetId());
+                writer.writeBytes(callSitesOf(edge));
+            }
+        });
+        context.execute(MERGE_EDGES);
+    }
+
+    /*
+     * Lookups below bind their keys as a single array ('= ANY (?)') rather than as a list of
+     * values, so that the SQL of a query does not depend on the number of keys, and its prepared
+     * statement is reused by the connection whatever the batch size.
+     */
+
+    /**
+     * Retrieves the IDs of callables of a module by their FASTEN URIs. Served by the
+     * 'unique_uri_hash' and 'unique_uri_call' indexes, in the partition of 'callables' holding
+     * the module only.
+     *
+     * @param moduleId   ID of the module of the callables (-1 for external callables)
+     * @param fastenUris FASTEN URIs of the callables
+     * @return Map from the FASTEN URIs that were found to the IDs of the callables
+     */
+    public Map<String, Long> getCallableIds(long moduleId, Collection<String> fastenUris) {
+        return context.select(CallableUris.CALLABLE_URIS.FASTEN_URI, Callables.CALLABLES.ID)
+                .from(CallableUris.CALLABLE_URIS)
+                .join(Callables.CALLABLES)
+                .on(Callables.CALLABLES.URI_ID.eq(CallableUris.CALLABLE_URIS.ID))
+                .where(CallableUris.CALLABLE_URIS.URI_HASH.eq(DSL.any(hashUris(fastenUris))))
+                .and(Callables.CALLABLES.MODULE_ID.eq(moduleId))
+                .fetchMap(CallableUris.CALLABLE_URIS.FASTEN_URI, Callables.CALLABLES.ID);
+    }
+
+    /**
+     * Retrieves the IDs of callables of any module by their FASTEN URIs. Served by the
+     * 'unique_uri_hash' and 'callables_uri_id' indexes.
+     *
+     * @param fastenUris FASTEN URIs of the callables
+     * @return Map from the FASTEN URIs that were found to the IDs of the callables having them
+     */
+    public Map<String, List<Long>> getCallableIds(Collection<String> fastenUris) {
+        return context.select(CallableUris.CALLABLE_URIS.FASTEN_URI, Callables.CALLABLES.ID)
+                .from(CallableUris.CALLABLE_URIS)
+                .join(Callables.CALLABLES)
+                .on(Callables.CALLABLES.URI_ID.eq(CallableUris.CALLABLE_URIS.ID))
+                .where(CallableUris.CALLABLE_URIS.URI_HASH.eq(DSL.any(hashUris(fastenUris))))
+                .fetchGroups(CallableUris.CALLABLE_URIS.FASTEN_URI, Callables.CALLABLES.ID);
+    }
+
+    /**
+     * Retrieves FASTEN URIs from the 'callable_uris' dictionary, e.g., to export the receiver
+     * types of {@link CallSites} as JSON.
+     *
+     * @param uriIds IDs of the URIs in the dictionary
+     * @return Map from the IDs that were found to the URIs
+     */
+    public Map<Long, String> getCallableUris(Collection<Long> uriIds) {
+        return context.select(CallableUris.CALLABLE_URIS.ID, CallableUris.CALLABLE_URIS.FASTEN_URI)
+                .from(CallableUris.CALLABLE_URIS)
+                .where(CallableUris.CALLABLE_URIS.ID.eq(DSL.any(uriIds.toArray(new Long[0]))))
+                .fetchMap(CallableUris.CALLABLE_URIS.ID, CallableUris.CALLABLE_URIS.FASTEN_URI);
+    }
+
+    private static byte[][] hashUris(Collection<String> fastenUris) {
+        return fastenUris.stream().map(MetadataDao::hashUri).toArray(byte[][]::new);
+    }
+
+    /**
+     * Tells whether a package version has modules. Modules are only written along with a
+     * callgraph, whereas other plug-ins (e.g., the POM analyzer) create package versions without
+     * one. Served by the 'unique_version_namespace' index.
+     *
+     * @param packageVersionId ID of the package version
+     * @return true if at least one module belongs to the package version
+     */
+    public boolean hasModules(long packageVersionId) {
+        return context.fetchExists(Modules.MODULES,
+                Modules.MODULES.PACKAGE_VERSION_ID.eq(packageVersionId));
+    }
+
+    /**
+     * Retrieves the IDs of the internal callables of a package version, ordered by ID, e.g., to
+     * rebuild its graph of GIDs. Served by the 'unique_version_namespace' index, and by the
+     * 'unique_uri_call' index in the partitions of 'callables' holding its modules.
+     *
+     * @param packageVersionId ID of the package version
+     * @return IDs of the callables of the modules of the package version
+     */
+    public List<Long> getInternalCallableIds(long packageVersionId) {
+        return context.select(Callables.CALLABLES.ID)
+                .from(Callables.CALLABLES)
+                .where(Callables.CALLABLES.MODULE_ID.in(
+                        context.select(Modules.MODULES.ID)
+                                .from(Modules.MODULES)
+                                .where(Modules.MODULES.PACKAGE_VERSION_ID.eq(packageVersionId))))
+                .and(Callables.CALLABLES.IS_INTERNAL_CALL.eq(true))
+                .orderBy(Callables.CALLABLES.ID)
+                .fetch(Callables.CALLABLES.ID);
+    }
+
+    /**
+     * Retrieves a page of the edges leaving the given callables, ordered by source and target.
+     * Pages are fetched by keyset pagination: the next page starts after the last edge of the
+     * previous one, so that deep pages are as cheap as the first one. Served by the
+     * 'unique_source_target' index, in the partitions of 'edges' holding the source IDs only.
+     *
+     * @param sourceIds IDs of the source callables
+     * @param after     Last edge of the previous page, or null for the first page
+     * @param limit     Maximum number of edges in the page
+     * @return Edges of the page; fewer than {@code limit} edges means that it is the last page
+     */
+    public List<EdgesRecord> getEdges(Collection<Long> sourceIds, EdgesRecord after, int limit) {
+        Condition condition = Edges.EDGES.SOURCE_ID.eq(DSL.any(sourceIds.toArray(new Long[0])));
+        if (after != null) {
+            condition = condition.and(DSL.row(Edges.EDGES.SOURCE_ID, Edges.EDGES.TARGET_ID)
+                    .gt(after.getSourceId(), after.getTargetId()));
+        }
+        return context.selectFrom(Edges.EDGES)
+                .where(condition)
+                .orderBy(Edges.EDGES.SOURCE_ID, Edges.EDGES.TARGET_ID)
+                .limit(limit)
+                .fetch();
+    }
+
+    /**
+     * Retrieves the ID of a package version, e.g., to find whether its callgraph has already
+     * been saved. Served by the 'unique_package_forge' and 'unique_package_version_generator'
+     * indexes, in the partition of 'package_versions' holding the package only.
+     *
+     * @param packageName Name of the package
+     * @param forge       Forge of the package
+     * @param version     Version of the package
+     * @param cgGenerator Tool used to generate the callgraph of the package version
+     * @return ID of the package version, or null if it does not exist
+     */
+    public Long getPackageVersionId(String packageName, String forge, String version,
+                                    String cgGenerator) {
+        return context.select(PackageVersions.PACKAGE_VERSIONS.ID)
+                .from(PackageVersions.PACKAGE_VERSIONS)
+                .where(PackageVersions.PACKAGE_VERSIONS.PACKAGE_ID.eq(
+                        context.select(Packages.PACKAGES.ID)
+                                .from(Packages.PACKAGES)
+                                .where(Packages.PACKAGES.PACKAGE_NAME.eq(packageName))
+                                .and(Packages.PACKAGES.FORGE.eq(forge))))
+                .and(PackageVersions.PACKAGE_VERSIONS.VERSION.eq(version))
+                .and(PackageVersions.PACKAGE_VERSIONS.CG_GENERATOR.eq(cgGenerator))
+                .fetchOne(PackageVersions.PACKAGE_VERSIONS.ID);
+    }
+
+    /**
+     * Retrieves a page of the versions of a package, ordered by ID, with keyset pagination (see
+     * {@link #getEdges(Collection, EdgesRecord, int)}). Served by the 'unique_package_forge' and
+     * 'package_versions_package_id' indexes. The package ID is looked up by a subquery rather
+     * than a join, so that only the partition of 'package_versions' holding it is scanned.
+     *
+     * @param packageName Name of the package
+     * @param forge       Forge of the package
+     * @param afterId     ID of the last package version of the previous page, or null for the
+     *                    first page
+     * @param limit       Maximum number of package versions in the page
+     * @return Package versions of the page
+     */
+    public List<PackageVersionsRecord> getPackageVersions(String packageName, String forge,
+                                                          Long afterId, int limit) {
+        Condition condition = PackageVersions.PACKAGE_VERSIONS.PACKAGE_ID.eq(
+                context.select(Packages.PACKAGES.ID)
+                        .from(Packages.PACKAGES)
+                        .where(Packages.PACKAGES.PACKAGE_NAME.eq(packageName))
+                        .and(Packages.PACKAGES.FORGE.eq(forge)));
+        if (afterId != null) {
+            condition = condition.and(PackageVersions.PACKAGE_VERSIONS.ID.gt(afterId));
+        }
+        return context.selectFrom(PackageVersions.PACKAGE_VERSIONS)
+                .where(condition)
+                .orderBy(PackageVersions.PACKAGE_VERSIONS.ID)
+                .limit(limit)
+                .fetch();
+    }
+
+    /**
+     * Retrieves the dependency sets of package versions. Served by the
+     * 'unique_version_dependency_range' index.
+     *
+     * @param packageVersionIds IDs of the package versions
+     * @return Map from the IDs of the package versions that have dependencies to their
+     *         dependencies
+     */
+    public Map<Long, Result<DependenciesRecord>> getDependencies(
+            Collection<Long> packageVersionIds) {
+        return context.selectFrom(Dependencies.DEPENDENCIES)
+                .where(Dependencies.DEPENDENCIES.PACKAGE_VERSION_ID
+                        .eq(DSL.any(packageVersionIds.toArray(new Long[0]))))
+                .fetchGroups(Dependencies.DEPENDENCIES.PACKAGE_VERSION_ID);
+    }
+
+    /**
+     * Creates a staging table if needed, empties it, and fills it with the COPY protocol.
+     *
+     * @param create SQL statement creating the staging table
+     * @param table  name of the staging table
+     * @param copy   COPY statement
+     * @param rows   writes the rows to copy
+     */
+    private void stage(String create, String table, String copy, RowWriter rows) {
+        context.execute(create);
+        // Rows of an earlier load within the same transaction
+        context.execute("TRUNCATE " + table);
+        context.connection(connection -> {
+            var stream = new PGCopyOutputStream(connection.unwrap(PGConnection.class), copy,
+                    COPY_BUFFER_SIZE);
+            try (var writer = new PgBinaryCopyWriter(stream)) {
+                rows.write(writer);
+            }
+        });
+    }
+
+    /**
+     * Writes rows to a COPY stream.
+     */
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PgBinaryCopyWriter writer) throws IOException;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.metadatadb;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+
+/**
+ * Creates the range partitions of the 'callables' and 'edges' tables ahead of ingestion.
+ *
+ * <p>Callables are partitioned by module ID and edges by source callable ID. Both IDs come from
+ * sequences, so new rows always go to the last partitions, whose indexes stay small and cached
+ * whatever the size of the whole table, while older partitions are left untouched and can be
+ * vacuumed, reindexed or moved independently. Partitions are named after the table and their
+ * index, e.g., 'edges_p3' holds the edges whose source ID is in
+ * [3 * {@link #EDGES_PARTITION_SIZE}, 4 * {@link #EDGES_PARTITION_SIZE}).
+ *
+ * <p>{@link #ensurePartitions()} creates the partition of the current sequence value and the
+ * {@link #LOOKAHEAD} following ones, so it should be called before each ingestion transaction,
+ * outside of it: creating a partition locks its parent table. Rows that do not fit in any
+ * partition, e.g., because partitions could not be created, go to the default partitions created
+ * by the schema; they are moved to their partition when it is created.
+ */
+public class MetadataPartitions {
+
+    /**
+     * Number of modules whose callables are stored in a partition of 'callables'.
+     */
+    public static final long CALLABLES_PARTITION_SIZE = 1L << 20;
+
+    /**
+     * Number of source callables whose edges are stored in a partition of 'edges'.
+     */
+    public static final long EDGES_PARTITION_SIZE = 1L << 26;
+
+    /**
+     * Number of partitions created ahead of the partition of the last allocated ID.
+     */
+    public static final int LOOKAHEAD = 2;
+
+    /**
+     * Time in milliseconds during which partitions are not looked up again after a failure.
+     */
+    public static final long RETRY_INTERVAL_MS = 60_000;
+
+    /**
+     * Key of the advisory lock serializing the creation of partitions by concurrent plug-ins.
+     */
+    private static final long LOCK_KEY = 0x66617374656eL; // "fasten"
+
+    private static final String SELECT_LAST_IDS = "SELECT "
+            + "(SELECT last_value FROM modules_id_seq), (SELECT last_value FROM callables_id_seq)";
+
+    private static final String SELECT_PARTITIONS = "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass";
+
+    private final DSLContext context;
+
+    /**
+     * Exclusive upper bound of the keys covered by the range partitions known to exist.
+     */
+    private final Map<String, Long> upperBounds = new HashMap<>();
+
+    /**
+     * Time before which partitions are not looked up, after a failure to create them.
+     */
+    private long retryAt;
+
+    public MetadataPartitions(DSLContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Creates the missing partitions of 'callables' and 'edges', up to {@link #LOOKAHEAD}
+     * partitions after the partition of the last allocated ID. This is a single query when they
+     * already exist.
+     *
+     * @throws DataAccessException if the partitions could not be created; they are not looked up
+     *                             again during {@link #RETRY_INTERVAL_MS} milliseconds
+     */
+    public synchronized void ensurePartitions() {
+        if (System.currentTimeMillis() < retryAt) {
+            return;
+        }
+        try {
+            var lastIds = context.fetchOne(SELECT_LAST_IDS);
+            ensurePartitions("callables", "module_id", lastIds.get(0, Long.class),
+                    CALLABLES_PARTITION_SIZE);
+            ensurePartitions("edges", "source_id", lastIds.get(1, Long.class),
+                    EDGES_PARTITION_SIZE);
+        } catch (DataAccessException e) {
+            retryAt = System.currentTimeMillis() + RETRY_INTERVAL_MS;
+            throw e;
+        }
+    }
+
+    private void ensurePartitions(String table, String key, long lastId, long size) {
+        final long count = lastId / size + 1 + LOOKAHEAD;
+        final long known = upperBounds.getOrDefault(table, 0L) / size;
+        if (known >= count) {
+            return;
+        }
+        context.transaction(configuration -> {
+            var transaction = DSL.using(configuration);
+            transaction.fetch("SELECT pg_advisory_xact_lock(?)", LOCK_KEY);
+            var existing = new HashSet<>(transaction.fetch(SELECT_PARTITIONS, table)
+                    .getValues(0, String.class));
+            for (long index = known; index < count; index++) {
+                var partition = partitionName(table, index);
+                if (!existing.contains(partition)) {
+                    createPartition(transaction, table, key, partition, index * size,
+                            (index + 1) * size);
+                }
+            }
+        });
+        upperBounds.put(table, count * size);
+    }
+
+    /**
+     * Creates a range partition. PostgreSQL cannot create a partition whose range has rows in
+     * the default partition, so such rows are moved to a new table, which is then attached as
+     * the partition.
+     *
+     * @param transaction transaction holding the lock on partitions
+     * @param table       partitioned table
+     * @param key         partition key
+     * @param partition   name of the partition
+     * @param from        inclusive lower bound of the partition
+     * @param to          exclusive upper bound of the partition
+     */
+    private static void createPartition(DSLContext transaction, String table, String key,
+                                        String partition, long from, long to) {
+        var bounds = " FOR VALUES FROM (" + from + ") TO (" + to + ")";
+        var defaultPartition = table + "_default";
+        var range = " WHERE " + key + " >= " + from + " AND " + key + " < " + to;
+        if (transaction.fetch("SELECT 1 FROM " + defaultPartition + range + " LIMIT 1")
+                .isEmpty()) {
+            transaction.execute("CREATE TABLE " + partition + " PARTITION OF " + table + bounds);
+            return;
+        }
+        transaction.execute("CREATE TABLE " + partition + " (LIKE " + table
+                + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        transaction.execute("WITH moved AS (DELETE FROM " + defaultPartition + range
+                + " RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved");
+        transaction.execute("ALTER TABLE " + table + " ATTACH PARTITION " + partition + bounds);
+    }
+
+    /**
+     * Returns the name of a range partition.
+     *
+     * @param table partitioned table
+     * @param index index of the partition
+     * @return name of the partition
+     */
+    static String partitionName(String table, long index) {
+        return table + "_p" + index;
+    }
+}
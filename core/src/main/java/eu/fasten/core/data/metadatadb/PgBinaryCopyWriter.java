@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.metadatadb;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import org.jooq.JSONB;
+
+/**
+ * Writes rows in the binary format of PostgreSQL's <code>COPY ... FROM STDIN (FORMAT BINARY)
+ * </code>. Each row starts with {@link #startRow(int)}, followed by exactly one value per
+ * column, in the order of the columns of the <code>COPY</code> statement.
+ */
+class PgBinaryCopyWriter implements Closeable {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff,
+        '\r', '\n', 0};
+
+    /** Origin of PostgreSQL timestamps. */
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    /** Version of the binary representation of JSONB values. */
+    private static final int JSONB_VERSION = 1;
+
+    private final DataOutputStream out;
+
+    /**
+     * Creates a writer and writes the header of the stream.
+     *
+     * @param out stream to write to; it is closed by {@link #close()}
+     * @throws IOException if writing fails
+     */
+    PgBinaryCopyWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.out.write(SIGNATURE);
+        this.out.writeInt(0); // Flags
+        this.out.writeInt(0); // Length of the header extension
+    }
+
+    /**
+     * Starts a new row.
+     *
+     * @param columns number of values of the row
+     * @throws IOException if writing fails
+     */
+    void startRow(int columns) throws IOException {
+        out.writeShort(columns);
+    }
+
+    void writeNull() throws IOException {
+        out.writeInt(-1);
+    }
+
+    void writeLong(Long value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        out.writeInt(Long.BYTES);
+        out.writeLong(value);
+    }
+
+    void writeBoolean(Boolean value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        out.writeInt(1);
+        out.writeByte(value ? 1 : 0);
+    }
+
+    void writeBytes(byte[] value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    void writeText(String value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes a value of a <code>TIMESTAMP</code> (without time zone) column. As with JDBC, the
+     * timestamp is interpreted in the default time zone of the JVM.
+     *
+     * @param value timestamp [can be null]
+     * @throws IOException if writing fails
+     */
+    void writeTimestamp(Timestamp value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        out.writeInt(Long.BYTES);
+        out.writeLong(ChronoUnit.MICROS.between(EPOCH, value.toLocalDateTime()));
+    }
+
+    void writeJsonb(JSONB value) throws IOException {
+        if (value == null || value.data() == null) {
+            writeNull();
+            return;
+        }
+        var bytes = value.data().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length + 1);
+        out.writeByte(JSONB_VERSION);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes the trailer of the stream and closes it.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        out.writeShort(-1);
+        out.close();
+    }
+}
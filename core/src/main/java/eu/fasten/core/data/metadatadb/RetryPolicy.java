@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.metadatadb;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import org.jooq.exception.DataAccessException;
+
+/**
+ * Policy for retrying database transactions that failed because of transient errors, such as
+ * serialization failures, deadlocks or lost connections.
+ *
+ * <p>Retries are delayed with "full jitter" exponential backoff: the delay before the n-th retry
+ * is drawn uniformly between 0 and min(maxDelay, baseDelay * 2^(n-1)). Randomizing the whole
+ * delay spreads the retries of plug-ins that conflicted with each other, so that they do not
+ * conflict again at the next attempt.
+ */
+public class RetryPolicy {
+
+    /**
+     * Up to 5 attempts, with retries delayed by at most 0.1, 0.2, 0.4 and 0.8 seconds.
+     */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(5, 100, 10_000);
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    /**
+     * Creates a retry policy.
+     *
+     * @param maxAttempts     maximum number of attempts, including the first one
+     * @param baseDelayMillis maximum delay before the first retry, in milliseconds
+     * @param maxDelayMillis  maximum delay before any retry, in milliseconds
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        if (maxAttempts < 1 || baseDelayMillis < 0 || maxDelayMillis < baseDelayMillis) {
+            throw new IllegalArgumentException("Invalid retry policy");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns whether a failed attempt should be retried.
+     *
+     * @param e       error of the attempt
+     * @param attempt number of the attempt, starting from 1
+     * @return true if the error is transient and attempts are left
+     */
+    public boolean shouldRetry(DataAccessException e, int attempt) {
+        return attempt < maxAttempts && isTransient(e);
+    }
+
+    /**
+     * Returns the delay before retrying a failed attempt.
+     *
+     * @param attempt number of the failed attempt, starting from 1
+     * @return random delay in milliseconds
+     */
+    public long backoffMillis(int attempt) {
+        final var shift = Math.min(attempt - 1, 30);
+        final var bound = Math.min(maxDelayMillis, baseDelayMillis << shift);
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * Waits before retrying a failed attempt.
+     *
+     * @param attempt number of the failed attempt, starting from 1
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void backoff(int attempt) throws InterruptedException {
+        Thread.sleep(backoffMillis(attempt));
+    }
+
+    /**
+     * Returns whether a database error is transient, i.e., whether the same transaction may
+     * succeed if it is run again. Errors caused by the data or the statements themselves, such
+     * as constraint violations, are not, and neither are errors not reported by the database
+     * (e.g., a {@link org.jooq.exception.TooManyRowsException}) unless they are I/O errors.
+     *
+     * @param e database error
+     * @return true if the error is transient
+     */
+    public static boolean isTransient(DataAccessException e) {
+        final var state = e.sqlState();
+        if (state == null || state.equals("00000")) {
+            // Not reported by the database: only I/O errors, e.g., of a COPY stream, are transient
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return state.startsWith("08") // connection exception
+                || state.startsWith("40") // serialization failure, deadlock
+                || state.startsWith("53") // insufficient resources
+                || state.equals("55P03") // lock not available
+                || state.startsWith("57P"); // server shutdown
+    }
+}
@@ -6,6 +6,7 @@ package eu.fasten.core.data.metadatadb.codegen;
 
 import eu.fasten.core.data.metadatadb.codegen.tables.BinaryModuleContents;
 import eu.fasten.core.data.metadatadb.codegen.tables.BinaryModules;
+import eu.fasten.core.data.metadatadb.codegen.tables.CallableUris;
 import eu.fasten.core.data.metadatadb.codegen.tables.Callables;
 import eu.fasten.core.data.metadatadb.codegen.tables.Dependencies;
 import eu.fasten.core.data.metadatadb.codegen.tables.Edges;
@@ -57,6 +58,11 @@ public class Public extends SchemaImpl {
      */
     public final BinaryModules BINARY_MODULES = eu.fasten.core.data.metadatadb.codegen.tables.BinaryModules.BINARY_MODULES;
 
+    /**
+     * The table <code>public.callable_uris</code>.
+     */
+    public final CallableUris CALLABLE_URIS = eu.fasten.core.data.metadatadb.codegen.tables.CallableUris.CALLABLE_URIS;
+
     /**
      * The table <code>public.callables</code>.
      */
@@ -120,6 +126,7 @@ public class Public extends SchemaImpl {
     private final List<Sequence<?>> getSequences0() {
         return Arrays.<Sequence<?>>asList(
             Sequences.BINARY_MODULES_ID_SEQ,
+            Sequences.CALLABLE_URIS_ID_SEQ,
             Sequences.CALLABLES_ID_SEQ,
             Sequences.FILES_ID_SEQ,
             Sequences.MODULES_ID_SEQ,
@@ -138,6 +145,7 @@ public class Public extends SchemaImpl {
         return Arrays.<Table<?>>asList(
             BinaryModuleContents.BINARY_MODULE_CONTENTS,
             BinaryModules.BINARY_MODULES,
+            CallableUris.CALLABLE_URIS,
             Callables.CALLABLES,
             Dependencies.DEPENDENCIES,
             Edges.EDGES,
@@ -28,6 +28,11 @@ public class Sequences {
      */
     public static final Sequence<Long> BINARY_MODULES_ID_SEQ = new SequenceImpl<Long>("binary_modules_id_seq", Public.PUBLIC, org.jooq.impl.SQLDataType.BIGINT.nullable(false));
 
+    /**
+     * The sequence <code>public.callable_uris_id_seq</code>
+     */
+    public static final Sequence<Long> CALLABLE_URIS_ID_SEQ = new SequenceImpl<Long>("callable_uris_id_seq", Public.PUBLIC, org.jooq.impl.SQLDataType.BIGINT.nullable(false));
+
     /**
      * The sequence <code>public.callables_id_seq</code>
      */
@@ -6,6 +6,7 @@ package eu.fasten.core.data.metadatadb.codegen;
 
 import eu.fasten.core.data.metadatadb.codegen.tables.BinaryModuleContents;
 import eu.fasten.core.data.metadatadb.codegen.tables.BinaryModules;
+import eu.fasten.core.data.metadatadb.codegen.tables.CallableUris;
 import eu.fasten.core.data.metadatadb.codegen.tables.Callables;
 import eu.fasten.core.data.metadatadb.codegen.tables.Dependencies;
 import eu.fasten.core.data.metadatadb.codegen.tables.Edges;
@@ -41,6 +42,11 @@ public class Tables {
      */
     public static final BinaryModules BINARY_MODULES = BinaryModules.BINARY_MODULES;
 
+    /**
+     * The table <code>public.callable_uris</code>.
+     */
+    public static final CallableUris CALLABLE_URIS = CallableUris.CALLABLE_URIS;
+
     /**
      * The table <code>public.callables</code>.
      */
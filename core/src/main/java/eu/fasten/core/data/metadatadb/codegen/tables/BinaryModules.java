@@ -142,15 +142,6 @@ public class BinaryModules extends TableImpl<BinaryModulesRecord> {
         return Arrays.<UniqueKey<BinaryModulesRecord>>asList(Keys.BINARY_MODULES_PKEY, Keys.UNIQUE_VERSION_NAME);
     }
 
-    @Override
-    public List<ForeignKey<BinaryModulesRecord, ?>> getReferences() {
-        return Arrays.<ForeignKey<BinaryModulesRecord, ?>>asList(Keys.BINARY_MODULES__BINARY_MODULES_PACKAGE_VERSION_ID_FKEY);
-    }
-
-    public PackageVersions packageVersions() {
-        return new PackageVersions(this, Keys.BINARY_MODULES__BINARY_MODULES_PACKAGE_VERSION_ID_FKEY);
-    }
-
     @Override
     public BinaryModules as(String alias) {
         return new BinaryModules(DSL.name(alias), this);
@@ -44,7 +44,7 @@ import org.jooq.impl.TableImpl;
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
 public class Callables extends TableImpl<CallablesRecord> {
 
-    private static final long serialVersionUID = 1871877023;
+    private static final long serialVersionUID = -408163371;
 
     /**
      * The reference instance of <code>public.callables</code>
@@ -70,9 +70,9 @@ public class Callables extends TableImpl<CallablesRecord> {
     public final TableField<CallablesRecord, Long> MODULE_ID = createField(DSL.name("module_id"), org.jooq.impl.SQLDataType.BIGINT.nullable(false), this, "");
 
     /**
-     * The column <code>public.callables.fasten_uri</code>.
+     * The column <code>public.callables.uri_id</code>.
      */
-    public final TableField<CallablesRecord, String> FASTEN_URI = createField(DSL.name("fasten_uri"), org.jooq.impl.SQLDataType.CLOB.nullable(false), this, "");
+    public final TableField<CallablesRecord, Long> URI_ID = createField(DSL.name("uri_id"), org.jooq.impl.SQLDataType.BIGINT.nullable(false), this, "");
 
     /**
      * The column <code>public.callables.is_internal_call</code>.
@@ -149,13 +149,17 @@ public class Callables extends TableImpl<CallablesRecord> {
 
     @Override
     public List<ForeignKey<CallablesRecord, ?>> getReferences() {
-        return Arrays.<ForeignKey<CallablesRecord, ?>>asList(Keys.CALLABLES__CALLABLES_MODULE_ID_FKEY);
+        return Arrays.<ForeignKey<CallablesRecord, ?>>asList(Keys.CALLABLES__CALLABLES_MODULE_ID_FKEY, Keys.CALLABLES__CALLABLES_URI_ID_FKEY);
     }
 
     public Modules modules() {
         return new Modules(this, Keys.CALLABLES__CALLABLES_MODULE_ID_FKEY);
     }
 
+    public CallableUris callableUris() {
+        return new CallableUris(this, Keys.CALLABLES__CALLABLES_URI_ID_FKEY);
+    }
+
     @Override
     public Callables as(String alias) {
         return new Callables(DSL.name(alias), this);
@@ -187,7 +191,7 @@ public class Callables extends TableImpl<CallablesRecord> {
     // -------------------------------------------------------------------------
 
     @Override
-    public Row6<Long, Long, String, Boolean, Timestamp, JSONB> fieldsRow() {
+    public Row6<Long, Long, Long, Boolean, Timestamp, JSONB> fieldsRow() {
         return (Row6) super.fieldsRow();
     }
 }
@@ -127,11 +127,7 @@ public class Dependencies extends TableImpl<DependenciesRecord> {
 
     @Override
     public List<ForeignKey<DependenciesRecord, ?>> getReferences() {
-        return Arrays.<ForeignKey<DependenciesRecord, ?>>asList(Keys.DEPENDENCIES__DEPENDENCIES_PACKAGE_VERSION_ID_FKEY, Keys.DEPENDENCIES__DEPENDENCIES_DEPENDENCY_ID_FKEY);
-    }
-
-    public PackageVersions packageVersions() {
-        return new PackageVersions(this, Keys.DEPENDENCIES__DEPENDENCIES_PACKAGE_VERSION_ID_FKEY);
+        return Arrays.<ForeignKey<DependenciesRecord, ?>>asList(Keys.DEPENDENCIES__DEPENDENCIES_DEPENDENCY_ID_FKEY);
     }
 
     public Packages packages() {
@@ -17,7 +17,6 @@ import javax.annotation.processing.Generated;
 import org.jooq.Field;
 import org.jooq.ForeignKey;
 import org.jooq.Index;
-import org.jooq.JSONB;
 import org.jooq.Name;
 import org.jooq.Record;
 import org.jooq.Row3;
@@ -42,7 +41,7 @@ import org.jooq.impl.TableImpl;
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
 public class Edges extends TableImpl<EdgesRecord> {
 
-    private static final long serialVersionUID = 906422015;
+    private static final long serialVersionUID = -1528937046;
 
     /**
      * The reference instance of <code>public.edges</code>
@@ -68,9 +67,9 @@ public class Edges extends TableImpl<EdgesRecord> {
     public final TableField<EdgesRecord, Long> TARGET_ID = createField(DSL.name("target_id"), org.jooq.impl.SQLDataType.BIGINT.nullable(false), this, "");
 
     /**
-     * The column <code>public.edges.metadata</code>.
+     * The column <code>public.edges.call_sites</code>.
      */
-    public final TableField<EdgesRecord, JSONB> METADATA = createField(DSL.name("metadata"), org.jooq.impl.SQLDataType.JSONB.nullable(false), this, "");
+    public final TableField<EdgesRecord, byte[]> CALL_SITES = createField(DSL.name("call_sites"), org.jooq.impl.SQLDataType.BLOB.nullable(false), this, "");
 
     /**
      * Create a <code>public.edges</code> table reference
@@ -120,19 +119,6 @@ public class Edges extends TableImpl<EdgesRecord> {
         return Arrays.<UniqueKey<EdgesRecord>>asList(Keys.UNIQUE_SOURCE_TARGET);
     }
 
-    @Override
-    public List<ForeignKey<EdgesRecord, ?>> getReferences() {
-        return Arrays.<ForeignKey<EdgesRecord, ?>>asList(Keys.EDGES__EDGES_SOURCE_ID_FKEY, Keys.EDGES__EDGES_TARGET_ID_FKEY);
-    }
-
-    public Callables edges_EdgesSourceIdFkey() {
-        return new Callables(this, Keys.EDGES__EDGES_SOURCE_ID_FKEY);
-    }
-
-    public Callables edges_EdgesTargetIdFkey() {
-        return new Callables(this, Keys.EDGES__EDGES_TARGET_ID_FKEY);
-    }
-
     @Override
     public Edges as(String alias) {
         return new Edges(DSL.name(alias), this);
@@ -164,7 +150,7 @@ public class Edges extends TableImpl<EdgesRecord> {
     // -------------------------------------------------------------------------
 
     @Override
-    public Row3<Long, Long, JSONB> fieldsRow() {
+    public Row3<Long, Long, byte[]> fieldsRow() {
         return (Row3) super.fieldsRow();
     }
 }
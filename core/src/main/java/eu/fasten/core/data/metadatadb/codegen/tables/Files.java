@@ -147,15 +147,6 @@ public class Files extends TableImpl<FilesRecord> {
         return Arrays.<UniqueKey<FilesRecord>>asList(Keys.FILES_PKEY, Keys.UNIQUE_VERSION_PATH);
     }
 
-    @Override
-    public List<ForeignKey<FilesRecord, ?>> getReferences() {
-        return Arrays.<ForeignKey<FilesRecord, ?>>asList(Keys.FILES__FILES_PACKAGE_VERSION_ID_FKEY);
-    }
-
-    public PackageVersions packageVersions() {
-        return new PackageVersions(this, Keys.FILES__FILES_PACKAGE_VERSION_ID_FKEY);
-    }
-
     @Override
     public Files as(String alias) {
         return new Files(DSL.name(alias), this);
@@ -142,15 +142,6 @@ public class Modules extends TableImpl<ModulesRecord> {
         return Arrays.<UniqueKey<ModulesRecord>>asList(Keys.MODULES_PKEY, Keys.UNIQUE_VERSION_NAMESPACE);
     }
 
-    @Override
-    public List<ForeignKey<ModulesRecord, ?>> getReferences() {
-        return Arrays.<ForeignKey<ModulesRecord, ?>>asList(Keys.MODULES__MODULES_PACKAGE_VERSION_ID_FKEY);
-    }
-
-    public PackageVersions packageVersions() {
-        return new PackageVersions(this, Keys.MODULES__MODULES_PACKAGE_VERSION_ID_FKEY);
-    }
-
     @Override
     public Modules as(String alias) {
         return new Modules(DSL.name(alias), this);
@@ -12,7 +12,7 @@ import javax.annotation.processing.Generated;
 
 import org.jooq.Field;
 import org.jooq.JSONB;
-import org.jooq.Record1;
+import org.jooq.Record2;
 import org.jooq.Record6;
 import org.jooq.Row6;
 import org.jooq.impl.UpdatableRecordImpl;
@@ -29,9 +29,9 @@ import org.jooq.impl.UpdatableRecordImpl;
     comments = "This class is generated by jOOQ"
 )
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
-public class CallablesRecord extends UpdatableRecordImpl<CallablesRecord> implements Record6<Long, Long, String, Boolean, Timestamp, JSONB> {
+public class CallablesRecord extends UpdatableRecordImpl<CallablesRecord> implements Record6<Long, Long, Long, Boolean, Timestamp, JSONB> {
 
-    private static final long serialVersionUID = -1863283635;
+    private static final long serialVersionUID = 1024655071;
 
     /**
      * Setter for <code>public.callables.id</code>.
@@ -62,17 +62,17 @@ public class CallablesRecord extends UpdatableRecordImpl<CallablesRecord> implem
     }
 
     /**
-     * Setter for <code>public.callables.fasten_uri</code>.
+     * Setter for <code>public.callables.uri_id</code>.
      */
-    public void setFastenUri(String value) {
+    public void setUriId(Long value) {
         set(2, value);
     }
 
     /**
-     * Getter for <code>public.callables.fasten_uri</code>.
+     * Getter for <code>public.callables.uri_id</code>.
      */
-    public String getFastenUri() {
-        return (String) get(2);
+    public Long getUriId() {
+        return (Long) get(2);
     }
 
     /**
@@ -122,8 +122,8 @@ public class CallablesRecord extends UpdatableRecordImpl<CallablesRecord> implem
     // -------------------------------------------------------------------------
 
     @Override
-    public Record1<Long> key() {
-        return (Record1) super.key();
+    public Record2<Long, Long> key() {
+        return (Record2) super.key();
     }
 
     // -------------------------------------------------------------------------
@@ -131,12 +131,12 @@ public class CallablesRecord extends UpdatableRecordImpl<CallablesRecord> implem
     // -------------------------------------------------------------------------
 
     @Override
-    public Row6<Long, Long, String, Boolean, Timestamp, JSONB> fieldsRow() {
+    public Row6<Long, Long, Long, Boolean, Timestamp, JSONB> fieldsRow() {
         return (Row6) super.fieldsRow();
     }
 
     @Override
-    public Row6<Long, Long, String, Boolean, Timestamp, JSONB> valuesRow() {
+    public Row6<Long, Long, Long, Boolean, Timestamp, JSONB> valuesRow() {
         return (Row6) super.valuesRow();
     }
 
@@ -151,8 +151,8 @@ public class CallablesRecord extends UpdatableRecordImpl<CallablesRecord> implem
     }
 
     @Override
-    public Field<String> field3() {
-        return Callables.CALLABLES.FASTEN_URI;
+    public Field<Long> field3() {
+        return Callables.CALLABLES.URI_ID;
     }
 
     @Override
@@ -181,8 +181,8 @@ public class CallablesRecord extends UpdatableRecordImpl<CallablesRecord> implem
     }
 
     @Override
-    public String component3() {
-        return getFastenUri();
+    public Long component3() {
+        return getUriId();
     }
 
     @Override
@@ -211,8 +211,8 @@ public class CallablesRecord extends UpdatableRecordImpl<CallablesRecord> implem
     }
 
     @Override
-    public String value3() {
-        return getFastenUri();
+    public Long value3() {
+        return getUriId();
     }
 
     @Override
@@ -243,8 +243,8 @@ public class CallablesRecord extends UpdatableRecordImpl<CallablesRecord> implem
     }
 
     @Override
-    public CallablesRecord value3(String value) {
-        setFastenUri(value);
+    public CallablesRecord value3(Long value) {
+        setUriId(value);
         return this;
     }
 
@@ -267,7 +267,7 @@ public class CallablesRecord extends UpdatableRecordImpl<CallablesRecord> implem
     }
 
     @Override
-    public CallablesRecord values(Long value1, Long value2, String value3, Boolean value4, Timestamp value5, JSONB value6) {
+    public CallablesRecord values(Long value1, Long value2, Long value3, Boolean value4, Timestamp value5, JSONB value6) {
         value1(value1);
         value2(value2);
         value3(value3);
@@ -291,12 +291,12 @@ public class CallablesRecord extends UpdatableRecordImpl<CallablesRecord> implem
     /**
      * Create a detached, initialised CallablesRecord
      */
-    public CallablesRecord(Long id, Long moduleId, String fastenUri, Boolean isInternalCall, Timestamp createdAt, JSONB metadata) {
+    public CallablesRecord(Long id, Long moduleId, Long uriId, Boolean isInternalCall, Timestamp createdAt, JSONB metadata) {
         super(Callables.CALLABLES);
 
         set(0, id);
         set(1, moduleId);
-        set(2, fastenUri);
+        set(2, uriId);
         set(3, isInternalCall);
         set(4, createdAt);
         set(5, metadata);
@@ -9,7 +9,6 @@ import eu.fasten.core.data.metadatadb.codegen.tables.Edges;
 import javax.annotation.processing.Generated;
 
 import org.jooq.Field;
-import org.jooq.JSONB;
 import org.jooq.Record3;
 import org.jooq.Row3;
 import org.jooq.impl.TableRecordImpl;
@@ -26,9 +25,9 @@ import org.jooq.impl.TableRecordImpl;
     comments = "This class is generated by jOOQ"
 )
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
-public class EdgesRecord extends TableRecordImpl<EdgesRecord> implements Record3<Long, Long, JSONB> {
+public class EdgesRecord extends TableRecordImpl<EdgesRecord> implements Record3<Long, Long, byte[]> {
 
-    private static final long serialVersionUID = 1847200193;
+    private static final long serialVersionUID = 613845306;
 
     /**
      * Setter for <code>public.edges.source_id</code>.
@@ -59,17 +58,17 @@ public class EdgesRecord extends TableRecordImpl<EdgesRecord> implements Record3
     }
 
     /**
-     * Setter for <code>public.edges.metadata</code>.
+     * Setter for <code>public.edges.call_sites</code>.
      */
-    public void setMetadata(JSONB value) {
+    public void setCallSites(byte[] value) {
         set(2, value);
     }
 
     /**
-     * Getter for <code>public.edges.metadata</code>.
+     * Getter for <code>public.edges.call_sites</code>.
      */
-    public JSONB getMetadata() {
-        return (JSONB) get(2);
+    public byte[] getCallSites() {
+        return (byte[]) get(2);
     }
 
     // -------------------------------------------------------------------------
@@ -77,12 +76,12 @@ public class EdgesRecord extends TableRecordImpl<EdgesRecord> implements Record3
     // -------------------------------------------------------------------------
 
     @Override
-    public Row3<Long, Long, JSONB> fieldsRow() {
+    public Row3<Long, Long, byte[]> fieldsRow() {
         return (Row3) super.fieldsRow();
     }
 
     @Override
-    public Row3<Long, Long, JSONB> valuesRow() {
+    public Row3<Long, Long, byte[]> valuesRow() {
         return (Row3) super.valuesRow();
     }
 
@@ -97,8 +96,8 @@ public class EdgesRecord extends TableRecordImpl<EdgesRecord> implements Record3
     }
 
     @Override
-    public Field<JSONB> field3() {
-        return Edges.EDGES.METADATA;
+    public Field<byte[]> field3() {
+        return Edges.EDGES.CALL_SITES;
     }
 
     @Override
@@ -112,8 +111,8 @@ public class EdgesRecord extends TableRecordImpl<EdgesRecord> implements Record3
     }
 
     @Override
-    public JSONB component3() {
-        return getMetadata();
+    public byte[] component3() {
+        return getCallSites();
     }
 
     @Override
@@ -127,8 +126,8 @@ public class EdgesRecord extends TableRecordImpl<EdgesRecord> implements Record3
     }
 
     @Override
-    public JSONB value3() {
-        return getMetadata();
+    public byte[] value3() {
+        return getCallSites();
     }
 
     @Override
@@ -144,13 +143,13 @@ public class EdgesRecord extends TableRecordImpl<EdgesRecord> implements Record3
     }
 
     @Override
-    public EdgesRecord value3(JSONB value) {
-        setMetadata(value);
+    public EdgesRecord value3(byte[] value) {
+        setCallSites(value);
         return this;
     }
 
     @Override
-    public EdgesRecord values(Long value1, Long value2, JSONB value3) {
+    public EdgesRecord values(Long value1, Long value2, byte[] value3) {
         value1(value1);
         value2(value2);
         value3(value3);
@@ -171,11 +170,11 @@ public class EdgesRecord extends TableRecordImpl<EdgesRecord> implements Record3
     /**
      * Create a detached, initialised EdgesRecord
      */
-    public EdgesRecord(Long sourceId, Long targetId, JSONB metadata) {
+    public EdgesRecord(Long sourceId, Long targetId, byte[] callSites) {
         super(Edges.EDGES);
 
         set(0, sourceId);
         set(1, targetId);
-        set(2, metadata);
+        set(2, callSites);
     }
 }
@@ -12,7 +12,7 @@ import javax.annotation.processing.Generated;
 
 import org.jooq.Field;
 import org.jooq.JSONB;
-import org.jooq.Record1;
+import org.jooq.Record2;
 import org.jooq.Record6;
 import org.jooq.Row6;
 import org.jooq.impl.UpdatableRecordImpl;
@@ -122,8 +122,8 @@ public class PackageVersionsRecord extends UpdatableRecordImpl<PackageVersionsRe
     // -------------------------------------------------------------------------
 
     @Override
-    public Record1<Long> key() {
-        return (Record1) super.key();
+    public Record2<Long, Long> key() {
+        return (Record2) super.key();
     }
 
     // -------------------------------------------------------------------------
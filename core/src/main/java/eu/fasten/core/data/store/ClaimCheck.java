@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.store;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import org.json.JSONObject;
+
+/**
+ * Decides whether the payload of a message travels inline or is offloaded to a
+ * {@link PayloadStore}, in which case the message carries a reference to the payload (the claim
+ * check) instead.
+ */
+public class ClaimCheck {
+
+    /** Default size, in characters, above which payloads are offloaded. */
+    public static final int DEFAULT_INLINE_THRESHOLD = 64 * 1024;
+
+    private final PayloadStore store;
+    private final int inlineThreshold;
+
+    /**
+     * Creates a claim check.
+     *
+     * @param store           store for offloaded payloads
+     * @param inlineThreshold size, in characters, above which payloads are offloaded; with 0,
+     *                        every non-empty payload is offloaded
+     */
+    public ClaimCheck(PayloadStore store, int inlineThreshold) {
+        this.store = store;
+        this.inlineThreshold = inlineThreshold;
+    }
+
+    /**
+     * Creates a claim check for reading payloads, or for offloading them with the default
+     * threshold.
+     *
+     * @param store store of offloaded payloads
+     */
+    public ClaimCheck(PayloadStore store) {
+        this(store, DEFAULT_INLINE_THRESHOLD);
+    }
+
+    /**
+     * Returns the payload itself, if it is small enough, or a reference to the payload after
+     * storing it.
+     *
+     * @param payload payload of a message
+     * @return the payload, or the JSON reference to the stored payload
+     * @throws IOException if the payload could not be stored
+     */
+    public String offload(String payload) throws IOException {
+        if (payload.length() <= inlineThreshold) {
+            return payload;
+        }
+        return store.reference(store.put(payload.getBytes(StandardCharsets.UTF_8))).toString();
+    }
+
+    /**
+     * Checks whether a payload is a reference to a stored payload.
+     *
+     * @param payload payload of a message
+     * @return true if the payload must be read with {@link #open(JSONObject)}
+     */
+    public static boolean isReference(JSONObject payload) {
+        return !payload.optString("dir").isEmpty();
+    }
+
+    /**
+     * Opens the payload a reference points to, in the store of this claim check.
+     *
+     * @param reference reference to a stored payload
+     * @return reader returning the payload
+     * @throws IOException if the payload could not be read
+     */
+    public Reader open(JSONObject reference) throws IOException {
+        return new InputStreamReader(store.open(reference), StandardCharsets.UTF_8);
+    }
+}
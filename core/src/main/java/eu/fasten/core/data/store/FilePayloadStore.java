@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.store;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.google.common.hash.Hashing;
+import it.unimi.dsi.io.ByteBufferInputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import org.json.JSONObject;
+
+/**
+ * A {@link PayloadStore} keeping payloads in a directory, as zstd-compressed files named after
+ * the SHA-256 hash of their content. Files are written to a temporary file that is then
+ * atomically renamed, so readers never see partially written payloads, and they are read
+ * through memory mapping.
+ */
+public class FilePayloadStore implements PayloadStore {
+
+    /** Encoding of stored files, as recorded in references. */
+    public static final String ENCODING = "zstd";
+
+    private static final String EXTENSION = ".json.zst";
+    private static final int COMPRESSION_LEVEL = 3;
+
+    private final Path directory;
+    private final String linkPrefix;
+
+    /**
+     * Creates a store.
+     *
+     * @param directory  root directory of the store
+     * @param linkPrefix HTTP link to the root directory, added to references [can be null]
+     */
+    public FilePayloadStore(String directory, String linkPrefix) {
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.linkPrefix = (linkPrefix != null && linkPrefix.endsWith("/"))
+                ? linkPrefix.substring(0, linkPrefix.length() - 1) : linkPrefix;
+    }
+
+    @Override
+    public String put(byte[] payload) throws IOException {
+        final var key = Hashing.sha256().hashBytes(payload).toString();
+        final var file = directory.resolve(relativePath(key));
+        if (Files.exists(file)) {
+            return key;
+        }
+
+        Files.createDirectories(file.getParent());
+        final var temp = Files.createTempFile(file.getParent(), key, ".tmp");
+        try {
+            try (var out = new ZstdOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temp)), COMPRESSION_LEVEL)) {
+                out.write(payload);
+            }
+            // Concurrent writers of the same key write the same content, so either may win
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return key;
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return openFile(directory.resolve(relativePath(key)), true);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>References contain the absolute path of the file, so references of stores rooted in
+     * other directories of the same file system can be opened as well. References to
+     * uncompressed files, written before payload stores existed, are supported too.
+     */
+    @Override
+    public InputStream open(JSONObject reference) throws IOException {
+        final var file = Paths.get(reference.getString("dir"));
+        return openFile(file, ENCODING.equals(reference.optString("encoding")));
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return Files.exists(directory.resolve(relativePath(key)));
+    }
+
+    @Override
+    public JSONObject reference(String key) {
+        final var relativePath = relativePath(key);
+        final var reference = new JSONObject();
+        reference.put("key", key);
+        reference.put("encoding", ENCODING);
+        reference.put("dir", directory.resolve(relativePath).toString());
+        if (linkPrefix != null && !linkPrefix.isEmpty()) {
+            reference.put("link", linkPrefix + "/" + relativePath);
+        }
+        return reference;
+    }
+
+    /**
+     * Returns the path of a payload relative to the root directory. Payloads are spread over two
+     * levels of subdirectories, to keep directories small.
+     */
+    private static String relativePath(String key) {
+        return key.substring(0, 2) + "/" + key.substring(2, 4) + "/" + key + EXTENSION;
+    }
+
+    /**
+     * Opens a file by memory mapping it.
+     *
+     * @param file       file to open
+     * @param compressed whether the file has been compressed by this store
+     * @return stream returning the (uncompressed) content of the file
+     * @throws IOException if the file could not be opened
+     */
+    private static InputStream openFile(Path file, boolean compressed) throws IOException {
+        final InputStream in;
+        try (var channel = FileChannel.open(file)) {
+            // The mapping remains valid after the channel has been closed
+            in = channel.size() == 0 ? InputStream.nullInputStream()
+                    : ByteBufferInputStream.map(channel, FileChannel.MapMode.READ_ONLY);
+        }
+        return compressed ? new BufferedInputStream(new ZstdInputStream(in)) : in;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.store;
+
+import java.io.IOException;
+import java.io.InputStream;
+import org.json.JSONObject;
+
+/**
+ * A content-addressed store for payloads that are too large to travel inline in Kafka messages.
+ * Payloads are stored under a key derived from their content, so storing the same payload twice
+ * stores it once.
+ *
+ * <p>The {@linkplain #reference(String) reference} sent in place of a payload contains
+ * everything a store of the same kind needs to {@linkplain #open(JSONObject) read it back}, so
+ * consumers do not need to know the key or the location of the payload.
+ */
+public interface PayloadStore {
+
+    /**
+     * Stores a payload. The payload is visible to readers only once it has been completely
+     * written.
+     *
+     * @param payload payload to store
+     * @return key of the payload
+     * @throws IOException if the payload could not be stored
+     */
+    String put(byte[] payload) throws IOException;
+
+    /**
+     * Opens a stored payload for reading.
+     *
+     * @param key key of the payload
+     * @return stream returning the (uncompressed) payload
+     * @throws IOException if the payload does not exist or could not be read
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Opens the payload a reference returned by {@link #reference(String)} points to.
+     *
+     * @param reference JSON reference to the payload
+     * @return stream returning the (uncompressed) payload
+     * @throws IOException if the payload does not exist or could not be read
+     */
+    InputStream open(JSONObject reference) throws IOException;
+
+    /**
+     * Checks whether a payload has been stored.
+     *
+     * @param key key of the payload
+     * @return true if the payload exists
+     */
+    boolean contains(String key);
+
+    /**
+     * Returns the reference to a stored payload that is sent in place of the payload.
+     *
+     * @param key key of the payload
+     * @return JSON reference to the payload
+     */
+    JSONObject reference(String key);
+}
@@ -0,0 +1,129 @@
+package eu.fasten.core.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.UnflaggedOption;
+
+import eu.fasten.core.data.CallGraphCodec;
+import eu.fasten.core.data.CallGraphParser;
+import eu.fasten.core.data.graphdb.GidGraph;
+import eu.fasten.core.data.graphdb.RocksDao;
+import it.unimi.dsi.logging.ProgressLogger;
+
+/**
+ * Loads GID graphs into a RocksDB graph database offline, by generating SST files that are
+ * ingested at the end (see {@link RocksDao#bulkLoad(java.util.Iterator, File, int, int)}).
+ *
+ * <p>Each input file contains a GID graph, as JSON, as a JSON payload wrapping its binary
+ * representation, or in binary form. Files are read in increasing order of the number their name
+ * starts with (e.g., {@code 9.json} before {@code 10.json}), and files whose name does not start
+ * with a number are read last, in lexicographical order of their path. Thus, naming files after
+ * the index of their graph makes the SST files disjoint.
+ */
+public class BulkLoadGraphs {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BulkLoadGraphs.class);
+
+	public static void main(final String[] args) throws JSAPException, IOException, RocksDBException {
+		final SimpleJSAP jsap = new SimpleJSAP(BulkLoadGraphs.class.getName(),
+				"Bulk loads GID graphs into a RocksDB graph database through SST files.",
+				new Parameter[] {
+						new FlaggedOption("writers", JSAP.INTEGER_PARSER, Integer.toString(Runtime.getRuntime().availableProcessors()), JSAP.NOT_REQUIRED, 'w', "writers", "The number of SST files written in parallel."),
+						new FlaggedOption("graphsPerFile", JSAP.INTEGER_PARSER, "10000", JSAP.NOT_REQUIRED, 'g', "graphs-per-file", "The number of graphs written to each SST file."),
+						new FlaggedOption("sstDir", JSAP.STRING_PARSER, null, JSAP.NOT_REQUIRED, 's', "sst-dir", "The directory where SST files are written before their ingestion (default: a subdirectory of the database directory)."),
+						new UnflaggedOption("graphDB", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The directory of the RocksDB instance of the graph database." ),
+						new UnflaggedOption("graphs", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The directory containing the GID graphs, one per file." ),
+		});
+
+		final JSAPResult jsapResult = jsap.parse(args);
+		if ( jsap.messagePrinted() ) return;
+
+		final String graphDB = jsapResult.getString("graphDB");
+		final Path graphs = Paths.get(jsapResult.getString("graphs"));
+		if (!Files.isDirectory(graphs)) throw new IllegalArgumentException("No such directory: " + graphs);
+		final File sstDir = new File(jsapResult.getString("sstDir", new File(graphDB, "bulk-load").toString()));
+
+		final ProgressLogger pl = new ProgressLogger(LOGGER);
+		pl.itemsName = "graphs";
+		pl.start("Writing SST files");
+		try (final RocksDao rocksDao = new RocksDao(graphDB);
+				final Stream<Path> paths = Files.walk(graphs)) {
+			final var gidGraphs = paths.filter(Files::isRegularFile).sorted(Comparator.comparingLong(BulkLoadGraphs::index).thenComparing(Comparator.naturalOrder())).map(path -> {
+				pl.lightUpdate();
+				return read(path);
+			}).iterator();
+			final long numGraphs = rocksDao.bulkLoad(gidGraphs, sstDir, jsapResult.getInt("writers"), jsapResult.getInt("graphsPerFile"));
+			pl.done();
+			LOGGER.info("Loaded " + numGraphs + " graphs");
+		} finally {
+			sstDir.delete();
+		}
+	}
+
+	/**
+	 * Returns the number a file name starts with.
+	 *
+	 * @param path a file.
+	 * @return the number formed by the leading digits of the name of the file, or
+	 *         {@link Long#MAX_VALUE} if there are none (or too many).
+	 */
+	private static long index(final Path path) {
+		final String name = path.getFileName().toString();
+		int digits = 0;
+		while (digits < name.length() && name.charAt(digits) >= '0' && name.charAt(digits) <= '9') digits++;
+		if (digits == 0 || digits > 18) return Long.MAX_VALUE;
+		return Long.parseLong(name.substring(0, digits));
+	}
+
+	/**
+	 * Reads a GID graph from a file.
+	 *
+	 * @param path the file containing the graph.
+	 * @return the GID graph.
+	 */
+	private static GidGraph read(final Path path) {
+		try {
+			final byte[] data = Files.readAllBytes(path);
+			if (CallGraphCodec.isBinary(data)) return GidGraph.fromBinary(data);
+			return CallGraphParser.parseGidGraph(new ByteArrayInputStream(data));
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Could not read GID graph from " + path, e);
+		}
+	}
+}
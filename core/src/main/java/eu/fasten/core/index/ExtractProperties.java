@@ -20,6 +20,8 @@ package eu.fasten.core.index;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.ExecutionException;
 
 import org.rocksdb.RocksDBException;
 import org.slf4j.Logger;
@@ -36,6 +38,7 @@ import com.martiansoftware.jsap.UnflaggedOption;
 import eu.fasten.core.data.KnowledgeBase;
 import eu.fasten.core.data.KnowledgeBase.CallGraph;
 import eu.fasten.core.data.KnowledgeBase.CallGraphData;
+import eu.fasten.core.index.ParallelScanner.Output;
 import it.unimi.dsi.logging.ProgressLogger;
 
 
@@ -43,12 +46,40 @@ public class ExtractProperties {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ExtractProperties.class);
 
-	public static void main(final String[] args) throws JSAPException, ClassNotFoundException, RocksDBException, IOException {
+	/** An accumulator writing, in index order, the properties of each call graph. */
+	private static final class Properties implements ParallelScanner.Accumulator<Properties> {
+		private final Output output = new Output(null);
+
+		@Override
+		public void add(final CallGraph callGraph, final CallGraphData callGraphData) {
+			final PrintStream stream = output.stream();
+			stream.print(callGraph.index);
+			stream.print('\t');
+			stream.print(callGraph.product);
+			stream.print('\t');
+			stream.print(callGraph.version);
+			stream.print('\t');
+			stream.print(callGraphData.graphProperties);
+			stream.print('\t');
+			stream.print(callGraphData.transposeProperties);
+			stream.println();
+		}
+
+		@Override
+		public void merge(final Properties other) {
+			output.merge(other.output);
+		}
+	}
+
+	public static void main(final String[] args) throws JSAPException, ClassNotFoundException, RocksDBException, IOException, InterruptedException, ExecutionException {
 		final SimpleJSAP jsap = new SimpleJSAP(ExtractProperties.class.getName(),
 				"Extract properties files from a knowledge base.",
 				new Parameter[] {
 						new FlaggedOption("min", JSAP.INTEGER_PARSER, "0", JSAP.NOT_REQUIRED, 'm', "min", "Consider only graphs with at least this number of internal nodes."),
-						new FlaggedOption("n", JSAP.LONG_PARSER, Long.toString(Long.MAX_VALUE), JSAP.NOT_REQUIRED, 'n', "n", "Analyze just this number of graphs."),
+						new FlaggedOption("n", JSAP.LONG_PARSER, Long.toString(Long.MAX_VALUE), JSAP.NOT_REQUIRED, 'n', "n", "Analyze just this number of graphs (in index order)."),
+						new FlaggedOption("threads", JSAP.INTEGER_PARSER, Integer.toString(Runtime.getRuntime().availableProcessors()), JSAP.NOT_REQUIRED, 't', "threads", "The number of scanning threads." ),
+						new FlaggedOption("partitions", JSAP.INTEGER_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'p', "partitions", "The number of key-range partitions (default: four times the number of threads)." ),
+						new FlaggedOption("readahead", JSAP.LONGSIZE_PARSER, Long.toString(ParallelScanner.DEFAULT_READAHEAD_SIZE), JSAP.NOT_REQUIRED, 'r', "readahead", "The readahead size of database iterators." ),
 						new UnflaggedOption("kb", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The directory of the RocksDB instance containing the knowledge base." ),
 						new UnflaggedOption("kbmeta", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The file containing the knowledge base metadata." ),
 		});
@@ -58,6 +89,8 @@ public class ExtractProperties {
 
 		final int minNodes = jsapResult.getInt("min");
 		final long n = jsapResult.getLong("n");
+		final int threads = jsapResult.getInt("threads");
+		final int partitions = jsapResult.userSpecified("partitions") ? jsapResult.getInt("partitions") : 4 * threads;
 		final String kbDir = jsapResult.getString("kb");
 		if (!new File(kbDir).exists()) throw new IllegalArgumentException("No such directory: " + kbDir);
 		final String kbMetadataFilename = jsapResult.getString("kbmeta");
@@ -65,29 +98,15 @@ public class ExtractProperties {
 		LOGGER.info("Loading KnowledgeBase metadata");
 		final KnowledgeBase kb = KnowledgeBase.getInstance(kbDir, kbMetadataFilename, true);
 
-		final ProgressLogger pl = new ProgressLogger();
-
-		pl.count = kb.callGraphs.size();
+		final ParallelScanner scanner = new ParallelScanner(kb, n);
+		final ProgressLogger pl = new ProgressLogger(LOGGER);
+		pl.expectedUpdates = scanner.size();
 		pl.itemsName = "graphs";
-		pl.start("Enumerating graphs");
-
-		long i = 0;
-		for(final CallGraph callGraph: kb.callGraphs.values()) {
-			if (i++ >= n) break;
-			pl.update();
-			if (callGraph.nInternal < minNodes) continue;
-			final CallGraphData callGraphData = callGraph.callGraphData();
-			System.out.print(callGraph.index);
-			System.out.print('\t');
-			System.out.print(callGraph.product);
-			System.out.print('\t');
-			System.out.print(callGraph.version);
-			System.out.print('\t');
-			System.out.print(callGraphData.graphProperties);
-			System.out.print('\t');
-			System.out.print(callGraphData.transposeProperties);
-			System.out.println();
-		}
+		pl.start("Scanning graphs");
+		// Graphs with too few internal nodes are filtered before decoding
+		final Properties properties = scanner.scan(callGraph -> callGraph.nInternal >= minNodes, Properties::new, partitions, threads, jsapResult.getLong("readahead"), pl);
+		pl.done();
+		properties.output.store(System.out);
 
 		LOGGER.info("Closing KnowledgeBase");
 		kb.close();
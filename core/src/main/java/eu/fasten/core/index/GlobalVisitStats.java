@@ -24,6 +24,10 @@ import static eu.fasten.core.data.KnowledgeBase.index;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.lang3.mutable.MutableLong;
 import org.rocksdb.RocksDBException;
@@ -36,16 +40,19 @@ import com.martiansoftware.jsap.JSAPException;
 import com.martiansoftware.jsap.JSAPResult;
 import com.martiansoftware.jsap.Parameter;
 import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.Switch;
 import com.martiansoftware.jsap.UnflaggedOption;
 
 import eu.fasten.core.data.KnowledgeBase;
 import eu.fasten.core.data.KnowledgeBase.CallGraph;
-import eu.fasten.core.data.KnowledgeBase.CallGraphData;
 import eu.fasten.core.data.KnowledgeBase.Node;
 import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.io.BinIO;
 import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.logging.ProgressLogger;
 import it.unimi.dsi.stat.SummaryStats;
@@ -58,7 +65,8 @@ public class GlobalVisitStats {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(GlobalVisitStats.class);
 
-	private static final LongOpenHashSet badGIDs = new LongOpenHashSet();
+	/** GIDs of JDK methods, which are not visited; shared by concurrent visits. */
+	private static final LongSet badGIDs = LongSets.synchronize(new LongOpenHashSet());
 
 	public static class Result {
 		final LongOpenHashSet nodes;
@@ -199,7 +207,18 @@ public class GlobalVisitStats {
 		return visited;
 	}
 
-	public static void main(final String[] args) throws JSAPException, ClassNotFoundException, RocksDBException, IOException {
+	/**
+	 * Stores a column of results, as a binary list of longs.
+	 *
+	 * @param basename the basename of the output.
+	 * @param column the name of the column (used as an extension).
+	 * @param values the values of the column.
+	 */
+	static void storeColumn(final String basename, final String column, final long[] values) throws IOException {
+		BinIO.storeLongs(values, basename + "." + column);
+	}
+
+	public static void main(final String[] args) throws JSAPException, ClassNotFoundException, RocksDBException, IOException, InterruptedException, ExecutionException {
 		final SimpleJSAP jsap = new SimpleJSAP(GlobalVisitStats.class.getName(),
 				"Computes (co)reachable set statistics for a prototype knowledge base.",
 				new Parameter[] {
@@ -207,6 +226,9 @@ public class GlobalVisitStats {
 						new FlaggedOption("maxRevsB", JSAP.INTEGER_PARSER, Integer.toString(Integer.MAX_VALUE), JSAP.NOT_REQUIRED, 'b', "max-revs-b", "The maximum number of revision per product during the backward visits."),
 						new FlaggedOption("n", JSAP.INTEGER_PARSER, "1", JSAP.NOT_REQUIRED, 'n', "n", "The the number of starting nodes for visits."),
 						new FlaggedOption("p", JSAP.INTEGER_PARSER, "1", JSAP.NOT_REQUIRED, 'p', "p", "The the number of starting pairs for visits."),
+						new FlaggedOption("threads", JSAP.INTEGER_PARSER, Integer.toString(Runtime.getRuntime().availableProcessors()), JSAP.NOT_REQUIRED, 't', "threads", "The number of visits run in parallel."),
+						new Switch("stratified", 's', "stratified", "Sample the call graphs of starting nodes uniformly from strata of call graphs of similar size, rather than uniformly."),
+						new FlaggedOption("output", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'o', "output", "A basename for columnar output: each statistic is stored as a binary list of longs, with one entry per starting node (or pair) in sample order."),
 						new UnflaggedOption("kb", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The directory of the RocksDB instance containing the knowledge base." ),
 						new UnflaggedOption("kbmeta", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The file containing the knowledge base metadata." ),
 		});
@@ -218,6 +240,9 @@ public class GlobalVisitStats {
 		final int p = jsapResult.getInt("p");
 		final int maxRevsF = jsapResult.getInt("maxRevsF");
 		final int maxRevsB = jsapResult.getInt("maxRevsB");
+		final int threads = jsapResult.getInt("threads");
+		final boolean stratified = jsapResult.getBoolean("stratified");
+		final String output = jsapResult.getString("output");
 		final String kbDir = jsapResult.getString("kb");
 		if (!new File(kbDir).exists()) throw new IllegalArgumentException("No such directory: " + kbDir);
 		final String kbMetadataFilename = jsapResult.getString("kbmeta");
@@ -226,81 +251,128 @@ public class GlobalVisitStats {
 		final KnowledgeBase kb = KnowledgeBase.getInstance(kbDir, kbMetadataFilename, true);
 		LOGGER.info("Number of graphs: " + kb.callGraphs.size());
 
-		final ProgressLogger pl = new ProgressLogger();
-
-		final SummaryStats reachable = new SummaryStats();
-		final SummaryStats coreachable = new SummaryStats();
-		final SummaryStats reachableProducts = new SummaryStats();
-		final SummaryStats coreachableProducts = new SummaryStats();
-		final SummaryStats reachableRevs = new SummaryStats();
-		final SummaryStats coreachableRevs = new SummaryStats();
+		final StratifiedSampler sampler = new StratifiedSampler(kb, 1);
+		LOGGER.info("Sampling from " + sampler.size() + " graphs in " + sampler.numStrata() + " strata");
 
+		// Starting nodes are sampled in advance, so results do not depend on the order of execution
 		final XoRoShiRo128PlusPlusRandom random = new XoRoShiRo128PlusPlusRandom(0);
-		final long[] callGraphIndex = kb.callGraphs.keySet().toLongArray();
+		final long[] startIndex = new long[n];
+		final int[] startLID = new int[n];
+		for (int i = 0; i < n; i++) {
+			startIndex[i] = sampler.draw(i, stratified, random);
+			startLID[i] = random.nextInt(kb.callGraphs.get(startIndex[i]).nInternal);
+		}
+		final long[][] pairIndex = new long[2][p];
+		final int[][] pairLID = new int[2][p];
+		for (int i = 0; i < p; i++) {
+			for (int j = 0; j < 2; j++) {
+				pairIndex[j][i] = sampler.draw(2 * i + j, stratified, random);
+				pairLID[j][i] = random.nextInt(kb.callGraphs.get(pairIndex[j][i]).nInternal);
+			}
+		}
+
+		final long[] signature = new long[n];
+		final long[] stratum = new long[n];
+		final long[] reachable = new long[n];
+		final long[] reachableProducts = new long[n];
+		final long[] reachableRevs = new long[n];
+		final long[] coreachable = new long[n];
+		final long[] coreachableProducts = new long[n];
+		final long[] coreachableRevs = new long[n];
 
-		final ProgressLogger pl2 = new ProgressLogger(LOGGER);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final ExecutorCompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+		final ProgressLogger pl = new ProgressLogger(LOGGER);
 
 		pl.expectedUpdates = n;
 		pl.itemsName = "nodes";
 		pl.start("Enumerating nodes");
 		for (int i = 0; i < n; i++) {
+			final int s = i;
+			completionService.submit(() -> {
+				final CallGraph callGraph = kb.callGraphs.get(startIndex[s]);
+				final Node node = kb.new Node(callGraph.callGraphData().LID2GID[startLID[s]], startIndex[s]);
+				LOGGER.info("Analyzing node " + node.toFastenURI());
+				final ProgressLogger visitPl = new ProgressLogger(LOGGER);
+				signature[s] = node.signature();
+				stratum[s] = StratifiedSampler.stratum(callGraph);
+				final Result reaches = reaches(kb, node.signature(), maxRevsF, visitPl);
+				reachable[s] = reaches.nodes.size();
+				reachableProducts[s] = reaches.numProducts;
+				reachableRevs[s] = reaches.numRevs;
+				final Result coreaches = coreaches(kb, node.signature(), maxRevsB, visitPl);
+				coreachable[s] = coreaches.nodes.size();
+				coreachableProducts[s] = coreaches.numProducts;
+				coreachableRevs[s] = coreaches.numRevs;
+				return null;
+			});
+		}
+		for (int i = 0; i < n; i++) {
+			completionService.take().get();
 			pl.update();
-			final int index = random.nextInt(callGraphIndex.length);
-			final CallGraph callGraph = kb.callGraphs.get(callGraphIndex[index]);
-			final CallGraphData callGraphData = callGraph.callGraphData();
-			final int startNode = random.nextInt(callGraph.nInternal);
-			final Node node = kb.new Node(callGraphData.LID2GID[startNode], index);
-			LOGGER.info("Analyzing node " + node.toFastenURI());
-			final Result reaches = reaches(kb, node.signature(), maxRevsF, pl2);
-			reachable.add(reaches.nodes.size());
-			reachableProducts.add(reaches.numProducts);
-			reachableRevs.add(reaches.numRevs);
-			final Result coreaches = coreaches(kb, node.signature(), maxRevsB, pl2);
-			coreachable.add(coreaches.nodes.size());
-			coreachableProducts.add(coreaches.numProducts);
-			coreachableRevs.add(coreaches.numRevs);
 		}
 		pl.done();
 
-		final SummaryStats reachableIntersection = new SummaryStats();
-		final SummaryStats coreachableIntersection = new SummaryStats();
+		final long[] reachableIntersection = new long[p];
+		final long[] coreachableIntersection = new long[p];
 
 		pl.expectedUpdates = p;
 		pl.itemsName = "pairs";
 		pl.start("Enumerating pairs");
 		for (int i = 0; i < p; i++) {
+			final int s = i;
+			completionService.submit(() -> {
+				final Node node0 = kb.new Node(kb.callGraphs.get(pairIndex[0][s]).callGraphData().LID2GID[pairLID[0][s]], pairIndex[0][s]);
+				final Node node1 = kb.new Node(kb.callGraphs.get(pairIndex[1][s]).callGraphData().LID2GID[pairLID[1][s]], pairIndex[1][s]);
+				LOGGER.info("Analyzing pair (" + node0.toFastenURI() + ", " + node1.toFastenURI() + ")");
+				final ProgressLogger visitPl = new ProgressLogger(LOGGER);
+				final Result reaches0 = reaches(kb, node0.signature(), maxRevsF, visitPl);
+				final Result reaches1 = reaches(kb, node1.signature(), maxRevsF, visitPl);
+				reaches0.nodes.retainAll(reaches1.nodes);
+				reachableIntersection[s] = reaches0.nodes.size();
+				final Result coreaches0 = coreaches(kb, node0.signature(), maxRevsB, visitPl);
+				final Result coreaches1 = coreaches(kb, node1.signature(), maxRevsB, visitPl);
+				coreaches0.nodes.retainAll(coreaches1.nodes);
+				coreachableIntersection[s] = coreaches0.nodes.size();
+				return null;
+			});
+		}
+		for (int i = 0; i < p; i++) {
+			completionService.take().get();
 			pl.update();
-			final int index0 = random.nextInt(callGraphIndex.length);
-			final int index1 = random.nextInt(callGraphIndex.length);
-			final CallGraph callGraph0 = kb.callGraphs.get(callGraphIndex[index0]);
-			final CallGraphData callGraphData0 = callGraph0.callGraphData();
-			final CallGraph callGraph1 = kb.callGraphs.get(callGraphIndex[index1]);
-			final CallGraphData callGraphData1 = callGraph1.callGraphData();
-			final int startNode0 = random.nextInt(callGraph0.nInternal);
-			final int startNode1 = random.nextInt(callGraph1.nInternal);
-			final Node node0 = kb.new Node(callGraphData0.LID2GID[startNode0], index0);
-			final Node node1 = kb.new Node(callGraphData1.LID2GID[startNode1], index1);
-			LOGGER.info("Analyzing pair (" + node0.toFastenURI() + ", " + node1.toFastenURI() + ")");
-			final Result reaches0 = reaches(kb, node0.signature(), maxRevsF, pl2);
-			final Result reaches1 = reaches(kb, node1.signature(), maxRevsF, pl2);
-			final Result coreaches0 = coreaches(kb, node0.signature(), maxRevsB, pl2);
-			final Result coreaches1 = coreaches(kb, node1.signature(), maxRevsB, pl2);
-			reaches0.nodes.retainAll(reaches1.nodes);
-			reachableIntersection.add(reaches0.nodes.size());
-			coreaches0.nodes.retainAll(coreaches1.nodes);
-			coreachableIntersection.add(coreaches0.nodes.size());
 		}
 		pl.done();
+		executor.shutdown();
 
 		LOGGER.info("Closing KnowledgeBase");
 		kb.close();
-		System.out.println("Forward visit nodes:         \t" + reachable);
-		System.out.println("Forward visit products:      \t" + reachableProducts);
-		System.out.println("Forward visit revisions:     \t" + reachableRevs);
-		System.out.println("Forward visit intersection:  \t" + reachableIntersection);
-		System.out.println("Backward visit nodes:        \t" + coreachable);
-		System.out.println("Backward visit products:     \t" + coreachableProducts);
-		System.out.println("Backward visit revisions:    \t" + coreachableRevs);
-		System.out.println("Backward visit intersection: \t" + coreachableIntersection);
+
+		if (output != null) {
+			storeColumn(output, "signature", signature);
+			storeColumn(output, "stratum", stratum);
+			storeColumn(output, "reachable", reachable);
+			storeColumn(output, "reachableProducts", reachableProducts);
+			storeColumn(output, "reachableRevs", reachableRevs);
+			storeColumn(output, "coreachable", coreachable);
+			storeColumn(output, "coreachableProducts", coreachableProducts);
+			storeColumn(output, "coreachableRevs", coreachableRevs);
+			storeColumn(output, "reachableIntersection", reachableIntersection);
+			storeColumn(output, "coreachableIntersection", coreachableIntersection);
+		}
+
+		System.out.println("Forward visit nodes:         \t" + summary(reachable));
+		System.out.println("Forward visit products:      \t" + summary(reachableProducts));
+		System.out.println("Forward visit revisions:     \t" + summary(reachableRevs));
+		System.out.println("Forward visit intersection:  \t" + summary(reachableIntersection));
+		System.out.println("Backward visit nodes:        \t" + summary(coreachable));
+		System.out.println("Backward visit products:     \t" + summary(coreachableProducts));
+		System.out.println("Backward visit revisions:    \t" + summary(coreachableRevs));
+		System.out.println("Backward visit intersection: \t" + summary(coreachableIntersection));
+	}
+
+	private static SummaryStats summary(final long[] values) {
+		final SummaryStats stats = new SummaryStats();
+		for (final long v : values) stats.add(v);
+		return stats;
 	}
 }
@@ -1,7 +1,5 @@
 package eu.fasten.core.index;
 
-import java.io.BufferedOutputStream;
-
 /*
  * Licensed to the Apache Software Foundation (ASF) under one
  * or more contributor license agreements.  See the NOTICE file
@@ -21,9 +19,8 @@ import java.io.BufferedOutputStream;
  */
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintStream;
+import java.util.concurrent.ExecutionException;
 
 import org.rocksdb.RocksDBException;
 import org.slf4j.Logger;
@@ -41,95 +38,69 @@ import com.martiansoftware.jsap.UnflaggedOption;
 import eu.fasten.core.data.KnowledgeBase;
 import eu.fasten.core.data.KnowledgeBase.CallGraph;
 import eu.fasten.core.data.KnowledgeBase.CallGraphData;
+import eu.fasten.core.index.ParallelScanner.Output;
 import it.unimi.dsi.bits.Fast;
 import it.unimi.dsi.logging.ProgressLogger;
 
 
+/**
+ * Computes statistics about an instance of a prototype knowledge base.
+ *
+ * <p>
+ * All statistics are computed in a single {@linkplain ParallelScanner parallel scan} of the
+ * database. Distributions written to files list graphs in increasing index order.
+ */
 public class KBStats {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(KBStats.class);
 
-	public static void main(final String[] args) throws JSAPException, ClassNotFoundException, RocksDBException, IOException {
-		final SimpleJSAP jsap = new SimpleJSAP(KBStats.class.getName(),
-				"Compute statistics about an instance of a prototype knowledge base.",
-				new Parameter[] {
-						new FlaggedOption("gsd", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'g', "gsd", "Graph-size distribution: number of nodes (one per graph)." ),
-						new FlaggedOption("at", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'a', "at", "Arc type distribution: internal arcs, external arcs, total arcs (tab-separated, one per graph)." ),
-						new FlaggedOption("od", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'o', "od", "Outdegree distribution: graph id, internal outdegree, external outdegree, total outdegree (tab-separated, one per node)." ),
-						new FlaggedOption("id", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'i', "id", "Indegree distribution: graph id, external?, indegree (tab-separated, one per node)." ),
-						new FlaggedOption("min", JSAP.INTEGER_PARSER, "0", JSAP.NOT_REQUIRED, 'm', "min", "Consider only graphs with at least this number of nodes." ),
-						new FlaggedOption("n", JSAP.INTEGER_PARSER, Integer.toString(Integer.MAX_VALUE), JSAP.NOT_REQUIRED, 'n', "n", "Analyze just this number of graphs."),
-						new UnflaggedOption("kb", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The directory of the RocksDB instance containing the knowledge base." ),
-						new UnflaggedOption("kbmeta", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The file containing the knowledge base metadata." ),
-		});
-
-		final JSAPResult jsapResult = jsap.parse(args);
-		if ( jsap.messagePrinted() ) return;
-
-		final int minNodes = jsapResult.getInt("min");
-		final int n = jsapResult.getInt("n");
-		final String kbDir = jsapResult.getString("kb");
-		if (!new File(kbDir).exists()) throw new IllegalArgumentException("No such directory: " + kbDir);
-		final String kbMetadataFilename = jsapResult.getString("kbmeta");
-		if (!new File(kbMetadataFilename).exists()) throw new IllegalArgumentException("No such file: " + kbMetadataFilename);
-		LOGGER.info("Loading KnowledgeBase metadata");
-		final KnowledgeBase kb = KnowledgeBase.getInstance(kbDir, kbMetadataFilename, true);
-		LOGGER.info("Number of graphs: " + kb.callGraphs.size());
-
-		final ProgressLogger pl = new ProgressLogger();
+	/** A mergeable accumulator for all the statistics computed by this class. */
+	private static final class Stats implements ParallelScanner.Accumulator<Stats> {
+		private final int minNodes;
+		private final Output gsd, at, od, id;
 
-		pl.count = kb.callGraphs.size();
-		pl.itemsName = "graphs";
-		pl.start("Enumerating graphs");
+		private long statGraphs;
+		private long totSize;
+		private long internalArcs, externalArcs;
+		private final StatsAccumulator nodes = new StatsAccumulator();
+		private final StatsAccumulator internalNodes = new StatsAccumulator();
+		private final StatsAccumulator internalNodeRatio = new StatsAccumulator();
+		private final StatsAccumulator arcs = new StatsAccumulator();
+		private final StatsAccumulator bitsPerLink = new StatsAccumulator();
+		private final StatsAccumulator bitsPerLinkt = new StatsAccumulator();
+		private final StatsAccumulator bytes = new StatsAccumulator();
+		private final StatsAccumulator rawBytes = new StatsAccumulator();
+		private final StatsAccumulator deflation = new StatsAccumulator();
+		private final StatsAccumulator internalOutdegree = new StatsAccumulator();
+		private final StatsAccumulator externalOutdegree = new StatsAccumulator();
+		private final StatsAccumulator outdegree = new StatsAccumulator();
+		private final StatsAccumulator internalIndegree = new StatsAccumulator();
+		private final StatsAccumulator externalIndegree = new StatsAccumulator();
+		private final StatsAccumulator[] deflationBySize = new StatsAccumulator[30];
 
-		final boolean gsdFlag = jsapResult.userSpecified("gsd");
-		final PrintStream gsdStream = gsdFlag? new PrintStream(new BufferedOutputStream(new FileOutputStream(jsapResult.getString("gsd")))) : null;
-
-		final boolean atFlag = jsapResult.userSpecified("at");
-		final PrintStream atStream = atFlag? new PrintStream(new BufferedOutputStream(new FileOutputStream(jsapResult.getString("at")))) : null;
-
-		final boolean odFlag = jsapResult.userSpecified("od");
-		final PrintStream odStream = odFlag? new PrintStream(new BufferedOutputStream(new FileOutputStream(jsapResult.getString("od")))) : null;
-
-		final boolean idFlag = jsapResult.userSpecified("id");
-		final PrintStream idStream = idFlag? new PrintStream(new BufferedOutputStream(new FileOutputStream(jsapResult.getString("id")))) : null;
-
-		final StatsAccumulator nodes = new StatsAccumulator();
-		final StatsAccumulator internalNodes = new StatsAccumulator();
-		final StatsAccumulator internalNodeRatio = new StatsAccumulator();
-		final StatsAccumulator arcs = new StatsAccumulator();
-		final StatsAccumulator bitsPerLink = new StatsAccumulator();
-		final StatsAccumulator bitsPerLinkt = new StatsAccumulator();
-		final StatsAccumulator bytes = new StatsAccumulator();
-		final StatsAccumulator rawBytes = new StatsAccumulator();
-		final StatsAccumulator deflation = new StatsAccumulator();
-
-		final StatsAccumulator[] deflationBySize = new StatsAccumulator[30];
-		for (int i = 0; i < deflationBySize.length; i++) deflationBySize[i] = new StatsAccumulator();
-
-		int totGraphs = 0, statGraphs = 0;
-		long totSize = 0;
-		for(final CallGraph callGraph: kb.callGraphs.values()) {
-			if (totGraphs++ == n) break;
-
-			if (totGraphs % 10000 == 0) {
-				System.out.println("Nodes: " + nodes.snapshot());
-				System.out.println("Internal nodes: " + internalNodes.snapshot());
-				System.out.println("Internal node ratio: " + internalNodeRatio.snapshot());
-				System.out.println("Arcs: " + arcs.snapshot());
-				System.out.println("Bytes: " + bytes.snapshot());
-				System.out.println("Raw bytes: " + rawBytes.snapshot());
-				System.out.println("Deflation: " + deflation.snapshot());
-				System.out.println("Bits/link: " + bitsPerLink.snapshot());
-				System.out.println("Transpose bits/link: " + bitsPerLinkt.snapshot());
-				for (int i = 0; i < deflationBySize.length; i++) if (deflationBySize[i].count() != 0) System.out.println("Deflation by size [" + ((1L << i) - 1) + ".." + ((1L << i + 1) - 1) + "):" + deflationBySize[i].snapshot());
-			}
+		/**
+		 * Creates an empty accumulator.
+		 *
+		 * @param minNodes the minimum number of nodes of a graph to be considered.
+		 * @param gsd whether to write the graph-size distribution.
+		 * @param at whether to write the arc-type distribution.
+		 * @param od whether to write the outdegree distribution.
+		 * @param id whether to write the indegree distribution.
+		 */
+		public Stats(final int minNodes, final boolean gsd, final boolean at, final boolean od, final boolean id) {
+			this.minNodes = minNodes;
+			this.gsd = gsd ? new Output(null) : null;
+			this.at = at ? new Output(null) : null;
+			this.od = od ? new Output(null) : null;
+			this.id = id ? new Output(null) : null;
+			for (int i = 0; i < deflationBySize.length; i++) deflationBySize[i] = new StatsAccumulator();
+		}
 
-			pl.update();
-			final CallGraphData callGraphData = callGraph.callGraphData();
-			if (callGraphData.numNodes() < minNodes) continue;
+		@Override
+		public void add(final CallGraph callGraph, final CallGraphData callGraphData) {
+			if (callGraphData.numNodes() < minNodes) return;
 			totSize += callGraphData.size;
-			if (gsdFlag) gsdStream.println(callGraphData.numNodes());
+			if (gsd != null) gsd.stream().println(callGraphData.numNodes());
 			statGraphs++;
 			nodes.add(callGraphData.numNodes());
 			arcs.add(callGraphData.numArcs());
@@ -145,8 +116,8 @@ public class KBStats {
 			if (! Double.isNaN(bpl)) bitsPerLink.add(bpl);
 			final double bplt = Double.parseDouble((callGraphData.transposeProperties.getProperty("bitsperlink")));
 			if (! Double.isNaN(bplt)) bitsPerLinkt.add(bplt);
-			int internalArcs = 0, externalArcs = 0, totalArcs = 0;
-			if (atFlag || odFlag) {
+			if (at != null || od != null) {
+				int internalArcs = 0, externalArcs = 0, totalArcs = 0;
 				for (final long node: callGraphData.nodes()) {
 					int internalOut = 0, externalOut = 0, totalOut = 0;
 					if (callGraphData.isExternal(node)) continue;
@@ -155,43 +126,132 @@ public class KBStats {
 						else internalOut++;
 						totalOut++;
 					}
-					if (odFlag) odStream.printf("%d\t%d\t%d\t%d\n", totGraphs, internalOut, externalOut, totalOut);
+					if (od != null) od.stream().printf("%d\t%d\t%d\t%d\n", callGraph.index, internalOut, externalOut, totalOut);
+					internalOutdegree.add(internalOut);
+					externalOutdegree.add(externalOut);
+					outdegree.add(totalOut);
 					internalArcs += internalOut;
 					externalArcs += externalOut;
 					totalArcs += totalOut;
 				}
-				if (atFlag) atStream.printf("%d\t%d\t%d\n", internalArcs, externalArcs, totalArcs);
+				if (at != null) at.stream().printf("%d\t%d\t%d\n", internalArcs, externalArcs, totalArcs);
+				this.internalArcs += internalArcs;
+				this.externalArcs += externalArcs;
 			}
-			if (idFlag) {
+			if (id != null) {
 				for (final long node: callGraphData.nodes()) {
-					final int external = callGraphData.isExternal(node) ? 1 : 0;
-					idStream.printf("%d\t%d\t%d\n", totGraphs, external, callGraphData.predecessors(node).size());
+					final boolean external = callGraphData.isExternal(node);
+					final int indegree = callGraphData.predecessors(node).size();
+					id.stream().printf("%d\t%d\t%d\n", callGraph.index, external ? 1 : 0, indegree);
+					(external ? externalIndegree : internalIndegree).add(indegree);
 				}
-
 			}
+		}
 
+		@Override
+		public void merge(final Stats other) {
+			statGraphs += other.statGraphs;
+			totSize += other.totSize;
+			internalArcs += other.internalArcs;
+			externalArcs += other.externalArcs;
+			nodes.addAll(other.nodes.snapshot());
+			internalNodes.addAll(other.internalNodes.snapshot());
+			internalNodeRatio.addAll(other.internalNodeRatio.snapshot());
+			arcs.addAll(other.arcs.snapshot());
+			bitsPerLink.addAll(other.bitsPerLink.snapshot());
+			bitsPerLinkt.addAll(other.bitsPerLinkt.snapshot());
+			bytes.addAll(other.bytes.snapshot());
+			rawBytes.addAll(other.rawBytes.snapshot());
+			deflation.addAll(other.deflation.snapshot());
+			internalOutdegree.addAll(other.internalOutdegree.snapshot());
+			externalOutdegree.addAll(other.externalOutdegree.snapshot());
+			outdegree.addAll(other.outdegree.snapshot());
+			internalIndegree.addAll(other.internalIndegree.snapshot());
+			externalIndegree.addAll(other.externalIndegree.snapshot());
+			for (int i = 0; i < deflationBySize.length; i++) deflationBySize[i].addAll(other.deflationBySize[i].snapshot());
+			if (gsd != null) gsd.merge(other.gsd);
+			if (at != null) at.merge(other.at);
+			if (od != null) od.merge(other.od);
+			if (id != null) id.merge(other.id);
 		}
+	}
+
+	public static void main(final String[] args) throws JSAPException, ClassNotFoundException, RocksDBException, IOException, InterruptedException, ExecutionException {
+		final SimpleJSAP jsap = new SimpleJSAP(KBStats.class.getName(),
+				"Compute statistics about an instance of a prototype knowledge base.",
+				new Parameter[] {
+						new FlaggedOption("gsd", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'g', "gsd", "Graph-size distribution: number of nodes (one per graph)." ),
+						new FlaggedOption("at", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'a', "at", "Arc type distribution: internal arcs, external arcs, total arcs (tab-separated, one per graph)." ),
+						new FlaggedOption("od", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'o', "od", "Outdegree distribution: graph id, internal outdegree, external outdegree, total outdegree (tab-separated, one per node)." ),
+						new FlaggedOption("id", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'i', "id", "Indegree distribution: graph id, external?, indegree (tab-separated, one per node)." ),
+						new FlaggedOption("min", JSAP.INTEGER_PARSER, "0", JSAP.NOT_REQUIRED, 'm', "min", "Consider only graphs with at least this number of nodes." ),
+						new FlaggedOption("n", JSAP.INTEGER_PARSER, Integer.toString(Integer.MAX_VALUE), JSAP.NOT_REQUIRED, 'n', "n", "Analyze just this number of graphs (in index order)."),
+						new FlaggedOption("threads", JSAP.INTEGER_PARSER, Integer.toString(Runtime.getRuntime().availableProcessors()), JSAP.NOT_REQUIRED, 't', "threads", "The number of scanning threads." ),
+						new FlaggedOption("partitions", JSAP.INTEGER_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'p', "partitions", "The number of key-range partitions (default: four times the number of threads)." ),
+						new FlaggedOption("readahead", JSAP.LONGSIZE_PARSER, Long.toString(ParallelScanner.DEFAULT_READAHEAD_SIZE), JSAP.NOT_REQUIRED, 'r', "readahead", "The readahead size of database iterators." ),
+						new UnflaggedOption("kb", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The directory of the RocksDB instance containing the knowledge base." ),
+						new UnflaggedOption("kbmeta", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The file containing the knowledge base metadata." ),
+		});
+
+		final JSAPResult jsapResult = jsap.parse(args);
+		if ( jsap.messagePrinted() ) return;
+
+		final int minNodes = jsapResult.getInt("min");
+		final int n = jsapResult.getInt("n");
+		final int threads = jsapResult.getInt("threads");
+		final int partitions = jsapResult.userSpecified("partitions") ? jsapResult.getInt("partitions") : 4 * threads;
+		final String kbDir = jsapResult.getString("kb");
+		if (!new File(kbDir).exists()) throw new IllegalArgumentException("No such directory: " + kbDir);
+		final String kbMetadataFilename = jsapResult.getString("kbmeta");
+		if (!new File(kbMetadataFilename).exists()) throw new IllegalArgumentException("No such file: " + kbMetadataFilename);
+		LOGGER.info("Loading KnowledgeBase metadata");
+		final KnowledgeBase kb = KnowledgeBase.getInstance(kbDir, kbMetadataFilename, true);
+		LOGGER.info("Number of graphs: " + kb.callGraphs.size());
 
-		if (gsdFlag) gsdStream.close();
-		if (atFlag) atStream.close();
-		if (odFlag) odStream.close();
-		if (idFlag) idStream.close();
+		final boolean gsdFlag = jsapResult.userSpecified("gsd");
+		final boolean atFlag = jsapResult.userSpecified("at");
+		final boolean odFlag = jsapResult.userSpecified("od");
+		final boolean idFlag = jsapResult.userSpecified("id");
+
+		final ParallelScanner scanner = new ParallelScanner(kb, n);
+		final ProgressLogger pl = new ProgressLogger(LOGGER);
+		pl.expectedUpdates = scanner.size();
+		pl.itemsName = "graphs";
+		pl.start("Scanning graphs");
+		final Stats stats = scanner.scan(callGraph -> true, () -> new Stats(minNodes, gsdFlag, atFlag, odFlag, idFlag), partitions, threads, jsapResult.getLong("readahead"), pl);
 		pl.done();
+
+		if (gsdFlag) stats.gsd.store(jsapResult.getString("gsd"));
+		if (atFlag) stats.at.store(jsapResult.getString("at"));
+		if (odFlag) stats.od.store(jsapResult.getString("od"));
+		if (idFlag) stats.id.store(jsapResult.getString("id"));
+
 		LOGGER.info("Closing KnowledgeBase");
 		kb.close();
 		System.out.println("Graphs in the kb: " + kb.callGraphs.size());
-		System.out.println("Graphs examined: " + totGraphs);
-		System.out.println("Graphs considered for the stats: " + statGraphs);
-		System.out.println("Storage size of graphs considered for the stats: " + totSize);
-		System.out.println("Nodes: " + nodes.snapshot());
-		System.out.println("Internal nodes: " + internalNodes.snapshot());
-		System.out.println("Internal node ratio: " + internalNodeRatio.snapshot());
-		System.out.println("Arcs: " + arcs.snapshot());
-		System.out.println("Bytes: " + bytes.snapshot());
-		System.out.println("Raw bytes: " + rawBytes.snapshot());
-		System.out.println("deflation: " + deflation.snapshot());
-		System.out.println("Bits/link: " + bitsPerLink.snapshot());
-		System.out.println("Transpose bits/link: " + bitsPerLinkt.snapshot());
-		for (int i = 0; i < deflationBySize.length; i++) if (deflationBySize[i].count() != 0) System.out.println("Deflation by size [" + ((1L << i) - 1) + ".." + ((1L << i + 1) - 1) + "): " + deflationBySize[i].snapshot());
+		System.out.println("Graphs examined: " + scanner.size());
+		System.out.println("Graphs considered for the stats: " + stats.statGraphs);
+		System.out.println("Storage size of graphs considered for the stats: " + stats.totSize);
+		System.out.println("Nodes: " + stats.nodes.snapshot());
+		System.out.println("Internal nodes: " + stats.internalNodes.snapshot());
+		System.out.println("Internal node ratio: " + stats.internalNodeRatio.snapshot());
+		System.out.println("Arcs: " + stats.arcs.snapshot());
+		System.out.println("Bytes: " + stats.bytes.snapshot());
+		System.out.println("Raw bytes: " + stats.rawBytes.snapshot());
+		System.out.println("deflation: " + stats.deflation.snapshot());
+		System.out.println("Bits/link: " + stats.bitsPerLink.snapshot());
+		System.out.println("Transpose bits/link: " + stats.bitsPerLinkt.snapshot());
+		for (int i = 0; i < stats.deflationBySize.length; i++) if (stats.deflationBySize[i].count() != 0) System.out.println("Deflation by size [" + ((1L << i) - 1) + ".." + ((1L << i + 1) - 1) + "): " + stats.deflationBySize[i].snapshot());
+		if (atFlag || odFlag) {
+			System.out.println("Internal arcs: " + stats.internalArcs);
+			System.out.println("External arcs: " + stats.externalArcs);
+			System.out.println("Internal outdegree: " + stats.internalOutdegree.snapshot());
+			System.out.println("External outdegree: " + stats.externalOutdegree.snapshot());
+			System.out.println("Outdegree: " + stats.outdegree.snapshot());
+		}
+		if (idFlag) {
+			System.out.println("Indegree of internal nodes: " + stats.internalIndegree.snapshot());
+			System.out.println("Indegree of external nodes: " + stats.externalIndegree.snapshot());
+		}
 	}
 }
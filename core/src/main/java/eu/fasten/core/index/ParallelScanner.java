@@ -0,0 +1,235 @@
+package eu.fasten.core.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import eu.fasten.core.data.KnowledgeBase;
+import eu.fasten.core.data.KnowledgeBase.CallGraph;
+import eu.fasten.core.data.KnowledgeBase.CallGraphData;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.logging.ProgressLogger;
+
+/**
+ * Scans in parallel the call graphs of a knowledge base, computing statistics in a single pass.
+ *
+ * <p>
+ * The range of revision indices is split into key-range partitions containing approximately the
+ * same number of call graphs; each partition is {@linkplain KnowledgeBase#scan(long, long, long,
+ * Predicate, java.util.function.BiConsumer) scanned} sequentially by a database iterator and fed
+ * to a fresh {@link Accumulator}. At the end, accumulators are merged in partition order, so the
+ * result does not depend on the number of threads.
+ */
+public class ParallelScanner {
+
+	/** The default readahead size of database iterators (2 MiB). */
+	public static final long DEFAULT_READAHEAD_SIZE = 2 * 1024 * 1024;
+
+	/**
+	 * A mergeable accumulator of statistics about call graphs.
+	 *
+	 * @param <A> the type of the accumulator.
+	 */
+	public interface Accumulator<A extends Accumulator<A>> {
+		/**
+		 * Accumulates a call graph.
+		 *
+		 * @param callGraph the call graph.
+		 * @param callGraphData the data of <code>callGraph</code>.
+		 */
+		public void add(CallGraph callGraph, CallGraphData callGraphData);
+
+		/**
+		 * Merges into this accumulator another accumulator, which was fed with call graphs following
+		 * those fed to this accumulator. The other accumulator will not be used afterwards.
+		 *
+		 * @param other another accumulator.
+		 */
+		public void merge(A other);
+	}
+
+	/**
+	 * Line-oriented output produced by an {@link Accumulator} that must preserve the order of call
+	 * graphs. Each instance writes to a temporary file; {@linkplain #merge(Output) merging} just
+	 * concatenates the lists of temporary files, which are eventually {@linkplain #store(OutputStream)
+	 * copied} in order.
+	 */
+	public static final class Output {
+		/** The temporary files, in order. */
+		private final ObjectArrayList<File> parts = new ObjectArrayList<>();
+		/** The stream writing on the last temporary file. */
+		private final PrintStream stream;
+
+		/**
+		 * Creates a new output.
+		 *
+		 * @param dir the directory for the temporary file, or <code>null</code> for the system
+		 *            temporary directory.
+		 */
+		public Output(final File dir) {
+			try {
+				final File part = File.createTempFile(ParallelScanner.class.getSimpleName(), ".part", dir);
+				part.deleteOnExit();
+				parts.add(part);
+				stream = new PrintStream(new BufferedOutputStream(new FileOutputStream(part)));
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/**
+		 * Returns the stream to be used to write on this output.
+		 *
+		 * @return the stream to be used to write on this output.
+		 */
+		public PrintStream stream() {
+			return stream;
+		}
+
+		/**
+		 * Appends another output to this output; no more output can be written to either afterwards.
+		 *
+		 * @param other an output.
+		 */
+		public void merge(final Output other) {
+			stream.close();
+			other.stream.close();
+			parts.addAll(other.parts);
+			other.parts.clear();
+		}
+
+		/**
+		 * Copies this output to a stream and deletes the temporary files.
+		 *
+		 * @param out an output stream (that will not be closed).
+		 */
+		public void store(final OutputStream out) throws IOException {
+			stream.close();
+			for (final File part : parts) {
+				Files.copy(part.toPath(), out);
+				part.delete();
+			}
+			parts.clear();
+			out.flush();
+		}
+
+		/**
+		 * Copies this output to a file and deletes the temporary files.
+		 *
+		 * @param file a file.
+		 */
+		public void store(final String file) throws IOException {
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+				store(out);
+			}
+		}
+	}
+
+	/** The knowledge base. */
+	private final KnowledgeBase kb;
+	/** The revision indices of the call graphs to be scanned, in increasing order. */
+	private final long[] indices;
+
+	/**
+	 * Creates a scanner for the call graphs of a knowledge base.
+	 *
+	 * @param kb a knowledge base.
+	 * @param maxGraphs the maximum number of call graphs to be scanned; call graphs are chosen in
+	 *            increasing index order.
+	 */
+	public ParallelScanner(final KnowledgeBase kb, final long maxGraphs) {
+		this.kb = kb;
+		final long[] all = kb.callGraphs.keySet().toLongArray();
+		LongArrays.parallelQuickSort(all);
+		this.indices = all.length <= maxGraphs ? all : LongArrays.copy(all, 0, (int)maxGraphs);
+	}
+
+	/**
+	 * Returns the number of call graphs that will be scanned.
+	 *
+	 * @return the number of call graphs that will be scanned.
+	 */
+	public int size() {
+		return indices.length;
+	}
+
+	/**
+	 * Scans call graphs in parallel.
+	 *
+	 * @param filter a filter on call graphs; the data of call graphs that are not accepted is not
+	 *            even decoded.
+	 * @param supplier a supplier of empty accumulators (one per partition).
+	 * @param partitions the number of partitions; using more partitions than threads improves load
+	 *            balancing.
+	 * @param threads the number of threads.
+	 * @param readaheadSize the readahead size of database iterators, in bytes.
+	 * @param pl a progress logger, or <code>null</code>; it will be updated after each partition
+	 *            with the number of call graphs in the partition.
+	 * @return an accumulator containing the merge of all accumulators, in partition order.
+	 */
+	public <A extends Accumulator<A>> A scan(final Predicate<CallGraph> filter, final Supplier<A> supplier, final int partitions, final int threads, final long readaheadSize, final ProgressLogger pl) throws InterruptedException, ExecutionException {
+		final int n = indices.length;
+		final int p = Math.max(1, Math.min(partitions, n));
+		final ObjectArrayList<Future<A>> futures = new ObjectArrayList<>(p);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final ExecutorCompletionService<A> completionService = new ExecutorCompletionService<>(executor);
+
+		try {
+			for (int i = 0; i < p; i++) {
+				final int start = (int)((long)i * n / p), end = (int)((long)(i + 1) * n / p);
+				if (start == end) continue;
+				final long from = indices[start], to = end == n ? indices[n - 1] + 1 : indices[end];
+				final int count = end - start;
+				futures.add(completionService.submit(() -> {
+					final A accumulator = supplier.get();
+					kb.scan(from, to, readaheadSize, filter, accumulator::add);
+					if (pl != null) synchronized (pl) {
+						pl.update(count);
+					}
+					return accumulator;
+				}));
+			}
+
+			// Wait for all partitions, failing fast
+			for (int i = 0; i < futures.size(); i++) completionService.take().get();
+		} finally {
+			executor.shutdownNow();
+		}
+
+		if (futures.isEmpty()) return supplier.get();
+		final A result = futures.get(0).get();
+		for (int i = 1; i < futures.size(); i++) result.merge(futures.get(i).get());
+		return result;
+	}
+}
@@ -0,0 +1,143 @@
+package eu.fasten.core.index;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Random;
+
+import eu.fasten.core.data.KnowledgeBase;
+import eu.fasten.core.data.KnowledgeBase.CallGraph;
+import it.unimi.dsi.bits.Fast;
+import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+
+/**
+ * Samples call graphs of a knowledge base, either uniformly or stratified by size.
+ *
+ * <p>
+ * Strata group call graphs of similar size: the stratum of a call graph is the most significant bit
+ * of its number of internal nodes. Stratified sampling picks the same number of call graphs from
+ * each stratum, so that the (few) large call graphs are represented in the sample as much as the
+ * (many) small ones. Only metadata is used for sampling: no call graph is loaded from the database.
+ */
+public class StratifiedSampler {
+
+	/** The revision indices of the call graphs in the sampling space. */
+	private final long[] indices;
+	/** The revision indices of the call graphs in the sampling space, grouped by (nonempty) stratum. */
+	private final long[][] strata;
+
+	/**
+	 * Creates a sampler for the call graphs of a knowledge base with a given minimum number of
+	 * internal nodes.
+	 *
+	 * @param kb a knowledge base.
+	 * @param minNodes the minimum number of internal nodes of a sampled call graph (at least one).
+	 */
+	public StratifiedSampler(final KnowledgeBase kb, final int minNodes) {
+		final LongArrayList all = new LongArrayList();
+		final Int2ObjectAVLTreeMap<LongArrayList> stratum2Indices = new Int2ObjectAVLTreeMap<>();
+		for (final CallGraph callGraph : kb.callGraphs.values()) {
+			if (callGraph.nInternal < Math.max(1, minNodes)) continue;
+			all.add(callGraph.index);
+			LongArrayList list = stratum2Indices.get(stratum(callGraph));
+			if (list == null) stratum2Indices.put(stratum(callGraph), list = new LongArrayList());
+			list.add(callGraph.index);
+		}
+		indices = all.toLongArray();
+		// Sort for reproducibility, as the iteration order of the knowledge base is arbitrary
+		LongArrays.quickSort(indices);
+		strata = new long[stratum2Indices.size()][];
+		int i = 0;
+		for (final LongArrayList list : stratum2Indices.values()) {
+			strata[i] = list.toLongArray();
+			LongArrays.quickSort(strata[i++]);
+		}
+	}
+
+	/**
+	 * Returns the stratum of a call graph.
+	 *
+	 * @param callGraph a call graph.
+	 * @return the most significant bit of the number of internal nodes of <code>callGraph</code>, or
+	 *         -1 if it has no internal nodes.
+	 */
+	public static int stratum(final CallGraph callGraph) {
+		return Fast.mostSignificantBit(callGraph.nInternal);
+	}
+
+	/**
+	 * Returns the number of call graphs in the sampling space.
+	 *
+	 * @return the number of call graphs in the sampling space.
+	 */
+	public int size() {
+		return indices.length;
+	}
+
+	/**
+	 * Returns the number of nonempty strata.
+	 *
+	 * @return the number of nonempty strata.
+	 */
+	public int numStrata() {
+		return strata.length;
+	}
+
+	/**
+	 * Samples a call graph, with replacement.
+	 *
+	 * @param i the ordinal number of this sample; when sampling is stratified, samples are taken
+	 *            from strata in a round-robin fashion.
+	 * @param stratified whether to sample from the strata rather than uniformly.
+	 * @param random a random number generator.
+	 * @return the revision index of the sampled call graph.
+	 */
+	public long draw(final int i, final boolean stratified, final Random random) {
+		if (indices.length == 0) throw new IllegalStateException("No call graphs to sample from");
+		if (!stratified) return indices[random.nextInt(indices.length)];
+		final long[] stratum = strata[i % strata.length];
+		return stratum[random.nextInt(stratum.length)];
+	}
+
+	/**
+	 * Samples call graphs without replacement.
+	 *
+	 * @param k the number of call graphs to sample; if it is larger than {@link #size()}, all call
+	 *            graphs are returned.
+	 * @param stratified whether to sample from the strata rather than uniformly; in the first case,
+	 *            strata are visited in a round-robin fashion, skipping exhausted strata.
+	 * @param random a random number generator.
+	 * @return the revision indices of the sampled call graphs.
+	 */
+	public long[] sample(final int k, final boolean stratified, final Random random) {
+		final int n = Math.min(k, indices.length);
+		if (!stratified) {
+			final long[] shuffled = LongArrays.shuffle(indices.clone(), random);
+			return LongArrays.copy(shuffled, 0, n);
+		}
+
+		final long[][] shuffled = new long[strata.length][];
+		for (int s = 0; s < strata.length; s++) shuffled[s] = LongArrays.shuffle(strata[s].clone(), random);
+		final int[] taken = new int[strata.length];
+		final long[] result = new long[n];
+		for (int i = 0, s = 0; i < n; s = (s + 1) % strata.length) if (taken[s] < shuffled[s].length) result[i++] = shuffled[s][taken[s]++];
+		return result;
+	}
+}
@@ -20,6 +20,11 @@ package eu.fasten.core.index;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.rocksdb.RocksDBException;
 import org.slf4j.Logger;
@@ -31,14 +36,17 @@ import com.martiansoftware.jsap.JSAPException;
 import com.martiansoftware.jsap.JSAPResult;
 import com.martiansoftware.jsap.Parameter;
 import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.Switch;
 import com.martiansoftware.jsap.UnflaggedOption;
 
 import eu.fasten.core.data.KnowledgeBase;
 import eu.fasten.core.data.KnowledgeBase.CallGraph;
 import eu.fasten.core.data.KnowledgeBase.CallGraphData;
 import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.io.BinIO;
 import it.unimi.dsi.logging.ProgressLogger;
 import it.unimi.dsi.stat.SummaryStats;
+import it.unimi.dsi.util.XoRoShiRo128PlusPlusRandom;
 import it.unimi.dsi.webgraph.ArrayListMutableGraph;
 import it.unimi.dsi.webgraph.ImmutableGraph;
 import it.unimi.dsi.webgraph.LazyIntIterator;
@@ -72,11 +80,15 @@ public class VisitStats {
 		return visited;
 	}
 
-	public static void main(final String[] args) throws JSAPException, ClassNotFoundException, RocksDBException, IOException {
+	public static void main(final String[] args) throws JSAPException, ClassNotFoundException, RocksDBException, IOException, InterruptedException, ExecutionException {
 		final SimpleJSAP jsap = new SimpleJSAP(VisitStats.class.getName(),
 				"Computes (co)reachable set statistics for revisions call graphs of a prototype knowledge base.",
 				new Parameter[] {
 						new FlaggedOption("min", JSAP.INTEGER_PARSER, "0", JSAP.NOT_REQUIRED, 'm', "min", "Consider only graphs with at least this number of internal nodes." ),
+						new FlaggedOption("sample", JSAP.INTEGER_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'n', "sample", "Consider only a random sample (without replacement) of this number of graphs." ),
+						new Switch("stratified", 's', "stratified", "Sample graphs uniformly from strata of graphs of similar size, rather than uniformly." ),
+						new FlaggedOption("threads", JSAP.INTEGER_PARSER, Integer.toString(Runtime.getRuntime().availableProcessors()), JSAP.NOT_REQUIRED, 't', "threads", "The number of graphs analyzed in parallel." ),
+						new FlaggedOption("output", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.NOT_REQUIRED, 'o', "output", "A basename for columnar output: each per-graph statistic is stored as a binary list of longs (or doubles, for means), with one entry per graph in sample order." ),
 						new UnflaggedOption("kb", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The directory of the RocksDB instance containing the knowledge base." ),
 						new UnflaggedOption("kbmeta", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The file containing the knowledge base metadata." ),
 		});
@@ -85,6 +97,8 @@ public class VisitStats {
 		if ( jsap.messagePrinted() ) return;
 
 		final int minNodes = jsapResult.getInt("min");
+		final int threads = jsapResult.getInt("threads");
+		final String output = jsapResult.getString("output");
 		final String kbDir = jsapResult.getString("kb");
 		if (!new File(kbDir).exists()) throw new IllegalArgumentException("No such directory: " + kbDir);
 		final String kbMetadataFilename = jsapResult.getString("kbmeta");
@@ -93,45 +107,78 @@ public class VisitStats {
 		final KnowledgeBase kb = KnowledgeBase.getInstance(kbDir, kbMetadataFilename, true);
 		LOGGER.info("Number of graphs: " + kb.callGraphs.size());
 
-		final ProgressLogger pl = new ProgressLogger();
-
-		pl.count = kb.callGraphs.size();
-		pl.itemsName = "graphs";
-		pl.start("Enumerating graphs");
+		final StratifiedSampler sampler = new StratifiedSampler(kb, minNodes);
+		final long[] indices = sampler.sample(jsapResult.userSpecified("sample") ? jsapResult.getInt("sample") : Integer.MAX_VALUE, jsapResult.getBoolean("stratified"), new XoRoShiRo128PlusPlusRandom(0));
+		final int n = indices.length;
 
 		final SummaryStats reachable = new SummaryStats();
 		final SummaryStats coreachable = new SummaryStats();
 		final SummaryStats size = new SummaryStats();
 
-		long totGraphs = 0;
-		long statGraphs = 0;
+		final long[] stratum = new long[n];
+		final long[] nodes = new long[n];
+		final double[] reachableMean = new double[n];
+		final long[] reachableMax = new long[n];
+		final double[] coreachableMean = new double[n];
+		final long[] coreachableMax = new long[n];
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final ExecutorCompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+		for (int i = 0; i < n; i++) {
+			final int s = i;
+			completionService.submit(() -> {
+				final CallGraph callGraph = kb.callGraphs.get(indices[s]);
+				final CallGraphData callGraphData = callGraph.callGraphData();
+				final ImmutableGraph graph = new ArrayListMutableGraph(callGraphData.rawGraph()).immutableView();
+				final ImmutableGraph transpose = new ArrayListMutableGraph(callGraphData.rawTranspose()).immutableView();
+				final int numNodes = callGraphData.numNodes();
+
+				final double[] r = new double[numNodes], c = new double[numNodes];
+				for (int startNode = 0; startNode < numNodes; startNode++) {
+					r[startNode] = reachable(graph, startNode);
+					c[startNode] = reachable(transpose, startNode);
+				}
+				size.add(numNodes);
+				reachable.addAll(r);
+				coreachable.addAll(c);
+
+				stratum[s] = StratifiedSampler.stratum(callGraph);
+				nodes[s] = numNodes;
+				reachableMean[s] = Arrays.stream(r).average().orElse(0);
+				reachableMax[s] = (long)Arrays.stream(r).max().orElse(0);
+				coreachableMean[s] = Arrays.stream(c).average().orElse(0);
+				coreachableMax[s] = (long)Arrays.stream(c).max().orElse(0);
+				return null;
+			});
+		}
 
-		for(final CallGraph callGraph: kb.callGraphs.values()) {
+		final ProgressLogger pl = new ProgressLogger(LOGGER);
+		pl.expectedUpdates = n;
+		pl.itemsName = "graphs";
+		pl.start("Enumerating graphs");
+		for (int i = 0; i < n; i++) {
+			completionService.take().get();
 			pl.update();
-			totGraphs++;
-			if (callGraph.nInternal < minNodes) continue;
-			statGraphs++;
-			final CallGraphData callGraphData = callGraph.callGraphData();
-			size.add(callGraphData.numNodes());
-			final ImmutableGraph graph = new ArrayListMutableGraph(callGraphData.rawGraph()).immutableView();
-			final ImmutableGraph transpose = new ArrayListMutableGraph(callGraphData.rawTranspose()).immutableView();
-
-			for (int startNode = 0; startNode < callGraphData.numNodes(); startNode++) {
-				reachable.add(reachable(graph, startNode));
-				coreachable.add(reachable(transpose, startNode));
-			}
-
-			System.out.println("Size stats: " + size);
-			System.out.println("Reachable sets stats: " + reachable);
-			System.out.println("Coreachable sets stats: " + coreachable);
-
 		}
-
 		pl.done();
+		executor.shutdown();
+
 		LOGGER.info("Closing KnowledgeBase");
+		final long totGraphs = kb.callGraphs.size();
 		kb.close();
+
+		if (output != null) {
+			GlobalVisitStats.storeColumn(output, "index", indices);
+			GlobalVisitStats.storeColumn(output, "stratum", stratum);
+			GlobalVisitStats.storeColumn(output, "nodes", nodes);
+			BinIO.storeDoubles(reachableMean, output + ".reachableMean");
+			GlobalVisitStats.storeColumn(output, "reachableMax", reachableMax);
+			BinIO.storeDoubles(coreachableMean, output + ".coreachableMean");
+			GlobalVisitStats.storeColumn(output, "coreachableMax", coreachableMax);
+		}
+
 		System.out.println("Graphs in the kb: " + totGraphs);
-		System.out.println("Graphs considered for the stats: " + statGraphs);
+		System.out.println("Graphs considered for the stats: " + n);
 		System.out.println("Size stats: " + size);
 		System.out.println("Reachable sets stats: " + reachable);
 		System.out.println("Coreachable sets stats: " + coreachable);
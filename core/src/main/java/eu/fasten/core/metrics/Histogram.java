@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.metrics;
+
+/**
+ * A distribution of observed values (e.g., latencies or sizes), counted in cumulative buckets.
+ */
+public interface Histogram {
+
+    /** Buckets for latencies in seconds, from 1 ms to about 2 minutes. */
+    double[] LATENCY_BUCKETS = exponentialBuckets(0.001, 2, 18);
+
+    /** Buckets for sizes in bytes or characters, from 1 KiB to 1 GiB. */
+    double[] SIZE_BUCKETS = exponentialBuckets(1024, 4, 11);
+
+    /**
+     * Records an observed value.
+     *
+     * @param value observed value
+     */
+    void observe(double value);
+
+    /**
+     * Records a duration in seconds.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    default void observeNanos(long nanos) {
+        observe(nanos / 1e9);
+    }
+
+    /**
+     * Returns the number of observed values.
+     *
+     * @return number of observed values
+     */
+    long count();
+
+    /**
+     * Returns the sum of observed values.
+     *
+     * @return sum of observed values
+     */
+    double sum();
+
+    /**
+     * Returns upper bounds growing exponentially.
+     *
+     * @param start  upper bound of the first bucket
+     * @param factor ratio between consecutive upper bounds
+     * @param count  number of buckets
+     * @return upper bounds of the buckets
+     */
+    static double[] exponentialBuckets(double start, double factor, int count) {
+        var buckets = new double[count];
+        buckets[0] = start;
+        for (int i = 1; i < count; i++) {
+            buckets[i] = buckets[i - 1] * factor;
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A registry of metrics describing the activity of the server and its plug-ins.
+ *
+ * <p>Metrics are identified by a name and by a list of labels, given as alternating names and
+ * values (e.g., {@code "plugin", "OPAL"}). Asking twice for the same metric returns the same
+ * instance, so components need not keep references to metrics. Implementations must be thread
+ * safe; they may forward metrics to external monitoring systems.
+ */
+public interface MetricsRegistry {
+
+    /**
+     * Returns a counter, creating it if needed.
+     *
+     * @param name   name of the counter
+     * @param help   description of the counter
+     * @param labels alternating label names and values
+     * @return counter
+     */
+    Counter counter(String name, String help, String... labels);
+
+    /**
+     * Returns a histogram, creating it if needed.
+     *
+     * @param name    name of the histogram
+     * @param help    description of the histogram
+     * @param buckets increasing upper bounds of the buckets (used only on creation)
+     * @param labels  alternating label names and values
+     * @return histogram
+     */
+    Histogram histogram(String name, String help, double[] buckets, String... labels);
+
+    /**
+     * Registers a gauge, whose value is read when metrics are exported. A gauge registered
+     * again with the same name and labels replaces the previous one.
+     *
+     * @param name   name of the gauge
+     * @param help   description of the gauge
+     * @param value  supplier of the current value
+     * @param labels alternating label names and values
+     */
+    void gauge(String name, String help, DoubleSupplier value, String... labels);
+
+    /**
+     * Writes all metrics in the Prometheus text exposition format.
+     *
+     * @param writer writer to write to (not closed)
+     * @throws IOException if writing fails
+     */
+    void write(Writer writer) throws IOException;
+}
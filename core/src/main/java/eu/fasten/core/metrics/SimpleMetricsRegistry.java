@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * An in-memory {@link MetricsRegistry}. Updating metrics is lock-free; exporting takes a
+ * snapshot that is not atomic across metrics, which is fine for monitoring.
+ */
+public class SimpleMetricsRegistry implements MetricsRegistry {
+
+    /** Metric families, sorted by name so that the output is stable. */
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, "counter")
+                .children.computeIfAbsent(labels(labels), k -> new SimpleCounter());
+    }
+
+    @Override
+    public Histogram histogram(String name, String help, double[] buckets, String... labels) {
+        return (Histogram) family(name, help, "histogram")
+                .children.computeIfAbsent(labels(labels), k -> new SimpleHistogram(buckets));
+    }
+
+    @Override
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge").children.put(labels(labels), value);
+    }
+
+    @Override
+    public void write(Writer writer) throws IOException {
+        for (var family : families.values()) {
+            writer.write("# HELP " + family.name + " " + family.help + "\n");
+            writer.write("# TYPE " + family.name + " " + family.type + "\n");
+            for (var child : family.children.entrySet()) {
+                var labels = child.getKey();
+                var metric = child.getValue();
+                if (metric instanceof SimpleCounter) {
+                    sample(writer, family.name, labels,
+                            Long.toString(((SimpleCounter) metric).get()));
+                } else if (metric instanceof SimpleHistogram) {
+                    ((SimpleHistogram) metric).write(writer, family.name, labels);
+                } else {
+                    sample(writer, family.name, labels,
+                            format(((DoubleSupplier) metric).getAsDouble()));
+                }
+            }
+        }
+    }
+
+    private Family family(String name, String help, String type) {
+        var family = families.computeIfAbsent(name, n -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Renders labels in the exposition format, e.g. <code>plugin="OPAL",stage="commit"</code>.
+     */
+    private static String labels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name-value pairs");
+        }
+        var result = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                result.append(',');
+            }
+            result.append(labels[i]).append("=\"").append(labels[i + 1]
+                    .replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return result.toString();
+    }
+
+    private static void sample(Writer writer, String name, String labels, String value)
+            throws IOException {
+        writer.write(name);
+        if (!labels.isEmpty()) {
+            writer.write("{" + labels + "}");
+        }
+        writer.write(" " + value + "\n");
+    }
+
+    private static String format(double value) {
+        if (value == Double.POSITIVE_INFINITY) {
+            return "+Inf";
+        }
+        if (value == Double.NEGATIVE_INFINITY) {
+            return "-Inf";
+        }
+        return Double.toString(value);
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        /** Counters, histograms or gauge suppliers, by rendered labels. */
+        private final Map<String, Object> children = new ConcurrentSkipListMap<>();
+
+        private Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static final class SimpleCounter implements Counter {
+        private final LongAdder value = new LongAdder();
+
+        @Override
+        public void increment(long amount) {
+            value.add(amount);
+        }
+
+        @Override
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    private static final class SimpleHistogram implements Histogram {
+        private final double[] bounds;
+        /** Non-cumulative counts; the last bucket has no upper bound. */
+        private final LongAdder[] counts;
+        private final DoubleAdder sum = new DoubleAdder();
+
+        private SimpleHistogram(double[] bounds) {
+            this.bounds = bounds.clone();
+            this.counts = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        @Override
+        public void observe(double value) {
+            int bucket = Arrays.binarySearch(bounds, value);
+            counts[bucket >= 0 ? bucket : -bucket - 1].increment();
+            sum.add(value);
+        }
+
+        @Override
+        public long count() {
+            long count = 0;
+            for (var c : counts) {
+                count += c.sum();
+            }
+            return count;
+        }
+
+        @Override
+        public double sum() {
+            return sum.sum();
+        }
+
+        private void write(Writer writer, String name, String labels) throws IOException {
+            var prefix = labels.isEmpty() ? "" : labels + ",";
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i].sum();
+                var bound = i < bounds.length ? bounds[i] : Double.POSITIVE_INFINITY;
+                sample(writer, name + "_bucket", prefix + "le=\"" + format(bound) + "\"",
+                        Long.toString(cumulative));
+            }
+            sample(writer, name + "_sum", labels, format(sum()));
+            sample(writer, name + "_count", labels, Long.toString(cumulative));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.plugins;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A Kafka plug-in that can process several records at once, amortizing per-record costs (e.g.,
+ * by writing the results of the whole batch in a single transaction). The server hands batches
+ * to {@link #consumeBatch(List)} instead of calling {@link #consume(String)}, {@link #produce()}
+ * and {@link #getPluginError()} for each record.
+ */
+public interface BatchKafkaPlugin extends KafkaPlugin {
+
+    /**
+     * Processes a batch of incoming records. This method returns only when all records have been
+     * processed.
+     *
+     * @param records records to process
+     * @return the results of processing the records, in the same order as the records
+     */
+    List<Result> consumeBatch(List<String> records);
+
+    /**
+     * The result of processing a record of a batch.
+     */
+    final class Result {
+        private final String payload;
+        private final Throwable error;
+
+        private Result(String payload, Throwable error) {
+            this.payload = payload;
+            this.error = error;
+        }
+
+        /**
+         * Creates the result of a successfully processed record.
+         *
+         * @param payload result of the computation [can be null]
+         * @return successful result
+         */
+        public static Result success(String payload) {
+            return new Result(payload, null);
+        }
+
+        /**
+         * Creates the result of a record whose processing failed.
+         *
+         * @param error exception or error encountered while processing the record
+         * @return failed result
+         */
+        public static Result failure(Throwable error) {
+            return new Result(null, error);
+        }
+
+        /**
+         * Returns an optional result of the computation (see {@link #produce()}).
+         *
+         * @return optional result of the computation
+         */
+        public Optional<String> getPayload() {
+            return Optional.ofNullable(payload);
+        }
+
+        /**
+         * Returns the Exception or Error encountered while processing the record, if any.
+         *
+         * @return exception or error, or null if processing succeeded
+         */
+        public Throwable getError() {
+            return error;
+        }
+    }
+}
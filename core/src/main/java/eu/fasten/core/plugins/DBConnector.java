@@ -26,7 +26,10 @@ import org.jooq.DSLContext;
 public interface DBConnector extends FastenPlugin {
 
     /**
-     * This methods sets a DB connection for plug-ins.
+     * This methods sets a DB connection for plug-ins. The same context may be set on several
+     * plug-in instances running concurrently: it is backed by a connection pool, and each query
+     * or transaction runs on a connection of its own. Plug-ins should therefore keep the context
+     * in an instance field, and must not rely on session state across transactions.
      *
      * @param dslContext A DSL context for JOOQ to query the database.
      */
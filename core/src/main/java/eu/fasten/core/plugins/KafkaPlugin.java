@@ -54,13 +54,4 @@ public interface KafkaPlugin extends FastenPlugin {
      * @return optional result of the computation
      */
     Optional<String> produce();
-
-    /**
-     * Returns a relative path to a file, the result of processing
-     * a record should be written to. THe path has the following hierarchy:
-     * /forge/first-letter-of-artifactId/artifactId/artifactId_groupId_Version.json
-     *
-     * @return relative path to the output file
-     */
-    String getOutputPath();
 }
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.plugins;
+
+import java.util.Optional;
+
+/**
+ * A Kafka plug-in that can exchange parsed objects (e.g., an
+ * {@link eu.fasten.core.data.ExtendedRevisionCallGraph} or a
+ * {@link eu.fasten.core.data.graphdb.GidGraph}) with the neighbouring stages of an in-process
+ * pipeline, instead of serializing them to JSON and parsing them again. Outside of a pipeline,
+ * and whenever the next stage does not accept an object, {@link #consume(String)} and
+ * {@link #produce()} are used as usual.
+ */
+public interface PipelinePlugin extends KafkaPlugin {
+
+    /**
+     * Returns whether {@link #consumeObject(Object)} can process an object.
+     *
+     * @param record object produced by the previous stage
+     * @return true if the object can be consumed without serializing it
+     */
+    default boolean accepts(Object record) {
+        return false;
+    }
+
+    /**
+     * Processes an object produced by the previous stage. This method is called only with
+     * objects for which {@link #accepts(Object)} returns true, and it returns only when the
+     * object has been processed. Errors are reported by {@link #getPluginError()}.
+     *
+     * @param record object to process
+     */
+    default void consumeObject(Object record) {
+        throw new UnsupportedOperationException(getClass().getSimpleName()
+                + " does not consume objects");
+    }
+
+    /**
+     * Returns the result of the computation as an object, to be passed as is to the next stage.
+     * If Optional.empty() is returned, {@link #produce()} is used instead.
+     *
+     * @return optional result of the computation
+     */
+    default Optional<Object> produceObject() {
+        return Optional.empty();
+    }
+}
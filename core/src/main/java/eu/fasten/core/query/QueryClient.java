@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.query;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.List;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+
+import eu.fasten.core.data.FastenURI;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * A client for a {@link QueryServer}. Instances of this class use a single connection, and are not
+ * thread safe: concurrent clients should use separate instances.
+ */
+public class QueryClient implements Closeable {
+
+	/** Thrown when the server rejects a query because it is overloaded. */
+	public static class ServerBusyException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		public ServerBusyException() {
+			super("Server busy");
+		}
+	}
+
+	/** The result of a reachability query. */
+	public static class ReachabilityResult {
+		/** The overall number of results. */
+		public final int total;
+		/** The returned results (possibly fewer than {@link #total}). */
+		public final List<FastenURI> uris;
+
+		public ReachabilityResult(final int total, final List<FastenURI> uris) {
+			this.total = total;
+			this.uris = uris;
+		}
+	}
+
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+
+	/**
+	 * Connects to a query server.
+	 *
+	 * @param host the host of the server.
+	 * @param port the port of the server.
+	 */
+	public QueryClient(final String host, final int port) throws IOException {
+		this.socket = new Socket(host, port);
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+	}
+
+	/**
+	 * Connects to a query server on the loopback interface.
+	 *
+	 * @param port the port of the server.
+	 */
+	public QueryClient(final int port) throws IOException {
+		this(InetAddress.getLoopbackAddress().getHostAddress(), port);
+	}
+
+	/**
+	 * Returns the nodes reachable from a given node.
+	 *
+	 * @param uri the starting node.
+	 * @param max the maximum number of results to return, or a negative value for all results.
+	 * @return the result of the query, or <code>null</code> if <code>uri</code> is not indexed.
+	 */
+	public ReachabilityResult reaches(final FastenURI uri, final int max) throws IOException {
+		return reachability(QueryServer.REACHES, uri, max);
+	}
+
+	/**
+	 * Returns the nodes coreachable from a given node.
+	 *
+	 * @param uri the starting node.
+	 * @param max the maximum number of results to return, or a negative value for all results.
+	 * @return the result of the query, or <code>null</code> if <code>uri</code> is not indexed.
+	 */
+	public ReachabilityResult coreaches(final FastenURI uri, final int max) throws IOException {
+		return reachability(QueryServer.COREACHES, uri, max);
+	}
+
+	/**
+	 * Returns the <code>k</code> shortest paths between two nodes.
+	 *
+	 * @param source the source node.
+	 * @param target the target node.
+	 * @param k the maximum number of paths to return.
+	 * @return the paths, in nondecreasing order of length, or <code>null</code> if one of the two
+	 *         nodes is not indexed.
+	 */
+	public List<List<FastenURI>> paths(final FastenURI source, final FastenURI target, final int k) throws IOException {
+		out.writeByte(QueryServer.PATHS);
+		out.writeUTF(source.toString());
+		out.writeUTF(target.toString());
+		out.writeInt(k);
+		out.flush();
+		if (!readStatus()) return null;
+		final int numPaths = in.readInt();
+		final List<List<FastenURI>> paths = new ObjectArrayList<>(numPaths);
+		for (int i = 0; i < numPaths; i++) {
+			final int length = in.readInt();
+			final List<FastenURI> path = new ObjectArrayList<>(length);
+			for (int j = 0; j < length; j++) path.add(FastenURI.create(in.readUTF()));
+			paths.add(path);
+		}
+		return paths;
+	}
+
+	/**
+	 * Returns a human-readable description of the state of the server.
+	 *
+	 * @return a human-readable description of the state of the server.
+	 */
+	public String stats() throws IOException {
+		out.writeByte(QueryServer.STATS);
+		out.flush();
+		readStatus();
+		return in.readUTF();
+	}
+
+	private ReachabilityResult reachability(final byte op, final FastenURI uri, final int max) throws IOException {
+		out.writeByte(op);
+		out.writeUTF(uri.toString());
+		out.writeInt(max);
+		out.flush();
+		if (!readStatus()) return null;
+		final int total = in.readInt();
+		final int n = in.readInt();
+		final List<FastenURI> uris = new ObjectArrayList<>(n);
+		for (int i = 0; i < n; i++) uris.add(FastenURI.create(in.readUTF()));
+		return new ReachabilityResult(total, uris);
+	}
+
+	/**
+	 * Reads the status of a response.
+	 *
+	 * @return true if the status is {@link QueryServer#OK}, false if it is
+	 *         {@link QueryServer#NOT_INDEXED}.
+	 */
+	private boolean readStatus() throws IOException {
+		final byte status = in.readByte();
+		switch (status) {
+		case QueryServer.OK:
+			return true;
+		case QueryServer.NOT_INDEXED:
+			return false;
+		case QueryServer.BUSY:
+			throw new ServerBusyException();
+		case QueryServer.ERROR:
+			throw new IOException(in.readUTF());
+		default:
+			throw new IOException("Unknown status " + status);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+
+	public static void main(final String[] args) throws IOException, JSAPException {
+		final SimpleJSAP jsap = new SimpleJSAP( QueryClient.class.getName(),
+				"Sends queries to a query server; the syntax is the same as that of " + QueryEngine.class.getSimpleName(),
+				new Parameter[] {
+						new FlaggedOption("host", JSAP.STRING_PARSER, InetAddress.getLoopbackAddress().getHostAddress(), JSAP.NOT_REQUIRED, 'h', "host", "The host of the query server." ),
+						new FlaggedOption("port", JSAP.INTEGER_PARSER, "9797", JSAP.NOT_REQUIRED, 'p', "port", "The port of the query server." ),
+						new FlaggedOption("max", JSAP.INTEGER_PARSER, "10", JSAP.NOT_REQUIRED, 'm', "max", "The maximum number of results to print." ),
+		});
+
+		final JSAPResult jsapResult = jsap.parse(args);
+		if ( jsap.messagePrinted() ) return;
+
+		final int max = jsapResult.getInt("max");
+		final BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
+
+		try (QueryClient client = new QueryClient(jsapResult.getString("host"), jsapResult.getInt("port"))) {
+			for (;;) {
+				System.out.print( ">" );
+				final String q = br.readLine();
+				if (q == null || "$quit".equals(q)) {
+					System.err.println("Exiting");
+					break; // CTRL-D
+				}
+				if ( q.length() == 0 ) continue;
+
+				try {
+					long elapsed = - System.nanoTime();
+					switch(q.charAt(0)) {
+					case '+':
+					case '-':
+						final FastenURI uri = FastenURI.create(q.substring(1));
+						final ReachabilityResult result = q.charAt(0) == '+' ? client.reaches(uri, max) : client.coreaches(uri, max);
+						elapsed += System.nanoTime();
+						if (result == null) System.out.println("Method not indexed");
+						else {
+							System.err.printf("Elapsed: %.3fs (%d results)\n", elapsed / 1E09, result.total);
+							for (final FastenURI u : result.uris) System.out.println(u);
+							if (result.total > result.uris.size()) System.out.println("[...]");
+						}
+						break;
+					case '*':
+						final String[] tokens = q.substring(1).trim().split("\\s+");
+						if (tokens.length < 2 || tokens.length > 3) throw new IllegalArgumentException("Usage: *<source> <target> [<k>]");
+						final List<List<FastenURI>> paths = client.paths(FastenURI.create(tokens[0]), FastenURI.create(tokens[1]), tokens.length == 3 ? Integer.parseInt(tokens[2]) : 1);
+						elapsed += System.nanoTime();
+						if (paths == null) System.out.println("Method not indexed");
+						else {
+							System.err.printf("Elapsed: %.3fs (%d paths)\n", elapsed / 1E09, paths.size());
+							for (final List<FastenURI> path : paths) {
+								System.out.println("Path of length " + (path.size() - 1) + ":");
+								for (final FastenURI node : path) System.out.println("\t" + node);
+							}
+						}
+						break;
+					case '?':
+						System.out.print(client.stats());
+						break;
+					default:
+						System.err.println("Unknown query operator " + q.charAt(0));
+					}
+				} catch (final ServerBusyException e) {
+					System.err.println("Server busy, try again later");
+				} catch (final IllegalArgumentException e) {
+					e.printStackTrace(System.err);
+				}
+			}
+		}
+	}
+}
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import org.json.JSONException;
 import org.rocksdb.RocksDBException;
@@ -73,6 +74,34 @@ public class QueryEngine {
 		}
 	}
 
+	public static class PathQuery implements Query {
+		private final FastenURI source;
+		private final FastenURI target;
+		private final int k;
+
+		public PathQuery(final FastenURI source, final FastenURI target) {
+			this(source, target, 1);
+		}
+
+		public PathQuery(final FastenURI source, final FastenURI target, final int k) {
+			if (k <= 0) throw new IllegalArgumentException("The number of paths must be positive: " + k);
+			this.source = source;
+			this.target = target;
+			this.k = k;
+		}
+
+		/** Returns the nodes of a shortest path from the source to the target, or an empty list if there is none. */
+		@Override
+		public Collection<FastenURI> execute(final KnowledgeBase kb) {
+			return kb.shortestPath(source, target);
+		}
+
+		/** Returns at most <code>k</code> shortest simple paths from the source to the target, in nondecreasing order of length. */
+		public List<List<FastenURI>> paths(final KnowledgeBase kb) {
+			return kb.shortestPaths(source, target, k);
+		}
+	}
+
 	@SuppressWarnings("boxing")
 	public static void main(final String[] args) throws JSONException, IOException, ClassNotFoundException, JSAPException, RocksDBException {
 		final SimpleJSAP jsap = new SimpleJSAP( QueryEngine.class.getName(),
@@ -101,6 +130,40 @@ public class QueryEngine {
 			}
 			if ( q.length() == 0 ) continue;
 
+			if (q.charAt(0) == '*') {
+				// Path query: *<source> <target> [<k>]
+				final PathQuery pathQuery;
+				try {
+					final String[] tokens = q.substring(1).trim().split("\\s+");
+					if (tokens.length < 2 || tokens.length > 3) throw new IllegalArgumentException("Usage: *<source> <target> [<k>]");
+					pathQuery = new PathQuery(FastenURI.create(tokens[0]), FastenURI.create(tokens[1]), tokens.length == 3 ? Integer.parseInt(tokens[2]) : 1);
+				}
+				catch(final Exception e) {
+					e.printStackTrace(System.err);
+					continue;
+				}
+
+				long elapsed = - System.nanoTime();
+				final List<List<FastenURI>> paths = pathQuery.paths(kb);
+				elapsed += System.nanoTime();
+				if (paths == null) {
+					System.out.println("Method not indexed");
+					continue;
+				}
+
+				if (paths.size() == 0) {
+					System.out.println("Query returned no results");
+					continue;
+				}
+
+				System.err.printf("Elapsed: %.3fs (%d paths)\n", elapsed / 1E09, paths.size());
+				for (final List<FastenURI> path : paths) {
+					System.out.println("Path of length " + (path.size() - 1) + ":");
+					for (final FastenURI node : path) System.out.println("\t" + node);
+				}
+				continue;
+			}
+
 			final FastenURI uri;
 			try {
 				uri = FastenURI.create(q.substring(1));
@@ -0,0 +1,496 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.query;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.json.JSONException;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+import com.martiansoftware.jsap.UnflaggedOption;
+
+import eu.fasten.core.data.FastenURI;
+import eu.fasten.core.data.KnowledgeBase;
+
+/**
+ * A long-running query service over a read-only {@link KnowledgeBase}.
+ *
+ * <p>
+ * Clients (e.g., a {@link QueryClient}) connect through TCP and send requests using a simple binary
+ * protocol based on {@link java.io.DataOutput}. Each request starts with an operation byte:
+ * <ul>
+ * <li>{@link #REACHES} or {@link #COREACHES}, followed by a FASTEN URI (as UTF) and by the maximum
+ * number of results to return (as an integer; a negative value means all results);
+ * <li>{@link #PATHS}, followed by a source and a target FASTEN URI (as UTF) and by the number of
+ * paths to return (as an integer);
+ * <li>{@link #STATS}, with no arguments.
+ * </ul>
+ *
+ * <p>
+ * Each response starts with a status byte. In case of {@link #OK}, reachability queries are followed
+ * by the overall number of results, the number of returned results and the returned FASTEN URIs;
+ * path queries are followed by the number of paths, and then by the length and the FASTEN URIs of
+ * each path; statistics requests are followed by a human-readable description (as UTF). In case of
+ * {@link #ERROR}, the status is followed by an error message (as UTF).
+ *
+ * <p>
+ * Queries are executed by a pool of workers that drain in batches a bounded queue. Identical queries
+ * that are pending at the same time are coalesced, and executed just once. When the queue is full,
+ * new queries are rejected immediately with status {@link #BUSY}, so clients can back off. Latencies
+ * are recorded in a {@link LatencyHistogram} for each operation.
+ *
+ * <p>
+ * Each connection is served by its own thread. At most a given number of connections are served at
+ * the same time; further connections are accepted only when a served connection is closed, and wait
+ * in the backlog of the server socket in the meanwhile.
+ */
+public class QueryServer implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(QueryServer.class);
+
+	/** Operation: the set of nodes reachable from a node. */
+	public static final byte REACHES = '+';
+	/** Operation: the set of nodes coreachable from a node. */
+	public static final byte COREACHES = '-';
+	/** Operation: shortest paths between two nodes. */
+	public static final byte PATHS = '*';
+	/** Operation: server statistics. */
+	public static final byte STATS = '?';
+
+	/** Status: the query was executed successfully. */
+	public static final byte OK = 0;
+	/** Status: some of the FASTEN URIs of the query are not indexed. */
+	public static final byte NOT_INDEXED = 1;
+	/** Status: the query was rejected because the server is overloaded. */
+	public static final byte BUSY = 2;
+	/** Status: the query could not be executed. */
+	public static final byte ERROR = 3;
+
+	/** The default maximum number of connections served at the same time. */
+	public static final int DEFAULT_MAX_CONNECTIONS = 256;
+
+	/** The operations for which latencies are recorded. */
+	private static final byte[] OPERATIONS = { REACHES, COREACHES, PATHS };
+
+	/**
+	 * A histogram of latencies with exponentially sized buckets: bucket <var>i</var> counts the
+	 * latencies in the interval [2<sup><var>i</var></sup>..2<sup><var>i</var> + 1</sup>) microseconds.
+	 * All methods are thread safe.
+	 */
+	public static final class LatencyHistogram {
+		private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+		private final LongAdder count = new LongAdder();
+		private final LongAdder total = new LongAdder();
+		private final AtomicLong max = new AtomicLong();
+
+		/**
+		 * Records a latency.
+		 *
+		 * @param nanos the latency in nanoseconds.
+		 */
+		public void record(final long nanos) {
+			final long micros = Math.max(1, nanos / 1000);
+			buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(micros));
+			count.increment();
+			total.add(micros);
+			max.accumulateAndGet(micros, Math::max);
+		}
+
+		/**
+		 * Returns the number of recorded latencies.
+		 *
+		 * @return the number of recorded latencies.
+		 */
+		public long count() {
+			return count.sum();
+		}
+
+		/**
+		 * Returns an upper bound to the given percentile of the recorded latencies.
+		 *
+		 * @param p a percentile, between 0 and 1.
+		 * @return an upper bound (within a factor of two) to the <code>p</code>-th percentile of the
+		 *         recorded latencies, in microseconds.
+		 */
+		public long percentile(final double p) {
+			final long n = count();
+			if (n == 0) return 0;
+			final long rank = (long)Math.ceil(p * n);
+			long seen = 0;
+			for (int i = 0; i < Long.SIZE; i++) {
+				seen += buckets.get(i);
+				if (seen >= rank) return Math.min(max.get(), (1L << i + 1) - 1);
+			}
+			return max.get();
+		}
+
+		@Override
+		public String toString() {
+			final long n = count();
+			return "count=" + n + " mean=" + (n == 0 ? 0 : total.sum() / n) + "us p50<=" + percentile(.5) + "us p90<=" + percentile(.9) + "us p99<=" + percentile(.99) + "us max=" + max.get() + "us";
+		}
+	}
+
+	/** A query waiting to be executed, possibly shared by several connections. */
+	private static final class PendingQuery {
+		/** A string representation of the query, used for coalescing. */
+		private final String key;
+		/** The query, returning a collection of FASTEN URIs or a list of paths. */
+		private final Function<KnowledgeBase, Object> query;
+		/** The result of the query: a collection of FASTEN URIs, or a list of paths. */
+		private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+		private PendingQuery(final String key, final Function<KnowledgeBase, Object> query) {
+			this.key = key;
+			this.query = query;
+		}
+	}
+
+	/** The knowledge base. */
+	private final KnowledgeBase kb;
+	/** The socket accepting connections. */
+	private final ServerSocket serverSocket;
+	/** The maximum number of queries executed by a worker without waiting on the queue. */
+	private final int batchSize;
+	/** The queue of pending queries. */
+	private final ArrayBlockingQueue<PendingQuery> queue;
+	/** The queries that are pending or being executed, indexed by their key. */
+	private final ConcurrentHashMap<String, PendingQuery> inFlight = new ConcurrentHashMap<>();
+	/** The open connections. */
+	private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+	/** The permits to serve connections, one for each connection that can be served at the same time. */
+	private final Semaphore connectionPermits;
+	/** The executor accepting and serving connections. */
+	private final ExecutorService connectionExecutor;
+	/** The executor running the workers. */
+	private final ExecutorService workerExecutor;
+	/** Latency histograms, indexed by operation. */
+	private final LatencyHistogram[] latency = new LatencyHistogram[256];
+	/** The number of queries that have been coalesced with a pending identical query. */
+	private final LongAdder coalesced = new LongAdder();
+	/** The number of queries that have been rejected because the queue was full. */
+	private final LongAdder rejected = new LongAdder();
+	/** Whether this server has been closed. */
+	private volatile boolean closed;
+
+	/**
+	 * Creates and starts a query server.
+	 *
+	 * @param kb a knowledge base.
+	 * @param port the port to listen to, or 0 for an ephemeral port.
+	 * @param workers the number of workers executing queries.
+	 * @param queueSize the maximum number of pending queries.
+	 * @param batchSize the maximum number of queries executed by a worker without waiting on the
+	 *            queue.
+	 */
+	public QueryServer(final KnowledgeBase kb, final int port, final int workers, final int queueSize, final int batchSize) throws IOException {
+		this(kb, port, workers, queueSize, batchSize, DEFAULT_MAX_CONNECTIONS);
+	}
+
+	/**
+	 * Creates and starts a query server.
+	 *
+	 * @param kb a knowledge base.
+	 * @param port the port to listen to, or 0 for an ephemeral port.
+	 * @param workers the number of workers executing queries.
+	 * @param queueSize the maximum number of pending queries.
+	 * @param batchSize the maximum number of queries executed by a worker without waiting on the
+	 *            queue.
+	 * @param maxConnections the maximum number of connections served at the same time.
+	 */
+	public QueryServer(final KnowledgeBase kb, final int port, final int workers, final int queueSize, final int batchSize, final int maxConnections) throws IOException {
+		if (workers <= 0) throw new IllegalArgumentException("The number of workers must be positive: " + workers);
+		if (batchSize <= 0) throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+		if (maxConnections <= 0) throw new IllegalArgumentException("The maximum number of connections must be positive: " + maxConnections);
+		this.kb = kb;
+		this.connectionPermits = new Semaphore(maxConnections);
+		// One more thread for the accepting loop
+		this.connectionExecutor = Executors.newFixedThreadPool(maxConnections + 1);
+		this.batchSize = batchSize;
+		this.queue = new ArrayBlockingQueue<>(queueSize);
+		for (final byte op : OPERATIONS) latency[op] = new LatencyHistogram();
+		this.serverSocket = new ServerSocket(port);
+		this.workerExecutor = Executors.newFixedThreadPool(workers);
+		for (int i = 0; i < workers; i++) workerExecutor.execute(this::work);
+		connectionExecutor.execute(this::accept);
+		LOGGER.info("Query server listening on port " + getPort());
+	}
+
+	/**
+	 * Returns the port this server is listening to.
+	 *
+	 * @return the port this server is listening to.
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Returns the latency histogram of an operation.
+	 *
+	 * @param op one of {@link #REACHES}, {@link #COREACHES} and {@link #PATHS}.
+	 * @return the latency histogram of <code>op</code>.
+	 */
+	public LatencyHistogram latency(final byte op) {
+		return latency[op];
+	}
+
+	/**
+	 * Returns a human-readable description of the state of this server.
+	 *
+	 * @return a human-readable description of the state of this server.
+	 */
+	public String stats() {
+		final StringBuilder sb = new StringBuilder();
+		for (final byte op : OPERATIONS) sb.append((char)op).append(' ').append(latency[op]).append('\n');
+		sb.append("queued=").append(queue.size()).append(" coalesced=").append(coalesced.sum()).append(" rejected=").append(rejected.sum()).append('\n');
+		return sb.toString();
+	}
+
+	private void accept() {
+		while (!closed) {
+			try {
+				connectionPermits.acquire();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			try {
+				final Socket socket = serverSocket.accept();
+				connections.add(socket);
+				connectionExecutor.execute(() -> {
+					try {
+						serve(socket);
+					} finally {
+						connectionPermits.release();
+					}
+				});
+			} catch (final IOException e) {
+				connectionPermits.release();
+				if (!closed) LOGGER.error("Error while accepting connection", e);
+			}
+		}
+	}
+
+	private void work() {
+		final List<PendingQuery> batch = new ArrayList<>(batchSize);
+		try {
+			while (!closed) {
+				batch.add(queue.take());
+				queue.drainTo(batch, batchSize - 1);
+				for (final PendingQuery pending : batch) {
+					try {
+						pending.result.complete(pending.query.apply(kb));
+					} catch (final Exception e) {
+						pending.result.completeExceptionally(e);
+					} finally {
+						inFlight.remove(pending.key, pending);
+					}
+				}
+				batch.clear();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void serve(final Socket socket) {
+		try (socket;
+				DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+			for (;;) {
+				final byte op;
+				try {
+					op = in.readByte();
+				} catch (final EOFException e) {
+					break;
+				}
+				final long start = System.nanoTime();
+
+				final String key;
+				final Function<KnowledgeBase, Object> query;
+				int max = -1;
+				switch (op) {
+				case REACHES:
+				case COREACHES:
+					final String uri = in.readUTF();
+					max = in.readInt();
+					key = (char)op + uri;
+					query = op == REACHES ? kb -> new QueryEngine.ReachabilityQuery(FastenURI.create(uri)).execute(kb) : kb -> new QueryEngine.CoreachabilityQuery(FastenURI.create(uri)).execute(kb);
+					break;
+				case PATHS:
+					final String source = in.readUTF(), target = in.readUTF();
+					final int k = in.readInt();
+					key = (char)op + source + ' ' + target + ' ' + k;
+					query = kb -> new QueryEngine.PathQuery(FastenURI.create(source), FastenURI.create(target), k).paths(kb);
+					break;
+				case STATS:
+					out.writeByte(OK);
+					out.writeUTF(stats());
+					out.flush();
+					continue;
+				default:
+					out.writeByte(ERROR);
+					out.writeUTF("Unknown operation " + op);
+					out.flush();
+					return;
+				}
+
+				PendingQuery pending = new PendingQuery(key, query);
+				final PendingQuery existing = inFlight.putIfAbsent(key, pending);
+				if (existing != null) {
+					coalesced.increment();
+					pending = existing;
+				} else if (!queue.offer(pending)) {
+					inFlight.remove(key, pending);
+					rejected.increment();
+					out.writeByte(BUSY);
+					out.flush();
+					continue;
+				}
+
+				try {
+					write(out, op, pending.result.get(), max);
+				} catch (final ExecutionException e) {
+					out.writeByte(ERROR);
+					out.writeUTF(String.valueOf(e.getCause()));
+				}
+				out.flush();
+				latency[op].record(System.nanoTime() - start);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (final SocketException e) {
+			if (!closed) LOGGER.warn("Connection error", e);
+		} catch (final IOException e) {
+			LOGGER.warn("Connection error", e);
+		} finally {
+			connections.remove(socket);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void write(final DataOutputStream out, final byte op, final Object result, final int max) throws IOException {
+		if (result == null) {
+			out.writeByte(NOT_INDEXED);
+			return;
+		}
+		out.writeByte(OK);
+		if (op == PATHS) {
+			final List<List<FastenURI>> paths = (List<List<FastenURI>>)result;
+			out.writeInt(paths.size());
+			for (final List<FastenURI> path : paths) {
+				out.writeInt(path.size());
+				for (final FastenURI uri : path) out.writeUTF(uri.toString());
+			}
+		} else {
+			final Collection<FastenURI> uris = (Collection<FastenURI>)result;
+			final int n = max < 0 ? uris.size() : Math.min(max, uris.size());
+			out.writeInt(uris.size());
+			out.writeInt(n);
+			final Iterator<FastenURI> iterator = uris.iterator();
+			for (int i = 0; i < n; i++) out.writeUTF(iterator.next().toString());
+		}
+	}
+
+	/** Stops this server; the knowledge base is not closed. */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		serverSocket.close();
+		for (final Socket socket : connections) socket.close();
+		workerExecutor.shutdownNow();
+		connectionExecutor.shutdownNow();
+		for (final PendingQuery pending : queue) pending.result.completeExceptionally(new IllegalStateException("Server closed"));
+		LOGGER.info("Query server stopped\n" + stats());
+	}
+
+	public static void main(final String[] args) throws JSONException, IOException, ClassNotFoundException, JSAPException, RocksDBException, InterruptedException {
+		final SimpleJSAP jsap = new SimpleJSAP( QueryServer.class.getName(),
+				"Serves queries on a given knowledge base (associated to a database)",
+				new Parameter[] {
+						new FlaggedOption("port", JSAP.INTEGER_PARSER, "9797", JSAP.NOT_REQUIRED, 'p', "port", "The port to listen to." ),
+						new FlaggedOption("workers", JSAP.INTEGER_PARSER, "1", JSAP.NOT_REQUIRED, 'w', "workers", "The number of workers executing queries." ),
+						new FlaggedOption("connections", JSAP.INTEGER_PARSER, Integer.toString(DEFAULT_MAX_CONNECTIONS), JSAP.NOT_REQUIRED, 'c', "connections", "The maximum number of connections served at the same time." ),
+						new FlaggedOption("queue", JSAP.INTEGER_PARSER, "1024", JSAP.NOT_REQUIRED, 'q', "queue", "The maximum number of pending queries." ),
+						new FlaggedOption("batch", JSAP.INTEGER_PARSER, "16", JSAP.NOT_REQUIRED, 'b', "batch", "The maximum number of queries executed by a worker without waiting on the queue." ),
+						new UnflaggedOption("kb", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The directory of the RocksDB instance containing the knowledge base." ),
+						new UnflaggedOption("kbmeta", JSAP.STRING_PARSER, JSAP.NO_DEFAULT, JSAP.REQUIRED, JSAP.NOT_GREEDY, "The file containing the knowledge base metadata." ),
+		});
+
+		final JSAPResult jsapResult = jsap.parse(args);
+		if ( jsap.messagePrinted() ) return;
+
+		final KnowledgeBase kb = KnowledgeBase.getInstance(jsapResult.getString("kb"), jsapResult.getString("kbmeta"), true);
+		final QueryServer server = new QueryServer(kb, jsapResult.getInt("port"), jsapResult.getInt("workers"), jsapResult.getInt("queue"), jsapResult.getInt("batch"), jsapResult.getInt("connections"));
+
+		final Thread mainThread = Thread.currentThread();
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			mainThread.interrupt();
+			try {
+				mainThread.join();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+
+		try {
+			for (;;) {
+				Thread.sleep(60000);
+				LOGGER.info("Query server statistics\n" + server.stats());
+			}
+		} catch (final InterruptedException e) {
+			server.close();
+			kb.close();
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.fasten.core.data.graphdb.GidGraph;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CallGraphCodecTest {
+
+    private static ExtendedRevisionCallGraph graph;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        var file = new File(Objects.requireNonNull(Thread.currentThread().getContextClassLoader()
+                .getResource("extended-revision-call-graph/testRCG.json"))
+                .getFile());
+
+        JSONTokener tokener = new JSONTokener(new FileReader(file));
+
+        graph = new ExtendedRevisionCallGraph(new JSONObject(tokener));
+    }
+
+    @Test
+    void extendedRevisionCallGraphRoundTrip() {
+        for (boolean compress : new boolean[]{false, true}) {
+            var data = graph.toBinary(compress);
+            assertTrue(CallGraphCodec.isBinary(data));
+
+            var decoded = ExtendedRevisionCallGraph.fromBinary(data);
+            assertEquals(graph.toJSON().toMap(), decoded.toJSON().toMap());
+        }
+    }
+
+    @Test
+    void gidGraphRoundTrip() {
+        var json = new JSONObject("{" +
+                "\"index\": 42," +
+                "\"product\": \"test\"," +
+                "\"version\": \"0.0.1\"," +
+                "\"nodes\": [100, 7, 1000000000000]," +
+                "\"numInternalNodes\": 2," +
+                "\"edges\": [[100, 7], [7, 1000000000000], [100, 100]]" +
+                "}");
+        var gidGraph = GidGraph.getGraph(json);
+        for (boolean compress : new boolean[]{false, true}) {
+            var data = gidGraph.toBinary(compress);
+            assertEquals(gidGraph, GidGraph.fromBinary(data));
+        }
+        assertTrue(gidGraph.toBinary(false).length < gidGraph.toJSONString().length());
+    }
+
+    @Test
+    void payloadTest() {
+        var data = graph.toBinary(true);
+        var payload = new JSONObject(CallGraphCodec.toPayload(data));
+        assertTrue(CallGraphCodec.isBinaryPayload(payload));
+        assertFalse(CallGraphCodec.isBinaryPayload(graph.toJSON()));
+        assertEquals(graph.toJSON().toMap(), ExtendedRevisionCallGraph
+                .fromBinary(CallGraphCodec.fromPayload(payload)).toJSON().toMap());
+    }
+
+    @Test
+    void binaryThresholdTest() {
+        assertFalse(CallGraphCodec.exceedsBinaryThreshold(graph));
+
+        int numNodes = 100_000;
+        var nodes = new long[numNodes];
+        var sources = new long[numNodes - 1];
+        var targets = new long[numNodes - 1];
+        for (int i = 0; i < numNodes; i++) {
+            nodes[i] = 1_000_000_000L + i;
+            if (i > 0) {
+                sources[i - 1] = nodes[i - 1];
+                targets[i - 1] = nodes[i];
+            }
+        }
+        var large = new GidGraph(0, "test", "0.0.1", nodes, numNodes, sources, targets);
+        assertTrue(large.toJSONString().length() > CallGraphCodec.DEFAULT_BINARY_THRESHOLD);
+        assertTrue(CallGraphCodec.exceedsBinaryThreshold(large));
+
+        var small = new GidGraph(0, "test", "0.0.1", new long[]{1, 2}, 2, new long[]{1},
+                new long[]{2});
+        assertFalse(CallGraphCodec.exceedsBinaryThreshold(small));
+    }
+
+    @Test
+    void invalidDataTest() {
+        var json = graph.toJSON().toString().getBytes(StandardCharsets.UTF_8);
+        assertFalse(CallGraphCodec.isBinary(json));
+        assertThrows(IllegalArgumentException.class, () -> CallGraphCodec.decodeGidGraph(json));
+        assertThrows(IllegalArgumentException.class,
+                () -> CallGraphCodec.decodeGidGraph(graph.toBinary(false)));
+    }
+}
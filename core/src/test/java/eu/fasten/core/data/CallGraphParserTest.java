@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.fasten.core.data.graphdb.GidGraph;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.Test;
+
+class CallGraphParserTest {
+
+    private static final String REVISION_CALL_GRAPH = "{\n" +
+            "    \"product\": \"org.slf4j.slf4j-api\",\n" +
+            "    \"forge\": \"mvn\",\n" +
+            "    \"generator\": \"OPAL\",\n" +
+            "    \"depset\": [[{\"forge\": \"mvn\", \"product\": \"foo.bar\", \"constraints\": [\"[1.0..2.0]\"]}]],\n" +
+            "    \"version\": \"1.7.29\",\n" +
+            "    \"unknown\": {\"ignored\": [1, 2, {\"a\": null}]},\n" +
+            "    \"cha\": {\n" +
+            "        \"/org.slf4j.helpers/FormattingTuple\": {\n" +
+            "            \"methods\": {\n" +
+            "                \"0\": \"/org.slf4j.helpers/FormattingTuple.getThrowable()%2Fjava.lang%2FThrowable\",\n" +
+            "                \"1\": \"/org.slf4j.helpers/FormattingTuple.%3Cinit%3E()%2Fjava.lang%2FVoidType\"\n" +
+            "            },\n" +
+            "            \"superInterfaces\": [],\n" +
+            "            \"sourceFile\": \"FormattingTuple.java\",\n" +
+            "            \"superClasses\": [\"/java.lang/Object\"]\n" +
+            "        }\n" +
+            "    },\n" +
+            "    \"graph\": {\n" +
+            "        \"internalCalls\": [[1, 0]],\n" +
+            "        \"externalCalls\": [[\"1\", \"///java.lang/Object.Object()VoidType\", {\"invokespecial\": \"1\"}]]\n" +
+            "    },\n" +
+            "    \"timestamp\": 1574072773\n" +
+            "}\n";
+
+    private static final String GID_GRAPH = "{" +
+            "\"index\": 1," +
+            "\"product\": \"test\"," +
+            "\"version\": \"0.0.1\"," +
+            "\"nodes\": [1, 2, 3]," +
+            "\"numInternalNodes\": 2," +
+            "\"edges\": [[1, 2], [2, 3]]" +
+            "}";
+
+    @Test
+    void revisionCallGraphTest() throws IOException {
+        var expected = new RevisionCallGraph(new JSONObject(REVISION_CALL_GRAPH));
+        var graph = CallGraphParser.parseRevisionCallGraph(new StringReader(REVISION_CALL_GRAPH));
+        assertEquals(expected.toJSON().toMap(), graph.toJSON().toMap());
+    }
+
+    @Test
+    void extendedRevisionCallGraphTest() throws IOException {
+        var file = new File(Objects.requireNonNull(Thread.currentThread().getContextClassLoader()
+                .getResource("extended-revision-call-graph/testRCG.json"))
+                .getFile());
+        var expected = new ExtendedRevisionCallGraph(new JSONObject(new JSONTokener(
+                new FileReader(file))));
+
+        try (var reader = new FileReader(file)) {
+            var graph = CallGraphParser.parseExtendedRevisionCallGraph(reader);
+            assertEquals(expected.toJSON().toMap(), graph.toJSON().toMap());
+            assertEquals(expected.mapOfAllMethods().size(), graph.mapOfAllMethods().size());
+        }
+
+        var payload = CallGraphCodec.toPayload(expected.toBinary(true));
+        var graph = CallGraphParser.parseExtendedRevisionCallGraph(
+                new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expected.toJSON().toMap(), graph.toJSON().toMap());
+    }
+
+    @Test
+    void gidGraphTest() throws IOException {
+        var expected = GidGraph.getGraph(new JSONObject(GID_GRAPH));
+        assertEquals(expected, CallGraphParser.parseGidGraph(new StringReader(GID_GRAPH)));
+        assertEquals(expected, CallGraphParser.parseGidGraph(
+                new StringReader(CallGraphCodec.toPayload(expected.toBinary(false)))));
+    }
+
+    @Test
+    void malformedTest() {
+        assertThrows(JSONException.class,
+                () -> CallGraphParser.parseGidGraph(new StringReader("{\"foo\": \"bar\"}")));
+        assertThrows(JSONException.class,
+                () -> CallGraphParser.parseGidGraph(new StringReader("[1, 2]")));
+        assertThrows(JSONException.class,
+                () -> CallGraphParser.parseGidGraph(new StringReader(GID_GRAPH.substring(0, 40))));
+        assertThrows(JSONException.class, () -> CallGraphParser.parseRevisionCallGraph(
+                new StringReader(REVISION_CALL_GRAPH.replace("\"1.7.29\"", "[]"))));
+    }
+
+    @Test
+    void malformedValueTest() {
+        var e = assertThrows(JSONException.class, () -> CallGraphParser.parseRevisionCallGraph(
+                new StringReader(REVISION_CALL_GRAPH.replace("\"0\": ", "\"zero\": "))));
+        assertTrue(e.getMessage().contains("line: 11"), e.getMessage());
+        assertTrue(e.getCause() instanceof NumberFormatException);
+        e = assertThrows(JSONException.class, () -> CallGraphParser.parseRevisionCallGraph(
+                new StringReader(REVISION_CALL_GRAPH.replace("\"/java.lang/Object\"",
+                        "\"http://a/b.c\""))));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+}
@@ -3,6 +3,8 @@ package eu.fasten.core.data.graphdb;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import eu.fasten.core.data.metadatadb.codegen.tables.records.EdgesRecord;
+import java.util.List;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
@@ -23,6 +25,19 @@ public class GidGraphTest {
         assertEquals(json.toString(), graph.toJSONString());
     }
 
+    @Test
+    public void primitiveGraphTest() {
+        var graph = new GidGraph(1, "test", "0.0.1", new long[]{1, 2, 3}, 2,
+                new long[]{1, 2}, new long[]{2, 3});
+        assertEquals(2, graph.getNumEdges());
+        assertEquals(graph, new GidGraph(1, "test", "0.0.1", List.of(1L, 2L, 3L), 2,
+                List.of(new EdgesRecord(1L, 2L, null), new EdgesRecord(2L, 3L, null))));
+        assertEquals(graph.hashCode(), GidGraph.getGraph(new JSONObject(graph.toJSONString()))
+                .hashCode());
+        assertThrows(IllegalArgumentException.class, () -> new GidGraph(1, "test", "0.0.1",
+                new long[]{1, 2}, 2, new long[]{1}, new long[0]));
+    }
+
     @Test
     public void graphErrorTest() {
         var json = new JSONObject("{\"foo\": \"bar\"}");
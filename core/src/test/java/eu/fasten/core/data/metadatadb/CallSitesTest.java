@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.metadatadb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.fasten.core.data.metadatadb.CallSites.CallType;
+import java.util.Map;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+public class CallSitesTest {
+
+    private static final String CALL_SITES = "{"
+            + "\"17\": {\"receiver\": \"/java.lang/Object\", \"line\": 42, \"type\": \"invokespecial\"},"
+            + "\"3\": {\"receiver\": \"/internal.package/B\", \"line\": 25, \"type\": \"invokevirtual\"},"
+            + "\"9\": {\"receiver\": \"/internal.package/B\", \"line\": 25, \"type\": \"invokeinterface\"}"
+            + "}";
+
+    private static final Map<String, Long> RECEIVERS = Map.of("/java.lang/Object", 100L,
+            "/internal.package/B", 7L);
+
+    @Test
+    public void encodeDecodeTest() {
+        var callSites = CallSites.fromJSON(new JSONObject(CALL_SITES).toMap(), RECEIVERS::get);
+        assertEquals(3, callSites.size());
+        assertEquals(3, callSites.getPc(0));
+        assertEquals(CallType.INVOKEVIRTUAL, callSites.getType(0));
+        assertEquals(100L, callSites.getReceiver(2));
+
+        var data = callSites.encode();
+        assertTrue(data.length < 16);
+        assertEquals(callSites, CallSites.decode(data));
+        assertEquals(callSites, CallSites.of(callSites.toRecord(1L, 2L)));
+        assertEquals(CallSites.EMPTY, CallSites.decode(CallSites.EMPTY.encode()));
+        assertEquals(CallSites.EMPTY, CallSites.decode(null));
+    }
+
+    @Test
+    public void jsonTest() {
+        var json = new JSONObject(CALL_SITES);
+        var callSites = CallSites.fromJSON(json.toMap(), RECEIVERS::get);
+        var uris = Map.of(100L, "/java.lang/Object", 7L, "/internal.package/B");
+        assertEquals(json.toMap(), callSites.toJSON(uris::get).toMap());
+    }
+
+    @Test
+    public void unknownValuesTest() {
+        var callSites = CallSites.fromJSON(Map.of("5", Map.of("type", "jsr")), RECEIVERS::get);
+        assertEquals(CallType.UNKNOWN, callSites.getType(0));
+        assertEquals(0L, callSites.getReceiver(0));
+        assertEquals(-1, callSites.getLine(0));
+        var json = callSites.toJSON(id -> "unused").getJSONObject("5");
+        assertEquals("unknown", json.getString("type"));
+        assertTrue(json.isNull("receiver"));
+    }
+
+    @Test
+    public void invalidTest() {
+        assertThrows(IllegalArgumentException.class, () -> new CallSites(new int[1], new int[2],
+                new CallType[1], new long[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> CallSites.decode(new byte[]{5, 1, 2}));
+    }
+}
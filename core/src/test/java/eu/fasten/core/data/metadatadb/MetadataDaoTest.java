@@ -18,14 +18,19 @@
 
 package eu.fasten.core.data.metadatadb;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.github.t9t.jooq.json.JsonbDSL;
 import eu.fasten.core.data.metadatadb.codegen.Keys;
 import eu.fasten.core.data.metadatadb.codegen.tables.BinaryModuleContents;
 import eu.fasten.core.data.metadatadb.codegen.tables.BinaryModules;
+import eu.fasten.core.data.metadatadb.codegen.tables.CallableUris;
 import eu.fasten.core.data.metadatadb.codegen.tables.Callables;
 import eu.fasten.core.data.metadatadb.codegen.tables.Dependencies;
 import eu.fasten.core.data.metadatadb.codegen.tables.Edges;
@@ -45,6 +50,7 @@ import eu.fasten.core.data.metadatadb.codegen.tables.records.ModulesRecord;
 import eu.fasten.core.data.metadatadb.codegen.tables.records.PackageVersionsRecord;
 import eu.fasten.core.data.metadatadb.codegen.tables.records.PackagesRecord;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -61,7 +67,14 @@ import org.jooq.InsertValuesStep4;
 import org.jooq.InsertValuesStep5;
 import org.jooq.JSONB;
 import org.jooq.Result;
+import org.jooq.SQLDialect;
 import org.jooq.SelectWhereStep;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockDataProvider;
+import org.jooq.tools.jdbc.MockExecuteContext;
+import org.jooq.tools.jdbc.MockResult;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -934,14 +947,17 @@ public class MetadataDaoTest {
         var id = 1L;
         long moduleId = 42;
         var fastenUri = "URI";
+        var uriId = 7L;
         boolean isInternalCall = true;
         var createdAt = new Timestamp(1);
         var metadata = new JSONObject("{\"foo\":\"bar\"}");
+        metadataDao = Mockito.spy(metadataDao);
+        Mockito.doReturn(List.of(uriId)).when(metadataDao).batchInsertCallableUris(List.of(fastenUri));
         var insertValues = Mockito.mock(InsertValuesStep5.class);
-        Mockito.when(context.insertInto(Callables.CALLABLES, Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.FASTEN_URI,
+        Mockito.when(context.insertInto(Callables.CALLABLES, Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.URI_ID,
                 Callables.CALLABLES.IS_INTERNAL_CALL, Callables.CALLABLES.CREATED_AT,
                 Callables.CALLABLES.METADATA)).thenReturn(insertValues);
-        Mockito.when(insertValues.values(moduleId, fastenUri, isInternalCall, createdAt,
+        Mockito.when(insertValues.values(moduleId, uriId, isInternalCall, createdAt,
                 JSONB.valueOf(metadata.toString()))).thenReturn(insertValues);
         var insertOnConflict = Mockito.mock(InsertOnConflictDoUpdateStep.class);
         Mockito.when(insertValues.onConflictOnConstraint(Keys.UNIQUE_URI_CALL)).thenReturn(insertOnConflict);
@@ -954,7 +970,7 @@ public class MetadataDaoTest {
                 Callables.CALLABLES.as("excluded").METADATA))).thenReturn(insertDuplicateSetMore);
         var insertResult = Mockito.mock(InsertResultStep.class);
         Mockito.when(insertDuplicateSetMore.returning(Callables.CALLABLES.ID)).thenReturn(insertResult);
-        var record = new CallablesRecord(id, moduleId, fastenUri, isInternalCall, createdAt,
+        var record = new CallablesRecord(id, moduleId, uriId, isInternalCall, createdAt,
                 JSONB.valueOf(metadata.toString()));
         Mockito.when(insertResult.fetchOne()).thenReturn(record);
         var result = metadataDao.insertCallable(moduleId, fastenUri, isInternalCall, createdAt, metadata);
@@ -966,12 +982,15 @@ public class MetadataDaoTest {
         var id = 1L;
         long moduleId = 42;
         var fastenUri = "URI";
+        var uriId = 7L;
         var isInternalCall = false;
+        metadataDao = Mockito.spy(metadataDao);
+        Mockito.doReturn(List.of(uriId)).when(metadataDao).batchInsertCallableUris(List.of(fastenUri));
         var insertValues = Mockito.mock(InsertValuesStep5.class);
-        Mockito.when(context.insertInto(Callables.CALLABLES, Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.FASTEN_URI,
+        Mockito.when(context.insertInto(Callables.CALLABLES, Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.URI_ID,
                 Callables.CALLABLES.IS_INTERNAL_CALL, Callables.CALLABLES.CREATED_AT,
                 Callables.CALLABLES.METADATA)).thenReturn(insertValues);
-        Mockito.when(insertValues.values(moduleId, fastenUri, isInternalCall, null, null)).thenReturn(insertValues);
+        Mockito.when(insertValues.values(moduleId, uriId, isInternalCall, null, null)).thenReturn(insertValues);
         var insertOnConflict = Mockito.mock(InsertOnConflictDoUpdateStep.class);
         Mockito.when(insertValues.onConflictOnConstraint(Keys.UNIQUE_URI_CALL)).thenReturn(insertOnConflict);
         var insertDuplicateSet = Mockito.mock(InsertOnDuplicateSetStep.class);
@@ -983,7 +1002,7 @@ public class MetadataDaoTest {
                 Callables.CALLABLES.as("excluded").METADATA))).thenReturn(insertDuplicateSetMore);
         var insertResult = Mockito.mock(InsertResultStep.class);
         Mockito.when(insertDuplicateSetMore.returning(Callables.CALLABLES.ID)).thenReturn(insertResult);
-        var record = new CallablesRecord(id, moduleId, fastenUri, isInternalCall, null, null);
+        var record = new CallablesRecord(id, moduleId, uriId, isInternalCall, null, null);
         Mockito.when(insertResult.fetchOne()).thenReturn(record);
         var result = metadataDao.insertCallable(moduleId, fastenUri, isInternalCall, null, null);
         assertEquals(id, result);
@@ -994,16 +1013,19 @@ public class MetadataDaoTest {
         var ids = Arrays.asList(1L, 2L);
         long moduleId = 42;
         var fastenUris = Arrays.asList("URI1", "URI2");
+        var uriIds = Arrays.asList(7L, 8L);
         var areInternalCalls = Arrays.asList(true, false);
         var createdAt = Arrays.asList(new Timestamp(1), new Timestamp(2));
         var metadata = Arrays.asList(new JSONObject("{\"foo\":\"bar\"}"), new JSONObject("{\"hello\":\"world\"}"));
+        metadataDao = Mockito.spy(metadataDao);
+        Mockito.doReturn(uriIds).when(metadataDao).batchInsertCallableUris(fastenUris);
         var insertValues = Mockito.mock(InsertValuesStep5.class);
-        Mockito.when(context.insertInto(Callables.CALLABLES, Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.FASTEN_URI,
+        Mockito.when(context.insertInto(Callables.CALLABLES, Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.URI_ID,
                 Callables.CALLABLES.IS_INTERNAL_CALL, Callables.CALLABLES.CREATED_AT,
                 Callables.CALLABLES.METADATA)).thenReturn(insertValues);
-        Mockito.when(insertValues.values(moduleId, fastenUris.get(0), areInternalCalls.get(0), createdAt.get(0),
+        Mockito.when(insertValues.values(moduleId, uriIds.get(0), areInternalCalls.get(0), createdAt.get(0),
                 JSONB.valueOf(metadata.get(0).toString()))).thenReturn(insertValues);
-        Mockito.when(insertValues.values(moduleId, fastenUris.get(1), areInternalCalls.get(1), createdAt.get(1),
+        Mockito.when(insertValues.values(moduleId, uriIds.get(1), areInternalCalls.get(1), createdAt.get(1),
                 JSONB.valueOf(metadata.get(1).toString()))).thenReturn(insertValues);
         var insertOnConflict = Mockito.mock(InsertOnConflictDoUpdateStep.class);
         Mockito.when(insertValues.onConflictOnConstraint(Keys.UNIQUE_URI_CALL)).thenReturn(insertOnConflict);
@@ -1016,9 +1038,9 @@ public class MetadataDaoTest {
                 Callables.CALLABLES.as("excluded").METADATA))).thenReturn(insertDuplicateSetMore);
         var insertResult = Mockito.mock(InsertResultStep.class);
         Mockito.when(insertDuplicateSetMore.returning(Callables.CALLABLES.ID)).thenReturn(insertResult);
-        var record1 = new CallablesRecord(ids.get(0), moduleId, fastenUris.get(0),
+        var record1 = new CallablesRecord(ids.get(0), moduleId, uriIds.get(0),
                 areInternalCalls.get(0), createdAt.get(0), JSONB.valueOf(metadata.get(0).toString()));
-        var record2 = new CallablesRecord(ids.get(1), moduleId, fastenUris.get(1),
+        var record2 = new CallablesRecord(ids.get(1), moduleId, uriIds.get(1),
                 areInternalCalls.get(1), createdAt.get(1), JSONB.valueOf(metadata.get(1).toString()));
         Mockito.when(insertResult.fetchOne()).thenReturn(record1, record2);
         var result = metadataDao.insertCallables(moduleId, fastenUris, areInternalCalls, createdAt, metadata);
@@ -1065,22 +1087,23 @@ public class MetadataDaoTest {
     public void insertEdgeTest() {
         long sourceId = 1;
         long targetId = 2;
-        var metadata = new JSONObject("{\"foo\":\"bar\"}");
+        var callSites = new CallSites(new int[]{3}, new int[]{25},
+                new CallSites.CallType[]{CallSites.CallType.INVOKESPECIAL}, new long[]{7});
         var insertValues = Mockito.mock(InsertValuesStep3.class);
         Mockito.when(context.insertInto(Edges.EDGES, Edges.EDGES.SOURCE_ID, Edges.EDGES.TARGET_ID,
-                Edges.EDGES.METADATA)).thenReturn(insertValues);
-        Mockito.when(insertValues.values(sourceId, targetId, JSONB.valueOf(metadata.toString()))).thenReturn(insertValues);
+                Edges.EDGES.CALL_SITES)).thenReturn(insertValues);
+        Mockito.when(insertValues.values(sourceId, targetId, callSites.encode())).thenReturn(insertValues);
         var insertConflict = Mockito.mock(InsertOnConflictDoUpdateStep.class);
         Mockito.when(insertValues.onConflictOnConstraint(Keys.UNIQUE_SOURCE_TARGET)).thenReturn(insertConflict);
         var insertDuplicate = Mockito.mock(InsertOnDuplicateSetStep.class);
         Mockito.when(insertConflict.doUpdate()).thenReturn(insertDuplicate);
         var insertDuplicateMore = Mockito.mock(InsertOnDuplicateSetMoreStep.class);
-        Mockito.when(insertDuplicate.set(Mockito.eq(Edges.EDGES.METADATA), Mockito.any(Field.class))).thenReturn(insertDuplicateMore);
+        Mockito.when(insertDuplicate.set(Mockito.eq(Edges.EDGES.CALL_SITES), Mockito.any(Field.class))).thenReturn(insertDuplicateMore);
         var insertResult = Mockito.mock(InsertResultStep.class);
         Mockito.when(insertDuplicateMore.returning(Edges.EDGES.SOURCE_ID)).thenReturn(insertResult);
-        var record = new EdgesRecord(sourceId, targetId, JSONB.valueOf(metadata.toString()));
+        var record = callSites.toRecord(sourceId, targetId);
         Mockito.when(insertResult.fetchOne()).thenReturn(record);
-        long result = metadataDao.insertEdge(sourceId, targetId, metadata);
+        long result = metadataDao.insertEdge(sourceId, targetId, callSites);
         assertEquals(sourceId, result);
     }
 
@@ -1090,17 +1113,17 @@ public class MetadataDaoTest {
         long targetId = 2;
         var insertValues = Mockito.mock(InsertValuesStep3.class);
         Mockito.when(context.insertInto(Edges.EDGES, Edges.EDGES.SOURCE_ID, Edges.EDGES.TARGET_ID,
-                Edges.EDGES.METADATA)).thenReturn(insertValues);
-        Mockito.when(insertValues.values(sourceId, targetId, JSONB.valueOf("{}"))).thenReturn(insertValues);
+                Edges.EDGES.CALL_SITES)).thenReturn(insertValues);
+        Mockito.when(insertValues.values(sourceId, targetId, CallSites.EMPTY.encode())).thenReturn(insertValues);
         var insertConflict = Mockito.mock(InsertOnConflictDoUpdateStep.class);
         Mockito.when(insertValues.onConflictOnConstraint(Keys.UNIQUE_SOURCE_TARGET)).thenReturn(insertConflict);
         var insertDuplicate = Mockito.mock(InsertOnDuplicateSetStep.class);
         Mockito.when(insertConflict.doUpdate()).thenReturn(insertDuplicate);
         var insertDuplicateMore = Mockito.mock(InsertOnDuplicateSetMoreStep.class);
-        Mockito.when(insertDuplicate.set(Mockito.eq(Edges.EDGES.METADATA), Mockito.any(Field.class))).thenReturn(insertDuplicateMore);
+        Mockito.when(insertDuplicate.set(Mockito.eq(Edges.EDGES.CALL_SITES), Mockito.any(Field.class))).thenReturn(insertDuplicateMore);
         var insertResult = Mockito.mock(InsertResultStep.class);
         Mockito.when(insertDuplicateMore.returning(Edges.EDGES.SOURCE_ID)).thenReturn(insertResult);
-        var record = new EdgesRecord(sourceId, targetId, JSONB.valueOf("{}"));
+        var record = CallSites.EMPTY.toRecord(sourceId, targetId);
         Mockito.when(insertResult.fetchOne()).thenReturn(record);
         long result = metadataDao.insertEdge(sourceId, targetId, null);
         assertEquals(sourceId, result);
@@ -1110,26 +1133,27 @@ public class MetadataDaoTest {
     public void insertMultipleEdgesTest() throws IllegalArgumentException {
         var sourceIds = Arrays.asList(1L, 2L);
         var targetIds = Arrays.asList(3L, 4L);
-        var metadata = Arrays.asList(new JSONObject("{\"foo\":\"bar\"}"), new JSONObject("{\"hello\":\"world\"}"));
+        var callSites = Arrays.asList(CallSites.EMPTY, new CallSites(new int[]{1}, new int[]{42},
+                new CallSites.CallType[]{CallSites.CallType.INVOKEVIRTUAL}, new long[]{8}));
         var selectStep = Mockito.mock(SelectWhereStep.class);
         Mockito.when(context.selectFrom(Edges.EDGES)).thenReturn(selectStep);
         var insertValues = Mockito.mock(InsertValuesStep3.class);
         Mockito.when(context.insertInto(Edges.EDGES, Edges.EDGES.SOURCE_ID, Edges.EDGES.TARGET_ID,
-                Edges.EDGES.METADATA)).thenReturn(insertValues);
-        Mockito.when(insertValues.values(sourceIds.get(0), targetIds.get(0), JSONB.valueOf(metadata.get(0).toString()))).thenReturn(insertValues);
-        Mockito.when(insertValues.values(sourceIds.get(1), targetIds.get(1), JSONB.valueOf(metadata.get(1).toString()))).thenReturn(insertValues);
+                Edges.EDGES.CALL_SITES)).thenReturn(insertValues);
+        Mockito.when(insertValues.values(sourceIds.get(0), targetIds.get(0), callSites.get(0).encode())).thenReturn(insertValues);
+        Mockito.when(insertValues.values(sourceIds.get(1), targetIds.get(1), callSites.get(1).encode())).thenReturn(insertValues);
         var insertConflict = Mockito.mock(InsertOnConflictDoUpdateStep.class);
         Mockito.when(insertValues.onConflictOnConstraint(Keys.UNIQUE_SOURCE_TARGET)).thenReturn(insertConflict);
         var insertDuplicate = Mockito.mock(InsertOnDuplicateSetStep.class);
         Mockito.when(insertConflict.doUpdate()).thenReturn(insertDuplicate);
         var insertDuplicateMore = Mockito.mock(InsertOnDuplicateSetMoreStep.class);
-        Mockito.when(insertDuplicate.set(Mockito.eq(Edges.EDGES.METADATA), Mockito.any(Field.class))).thenReturn(insertDuplicateMore);
+        Mockito.when(insertDuplicate.set(Mockito.eq(Edges.EDGES.CALL_SITES), Mockito.any(Field.class))).thenReturn(insertDuplicateMore);
         var insertResult = Mockito.mock(InsertResultStep.class);
         Mockito.when(insertDuplicateMore.returning(Edges.EDGES.SOURCE_ID)).thenReturn(insertResult);
-        var record1 = new EdgesRecord(sourceIds.get(0), targetIds.get(0), JSONB.valueOf(metadata.get(0).toString()));
-        var record2 = new EdgesRecord(sourceIds.get(1), targetIds.get(1), JSONB.valueOf(metadata.get(1).toString()));
+        var record1 = new EdgesRecord(sourceIds.get(0), targetIds.get(0), callSites.get(0).encode());
+        var record2 = new EdgesRecord(sourceIds.get(1), targetIds.get(1), callSites.get(1).encode());
         Mockito.when(insertResult.fetchOne()).thenReturn(record1, record2);
-        var result = metadataDao.insertEdges(sourceIds, targetIds, metadata);
+        var result = metadataDao.insertEdges(sourceIds, targetIds, callSites);
         assertEquals(sourceIds, result);
     }
 
@@ -1137,9 +1161,10 @@ public class MetadataDaoTest {
     public void insertMultipleEdgesErrorTest() {
         var sourceIds = Collections.singletonList(1L);
         var targetIds = Arrays.asList(3L, 4L);
-        var metadata = Arrays.asList(new JSONObject("{\"foo\":\"bar\"}"), new JSONObject("{\"hello\":\"world\"}"));
+        var callSites = Arrays.asList(CallSites.EMPTY, new CallSites(new int[]{1}, new int[]{42},
+                new CallSites.CallType[]{CallSites.CallType.INVOKEVIRTUAL}, new long[]{8}));
         assertThrows(IllegalArgumentException.class, () -> {
-            metadataDao.insertEdges(sourceIds, targetIds, metadata);
+            metadataDao.insertEdges(sourceIds, targetIds, callSites);
         });
     }
 
@@ -1147,47 +1172,48 @@ public class MetadataDaoTest {
     public void insertMultipleEdgesErrorTest2() {
         var sourceIds = Arrays.asList(1L, 2L);
         var targetIds = Arrays.asList(3L, 4L);
-        var metadata = Collections.singletonList(new JSONObject("{\"foo\":\"bar\"}"));
+        var callSites = Collections.singletonList(CallSites.EMPTY);
         assertThrows(IllegalArgumentException.class, () -> {
-            metadataDao.insertEdges(sourceIds, targetIds, metadata);
+            metadataDao.insertEdges(sourceIds, targetIds, callSites);
         });
     }
 
     @Test
     public void batchInsertEdgesTest() {
-        var r1 = new EdgesRecord(1L, 2L, JSONB.valueOf("{}"));
-        var r2 = new EdgesRecord(3L, 4L, JSONB.valueOf("{\"foo\": \"bar\"}"));
+        var r1 = CallSites.EMPTY.toRecord(1L, 2L);
+        var r2 = new CallSites(new int[]{1}, new int[]{42},
+                new CallSites.CallType[]{CallSites.CallType.INVOKESTATIC}, new long[]{0}).toRecord(3L, 4L);
         var insertValues = Mockito.mock(InsertValuesStep3.class);
         Mockito.when(context.insertInto(Edges.EDGES, Edges.EDGES.SOURCE_ID, Edges.EDGES.TARGET_ID,
-                Edges.EDGES.METADATA)).thenReturn(insertValues);
-        Mockito.when(insertValues.values((Long) null, (Long) null, (JSONB) null)).thenReturn(insertValues);
+                Edges.EDGES.CALL_SITES)).thenReturn(insertValues);
+        Mockito.when(insertValues.values((Long) null, (Long) null, (byte[]) null)).thenReturn(insertValues);
         var insertConflict = Mockito.mock(InsertOnConflictDoUpdateStep.class);
         Mockito.when(insertValues.onConflictOnConstraint(Keys.UNIQUE_SOURCE_TARGET)).thenReturn(insertConflict);
         var insertDuplicate = Mockito.mock(InsertOnDuplicateSetStep.class);
         Mockito.when(insertConflict.doUpdate()).thenReturn(insertDuplicate);
         var insertDuplicateMore = Mockito.mock(InsertOnDuplicateSetMoreStep.class);
-        Mockito.when(insertDuplicate.set(Mockito.eq(Edges.EDGES.METADATA), Mockito.any(Field.class))).thenReturn(insertDuplicateMore);
+        Mockito.when(insertDuplicate.set(Mockito.eq(Edges.EDGES.CALL_SITES), Mockito.any(Field.class))).thenReturn(insertDuplicateMore);
         var batchBind = Mockito.mock(BatchBindStep.class);
         Mockito.when(context.batch(insertDuplicateMore)).thenReturn(batchBind);
-        Mockito.when(batchBind.bind(r1.getSourceId(), r1.getTargetId(), r1.getMetadata())).thenReturn(batchBind);
-        Mockito.when(batchBind.bind(r2.getSourceId(), r2.getTargetId(), r2.getMetadata())).thenReturn(batchBind);
+        Mockito.when(batchBind.bind(r1.getSourceId(), r1.getTargetId(), r1.getCallSites())).thenReturn(batchBind);
+        Mockito.when(batchBind.bind(r2.getSourceId(), r2.getTargetId(), r2.getCallSites())).thenReturn(batchBind);
         metadataDao.batchInsertEdges(List.of(r1, r2));
-        Mockito.verify(batchBind).bind(r1.getSourceId(), r1.getTargetId(), r1.getMetadata());
-        Mockito.verify(batchBind).bind(r2.getSourceId(), r2.getTargetId(), r2.getMetadata());
+        Mockito.verify(batchBind).bind(r1.getSourceId(), r1.getTargetId(), r1.getCallSites());
+        Mockito.verify(batchBind).bind(r2.getSourceId(), r2.getTargetId(), r2.getCallSites());
         Mockito.verify(batchBind).execute();
     }
 
     @Test
     public void batchInsertCallablesTest() throws IllegalArgumentException {
-        var record1 = new CallablesRecord(1L, 42L, "URI1", true, new Timestamp(1), JSONB.valueOf("{\"foo\":\"bar\"}"));
-        var record2 = new CallablesRecord(2L, 42L, "URI2", false, new Timestamp(2), JSONB.valueOf("{\"hello\":\"world\"}"));
+        var record1 = new CallablesRecord(1L, 42L, 7L, true, new Timestamp(1), JSONB.valueOf("{\"foo\":\"bar\"}"));
+        var record2 = new CallablesRecord(2L, 42L, 8L, false, new Timestamp(2), JSONB.valueOf("{\"hello\":\"world\"}"));
         var insertValues = Mockito.mock(InsertValuesStep5.class);
-        Mockito.when(context.insertInto(Callables.CALLABLES, Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.FASTEN_URI,
+        Mockito.when(context.insertInto(Callables.CALLABLES, Callables.CALLABLES.MODULE_ID, Callables.CALLABLES.URI_ID,
                 Callables.CALLABLES.IS_INTERNAL_CALL, Callables.CALLABLES.CREATED_AT,
                 Callables.CALLABLES.METADATA)).thenReturn(insertValues);
-        Mockito.when(insertValues.values(record1.getModuleId(), record1.getFastenUri(), record1.getIsInternalCall(),
+        Mockito.when(insertValues.values(record1.getModuleId(), record1.getUriId(), record1.getIsInternalCall(),
                 record1.getCreatedAt(), record1.getMetadata())).thenReturn(insertValues);
-        Mockito.when(insertValues.values(record2.getModuleId(), record2.getFastenUri(), record2.getIsInternalCall(),
+        Mockito.when(insertValues.values(record2.getModuleId(), record2.getUriId(), record2.getIsInternalCall(),
                 record2.getCreatedAt(), record2.getMetadata())).thenReturn(insertValues);
         var insertOnConflict = Mockito.mock(InsertOnConflictDoUpdateStep.class);
         Mockito.when(insertValues.onConflictOnConstraint(Keys.UNIQUE_URI_CALL)).thenReturn(insertOnConflict);
@@ -1206,4 +1232,157 @@ public class MetadataDaoTest {
         var result = metadataDao.batchInsertCallables(List.of(record1, record2));
         assertEquals(List.of(record1.getId(), record2.getId()), result);
     }
+
+    @Test
+    public void batchInsertModulesTest() {
+        var record1 = new ModulesRecord(null, 42L, "namespace1", new Timestamp(1), JSONB.valueOf("{\"foo\":\"bar\"}"));
+        var record2 = new ModulesRecord(null, 42L, "namespace2", null, null);
+        var insertValues = Mockito.mock(InsertValuesStep4.class);
+        Mockito.when(context.insertInto(Modules.MODULES, Modules.MODULES.PACKAGE_VERSION_ID,
+                Modules.MODULES.NAMESPACE, Modules.MODULES.CREATED_AT, Modules.MODULES.METADATA)).thenReturn(insertValues);
+        Mockito.when(insertValues.values(record1.getPackageVersionId(), record1.getNamespace(),
+                record1.getCreatedAt(), record1.getMetadata())).thenReturn(insertValues);
+        Mockito.when(insertValues.values(record2.getPackageVersionId(), record2.getNamespace(),
+                record2.getCreatedAt(), record2.getMetadata())).thenReturn(insertValues);
+        var insertOnConflict = Mockito.mock(InsertOnConflictDoUpdateStep.class);
+        Mockito.when(insertValues.onConflictOnConstraint(Keys.UNIQUE_VERSION_NAMESPACE)).thenReturn(insertOnConflict);
+        var insertDuplicateSet = Mockito.mock(InsertOnDuplicateSetStep.class);
+        Mockito.when(insertOnConflict.doUpdate()).thenReturn(insertDuplicateSet);
+        var insertDuplicateSetMore = Mockito.mock(InsertOnDuplicateSetMoreStep.class);
+        Mockito.when(insertDuplicateSet.set(Modules.MODULES.CREATED_AT, Modules.MODULES.as("excluded").CREATED_AT)).thenReturn(insertDuplicateSetMore);
+        Mockito.when(insertDuplicateSetMore.set(Modules.MODULES.METADATA, JsonbDSL.concat(Modules.MODULES.METADATA,
+                Modules.MODULES.as("excluded").METADATA))).thenReturn(insertDuplicateSetMore);
+        var insertResult = Mockito.mock(InsertResultStep.class);
+        Mockito.when(insertDuplicateSetMore.returning(Modules.MODULES.ID)).thenReturn(insertResult);
+        var resultSet = Mockito.mock(Result.class);
+        Mockito.when(resultSet.getValues(Modules.MODULES.ID)).thenReturn(List.of(10L, 11L));
+        Mockito.when(insertResult.fetch()).thenReturn(resultSet);
+        var result = metadataDao.batchInsertModules(List.of(record1, record2));
+        assertEquals(List.of(10L, 11L), result);
+        Mockito.verify(context).insertInto(Modules.MODULES, Modules.MODULES.PACKAGE_VERSION_ID,
+                Modules.MODULES.NAMESPACE, Modules.MODULES.CREATED_AT, Modules.MODULES.METADATA);
+    }
+
+    @Test
+    public void getEdgesTest() {
+        var statements = new ArrayList<MockExecuteContext>();
+        MockDataProvider provider = ctx -> {
+            statements.add(ctx);
+            var mock = DSL.using(SQLDialect.POSTGRES);
+            var result = mock.newResult(Edges.EDGES);
+            result.add(CallSites.EMPTY.toRecord(1L, 3L));
+            return new MockResult[]{new MockResult(1, result)};
+        };
+        metadataDao.setContext(DSL.using(new MockConnection(provider), SQLDialect.POSTGRES));
+
+        var page = metadataDao.getEdges(List.of(1L, 2L), null, 10);
+        assertEquals(1, page.size());
+        assertEquals(3L, page.get(0).getTargetId());
+        metadataDao.getEdges(List.of(1L, 2L), page.get(0), 10);
+
+        assertEquals(2, statements.size());
+        var first = statements.get(0);
+        assertTrue(first.sql().contains("= any (?::bigint[])"));
+        assertEquals(2, first.bindings().length);
+        var next = statements.get(1);
+        assertTrue(next.sql().contains("(\"public\".\"edges\".\"source_id\", "
+                + "\"public\".\"edges\".\"target_id\") > (?, ?)"));
+        assertArrayEquals(new Object[]{1L, 3L}, Arrays.copyOfRange(next.bindings(), 1, 3));
+    }
+
+    @Test
+    public void hasModulesTest() {
+        var statements = new ArrayList<MockExecuteContext>();
+        MockDataProvider provider = ctx -> {
+            statements.add(ctx);
+            var mock = DSL.using(SQLDialect.POSTGRES);
+            // A row is returned only if a module exists
+            var one = DSL.field("one", SQLDataType.INTEGER);
+            var result = mock.newResult(one);
+            if (ctx.bindings()[0].equals(42L)) {
+                var record = mock.newRecord(one);
+                record.set(one, 1);
+                result.add(record);
+            }
+            return new MockResult[]{new MockResult(result.size(), result)};
+        };
+        metadataDao.setContext(DSL.using(new MockConnection(provider), SQLDialect.POSTGRES));
+
+        assertTrue(metadataDao.hasModules(42));
+        assertFalse(metadataDao.hasModules(43));
+        assertTrue(statements.get(0).sql().contains("exists (select 1 as \"one\" from "
+                + "\"public\".\"modules\" where "
+                + "\"public\".\"modules\".\"package_version_id\" = ?)"));
+    }
+
+    @Test
+    public void getInternalCallableIdsTest() {
+        var statements = new ArrayList<MockExecuteContext>();
+        MockDataProvider provider = ctx -> {
+            statements.add(ctx);
+            var mock = DSL.using(SQLDialect.POSTGRES);
+            var result = mock.newResult(Callables.CALLABLES.ID);
+            for (long id : new long[]{5, 8}) {
+                var record = mock.newRecord(Callables.CALLABLES.ID);
+                record.set(Callables.CALLABLES.ID, id);
+                result.add(record);
+            }
+            return new MockResult[]{new MockResult(result.size(), result)};
+        };
+        metadataDao.setContext(DSL.using(new MockConnection(provider), SQLDialect.POSTGRES));
+
+        assertEquals(List.of(5L, 8L), metadataDao.getInternalCallableIds(42));
+        assertEquals(1, statements.size());
+        assertTrue(statements.get(0).sql()
+                .contains("\"public\".\"modules\".\"package_version_id\" = ?"));
+        assertEquals(42L, statements.get(0).bindings()[0]);
+    }
+
+    @Test
+    public void getPackageVersionIdTest() {
+        var statements = new ArrayList<MockExecuteContext>();
+        MockDataProvider provider = ctx -> {
+            statements.add(ctx);
+            var mock = DSL.using(SQLDialect.POSTGRES);
+            var result = mock.newResult(PackageVersions.PACKAGE_VERSIONS.ID);
+            if (ctx.bindings()[2].equals("1.0.0")) {
+                var record = mock.newRecord(PackageVersions.PACKAGE_VERSIONS.ID);
+                record.set(PackageVersions.PACKAGE_VERSIONS.ID, 42L);
+                result.add(record);
+            }
+            return new MockResult[]{new MockResult(result.size(), result)};
+        };
+        metadataDao.setContext(DSL.using(new MockConnection(provider), SQLDialect.POSTGRES));
+
+        assertEquals(42L, metadataDao.getPackageVersionId("pkg", "mvn", "1.0.0", "OPAL"));
+        assertNull(metadataDao.getPackageVersionId("pkg", "mvn", "2.0.0", "OPAL"));
+        assertArrayEquals(new Object[]{"pkg", "mvn", "1.0.0", "OPAL"},
+                statements.get(0).bindings());
+    }
+
+    @Test
+    public void batchInsertCallableUrisTest() {
+        var statements = new ArrayList<String>();
+        MockDataProvider provider = ctx -> {
+            statements.add(ctx.sql());
+            if (!ctx.sql().startsWith("select")) {
+                return new MockResult[]{new MockResult(2, null)};
+            }
+            var mock = DSL.using(SQLDialect.POSTGRES);
+            var result = mock.newResult(CallableUris.CALLABLE_URIS.URI_HASH,
+                    CallableUris.CALLABLE_URIS.ID);
+            result.add(mock.newRecord(CallableUris.CALLABLE_URIS.URI_HASH,
+                    CallableUris.CALLABLE_URIS.ID).values(MetadataDao.hashUri("URI1"), 7L));
+            result.add(mock.newRecord(CallableUris.CALLABLE_URIS.URI_HASH,
+                    CallableUris.CALLABLE_URIS.ID).values(MetadataDao.hashUri("URI2"), 8L));
+            return new MockResult[]{new MockResult(2, result)};
+        };
+        metadataDao.setContext(DSL.using(new MockConnection(provider), SQLDialect.POSTGRES));
+
+        var result = metadataDao.batchInsertCallableUris(List.of("URI2", "URI1", "URI2"));
+        assertEquals(List.of(8L, 7L, 8L), result);
+        assertEquals(2, statements.size());
+        assertTrue(statements.get(0).contains("on conflict on constraint \"unique_uri_hash\" do nothing"));
+        assertEquals(16, MetadataDao.hashUri("URI1").length);
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.metadatadb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.jooq.SQLDialect;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockDataProvider;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.Test;
+
+public class MetadataPartitionsTest {
+
+    private static final long SIZE = MetadataPartitions.CALLABLES_PARTITION_SIZE;
+    private static final long EDGES_SIZE = MetadataPartitions.EDGES_PARTITION_SIZE;
+
+    private final long[] lastModuleId = {SIZE + 5};
+    /** Default partitions holding rows of the range being created. */
+    private final Set<String> nonEmptyDefaults = new HashSet<>();
+    private final List<String> statements = new ArrayList<>();
+    private boolean failing;
+
+    private MetadataPartitions partitions() {
+        MockDataProvider provider = ctx -> {
+            var sql = ctx.sql();
+            var mock = DSL.using(SQLDialect.POSTGRES);
+            if (sql.contains("last_value")) {
+                if (failing) {
+                    throw new SQLException("Database unavailable");
+                }
+                var modules = DSL.field("modules", SQLDataType.BIGINT);
+                var callables = DSL.field("callables", SQLDataType.BIGINT);
+                var result = mock.newResult(modules, callables);
+                var record = mock.newRecord(modules, callables);
+                record.values(lastModuleId[0], 10L);
+                result.add(record);
+                return new MockResult[]{new MockResult(1, result)};
+            }
+            if (sql.contains("pg_inherits")) {
+                var name = DSL.field("relname", SQLDataType.VARCHAR);
+                var result = mock.newResult(name);
+                for (var partition : List.of("callables_external", "callables_default",
+                        "callables_p0", "edges_default")) {
+                    var record = mock.newRecord(name);
+                    record.set(name, partition);
+                    result.add(record);
+                }
+                return new MockResult[]{new MockResult(result.size(), result)};
+            }
+            if (sql.startsWith("SELECT 1 FROM")) {
+                var one = DSL.field("one", SQLDataType.INTEGER);
+                var result = mock.newResult(one);
+                if (nonEmptyDefaults.stream().anyMatch(sql::contains)) {
+                    var record = mock.newRecord(one);
+                    record.set(one, 1);
+                    result.add(record);
+                }
+                return new MockResult[]{new MockResult(result.size(), result)};
+            }
+            if (!sql.startsWith("SELECT")) {
+                statements.add(sql);
+            }
+            return new MockResult[]{new MockResult(0, null)};
+        };
+        return new MetadataPartitions(DSL.using(new MockConnection(provider), SQLDialect.POSTGRES));
+    }
+
+    private static String create(String table, long index, long size) {
+        return "CREATE TABLE " + table + "_p" + index + " PARTITION OF " + table
+                + " FOR VALUES FROM (" + index * size + ") TO (" + (index + 1) * size + ")";
+    }
+
+    @Test
+    public void ensurePartitionsTest() {
+        var partitions = partitions();
+        partitions.ensurePartitions();
+        assertEquals(List.of(
+                create("callables", 1, SIZE),
+                create("callables", 2, SIZE),
+                create("callables", 3, SIZE),
+                create("edges", 0, EDGES_SIZE),
+                create("edges", 1, EDGES_SIZE),
+                create("edges", 2, EDGES_SIZE)), statements);
+
+        // Known partitions are not looked up again
+        statements.clear();
+        partitions.ensurePartitions();
+        assertEquals(List.of(), statements);
+
+        lastModuleId[0] = 2 * SIZE;
+        partitions.ensurePartitions();
+        assertEquals(List.of(create("callables", 4, SIZE)), statements);
+    }
+
+    @Test
+    public void defaultPartitionTest() {
+        // Rows of the second partition of callables went to the default partition
+        nonEmptyDefaults.add("callables_default WHERE module_id >= " + 2 * SIZE + " ");
+        partitions().ensurePartitions();
+        assertEquals(List.of(
+                create("callables", 1, SIZE),
+                "CREATE TABLE callables_p2 (LIKE callables INCLUDING DEFAULTS INCLUDING "
+                        + "CONSTRAINTS)",
+                "WITH moved AS (DELETE FROM callables_default WHERE module_id >= " + 2 * SIZE
+                        + " AND module_id < " + 3 * SIZE + " RETURNING *) INSERT INTO "
+                        + "callables_p2 SELECT * FROM moved",
+                "ALTER TABLE callables ATTACH PARTITION callables_p2 FOR VALUES FROM ("
+                        + 2 * SIZE + ") TO (" + 3 * SIZE + ")",
+                create("callables", 3, SIZE),
+                create("edges", 0, EDGES_SIZE),
+                create("edges", 1, EDGES_SIZE),
+                create("edges", 2, EDGES_SIZE)), statements);
+    }
+
+    @Test
+    public void failureTest() {
+        var partitions = partitions();
+        failing = true;
+        assertThrows(DataAccessException.class, partitions::ensurePartitions);
+
+        // The database is not queried again until the retry interval has elapsed
+        failing = false;
+        partitions.ensurePartitions();
+        assertEquals(List.of(), statements);
+    }
+}
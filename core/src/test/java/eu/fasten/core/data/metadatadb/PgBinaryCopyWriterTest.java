@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.metadatadb;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import org.jooq.JSONB;
+import org.junit.jupiter.api.Test;
+
+public class PgBinaryCopyWriterTest {
+
+    @Test
+    public void writeRowTest() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var writer = new PgBinaryCopyWriter(bytes)) {
+            writer.startRow(5);
+            writer.writeLong(42L);
+            writer.writeText("/p/A.m()V");
+            writer.writeBoolean(true);
+            writer.writeTimestamp(Timestamp.valueOf(LocalDateTime.of(2000, 1, 1, 0, 0, 1)));
+            writer.writeJsonb(JSONB.valueOf("{}"));
+        }
+
+        var in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        var signature = new byte[11];
+        in.readFully(signature);
+        assertArrayEquals(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0},
+                signature);
+        assertEquals(0, in.readInt());
+        assertEquals(0, in.readInt());
+
+        assertEquals(5, in.readShort());
+        assertEquals(8, in.readInt());
+        assertEquals(42L, in.readLong());
+        var uri = new byte[in.readInt()];
+        in.readFully(uri);
+        assertEquals("/p/A.m()V", new String(uri, StandardCharsets.UTF_8));
+        assertEquals(1, in.readInt());
+        assertEquals(1, in.readByte());
+        assertEquals(8, in.readInt());
+        assertEquals(1_000_000L, in.readLong());
+        assertEquals(3, in.readInt());
+        assertEquals(1, in.readByte());
+        assertEquals('{', in.readByte());
+        assertEquals('}', in.readByte());
+
+        assertEquals(-1, in.readShort());
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void writeNullTest() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var writer = new PgBinaryCopyWriter(bytes)) {
+            writer.startRow(3);
+            writer.writeLong(null);
+            writer.writeTimestamp(null);
+            writer.writeJsonb(null);
+        }
+        var in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        in.skipBytes(19);
+        assertEquals(3, in.readShort());
+        assertEquals(-1, in.readInt());
+        assertEquals(-1, in.readInt());
+        assertEquals(-1, in.readInt());
+        assertEquals(-1, in.readShort());
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.metadatadb;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import org.jooq.exception.DataAccessException;
+import org.jooq.exception.DataTypeException;
+import org.jooq.exception.TooManyRowsException;
+import org.junit.jupiter.api.Test;
+
+public class RetryPolicyTest {
+
+    private static DataAccessException error(String sqlState) {
+        return new DataAccessException("error", new SQLException("error", sqlState));
+    }
+
+    @Test
+    public void shouldRetryTest() {
+        var policy = new RetryPolicy(3, 10, 100);
+        assertTrue(policy.shouldRetry(error("40001"), 1));
+        assertTrue(policy.shouldRetry(error("40P01"), 2));
+        assertFalse(policy.shouldRetry(error("40P01"), 3));
+        assertTrue(policy.shouldRetry(error("08006"), 1));
+        assertTrue(policy.shouldRetry(new DataAccessException("copy", new IOException()), 1));
+        assertTrue(policy.shouldRetry(new DataAccessException("copy",
+                new UncheckedIOException(new IOException())), 1));
+        // Errors of jOOQ itself fail the same way every time
+        assertFalse(policy.shouldRetry(new TooManyRowsException("rows"), 1));
+        assertFalse(policy.shouldRetry(new DataTypeException("type"), 1));
+        assertFalse(policy.shouldRetry(new DataAccessException("error"), 1));
+        assertFalse(policy.shouldRetry(error("23503"), 1));
+        assertFalse(policy.shouldRetry(error("21000"), 1));
+        assertFalse(policy.shouldRetry(error("42P01"), 1));
+    }
+
+    @Test
+    public void backoffTest() {
+        var policy = new RetryPolicy(100, 10, 100);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(policy.backoffMillis(1) <= 10);
+            assertTrue(policy.backoffMillis(3) <= 40);
+            assertTrue(policy.backoffMillis(64) <= 100);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(0, 10, 100));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(3, 100, 10));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.data.store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FilePayloadStoreTest {
+
+    private Path directory;
+    private FilePayloadStore store;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory(FilePayloadStoreTest.class.getSimpleName());
+        store = new FilePayloadStore(directory.toString(), "http://localhost/");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Test
+    public void putAndOpenTest() throws IOException {
+        var payload = "{\"product\": \"test\"}".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        var key = store.put(payload);
+        assertTrue(store.contains(key));
+        assertEquals(key, store.put(payload));
+        try (InputStream in = store.open(key)) {
+            assertArrayEquals(payload, in.readAllBytes());
+        }
+
+        var reference = store.reference(key);
+        var file = Paths.get(reference.getString("dir"));
+        assertTrue(Files.size(file) < payload.length);
+        assertTrue(reference.getString("link").startsWith("http://localhost/"));
+        assertFalse(reference.getString("link").contains("//" + key.substring(0, 2)));
+        try (var stream = Files.list(file.getParent())) {
+            assertEquals(1, stream.count());
+        }
+    }
+
+    @Test
+    public void claimCheckTest() throws IOException {
+        var claimCheck = new ClaimCheck(store, 10);
+        var small = "{\"a\": 1}";
+        assertEquals(small, claimCheck.offload(small));
+
+        var large = new JSONObject().put("product", "x".repeat(100)).toString();
+        var reference = new JSONObject(claimCheck.offload(large));
+        assertTrue(ClaimCheck.isReference(reference));
+        assertFalse(ClaimCheck.isReference(new JSONObject(small)));
+        try (var reader = claimCheck.open(reference)) {
+            assertEquals(large, IOUtils.toString(reader));
+        }
+    }
+
+    @Test
+    public void uncompressedReferenceTest() throws IOException {
+        var file = directory.resolve("legacy.json");
+        Files.writeString(file, "{\"a\": 1}");
+        var reference = new JSONObject().put("dir", file.toString());
+        try (var reader = new ClaimCheck(store).open(reference)) {
+            assertEquals("{\"a\": 1}", IOUtils.toString(reader));
+        }
+    }
+}
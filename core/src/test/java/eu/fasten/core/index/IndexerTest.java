@@ -1,20 +1,32 @@
 package eu.fasten.core.index;
 
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import eu.fasten.core.data.FastenURI;
 import eu.fasten.core.data.KnowledgeBase;
 import eu.fasten.core.data.KnowledgeBase.Node;
 import eu.fasten.core.data.RevisionCallGraph;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.apache.commons.io.FileUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -210,6 +222,134 @@ public class IndexerTest {
         FileUtils.deleteQuietly(new File(meta));
     }
 
+    public void testShortestPaths(final String[] jsonSpec) throws JSONException, IOException, RocksDBException, ClassNotFoundException {
+        final Path kbDir = Files.createTempDirectory(Indexer.class.getSimpleName());
+        final String meta = Files.createTempFile(Indexer.class.getSimpleName(), "meta").getFileName().toString();
+        FileUtils.deleteDirectory(kbDir.toFile());
+        FileUtils.deleteQuietly(new File(meta));
+
+        final KnowledgeBase kb = KnowledgeBase.getInstance(kbDir.toString(), meta, false);
+
+        for (int index = 0; index < jsonSpec.length; index++)
+            kb.add(new RevisionCallGraph(new JSONObject(jsonSpec[index])), index);
+
+        final LongArrayList signatures = new LongArrayList();
+        for (final var entry : kb.callGraphs.long2ObjectEntrySet())
+            for (final long gid : entry.getValue().callGraphData().nodes())
+                if (entry.getValue().callGraphData().isInternal(gid)) signatures.add(KnowledgeBase.signature(gid, entry.getLongKey()));
+
+        for (final long source : signatures) {
+            // Plain breadth-first visit to compute distances
+            final Long2IntOpenHashMap dist = new Long2IntOpenHashMap();
+            dist.defaultReturnValue(-1);
+            final LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+            queue.enqueue(source);
+            dist.put(source, 0);
+            while (!queue.isEmpty()) {
+                final long x = queue.dequeueLong();
+                for (final long y : kb.successors(x)) if (!dist.containsKey(y)) {
+                    dist.put(y, dist.get(x) + 1);
+                    queue.enqueue(y);
+                }
+            }
+
+            for (final long target : signatures) {
+                final LongList path = kb.shortestPath(source, target);
+                final ObjectList<LongList> paths = kb.shortestPaths(source, target, 3);
+                if (dist.get(target) == -1) {
+                    assertNull(path);
+                    assertTrue(paths.isEmpty());
+                    continue;
+                }
+                assertPath(kb, source, target, path);
+                assertEquals(dist.get(target), path.size() - 1);
+
+                assertEquals(path.size(), paths.get(0).size());
+                for (int i = 0; i < paths.size(); i++) {
+                    assertPath(kb, source, target, paths.get(i));
+                    assertEquals(paths.get(i).size(), new LongOpenHashSet(paths.get(i)).size());
+                    if (i > 0) assertTrue(paths.get(i - 1).size() <= paths.get(i).size());
+                }
+                assertEquals(paths.size(), new ObjectOpenHashSet<>(paths).size());
+
+                final Node sourceNode = kb.new Node(KnowledgeBase.gid(source), KnowledgeBase.index(source));
+                final Node targetNode = kb.new Node(KnowledgeBase.gid(target), KnowledgeBase.index(target));
+                // The URI overloads must resolve the URIs and return the same paths
+                final List<FastenURI> uriPath = kb.shortestPath(sourceNode.toFastenURI(), targetNode.toFastenURI());
+                assertEquals(signatures2FastenURIs(kb, path), uriPath);
+                final List<List<FastenURI>> uriPaths = kb.shortestPaths(sourceNode.toFastenURI(), targetNode.toFastenURI(), 3);
+                assertEquals(paths.size(), uriPaths.size());
+                for (int i = 0; i < paths.size(); i++) assertEquals(signatures2FastenURIs(kb, paths.get(i)), uriPaths.get(i));
+            }
+        }
+
+        final FastenURI unknown = FastenURI.create("fasten://mvn!unknown$1.0/unknown/Unknown.unknown()%2Fjava.lang%2FVoidType");
+        final FastenURI known = kb.new Node(KnowledgeBase.gid(signatures.getLong(0)), KnowledgeBase.index(signatures.getLong(0))).toFastenURI();
+        assertNull(kb.shortestPath(unknown, known));
+        assertNull(kb.shortestPaths(known, unknown, 3));
+
+        kb.close();
+        FileUtils.deleteDirectory(kbDir.toFile());
+        FileUtils.deleteQuietly(new File(meta));
+    }
+
+    private static List<FastenURI> signatures2FastenURIs(final KnowledgeBase kb, final LongList path) {
+        final List<FastenURI> uris = new ArrayList<>();
+        for (final long sig : path) uris.add(kb.new Node(KnowledgeBase.gid(sig), KnowledgeBase.index(sig)).toFastenURI());
+        return uris;
+    }
+
+    private static void assertPath(final KnowledgeBase kb, final long source, final long target, final LongList path) {
+        assertEquals(source, path.getLong(0));
+        assertEquals(target, path.getLong(path.size() - 1));
+        for (int i = 0; i < path.size() - 1; i++) assertTrue(kb.successors(path.getLong(i)).contains(path.getLong(i + 1)));
+    }
+
+    @Test
+    public void testFastenURI2Node() throws JSONException, IOException, RocksDBException, ClassNotFoundException {
+        final Path kbDir = Files.createTempDirectory(Indexer.class.getSimpleName());
+        final String meta = Files.createTempFile(Indexer.class.getSimpleName(), "meta").getFileName().toString();
+        FileUtils.deleteDirectory(kbDir.toFile());
+        FileUtils.deleteQuietly(new File(meta));
+
+        KnowledgeBase kb = KnowledgeBase.getInstance(kbDir.toString(), meta, false);
+        for (int index = 0; index < JSON_SPECS.length; index++) {
+            kb.add(new RevisionCallGraph(new JSONObject(JSON_SPECS[index])), 2 * index);
+            kb.add(new RevisionCallGraph(new JSONObject(JSON_SPECS[index].replaceAll("1\\.0", "2.0"))), 2 * index + 1);
+        }
+
+        for (int pass = 0; pass < 2; pass++) {
+            assertEquals(0, kb.revisionIndex("org.slf4j.slf4j-api", "1.0"));
+            assertEquals(1, kb.revisionIndex("org.slf4j.slf4j-api", "2.0"));
+            assertEquals(3, kb.revisionIndex("org.slf4j2.slf4j-api", "2.0"));
+            assertEquals(-1, kb.revisionIndex("org.slf4j.slf4j-api", "3.0"));
+            assertEquals(-1, kb.revisionIndex("org.slf4j3.slf4j-api", "1.0"));
+            assertEquals(new LongOpenHashSet(new long[] { 0, 1, 2, 3 }), new LongOpenHashSet(kb.revisionIndices("org.slf4j")));
+            assertEquals(new LongOpenHashSet(new long[] { 2, 3 }), new LongOpenHashSet(kb.revisionIndices("org.slf4j2")));
+            assertTrue(kb.revisionIndices("org.slf4j3").isEmpty());
+
+            for (final var entry : kb.callGraphs.long2ObjectEntrySet()) {
+                for (final long gid : entry.getValue().callGraphData().nodes()) {
+                    if (entry.getValue().callGraphData().isExternal(gid)) continue;
+                    final Node node = kb.new Node(gid, entry.getLongKey());
+                    final FastenURI uri = node.toFastenURI();
+                    assertEquals(node, kb.fastenURI2Node(uri));
+                    assertEquals(kb.reaches(node).size(), kb.reaches(uri).size());
+
+                    final FastenURI genericURI = FastenURI.createSchemeless(null, null, null, uri.getRawNamespace(), uri.getRawEntity());
+                    assertTrue(kb.genericURI2Nodes(genericURI, "").contains(node));
+                    assertTrue(kb.genericURI2Nodes(genericURI, entry.getValue().product).contains(node));
+                    assertTrue(kb.genericURI2Nodes(genericURI, "org.slf4j3").isEmpty());
+                }
+            }
+            kb.close();
+            kb = KnowledgeBase.getInstance(kbDir.toString(), meta, false);
+        }
+        kb.close();
+        FileUtils.deleteDirectory(kbDir.toFile());
+        FileUtils.deleteQuietly(new File(meta));
+    }
+
     @Test
     public void testSmallIndex() throws JSONException, IOException, RocksDBException, URISyntaxException, ClassNotFoundException {
         testKnowledgeBase(JSON_SPECS);
@@ -225,6 +365,14 @@ public class IndexerTest {
         testKnowledgeBase(jsonSpecs.toArray(new String[0]));
     }
 
+    @Test
+    public void testShortestPaths() throws JSONException, IOException, RocksDBException, ClassNotFoundException {
+        final ObjectArrayList<String> jsonSpecs = new ObjectArrayList<>();
+        jsonSpecs.addAll(Arrays.asList(JSON_SPECS));
+        for (final String s : JSON_SPECS) jsonSpecs.add(s.replaceAll("1\\.0", "2.0"));
+        testShortestPaths(jsonSpecs.toArray(new String[0]));
+    }
+
     @Test
     public void testLargeIndex() throws JSONException, IOException, RocksDBException, URISyntaxException, ClassNotFoundException {
         final ObjectArrayList<String> jsonSpecs = new ObjectArrayList<>();
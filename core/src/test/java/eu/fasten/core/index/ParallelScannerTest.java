@@ -0,0 +1,117 @@
+package eu.fasten.core.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import eu.fasten.core.data.KnowledgeBase;
+import eu.fasten.core.data.KnowledgeBase.CallGraph;
+import eu.fasten.core.data.KnowledgeBase.CallGraphData;
+import eu.fasten.core.data.RevisionCallGraph;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.commons.io.FileUtils;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ParallelScannerTest {
+
+    private static final int REVISIONS = 10;
+
+    private static Path kbDir;
+    private static String meta;
+    private static KnowledgeBase kb;
+
+    private static String spec(final int version) {
+        return "{\n" +
+                "    \"product\": \"org.slf4j.slf4j-api\",\n" +
+                "    \"forge\": \"mvn\",\n" +
+                "    \"generator\": \"OPAL\",\n" +
+                "    \"depset\": [],\n" +
+                "    \"version\": \"1." + version + "\",\n" +
+                "    \"cha\": {\n" +
+                "        \"/org.slf4j.helpers/FormattingTuple\": {\n" +
+                "            \"methods\": {\n" +
+                "                \"0\": \"/org.slf4j.helpers/FormattingTuple.getThrowable()%2Fjava.lang%2FThrowable\",\n" +
+                "                \"1\": \"/org.slf4j.helpers/FormattingTuple.%3Cinit%3E()%2Fjava.lang%2FVoidType\",\n" +
+                "                \"2\": \"/org.slf4j.helpers/FormattingTuple.FormattingTuple(%2Fjava.lang%2FString)%2Fjava.lang%2FVoidType\"\n" +
+                "            },\n" +
+                "            \"superInterfaces\": [],\n" +
+                "            \"sourceFile\": \"FormattingTuple.java\",\n" +
+                "            \"superClasses\": [\"/java.lang/Object\"]\n" +
+                "        }\n" +
+                "    },\n" +
+                "    \"graph\": {\n" +
+                "        \"internalCalls\": [[2, 1], [1, 0]" + (version % 2 == 0 ? ", [2, 0]" : "") + "],\n" +
+                "        \"externalCalls\": []\n" +
+                "    },\n" +
+                "    \"timestamp\": 0\n" +
+                "}\n";
+    }
+
+    /** An accumulator recording indices and counting arcs. */
+    private static final class Recorder implements ParallelScanner.Accumulator<Recorder> {
+        private final LongArrayList indices = new LongArrayList();
+        private long arcs;
+        private final ParallelScanner.Output output = new ParallelScanner.Output(null);
+
+        @Override
+        public void add(final CallGraph callGraph, final CallGraphData callGraphData) {
+            indices.add(callGraph.index);
+            arcs += callGraphData.numArcs();
+            output.stream().println(callGraph.version);
+        }
+
+        @Override
+        public void merge(final Recorder other) {
+            indices.addAll(other.indices);
+            arcs += other.arcs;
+            output.merge(other.output);
+        }
+    }
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        kbDir = Files.createTempDirectory(ParallelScannerTest.class.getSimpleName());
+        meta = Files.createTempFile(ParallelScannerTest.class.getSimpleName(), "meta").toString();
+        FileUtils.deleteDirectory(kbDir.toFile());
+        FileUtils.deleteQuietly(new File(meta));
+        kb = KnowledgeBase.getInstance(kbDir.toString(), meta, false);
+        for (int i = 0; i < REVISIONS; i++) kb.add(new RevisionCallGraph(new JSONObject(spec(i))), i);
+    }
+
+    @AfterAll
+    public static void tearDown() throws IOException {
+        kb.close();
+        FileUtils.deleteDirectory(kbDir.toFile());
+        FileUtils.deleteQuietly(new File(meta));
+    }
+
+    @Test
+    public void scanTest() throws Exception {
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < REVISIONS; i++) expected.append("1.").append(i).append(System.lineSeparator());
+
+        for (final int partitions : new int[] { 1, 3, REVISIONS, 2 * REVISIONS }) {
+            final Recorder recorder = new ParallelScanner(kb, Long.MAX_VALUE).scan(g -> true, Recorder::new, partitions, 2, ParallelScanner.DEFAULT_READAHEAD_SIZE, null);
+            assertEquals(REVISIONS, recorder.indices.size());
+            for (int i = 0; i < REVISIONS; i++) assertEquals(i, recorder.indices.getLong(i));
+            assertEquals(REVISIONS * 2 + REVISIONS / 2, recorder.arcs);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            recorder.output.store(out);
+            assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void filterAndLimitTest() throws Exception {
+        final Recorder recorder = new ParallelScanner(kb, 4).scan(g -> g.index % 2 == 0, Recorder::new, 3, 2, 0, null);
+        assertEquals(LongArrayList.wrap(new long[] { 0, 2 }), recorder.indices);
+        recorder.output.store(new ByteArrayOutputStream());
+    }
+}
@@ -0,0 +1,144 @@
+package eu.fasten.core.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.fasten.core.data.KnowledgeBase;
+import eu.fasten.core.data.RevisionCallGraph;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class StratifiedSamplerTest {
+
+    /**
+     * Number of internal nodes of the call graph of each revision: strata 0 (revisions 0-3),
+     * 1 (revisions 4-5), 2 (revisions 6-7) and 3 (revision 8).
+     */
+    private static final int[] SIZES = {1, 1, 1, 1, 2, 3, 4, 6, 8};
+
+    private static Path kbDir;
+    private static String meta;
+    private static KnowledgeBase kb;
+
+    private static String spec(final int version, final int size) {
+        final var methods = new JSONObject();
+        final var calls = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            methods.put(Integer.toString(i), "/org.example/Sample.m" + i + "()%2Fjava.lang%2FVoidType");
+            if (i > 0) calls.append(calls.length() == 0 ? "" : ", ").append("[").append(i).append(", ").append(i - 1).append("]");
+        }
+        return "{\n" +
+                "    \"product\": \"org.example.sample\",\n" +
+                "    \"forge\": \"mvn\",\n" +
+                "    \"generator\": \"OPAL\",\n" +
+                "    \"depset\": [],\n" +
+                "    \"version\": \"1." + version + "\",\n" +
+                "    \"cha\": {\n" +
+                "        \"/org.example/Sample\": {\n" +
+                "            \"methods\": " + methods + ",\n" +
+                "            \"superInterfaces\": [],\n" +
+                "            \"sourceFile\": \"Sample.java\",\n" +
+                "            \"superClasses\": [\"/java.lang/Object\"]\n" +
+                "        }\n" +
+                "    },\n" +
+                "    \"graph\": {\n" +
+                "        \"internalCalls\": [" + calls + "],\n" +
+                "        \"externalCalls\": []\n" +
+                "    },\n" +
+                "    \"timestamp\": 0\n" +
+                "}\n";
+    }
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        kbDir = Files.createTempDirectory(StratifiedSamplerTest.class.getSimpleName());
+        meta = Files.createTempFile(StratifiedSamplerTest.class.getSimpleName(), "meta").toString();
+        FileUtils.deleteDirectory(kbDir.toFile());
+        FileUtils.deleteQuietly(new File(meta));
+        kb = KnowledgeBase.getInstance(kbDir.toString(), meta, false);
+        for (int i = 0; i < SIZES.length; i++) kb.add(new RevisionCallGraph(new JSONObject(spec(i, SIZES[i]))), i);
+    }
+
+    @AfterAll
+    public static void tearDown() throws IOException {
+        kb.close();
+        FileUtils.deleteDirectory(kbDir.toFile());
+        FileUtils.deleteQuietly(new File(meta));
+    }
+
+    private static int stratum(final long index) {
+        return StratifiedSampler.stratum(kb.callGraphs.get(index));
+    }
+
+    /** Counts the sampled call graphs of each stratum. */
+    private static Int2IntOpenHashMap strataSizes(final long[] sample) {
+        final Int2IntOpenHashMap sizes = new Int2IntOpenHashMap();
+        for (final long index : sample) sizes.addTo(stratum(index), 1);
+        return sizes;
+    }
+
+    @Test
+    public void strataTest() {
+        for (int i = 0; i < SIZES.length; i++) assertEquals(31 - Integer.numberOfLeadingZeros(SIZES[i]), stratum(i));
+
+        final StratifiedSampler sampler = new StratifiedSampler(kb, 0);
+        assertEquals(SIZES.length, sampler.size());
+        assertEquals(4, sampler.numStrata());
+
+        final StratifiedSampler large = new StratifiedSampler(kb, 2);
+        assertEquals(5, large.size());
+        assertEquals(3, large.numStrata());
+        assertEquals(0, new StratifiedSampler(kb, 9).size());
+        assertThrows(IllegalStateException.class, () -> new StratifiedSampler(kb, 9).draw(0, true, new Random(0)));
+    }
+
+    @Test
+    public void stratifiedSampleTest() {
+        final StratifiedSampler sampler = new StratifiedSampler(kb, 0);
+        final Random random = new Random(0);
+
+        // One call graph per stratum, although most call graphs are in stratum 0
+        Int2IntOpenHashMap sizes = strataSizes(sampler.sample(4, true, random));
+        for (int s = 0; s < 4; s++) assertEquals(1, sizes.get(s));
+
+        // Round robin over strata, skipping exhausted ones (stratum 3 has a single call graph)
+        sizes = strataSizes(sampler.sample(8, true, random));
+        assertEquals(3, sizes.get(0));
+        assertEquals(2, sizes.get(1));
+        assertEquals(2, sizes.get(2));
+        assertEquals(1, sizes.get(3));
+
+        // Sampling without replacement covers all call graphs
+        for (final boolean stratified : new boolean[] { true, false }) {
+            final long[] all = sampler.sample(2 * SIZES.length, stratified, random);
+            assertEquals(SIZES.length, all.length);
+            assertEquals(SIZES.length, new LongOpenHashSet(all).size());
+        }
+    }
+
+    @Test
+    public void drawTest() {
+        final StratifiedSampler sampler = new StratifiedSampler(kb, 0);
+        final Random random = new Random(0);
+        final LongOpenHashSet drawn = new LongOpenHashSet();
+        for (int i = 0; i < 400; i++) {
+            final long index = sampler.draw(i, true, random);
+            // Strata are visited in increasing order
+            assertEquals(i % 4, stratum(index));
+            drawn.add(index);
+        }
+        assertEquals(SIZES.length, drawn.size());
+        for (int i = 0; i < 100; i++) assertTrue(sampler.draw(i, false, random) < SIZES.length);
+    }
+}
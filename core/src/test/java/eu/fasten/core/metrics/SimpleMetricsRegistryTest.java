@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.core.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+class SimpleMetricsRegistryTest {
+
+    private static String export(MetricsRegistry registry) throws IOException {
+        var writer = new StringWriter();
+        registry.write(writer);
+        return writer.toString();
+    }
+
+    @Test
+    void counterTest() throws IOException {
+        var registry = new SimpleMetricsRegistry();
+        var counter = registry.counter("records_total", "Records.", "plugin", "OPAL");
+        counter.increment();
+        counter.increment(2);
+        assertSame(counter, registry.counter("records_total", "Records.", "plugin", "OPAL"));
+        registry.counter("records_total", "Records.", "plugin", "Graph\"DB").increment();
+
+        assertEquals("# HELP records_total Records.\n"
+                + "# TYPE records_total counter\n"
+                + "records_total{plugin=\"Graph\\\"DB\"} 1\n"
+                + "records_total{plugin=\"OPAL\"} 3\n", export(registry));
+    }
+
+    @Test
+    void histogramTest() throws IOException {
+        var registry = new SimpleMetricsRegistry();
+        var histogram = registry.histogram("latency_seconds", "Latency.",
+                new double[]{0.1, 1});
+        histogram.observe(0.05);
+        histogram.observe(0.1);
+        histogram.observe(0.5);
+        histogram.observeNanos(2_000_000_000L);
+        assertEquals(4, histogram.count());
+        assertEquals(2.65, histogram.sum(), 1e-9);
+
+        var text = export(registry);
+        assertTrue(text.contains("latency_seconds_bucket{le=\"0.1\"} 2\n"));
+        assertTrue(text.contains("latency_seconds_bucket{le=\"1.0\"} 3\n"));
+        assertTrue(text.contains("latency_seconds_bucket{le=\"+Inf\"} 4\n"));
+        assertTrue(text.contains("latency_seconds_count 4\n"));
+    }
+
+    @Test
+    void gaugeTest() throws IOException {
+        var registry = new SimpleMetricsRegistry();
+        registry.gauge("queue_depth", "Queue depth.", () -> 1, "plugin", "OPAL");
+        registry.gauge("queue_depth", "Queue depth.", () -> 7, "plugin", "OPAL");
+        assertTrue(export(registry).contains("queue_depth{plugin=\"OPAL\"} 7.0\n"));
+    }
+
+    @Test
+    void invalidMetricTest() {
+        var registry = new SimpleMetricsRegistry();
+        registry.counter("records_total", "Records.");
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.histogram("records_total", "Records.", Histogram.LATENCY_BUCKETS));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.counter("other_total", "Other.", "plugin"));
+    }
+}
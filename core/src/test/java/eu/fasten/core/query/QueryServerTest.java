@@ -0,0 +1,189 @@
+package eu.fasten.core.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.fasten.core.data.FastenURI;
+import eu.fasten.core.data.KnowledgeBase;
+import eu.fasten.core.data.RevisionCallGraph;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.commons.io.FileUtils;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class QueryServerTest {
+
+    private static final String JSON_SPEC = "{\n" +
+            "    \"product\": \"org.slf4j.slf4j-api\",\n" +
+            "    \"forge\": \"mvn\",\n" +
+            "    \"generator\": \"OPAL\",\n" +
+            "    \"depset\": [],\n" +
+            "    \"version\": \"1.0\",\n" +
+            "    \"cha\": {\n" +
+            "        \"/org.slf4j.helpers/FormattingTuple\": {\n" +
+            "            \"methods\": {\n" +
+            "                \"0\": \"/org.slf4j.helpers/FormattingTuple.getThrowable()%2Fjava.lang%2FThrowable\",\n" +
+            "                \"1\": \"/org.slf4j.helpers/FormattingTuple.%3Cinit%3E()%2Fjava.lang%2FVoidType\",\n" +
+            "                \"2\": \"/org.slf4j.helpers/FormattingTuple.FormattingTuple(%2Fjava.lang%2FString)%2Fjava.lang%2FVoidType\"\n" +
+            "            },\n" +
+            "            \"superInterfaces\": [],\n" +
+            "            \"sourceFile\": \"FormattingTuple.java\",\n" +
+            "            \"superClasses\": [\"/java.lang/Object\"]\n" +
+            "        }\n" +
+            "    },\n" +
+            "    \"graph\": {\n" +
+            "        \"internalCalls\": [[2, 1], [1, 0]],\n" +
+            "        \"externalCalls\": []\n" +
+            "    },\n" +
+            "    \"timestamp\": 0\n" +
+            "}\n";
+
+    private static Path kbDir;
+    private static String meta;
+    private static KnowledgeBase kb;
+    private static QueryServer server;
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        kbDir = Files.createTempDirectory(QueryServerTest.class.getSimpleName());
+        meta = Files.createTempFile(QueryServerTest.class.getSimpleName(), "meta").toString();
+        FileUtils.deleteDirectory(kbDir.toFile());
+        FileUtils.deleteQuietly(new File(meta));
+        kb = KnowledgeBase.getInstance(kbDir.toString(), meta, false);
+        kb.add(new RevisionCallGraph(new JSONObject(JSON_SPEC)), 0);
+        server = new QueryServer(kb, 0, 2, 16, 4);
+    }
+
+    @AfterAll
+    public static void tearDown() throws IOException {
+        server.close();
+        kb.close();
+        FileUtils.deleteDirectory(kbDir.toFile());
+        FileUtils.deleteQuietly(new File(meta));
+    }
+
+    @Test
+    public void notIndexedTest() throws IOException {
+        final FastenURI uri = FastenURI.create("fasten://mvn!org.slf4j.slf4j-api$1.0/org.slf4j.helpers/Missing.method()%2Fjava.lang%2FVoidType");
+        try (QueryClient client = new QueryClient(server.getPort())) {
+            assertNull(client.reaches(uri, 10));
+            assertNull(client.coreaches(uri, -1));
+            assertNull(client.paths(uri, uri, 2));
+        }
+    }
+
+    @Test
+    public void queryTest() throws IOException {
+        final FastenURI source = FastenURI.create("fasten://mvn!org.slf4j.slf4j-api$1.0/org.slf4j.helpers/FormattingTuple.FormattingTuple(%2Fjava.lang%2FString)%2Fjava.lang%2FVoidType");
+        final FastenURI target = FastenURI.create("fasten://mvn!org.slf4j.slf4j-api$1.0/org.slf4j.helpers/FormattingTuple.getThrowable()%2Fjava.lang%2FThrowable");
+        try (QueryClient client = new QueryClient(server.getPort())) {
+            QueryClient.ReachabilityResult result = client.reaches(source, -1);
+            assertEquals(3, result.total);
+            assertEquals(3, result.uris.size());
+            assertTrue(result.uris.contains(target));
+
+            result = client.reaches(source, 1);
+            assertEquals(3, result.total);
+            assertEquals(1, result.uris.size());
+
+            result = client.coreaches(target, -1);
+            assertEquals(3, result.total);
+            assertTrue(result.uris.contains(source));
+
+            final List<List<FastenURI>> paths = client.paths(source, target, 2);
+            assertEquals(1, paths.size());
+            assertEquals(3, paths.get(0).size());
+            assertEquals(source, paths.get(0).get(0));
+            assertEquals(target, paths.get(0).get(2));
+
+            assertTrue(client.paths(target, source, 2).isEmpty());
+        }
+    }
+
+    @Test
+    public void errorTest() throws IOException {
+        final FastenURI uri = FastenURI.create("fasten://mvn!org.slf4j.slf4j-api$1.0/org.slf4j.helpers/Missing.method()%2Fjava.lang%2FVoidType");
+        try (QueryClient client = new QueryClient(server.getPort())) {
+            assertThrows(IOException.class, () -> client.paths(uri, uri, 0));
+            // The connection is still usable after an error
+            assertNull(client.reaches(uri, 10));
+        }
+    }
+
+    @Test
+    public void concurrentClientsTest() throws Exception {
+        final FastenURI uri = FastenURI.create("fasten://mvn!org.slf4j.slf4j-api$1.0/org.slf4j.helpers/Missing.method()%2Fjava.lang%2FVoidType");
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> {
+                int answered = 0;
+                try (QueryClient client = new QueryClient(server.getPort())) {
+                    for (int j = 0; j < 50; j++) {
+                        try {
+                            assertNull(client.reaches(uri, 10));
+                            answered++;
+                        } catch (final QueryClient.ServerBusyException e) {
+                            // Backpressure: the query was not executed
+                        }
+                    }
+                }
+                return answered;
+            }));
+        }
+        int answered = 0;
+        for (final Future<Integer> future : futures) answered += future.get();
+        executor.shutdown();
+        assertTrue(answered > 0);
+
+        try (QueryClient client = new QueryClient(server.getPort())) {
+            assertTrue(client.stats().contains("coalesced="));
+        }
+        assertTrue(server.latency(QueryServer.REACHES).count() >= answered);
+    }
+
+    @Test
+    public void maxConnectionsTest() throws Exception {
+        final FastenURI uri = FastenURI.create("fasten://mvn!org.slf4j.slf4j-api$1.0/org.slf4j.helpers/Missing.method()%2Fjava.lang%2FVoidType");
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (QueryServer limited = new QueryServer(kb, 0, 2, 16, 4, 1)) {
+            final QueryClient first = new QueryClient(limited.getPort());
+            assertNull(first.reaches(uri, 10));
+            // The second connection is not served until the first one is closed
+            final Future<QueryClient.ReachabilityResult> second = executor.submit(() -> {
+                try (QueryClient client = new QueryClient(limited.getPort())) {
+                    return client.reaches(uri, 10);
+                }
+            });
+            assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+            first.close();
+            assertNull(second.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void latencyHistogramTest() {
+        final QueryServer.LatencyHistogram histogram = new QueryServer.LatencyHistogram();
+        assertEquals(0, histogram.percentile(.5));
+        for (int i = 1; i <= 100; i++) histogram.record(i * 1000L);
+        assertEquals(100, histogram.count());
+        assertTrue(histogram.percentile(.5) >= 50 && histogram.percentile(.5) < 100);
+        assertEquals(100, histogram.percentile(1));
+    }
+}
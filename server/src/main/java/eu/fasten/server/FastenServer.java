@@ -19,22 +19,35 @@
 package eu.fasten.server;
 
 import ch.qos.logback.classic.Level;
+import eu.fasten.core.data.graphdb.RocksDao;
+import eu.fasten.core.data.store.ClaimCheck;
+import eu.fasten.core.data.store.FilePayloadStore;
+import eu.fasten.core.metrics.MetricsRegistry;
+import eu.fasten.core.metrics.SimpleMetricsRegistry;
 import eu.fasten.core.plugins.DBConnector;
 import eu.fasten.core.plugins.DataWriter;
 import eu.fasten.core.plugins.FastenPlugin;
 import eu.fasten.core.plugins.GraphDBConnector;
 import eu.fasten.core.plugins.KafkaPlugin;
+import eu.fasten.core.plugins.MetricsReporter;
+import eu.fasten.core.plugins.PayloadReader;
 import eu.fasten.server.connectors.KafkaConnector;
 import eu.fasten.server.connectors.PostgresConnector;
 import eu.fasten.server.connectors.RocksDBConnector;
+import eu.fasten.server.metrics.MetricsServer;
 import eu.fasten.server.plugins.FastenServerPlugin;
 import eu.fasten.server.plugins.kafka.FastenKafkaPlugin;
+import eu.fasten.server.plugins.kafka.FastenPipeline;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.ObjectUtils;
+import org.jooq.DSLContext;
 import org.pf4j.JarPluginManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,11 +79,24 @@ public class FastenServer implements Runnable {
             description = "Path to directory where plugin output messages will be stored")
     Map<String, String> outputDirs;
 
+    @Option(names = {"-pot", "--plugin_output_threshold"},
+            paramLabel = "chars",
+            description = "Size of plugin outputs above which they are stored in the output "
+                    + "directory instead of being sent inline.",
+            defaultValue = "65536")
+    int outputThreshold;
+
     @Option(names = {"-pol", "--plugin_output_link"},
             paramLabel = "dir",
             description = "HTTP link to the root directory where output messages will be stored")
     Map<String, String> outputLinks;
 
+    @Option(names = {"-pis", "--plugin_input_store"},
+            paramLabel = "dir",
+            description = "Path to directory of the payload store where the input messages of a "
+                    + "plugin have been stored, i.e., the output directory of its producer")
+    Map<String, String> inputStores;
+
     @Option(names = {"-m", "--mode"},
             description = "Deployment or Development mode")
     boolean deployMode;
@@ -94,6 +120,90 @@ public class FastenServer implements Runnable {
             defaultValue = "0")
     int skipOffsets;
 
+    @Option(names = {"-w", "--workers"},
+            paramLabel = "workers",
+            description = "Kay-value pairs of Plugin and number of concurrent workers, each with "
+                    + "its own plugin instance. Example - OPAL=4",
+            split = ",")
+    Map<String, Integer> workers;
+
+    @Option(names = {"-pr", "--poll_records"},
+            paramLabel = "records",
+            description = "Maximum number of records returned by a single poll of Kafka.",
+            defaultValue = "5")
+    int pollRecords;
+
+    @Option(names = {"-bs", "--batch_size"},
+            paramLabel = "records",
+            description = "Maximum number of records processed at once by plugins that "
+                    + "support batches.",
+            defaultValue = "1")
+    int batchSize;
+
+    @Option(names = {"-cr", "--commit_records"},
+            paramLabel = "records",
+            description = "Number of processed records after which offsets are committed.",
+            defaultValue = "100")
+    int commitRecords;
+
+    @Option(names = {"-ci", "--commit_interval"},
+            paramLabel = "ms",
+            description = "Time in milliseconds after which offsets of processed records are "
+                    + "committed.",
+            defaultValue = "5000")
+    long commitInterval;
+
+    @Option(names = {"-pll", "--producer_linger"},
+            paramLabel = "ms",
+            description = "Time in milliseconds output messages wait to be batched together.",
+            defaultValue = "20")
+    int producerLinger;
+
+    @Option(names = {"-plb", "--producer_batch_size"},
+            paramLabel = "bytes",
+            description = "Maximum size in bytes of a batch of output messages.",
+            defaultValue = "262144")
+    int producerBatchSize;
+
+    @Option(names = {"-plc", "--producer_compression"},
+            paramLabel = "codec",
+            description = "Compression of output messages: none, gzip, snappy, lz4 or zstd.",
+            defaultValue = "lz4")
+    String producerCompression;
+
+    @Option(names = {"-pli", "--producer_idempotence"},
+            paramLabel = "true|false",
+            description = "Whether producer retries must not duplicate output messages.",
+            defaultValue = "true",
+            arity = "1")
+    boolean producerIdempotence;
+
+    @Option(names = {"-pp", "--pipeline"},
+            paramLabel = "plugins",
+            description = "Runs the given plugins in-process and in order, handing the output "
+                    + "of each plugin to the next one through in-memory queues instead of Kafka.",
+            split = ",")
+    List<String> pipeline;
+
+    @Option(names = {"-ppi", "--pipeline_input"},
+            paramLabel = "file",
+            description = "File with one input record per line for the first plugin of the "
+                    + "pipeline. If not specified, records are consumed from its topic.")
+    Path pipelineInput;
+
+    @Option(names = {"-ppq", "--pipeline_queue"},
+            paramLabel = "records",
+            description = "Capacity of the queues between plugins of the pipeline.",
+            defaultValue = "16")
+    int pipelineQueue;
+
+    @Option(names = {"-mp", "--metrics_port"},
+            paramLabel = "port",
+            description = "Port on which metrics are served over HTTP at /metrics. "
+                    + "0 disables the endpoint.",
+            defaultValue = "0")
+    int metricsPort;
+
     @Option(names = {"-d", "--database"},
             paramLabel = "dbURL",
             description = "Database URL for connection")
@@ -104,6 +214,20 @@ public class FastenServer implements Runnable {
             description = "Database user name")
     String dbUser;
 
+    @Option(names = {"-dp", "--db_pool_size"},
+            paramLabel = "connections",
+            description = "Maximum number of database connections shared by DB plug-ins. "
+                    + "0 means one connection per plug-in instance.",
+            defaultValue = "0")
+    int dbPoolSize;
+
+    @Option(names = {"-dsc", "--db_statement_cache"},
+            paramLabel = "queries",
+            description = "Number of queries whose prepared statements are cached by each "
+                    + "database connection.",
+            defaultValue = "256")
+    int dbStatementCache;
+
     @Option(names = {"-gd", "--graphdb_dir"},
             paramLabel = "dir",
             description = "Path to directory with RocksDB database")
@@ -116,6 +240,8 @@ public class FastenServer implements Runnable {
 
     private static final Logger logger = LoggerFactory.getLogger(FastenServer.class);
 
+    private final MetricsRegistry metricsRegistry = new SimpleMetricsRegistry();
+
     @Override
     public void run() {
         setLoggingLevel();
@@ -147,6 +273,8 @@ public class FastenServer implements Runnable {
         var kafkaPlugins = jarPluginManager.getExtensions(KafkaPlugin.class);
         var graphDbPlugins = jarPluginManager.getExtensions(GraphDBConnector.class);
         var dataWriterPlugins = jarPluginManager.getExtensions(DataWriter.class);
+        var metricsReporters = jarPluginManager.getExtensions(MetricsReporter.class);
+        var payloadReaders = jarPluginManager.getExtensions(PayloadReader.class);
 
         logger.info("Plugin init done: {} KafkaPlugins, {} DB plug-ins, {} GraphDB plug-ins:"
                         + " {} total plugins",
@@ -154,11 +282,19 @@ public class FastenServer implements Runnable {
         plugins.forEach(x -> logger.info("{}, {}, {}", x.getClass().getSimpleName(),
                 x.version(), x.description()));
 
-        makeDBConnection(dbPlugins);
-        makeGraphDBConnection(graphDbPlugins);
-        setBaseDirectory(dataWriterPlugins);
+        var workerPlugins = createWorkerPlugins(jarPluginManager, kafkaPlugins);
 
-        var kafkaServerPlugins = setupKafkaPlugins(kafkaPlugins);
+        makeDBConnection(withWorkers(dbPlugins, workerPlugins, DBConnector.class));
+        makeGraphDBConnection(withWorkers(graphDbPlugins, workerPlugins, GraphDBConnector.class));
+        setBaseDirectory(withWorkers(dataWriterPlugins, workerPlugins, DataWriter.class));
+        setMetricsRegistry(withWorkers(metricsReporters, workerPlugins, MetricsReporter.class));
+        setPayloadStore(withWorkers(payloadReaders, workerPlugins, PayloadReader.class));
+        startMetricsServer();
+
+        setTopics(kafkaPlugins, workerPlugins);
+        var kafkaServerPlugins = (pipeline != null)
+                ? List.of(setupPipeline(kafkaPlugins, workerPlugins))
+                : setupKafkaPlugins(kafkaPlugins, workerPlugins);
 
         kafkaServerPlugins.forEach(FastenServerPlugin::start);
 
@@ -193,52 +329,192 @@ public class FastenServer implements Runnable {
         });
     }
 
+    /**
+     * Creates the additional plugin instances needed by plugins with more than one worker.
+     *
+     * @param pluginManager plugin manager
+     * @param kafkaPlugins  list of consumers
+     * @return map from each consumer to its additional instances
+     */
+    private Map<KafkaPlugin, List<KafkaPlugin>> createWorkerPlugins(
+            JarPluginManager pluginManager, List<KafkaPlugin> kafkaPlugins) {
+        var workerPlugins = new HashMap<KafkaPlugin, List<KafkaPlugin>>();
+        kafkaPlugins.forEach(k -> {
+            int n = (workers != null) ? workers.getOrDefault(k.getClass().getSimpleName(), 1) : 1;
+            var instances = new ArrayList<KafkaPlugin>();
+            for (int i = 1; i < n; i++) {
+                instances.add(pluginManager.getExtensionFactory().create(k.getClass()));
+            }
+            workerPlugins.put(k, instances);
+        });
+        return workerPlugins;
+    }
+
+    /**
+     * Adds to a list of plugins the additional worker instances of the same type.
+     *
+     * @param plugins       list of plugins
+     * @param workerPlugins additional instances of consumers
+     * @param type          type of the plugins in the list
+     * @return list of plugins including additional worker instances
+     */
+    private <T> List<T> withWorkers(List<T> plugins,
+                                    Map<KafkaPlugin, List<KafkaPlugin>> workerPlugins,
+                                    Class<T> type) {
+        var result = new ArrayList<>(plugins);
+        workerPlugins.values().forEach(instances -> instances.stream()
+                .filter(type::isInstance).map(type::cast).forEach(result::add));
+        return result;
+    }
+
     /**
      * Changes Kafka topics of consumers ad producers if specified in command line.
      *
-     * @param kafkaPlugins list of consumers
+     * @param kafkaPlugins  list of consumers
+     * @param workerPlugins additional instances of consumers
      */
-    private List<FastenServerPlugin> setupKafkaPlugins(List<KafkaPlugin> kafkaPlugins) {
+    private void setTopics(List<KafkaPlugin> kafkaPlugins,
+                           Map<KafkaPlugin, List<KafkaPlugin>> workerPlugins) {
         if (pluginTopic != null) {
-            kafkaPlugins.stream()
+            withWorkers(kafkaPlugins, workerPlugins, KafkaPlugin.class).stream()
                     .filter(x -> pluginTopic.containsKey(x.getClass().getSimpleName()))
                     .forEach(x -> x.setTopic(pluginTopic.get(x.getClass().getSimpleName())));
         }
+    }
 
+    /**
+     * Wraps Kafka plugins so that they consume from and produce to Kafka.
+     *
+     * @param kafkaPlugins  list of consumers
+     * @param workerPlugins additional instances of consumers
+     */
+    private List<FastenServerPlugin> setupKafkaPlugins(List<KafkaPlugin> kafkaPlugins,
+                                                       Map<KafkaPlugin, List<KafkaPlugin>> workerPlugins) {
         return kafkaPlugins.stream().map(k -> {
             var consumerProperties = KafkaConnector.kafkaConsumerProperties(
                     kafkaServers,
-                    k.getClass().getCanonicalName());
+                    k.getClass().getCanonicalName(),
+                    pollRecords);
             var producerProperties = KafkaConnector.kafkaProducerProperties(
                     kafkaServers,
-                    k.getClass().getCanonicalName());
-
-            return new FastenKafkaPlugin(consumerProperties, producerProperties, k, skipOffsets,
-                    (outputDirs != null) ? outputDirs.get(k.getClass().getSimpleName()) : null,
-                    (outputLinks != null) ? outputLinks.get(k.getClass().getSimpleName()) : null);
+                    k.getClass().getCanonicalName(),
+                    producerLinger, producerBatchSize, producerCompression, producerIdempotence);
+
+            var instances = new ArrayList<KafkaPlugin>();
+            instances.add(k);
+            instances.addAll(workerPlugins.get(k));
+
+            var outputDir = (outputDirs != null)
+                    ? outputDirs.get(k.getClass().getSimpleName()) : null;
+            var outputLink = (outputLinks != null)
+                    ? outputLinks.get(k.getClass().getSimpleName()) : null;
+            var claimCheck = (outputDir != null && !outputDir.isEmpty())
+                    ? new ClaimCheck(new FilePayloadStore(outputDir, outputLink), outputThreshold)
+                    : null;
+
+            return new FastenKafkaPlugin(consumerProperties, producerProperties, instances,
+                    skipOffsets, claimCheck, commitRecords, commitInterval, batchSize,
+                    metricsRegistry);
         }).collect(Collectors.toList());
     }
 
+    /**
+     * Chains the plugins of the pipeline in-process, in the order given in command line.
+     *
+     * @param kafkaPlugins  list of consumers
+     * @param workerPlugins additional instances of consumers
+     * @return pipeline
+     */
+    private FastenServerPlugin setupPipeline(List<KafkaPlugin> kafkaPlugins,
+                                             Map<KafkaPlugin, List<KafkaPlugin>> workerPlugins) {
+        var stages = new ArrayList<List<KafkaPlugin>>();
+        for (var name : pipeline) {
+            var plugin = kafkaPlugins.stream()
+                    .filter(k -> k.getClass().getSimpleName().equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "Plugin " + name + " of the pipeline is not loaded"));
+            var instances = new ArrayList<KafkaPlugin>();
+            instances.add(plugin);
+            instances.addAll(workerPlugins.get(plugin));
+            stages.add(instances);
+        }
+        var consumerProperties = KafkaConnector.kafkaConsumerProperties(
+                kafkaServers,
+                stages.get(0).get(0).getClass().getCanonicalName(),
+                pollRecords);
+
+        return new FastenPipeline(stages, pipelineInput, consumerProperties, pipelineQueue,
+                commitInterval, metricsRegistry);
+    }
+
+    /**
+     * Sets the metrics registry of plugins reporting their own metrics.
+     *
+     * @param reporters list of plugins reporting metrics
+     */
+    private void setMetricsRegistry(List<MetricsReporter> reporters) {
+        reporters.forEach(p -> p.setMetricsRegistry(metricsRegistry));
+    }
+
+    /**
+     * Sets the payload store of plugins reading offloaded payloads, if it is specified.
+     *
+     * @param readers list of plugins reading offloaded payloads
+     */
+    private void setPayloadStore(List<PayloadReader> readers) {
+        if (inputStores == null) {
+            return;
+        }
+        readers.stream()
+                .filter(x -> inputStores.containsKey(x.getClass().getSimpleName()))
+                .forEach(x -> x.setPayloadStore(new FilePayloadStore(
+                        inputStores.get(x.getClass().getSimpleName()), null)));
+    }
+
+    /**
+     * Starts serving metrics over HTTP, if a metrics port is specified.
+     */
+    private void startMetricsServer() {
+        if (metricsPort <= 0) {
+            return;
+        }
+        try {
+            var server = new MetricsServer(metricsRegistry, metricsPort);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        } catch (IOException e) {
+            logger.error("Couldn't serve metrics on port {}", metricsPort, e);
+        }
+    }
+
     /**
      * Setup DB connection for DB plugins.
      *
      * @param dbPlugins list of DB plugins
      */
     private void makeDBConnection(List<DBConnector> dbPlugins) {
+        if (dbPlugins.isEmpty()) {
+            return;
+        }
+        if (!ObjectUtils.allNotNull(dbUrl, dbUser)) {
+            logger.error("Couldn't make a DB connection. Make sure that you have "
+                    + "provided a valid DB URL, username and password.");
+            return;
+        }
+        // Plug-in instances share a pool, so that workers run their transactions concurrently
+        int poolSize = (dbPoolSize > 0) ? dbPoolSize : dbPlugins.size();
+        DSLContext dslContext;
+        try {
+            dslContext = PostgresConnector.getDSLContext(dbUrl, dbUser, poolSize,
+                    dbStatementCache);
+        } catch (SQLException e) {
+            logger.error("Couldn't set DB connection for plug-ins", e);
+            return;
+        }
         dbPlugins.forEach((p) -> {
-            if (ObjectUtils.allNotNull(dbUrl, dbUser)) {
-                try {
-                    p.setDBConnection(PostgresConnector.getDSLContext(dbUrl, dbUser));
-                    logger.debug("Set DB connection successfully for plug-in {}",
-                            p.getClass().getSimpleName());
-                } catch (SQLException e) {
-                    logger.error("Couldn't set DB connection for plug-in {}\n{}",
-                            p.getClass().getSimpleName(), e.getStackTrace());
-                }
-            } else {
-                logger.error("Couldn't make a DB connection. Make sure that you have "
-                        + "provided a valid DB URL, username and password.");
-            }
+            p.setDBConnection(dslContext);
+            logger.debug("Set DB connection successfully for plug-in {}",
+                    p.getClass().getSimpleName());
         });
     }
 
@@ -248,10 +524,15 @@ public class FastenServer implements Runnable {
      * @param graphDbPlugins list of Graph DB plugins
      */
     private void makeGraphDBConnection(List<GraphDBConnector> graphDbPlugins) {
-        graphDbPlugins.forEach((p) -> {
+        // A RocksDB instance can be opened only once, so all plug-ins share the same one
+        RocksDao rocksDao = null;
+        for (var p : graphDbPlugins) {
             if (ObjectUtils.allNotNull(graphDbDir)) {
                 try {
-                    p.setRocksDao(RocksDBConnector.createRocksDBAccessObject(graphDbDir));
+                    if (rocksDao == null) {
+                        rocksDao = RocksDBConnector.createRocksDBAccessObject(graphDbDir);
+                    }
+                    p.setRocksDao(rocksDao);
                     logger.debug("Set Graph DB connection successfully for plug-in {}",
                             p.getClass().getSimpleName());
                 } catch (RuntimeException e) {
@@ -262,7 +543,7 @@ public class FastenServer implements Runnable {
                 logger.error("Couldn't set a GraphDB connection. Make sure that you have "
                         + "provided a valid directory to the database.");
             }
-        });
+        }
     }
 
     /**
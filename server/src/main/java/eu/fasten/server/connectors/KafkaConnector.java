@@ -27,6 +27,11 @@ import org.apache.kafka.common.serialization.StringSerializer;
 
 public class KafkaConnector {
 
+    public static final int DEFAULT_MAX_POLL_RECORDS = 5;
+    public static final int DEFAULT_LINGER_MS = 20;
+    public static final int DEFAULT_BATCH_SIZE = 256 * 1024;
+    public static final String DEFAULT_COMPRESSION_TYPE = "lz4";
+
     /**
      * Returns Kafka properties.
      *
@@ -35,6 +40,19 @@ public class KafkaConnector {
      * @return Kafka Properties
      */
     public static Properties kafkaConsumerProperties(List<String> serverAddresses, String groupId) {
+        return kafkaConsumerProperties(serverAddresses, groupId, DEFAULT_MAX_POLL_RECORDS);
+    }
+
+    /**
+     * Returns Kafka properties.
+     *
+     * @param serverAddresses broker address
+     * @param groupId         group id
+     * @param maxPollRecords  maximum number of records returned by a poll
+     * @return Kafka Properties
+     */
+    public static Properties kafkaConsumerProperties(List<String> serverAddresses, String groupId,
+                                                     int maxPollRecords) {
         String deserializer = StringDeserializer.class.getName();
         Properties properties = new Properties();
 
@@ -46,12 +64,8 @@ public class KafkaConnector {
         properties.setProperty(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
         properties.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         properties.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
-        properties.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "5");
-
-        // Gives more time to the consumer for processing the records so
-        // that the broker will NOT kill the consumer.
-        properties.setProperty(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, "200000");
-        properties.setProperty(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, "700000");
+        properties.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
+                Integer.toString(maxPollRecords));
 
         return properties;
     }
@@ -64,6 +78,27 @@ public class KafkaConnector {
      * @return properties for producer
      */
     public static Properties kafkaProducerProperties(List<String> serverAddresses, String groupID) {
+        return kafkaProducerProperties(serverAddresses, groupID, DEFAULT_LINGER_MS,
+                DEFAULT_BATCH_SIZE, DEFAULT_COMPRESSION_TYPE, true);
+    }
+
+    /**
+     * Sets up a connection for producing messages to Kafka, batching messages. Since callers do
+     * not wait for each message to be acknowledged, messages are accumulated for up to
+     * {@code lingerMs} milliseconds or {@code batchSize} bytes per partition, and compressed.
+     *
+     * @param serverAddresses address of server
+     * @param groupID         group id
+     * @param lingerMs        time in milliseconds messages wait for other messages of the batch
+     * @param batchSize       maximum size in bytes of a batch of messages for a partition
+     * @param compressionType compression codec of batches (none, gzip, snappy, lz4 or zstd)
+     * @param idempotence     whether retries must not introduce duplicate messages
+     * @return properties for producer
+     */
+    public static Properties kafkaProducerProperties(List<String> serverAddresses, String groupID,
+                                                     int lingerMs, int batchSize,
+                                                     String compressionType,
+                                                     boolean idempotence) {
         Properties p = new Properties();
         p.setProperty(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
                 String.join(",", serverAddresses));
@@ -72,6 +107,10 @@ public class KafkaConnector {
                 StringSerializer.class.getName());
         p.setProperty(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
                 StringSerializer.class.getName());
+        p.setProperty(ProducerConfig.LINGER_MS_CONFIG, Integer.toString(lingerMs));
+        p.setProperty(ProducerConfig.BATCH_SIZE_CONFIG, Integer.toString(batchSize));
+        p.setProperty(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        p.setProperty(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, Boolean.toString(idempotence));
 
         return p;
     }
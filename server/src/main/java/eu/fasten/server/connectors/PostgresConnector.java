@@ -20,13 +20,21 @@ package eu.fasten.server.connectors;
 
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import javax.sql.DataSource;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
 import org.jooq.impl.DSL;
 import org.postgresql.Driver;
+import org.postgresql.ds.PGPoolingDataSource;
 
 public class PostgresConnector {
 
+    /**
+     * Default number of queries whose server-side prepared statements are cached by each
+     * connection.
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 256;
+
     /**
      * Establishes database connection.
      *
@@ -41,13 +49,77 @@ public class PostgresConnector {
         if (!new Driver().acceptsURL(dbUrl)) {
             throw new IllegalArgumentException("Could not parse database URI: " + dbUrl);
         }
+        var connection = DriverManager.getConnection(dbUrl, user, getPassword());
+        return DSL.using(connection, SQLDialect.POSTGRES);
+    }
+
+    /**
+     * Establishes a pool of database connections. Unlike a context returned by
+     * {@link #getDSLContext(String, String)}, the returned context can be used concurrently:
+     * every query or transaction borrows a connection from the pool, and waits if all of them
+     * are in use.
+     *
+     * @param dbUrl              URL of the database to connect
+     * @param user               Database user name
+     * @param poolSize           Maximum number of connections
+     * @param statementCacheSize Number of queries whose prepared statements are cached by each
+     *                           connection, so that they are not parsed and planned again
+     * @return DSLContext for jOOQ to query the database
+     * @throws SQLException             if failed to set up connection
+     * @throws IllegalArgumentException if database URL has incorrect format and cannot be parsed
+     */
+    public static DSLContext getDSLContext(String dbUrl, String user, int poolSize,
+                                           int statementCacheSize)
+            throws SQLException, IllegalArgumentException {
+        return DSL.using(getDataSource(dbUrl, user, poolSize, statementCacheSize),
+                SQLDialect.POSTGRES);
+    }
+
+    /**
+     * Creates a pooled data source, and checks that a connection can be established.
+     *
+     * @param dbUrl              URL of the database to connect
+     * @param user               Database user name
+     * @param poolSize           Maximum number of connections
+     * @param statementCacheSize Number of queries whose prepared statements are cached by each
+     *                           connection
+     * @return pooled data source
+     * @throws SQLException             if failed to set up connection
+     * @throws IllegalArgumentException if database URL has incorrect format and cannot be parsed
+     */
+    public static DataSource getDataSource(String dbUrl, String user, int poolSize,
+                                           int statementCacheSize)
+            throws SQLException, IllegalArgumentException {
+        if (!new Driver().acceptsURL(dbUrl)) {
+            throw new IllegalArgumentException("Could not parse database URI: " + dbUrl);
+        }
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+        }
+        var dataSource = new PGPoolingDataSource();
+        dataSource.setUrl(dbUrl);
+        dataSource.setUser(user);
+        dataSource.setPassword(getPassword());
+        dataSource.setMaxConnections(poolSize);
+        // Connections are kept open, so cached statements are reused across transactions
+        dataSource.setPreparedStatementCacheQueries(statementCacheSize);
+        try (var connection = dataSource.getConnection()) {
+            connection.isValid(0);
+        } catch (SQLException e) {
+            dataSource.close();
+            throw e;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(dataSource::close));
+        return dataSource;
+    }
+
+    private static String getPassword() {
         var pass = System.getenv("FASTEN_DBPASS") != null ?  System.getenv("FASTEN_DBPASS")
                 : System.getenv("PGPASSWORD");
 
         if (pass == null) {
             throw new IllegalArgumentException("No password for DB is provided");
         }
-        var connection = DriverManager.getConnection(dbUrl, user, pass);
-        return DSL.using(connection, SQLDialect.POSTGRES);
+        return pass;
     }
 }
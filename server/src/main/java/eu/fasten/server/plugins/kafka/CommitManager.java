@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.server.plugins.kafka;
+
+import org.apache.kafka.clients.consumer.CommitFailedException;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.KafkaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Commits the offsets of processed records. Commits are asynchronous and batched: a commit is
+ * issued when enough records have been completed or enough time has passed since the last commit.
+ * On rebalance and shutdown, {@link #commitSync()} must be used instead, so that no completed work
+ * is lost.
+ *
+ * <p>Output messages are sent without waiting for acknowledgements, and a record is completed
+ * only once the output it produced has been acknowledged. Thus, the output of every committed
+ * record has been written. The producer is flushed before synchronous commits, so that they
+ * include all records whose output is pending.
+ *
+ * <p>This class uses the consumer, so it must be used only by the polling thread.
+ */
+public class CommitManager {
+    private final Logger logger = LoggerFactory.getLogger(CommitManager.class.getName());
+
+    private final Consumer<String, String> consumer;
+    private final Producer<String, String> producer;
+    private final OffsetTracker offsets;
+    private final int maxRecords;
+    private final long maxIntervalMs;
+    private final KafkaPluginMetrics metrics;
+
+    private long lastCompleted;
+    private long lastCommit = System.currentTimeMillis();
+
+    /**
+     * Constructs a commit manager.
+     *
+     * @param consumer      Kafka consumer
+     * @param producer      Kafka producer used to emit the output of processed records
+     * @param offsets       tracker of the offsets of processed records
+     * @param maxRecords    number of completed records triggering a commit
+     * @param maxIntervalMs time in milliseconds after which completed records are committed
+     * @param metrics       metrics recording the latency of commits
+     */
+    public CommitManager(Consumer<String, String> consumer,
+                         Producer<String, String> producer, OffsetTracker offsets,
+                         int maxRecords, long maxIntervalMs, KafkaPluginMetrics metrics) {
+        this.consumer = consumer;
+        this.producer = producer;
+        this.offsets = offsets;
+        this.maxRecords = maxRecords;
+        this.maxIntervalMs = maxIntervalMs;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Commits asynchronously if enough records have been completed or enough time has passed
+     * since the last commit.
+     */
+    public void maybeCommit() {
+        long completed = offsets.completed();
+        long now = System.currentTimeMillis();
+        if (completed - lastCompleted < maxRecords && now - lastCommit < maxIntervalMs) {
+            return;
+        }
+        lastCompleted = completed;
+        lastCommit = now;
+
+        var committable = offsets.committable();
+        if (committable.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        consumer.commitAsync(committable, (committed, e) -> {
+            metrics.commitAsyncLatency.observeNanos(System.nanoTime() - start);
+            if (e == null) {
+                offsets.committed(committed);
+            } else {
+                // A later commit will include these offsets
+                logger.warn("Asynchronous commit failed", e);
+            }
+        });
+    }
+
+    /**
+     * Commits synchronously all completed records, after waiting for the acknowledgement of all
+     * output sent so far. This method blocks until the commit succeeds or an unrecoverable error
+     * is encountered.
+     */
+    public void commitSync() {
+        long start = System.nanoTime();
+        try {
+            // Acknowledgements of pending output complete the records that produced it
+            producer.flush();
+            lastCompleted = offsets.completed();
+            lastCommit = System.currentTimeMillis();
+
+            var committable = offsets.committable();
+            if (committable.isEmpty()) {
+                return;
+            }
+            consumer.commitSync(committable);
+            offsets.committed(committable);
+            metrics.commitSyncLatency.observeNanos(System.nanoTime() - start);
+        } catch (CommitFailedException e) {
+            // The partitions have already been reassigned: the records will be processed again
+            logger.error("Commit failed", e);
+        } catch (KafkaException e) {
+            logger.error("Synchronous commit failed", e);
+        }
+    }
+}
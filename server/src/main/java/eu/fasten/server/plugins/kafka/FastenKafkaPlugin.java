@@ -19,20 +19,31 @@
 package eu.fasten.server.plugins.kafka;
 
 import com.google.common.base.Strings;
+import eu.fasten.core.data.store.ClaimCheck;
+import eu.fasten.core.data.store.FilePayloadStore;
+import eu.fasten.core.metrics.MetricsRegistry;
+import eu.fasten.core.metrics.SimpleMetricsRegistry;
+import eu.fasten.core.plugins.BatchKafkaPlugin;
 import eu.fasten.core.plugins.KafkaPlugin;
 import eu.fasten.server.plugins.FastenServerPlugin;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.commons.lang.StringUtils;
 import org.apache.kafka.clients.consumer.CommitFailedException;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
@@ -47,18 +58,55 @@ import org.slf4j.LoggerFactory;
 public class FastenKafkaPlugin implements FastenServerPlugin {
     private final Logger logger = LoggerFactory.getLogger(FastenKafkaPlugin.class.getName());
 
+    /**
+     * Default number of processed records after which offsets are committed.
+     */
+    public static final int DEFAULT_COMMIT_RECORDS = 100;
+
+    /**
+     * Default time in milliseconds after which offsets of processed records are committed.
+     */
+    public static final long DEFAULT_COMMIT_INTERVAL_MS = 5000;
+
     private Thread thread;
 
     private final KafkaPlugin plugin;
 
+    /**
+     * Plugin instances, one per worker thread. Instances are not shared between threads, since
+     * they keep the state of the record being processed.
+     */
+    private final List<KafkaPlugin> workers;
+    private final List<Thread> workerThreads = new ArrayList<>();
+
+    /**
+     * Records polled from Kafka and waiting for a worker. The queue is bounded: when it is full,
+     * further records are kept in {@link #pending} and consumption is paused.
+     */
+    private final BlockingQueue<Dispatched> queue;
+
+    /**
+     * Polled records that did not fit in the queue, in order. Accessed only by the polling
+     * thread.
+     */
+    private final ArrayDeque<Dispatched> pending = new ArrayDeque<>();
+
+    /** Size of {@link #pending}, published for the metrics. */
+    private volatile int pendingCount;
+    private final OffsetTracker offsets = new OffsetTracker();
+    private final int batchSize;
+    private final CommitManager commits;
+
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final KafkaConsumer<String, String> connection;
     private final KafkaProducer<String, String> producer;
 
     private final int skipOffsets;
 
-    private final String writeDirectory;
-    private final String writeLink;
+    /** Offloads large outputs to a payload store, or null if outputs are always inline. */
+    private final ClaimCheck claimCheck;
+
+    private final KafkaPluginMetrics metrics;
 
     /**
      * Constructs a FastenKafkaConsumer.
@@ -66,54 +114,93 @@ public class FastenKafkaPlugin implements FastenServerPlugin {
      * @param consumerProperties properties of a consumer
      * @param plugin             Kafka plugin
      * @param skipOffsets        skip offset number
+     * @param writeDirectory     directory where all outputs are stored [can be null]
+     * @param writeLink          HTTP link to the output directory [can be null]
      */
     public FastenKafkaPlugin(Properties consumerProperties, Properties producerProperties,
                              KafkaPlugin plugin, int skipOffsets, String writeDirectory, String writeLink) {
-        this.plugin = plugin;
+        this(consumerProperties, producerProperties, Collections.singletonList(plugin),
+                skipOffsets, (writeDirectory != null && !writeDirectory.equals(""))
+                        ? new ClaimCheck(new FilePayloadStore(writeDirectory, writeLink), 0) : null,
+                DEFAULT_COMMIT_RECORDS, DEFAULT_COMMIT_INTERVAL_MS, 1,
+                new SimpleMetricsRegistry());
+    }
+
+    /**
+     * Constructs a FastenKafkaConsumer processing records concurrently.
+     *
+     * @param consumerProperties properties of a consumer
+     * @param workers            instances of the same Kafka plugin, one per worker thread
+     * @param skipOffsets        skip offset number
+     * @param claimCheck         offloads large outputs to a payload store [can be null]
+     * @param commitRecords      number of processed records after which offsets are committed
+     * @param commitIntervalMs   time in milliseconds after which offsets are committed
+     * @param batchSize          maximum number of records passed at once to a
+     *                           {@link BatchKafkaPlugin}; ignored by other plugins
+     * @param metricsRegistry    registry of the metrics of the plugin
+     */
+    public FastenKafkaPlugin(Properties consumerProperties, Properties producerProperties,
+                             List<KafkaPlugin> workers, int skipOffsets, ClaimCheck claimCheck,
+                             int commitRecords, long commitIntervalMs, int batchSize,
+                             MetricsRegistry metricsRegistry) {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one plugin instance is required");
+        }
+        this.plugin = workers.get(0);
+        this.workers = workers;
+        this.batchSize = (plugin instanceof BatchKafkaPlugin) ? Math.max(1, batchSize) : 1;
+        this.queue = new ArrayBlockingQueue<>(workers.size() * this.batchSize);
+
+        this.metrics = new KafkaPluginMetrics(metricsRegistry, plugin.getClass().getSimpleName());
+        metrics.gauge("fasten_queue_depth", "Records polled and waiting for a worker.",
+                () -> queue.size() + pendingCount);
+        metrics.gauge("fasten_records_in_flight", "Records polled and not yet completed.",
+                offsets::inFlight);
 
         this.connection = new KafkaConsumer<>(consumerProperties);
         this.producer = new KafkaProducer<>(producerProperties);
+        this.commits = new CommitManager(connection, producer, offsets, commitRecords,
+                commitIntervalMs, metrics);
 
         this.skipOffsets = skipOffsets;
-        if (writeDirectory != null) {
-            this.writeDirectory = writeDirectory.endsWith(File.separator)
-                    ? writeDirectory.substring(0, writeDirectory.length() - 1) : writeDirectory;
-        } else {
-            this.writeDirectory = null;
-        }
-        if (writeLink != null) {
-            this.writeLink = writeLink.endsWith(File.separator)
-                    ? writeLink.substring(0, writeLink.length() - 1) : writeLink;
-        } else {
-            this.writeLink = null;
-        }
+        this.claimCheck = claimCheck;
 
-        logger.debug("Constructed a Kafka plugin for " + plugin.getClass().getCanonicalName());
+        logger.debug("Constructed a Kafka plugin for " + plugin.getClass().getCanonicalName()
+                + " with " + workers.size() + " worker(s)");
     }
 
     @Override
     public void run() {
         try {
             if (plugin.consumeTopic().isPresent()) {
-                connection.subscribe(plugin.consumeTopic().get());
+                connection.subscribe(plugin.consumeTopic().get(), new RebalanceListener());
             }
             if (this.skipOffsets == 1) {
                 skipPartitionOffsets();
             }
 
+            if (plugin.consumeTopic().isPresent()) {
+                startWorkers();
+            }
+
             while (!closed.get()) {
                 if (plugin.consumeTopic().isPresent()) {
                     handleConsuming();
                 } else {
                     doCommitSync();
 
-                    handleProducing(null);
+                    handleProducing(plugin, null, () -> {
+                    });
                 }
             }
         } catch (Exception e) {
             logger.error("Error occurred while processing call graphs", e);
         } finally {
+            closed.set(true);
+            joinWorkers();
+            commits.commitSync();
             connection.close();
+            producer.close();
             logger.info("Plugin {} stopped", plugin.name());
         }
     }
@@ -125,7 +212,84 @@ public class FastenKafkaPlugin implements FastenServerPlugin {
         this.thread = new Thread(this);
         this.thread.setName(this.plugin.getClass().getSimpleName() + "_plugin");
         this.thread.start();
-        this.plugin.start();
+        this.workers.forEach(KafkaPlugin::start);
+    }
+
+    /**
+     * Starts one thread per plugin instance, taking records from the queue.
+     */
+    private void startWorkers() {
+        for (int i = 0; i < workers.size(); i++) {
+            var worker = workers.get(i);
+            var workerThread = new Thread(() -> work(worker));
+            workerThread.setName(this.plugin.getClass().getSimpleName() + "_worker_" + i);
+            workerThread.start();
+            workerThreads.add(workerThread);
+        }
+    }
+
+    /**
+     * Waits for workers to complete the records they are processing. Records still in the queue
+     * are not processed, and since their offsets are not committed they will be consumed again.
+     */
+    private void joinWorkers() {
+        for (var workerThread : workerThreads) {
+            try {
+                workerThread.join();
+            } catch (InterruptedException e) {
+                logger.debug("Couldn't join worker {}", workerThread.getName());
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Processes records from the queue with the given plugin instance until the plugin is stopped.
+     *
+     * @param worker a plugin instance used by this worker only
+     */
+    private void work(KafkaPlugin worker) {
+        try {
+            while (!closed.get()) {
+                var dispatched = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (dispatched == null) {
+                    continue;
+                }
+                if (batchSize > 1) {
+                    var batch = new ArrayList<Dispatched>(batchSize);
+                    batch.add(dispatched);
+                    queue.drainTo(batch, batchSize - 1);
+                    batch.forEach(d -> metrics.inputSize.observe(d.record.value().length()));
+                    handleBatch((BatchKafkaPlugin) worker, batch);
+                    metrics.consumed.increment(batch.size());
+                } else {
+                    var record = dispatched.record;
+                    metrics.inputSize.observe(record.value().length());
+                    long start = System.nanoTime();
+                    worker.consume(record.value());
+                    metrics.consumeLatency.observeNanos(System.nanoTime() - start);
+                    handleProducing(worker, record.value(), completion(dispatched));
+                    metrics.consumed.increment();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Error occurred while processing call graphs", e);
+            closed.set(true);
+        }
+    }
+
+    /**
+     * Returns the action completing a record, to be run once its output has been acknowledged.
+     * Until then, the record stays in flight and its offset is not committed.
+     *
+     * @param dispatched dispatched record
+     * @return action marking the record as completed
+     */
+    private Runnable completion(Dispatched dispatched) {
+        return () -> offsets.completed(dispatched.partition, dispatched.record.offset(),
+                dispatched.generation);
     }
 
     /**
@@ -145,96 +309,179 @@ public class FastenKafkaPlugin implements FastenServerPlugin {
     }
 
     /**
-     * Consumes a message from a Kafka topics and passes it to a plugin.
+     * Consumes messages from a Kafka topics and hands them over to workers. Offsets of
+     * records whose output has been acknowledged are committed asynchronously, in batches.
+     *
+     * <p>The polling thread never blocks on workers: when the queue is full, all assigned
+     * partitions are paused, and they are resumed once the pending records have been queued.
+     * Polling continues while partitions are paused, so the consumer stays in the group
+     * no matter how long processing takes.
      */
     private void handleConsuming() {
-        ConsumerRecords<String, String> records = connection.poll(Duration.ofSeconds(1));
+        while (!pending.isEmpty() && queue.offer(pending.peek())) {
+            pending.poll();
+        }
+        if (pending.isEmpty() && !connection.paused().isEmpty()) {
+            connection.resume(connection.paused());
+            logger.debug("Resumed consumption of {}", plugin.getClass().getSimpleName());
+        }
+
+        ConsumerRecords<String, String> records = connection.poll(
+                pending.isEmpty() ? Duration.ofSeconds(1) : Duration.ofMillis(100));
         for (var r : records) {
-            doCommitSync();
-            plugin.consume(r.value());
-            handleProducing(r.value());
+            var partition = new TopicPartition(r.topic(), r.partition());
+            var generation = offsets.dispatched(partition, r.offset());
+            var dispatched = new Dispatched(r, partition, generation);
+            // Records must be queued in order, so once one is pending all others are
+            if (!pending.isEmpty() || !queue.offer(dispatched)) {
+                pending.add(dispatched);
+            }
+        }
+        if (!pending.isEmpty()) {
+            // Also pauses partitions assigned by a rebalance during the poll
+            connection.pause(connection.assignment());
+        }
+        pendingCount = pending.size();
+        commits.maybeCommit();
+    }
+
+    /**
+     * Commits synchronously the offsets of completed records of partitions that are about to be
+     * revoked, and drops queued and pending records of such partitions, as they will be consumed
+     * by the new owner.
+     */
+    private class RebalanceListener implements ConsumerRebalanceListener {
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            commits.commitSync();
+            queue.removeIf(d -> partitions.contains(d.partition));
+            pending.removeIf(d -> partitions.contains(d.partition));
+            pendingCount = pending.size();
+            offsets.revoked(partitions);
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
         }
     }
 
     /**
      * Writes messages to server log and stdout/stderr topics.
      *
-     * @param input input message [can be null]
+     * @param plugin plugin instance that processed the input
+     * @param input  input message [can be null]
+     * @param onSent action run once the message has been acknowledged
      */
-    private void handleProducing(String input) {
+    private void handleProducing(KafkaPlugin plugin, String input, Runnable onSent) {
         try {
             if (plugin.getPluginError() != null) {
                 throw plugin.getPluginError();
             }
 
             var result = plugin.produce();
-            String payload = result.orElse(null);
-            if (result.isPresent() && writeDirectory != null && !writeDirectory.equals("")) {
-                    payload = writeToFile(payload);
-            }
+            emitOutput(input, result.orElse(null), onSent);
+        } catch (Throwable e) {
+            emitError(input, e, onSent);
+        }
+    }
 
-            emitMessage(this.producer, String.format("fasten.%s.out",
-                    plugin.getClass().getSimpleName()),
-                    getStdOutMsg(input, payload));
+    /**
+     * Passes a batch of records to a plugin and writes a message to stdout/stderr topics for
+     * each record.
+     *
+     * @param plugin plugin instance processing the batch
+     * @param batch  batch of records
+     */
+    private void handleBatch(BatchKafkaPlugin plugin, List<Dispatched> batch) {
+        var inputs = new ArrayList<String>(batch.size());
+        batch.forEach(d -> inputs.add(d.record.value()));
+        long start = System.nanoTime();
+        var results = plugin.consumeBatch(inputs);
+        metrics.consumeLatency.observeNanos(System.nanoTime() - start);
+        if (results.size() != inputs.size()) {
+            throw new IllegalStateException("Plugin returned " + results.size()
+                    + " results for a batch of " + inputs.size() + " records");
+        }
+        for (int i = 0; i < inputs.size(); i++) {
+            var result = results.get(i);
+            try {
+                if (result.getError() != null) {
+                    throw result.getError();
+                }
+                emitOutput(inputs.get(i), result.getPayload().orElse(null),
+                        completion(batch.get(i)));
+            } catch (Throwable e) {
+                emitError(inputs.get(i), e, completion(batch.get(i)));
+            }
+        }
+    }
 
-        } catch (Throwable e) {
-            emitMessage(this.producer, String.format("fasten.%s.err",
-                    plugin.getClass().getSimpleName()),
-                    getStdErrMsg(input, e));
+    /**
+     * Writes the output of a plugin to the stdout topic. Large payloads are offloaded to the
+     * payload store, and the message carries a reference to them instead.
+     *
+     * @param input   input message [can be null]
+     * @param payload output of the plugin [can be null]
+     * @param onSent  action run once the message has been acknowledged
+     */
+    private void emitOutput(String input, String payload, Runnable onSent) throws IOException {
+        if (payload != null) {
+            metrics.outputSize.observe(payload.length());
+        }
+        if (payload != null && claimCheck != null) {
+            var offloaded = claimCheck.offload(payload);
+            if (!offloaded.equals(payload)) {
+                metrics.offloaded.increment();
+            }
+            payload = offloaded;
         }
+
+        emitMessage(this.producer, String.format("fasten.%s.out",
+                plugin.getClass().getSimpleName()),
+                getStdOutMsg(input, payload), onSent);
     }
 
     /**
-     * Send message to Kafka topic.
+     * Writes an error message to the stderr topic.
+     *
+     * @param input  input message [can be null]
+     * @param error  exception or error encountered while processing the input
+     * @param onSent action run once the message has been acknowledged
+     */
+    private void emitError(String input, Throwable error, Runnable onSent) {
+        metrics.failed.increment();
+        emitMessage(this.producer, String.format("fasten.%s.err",
+                plugin.getClass().getSimpleName()),
+                getStdErrMsg(input, error), onSent);
+    }
+
+    /**
+     * Send message to Kafka topic. The message is sent asynchronously, and the record that
+     * produced it is completed only once the message has been acknowledged. If the message
+     * cannot be sent, the plugin is stopped: the record stays in flight, so its offset is never
+     * committed and it will be consumed again.
      *
      * @param producer Kafka producer
      * @param topic    topic to send to
      * @param msg      message
+     * @param onSent   action run once the message has been acknowledged
      */
-    private void emitMessage(KafkaProducer<String, String> producer, String topic, String msg) {
+    private void emitMessage(KafkaProducer<String, String> producer, String topic, String msg,
+                             Runnable onSent) {
         ProducerRecord<String, String> record = new ProducerRecord<>(topic, msg);
 
+        long start = System.nanoTime();
         producer.send(record, (recordMetadata, e) -> {
-            if (recordMetadata != null) {
+            metrics.produceLatency.observeNanos(System.nanoTime() - start);
+            if (e == null) {
                 logger.debug("Sent: {} to {}", msg, topic);
+                onSent.run();
             } else {
-                e.printStackTrace();
+                logger.error("Could not send message to {}, stopping plugin {}", topic,
+                        plugin.name(), e);
+                closed.set(true);
             }
         });
-
-        producer.flush();
-    }
-
-    /**
-     * Writes output or error message to JSON file and return JSON object containing
-     * a link to to written file.
-     *
-     * @param result message to write
-     * @return Path to a newly written JSON file
-     */
-    private String writeToFile(String result)
-            throws IOException, NullPointerException {
-        var path = plugin.getOutputPath();
-        var pathWithoutFilename = path.substring(0, path.lastIndexOf(File.separator));
-
-        File directory = new File(this.writeDirectory + pathWithoutFilename);
-        if (!directory.exists() && !directory.mkdirs()) {
-            throw new IOException("Failed to create parent directories");
-        }
-
-        File file = new File(this.writeDirectory + path);
-        FileWriter fw = new FileWriter(file.getAbsoluteFile());
-        fw.write(result);
-        fw.flush();
-        fw.close();
-
-        JSONObject link = new JSONObject();
-        link.put("dir", file.getAbsolutePath());
-
-        if (this.writeLink != null && !this.writeLink.equals("")) {
-            link.put("link", this.writeLink + path);
-        }
-        return link.toString();
     }
 
     /**
@@ -361,4 +608,20 @@ public class FastenKafkaPlugin implements FastenServerPlugin {
 
         return statusRecords;
     }
+
+    /**
+     * A record dispatched to the workers, with its generation in the {@link OffsetTracker}.
+     */
+    private static final class Dispatched {
+        private final ConsumerRecord<String, String> record;
+        private final TopicPartition partition;
+        private final long generation;
+
+        private Dispatched(ConsumerRecord<String, String> record, TopicPartition partition,
+                           long generation) {
+            this.record = record;
+            this.partition = partition;
+            this.generation = generation;
+        }
+    }
 }
@@ -0,0 +1,431 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.server.plugins.kafka;
+
+import eu.fasten.core.metrics.MetricsRegistry;
+import eu.fasten.core.plugins.KafkaPlugin;
+import eu.fasten.core.plugins.PipelinePlugin;
+import eu.fasten.server.plugins.FastenServerPlugin;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a chain of Kafka plugins in-process, for bulk backfills. The output of each plugin is
+ * handed to the next one through a bounded in-memory queue instead of a Kafka topic; when both
+ * plugins are {@link PipelinePlugin}s that agree on the type of the output, it is passed as a
+ * parsed object (e.g., an {@link eu.fasten.core.data.ExtendedRevisionCallGraph}) and never
+ * serialized.
+ *
+ * <p>The input of the first plugin is read either from a file, with one record per line, or
+ * from the topic of the first plugin. In the latter case the offset of a record is committed
+ * only once the record has gone through the whole pipeline. Records that fail are logged and
+ * dropped: nothing is written to the output and error topics of the plugins.
+ */
+public class FastenPipeline implements FastenServerPlugin {
+    private final Logger logger = LoggerFactory.getLogger(FastenPipeline.class.getName());
+
+    /**
+     * Default capacity of the queues between stages.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    /** Marks the end of the input; it is passed from stage to stage like a record. */
+    private static final Item END = new Item(null, null, -1, -1);
+
+    private Thread thread;
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<Thread> workerThreads = new ArrayList<>();
+
+    private final Path inputFile;
+    private final Properties consumerProperties;
+    private final long commitIntervalMs;
+    private final OffsetTracker offsets = new OffsetTracker();
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * Constructs a pipeline.
+     *
+     * @param stages             plugins in the order records go through them; each stage has
+     *                           one or more instances of the same plugin, one per worker thread
+     * @param inputFile          file with one input record per line [can be null]
+     * @param consumerProperties properties of the consumer reading the input from the topic of
+     *                           the first plugin, if no input file is given
+     * @param queueCapacity      capacity of the queue in front of each stage
+     * @param commitIntervalMs   time in milliseconds after which offsets are committed
+     * @param metricsRegistry    registry of the metrics of the plugins
+     */
+    public FastenPipeline(List<List<KafkaPlugin>> stages, Path inputFile,
+                          Properties consumerProperties, int queueCapacity,
+                          long commitIntervalMs, MetricsRegistry metricsRegistry) {
+        if (stages.isEmpty() || stages.stream().anyMatch(List::isEmpty)) {
+            throw new IllegalArgumentException("Every stage requires a plugin instance");
+        }
+        if (inputFile == null && stages.get(0).get(0).consumeTopic().isEmpty()) {
+            throw new IllegalArgumentException("The first plugin does not consume a topic, "
+                    + "an input file is required");
+        }
+        Stage next = null;
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            var stage = new Stage(stages.get(i), queueCapacity, next, metricsRegistry);
+            this.stages.add(0, stage);
+            next = stage;
+        }
+        this.inputFile = inputFile;
+        this.consumerProperties = consumerProperties;
+        this.commitIntervalMs = commitIntervalMs;
+
+        logger.debug("Constructed a pipeline of {} plugins", stages.size());
+    }
+
+    @Override
+    public void run() {
+        try {
+            startWorkers();
+            if (inputFile != null) {
+                readFile();
+            } else {
+                readTopic();
+            }
+        } catch (Exception e) {
+            logger.error("Error occurred while reading the input of the pipeline", e);
+            closed.set(true);
+        } finally {
+            joinWorkers();
+            logger.info("Pipeline stopped, {} records completed", offsets.completed());
+        }
+    }
+
+    /**
+     * Starts a thread.
+     */
+    public void start() {
+        this.thread = new Thread(this);
+        this.thread.setName("pipeline");
+        this.thread.start();
+        stages.forEach(s -> s.workers.forEach(KafkaPlugin::start));
+    }
+
+    /**
+     * Stops the pipeline. Records being processed are completed, queued records are dropped.
+     */
+    public void stop() {
+        closed.set(true);
+    }
+
+    /**
+     * Getter for the thread.
+     *
+     * @return thread
+     */
+    public Thread thread() {
+        return thread;
+    }
+
+    /**
+     * Starts one thread per plugin instance, taking records from the queue of its stage.
+     */
+    private void startWorkers() {
+        for (var stage : stages) {
+            for (int i = 0; i < stage.workers.size(); i++) {
+                var worker = stage.workers.get(i);
+                var workerThread = new Thread(() -> work(stage, worker));
+                workerThread.setName(worker.getClass().getSimpleName() + "_pipeline_" + i);
+                workerThread.start();
+                workerThreads.add(workerThread);
+            }
+        }
+    }
+
+    /**
+     * Waits for all workers to stop.
+     */
+    private void joinWorkers() {
+        for (var workerThread : workerThreads) {
+            try {
+                workerThread.join();
+            } catch (InterruptedException e) {
+                logger.debug("Couldn't join worker {}", workerThread.getName());
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Feeds the lines of the input file to the first stage, followed by the end of the input.
+     *
+     * @throws IOException          if the file could not be read
+     * @throws InterruptedException if interrupted while waiting for space in the queue
+     */
+    private void readFile() throws IOException, InterruptedException {
+        try (var reader = Files.newBufferedReader(inputFile, StandardCharsets.UTF_8)) {
+            String line;
+            while (!closed.get() && (line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    handOver(stages.get(0), new Item(line, null, -1, -1));
+                }
+            }
+        }
+        handOver(stages.get(0), END);
+    }
+
+    /**
+     * Consumes records from the topic of the first plugin until the pipeline is stopped, pausing
+     * consumption while the first stage is busy, and commits the offsets of records that have
+     * gone through the whole pipeline.
+     */
+    private void readTopic() {
+        var first = stages.get(0);
+        var pending = new ArrayDeque<Item>();
+        try (var consumer = new KafkaConsumer<String, String>(consumerProperties)) {
+            consumer.subscribe(first.workers.get(0).consumeTopic().get(),
+                    new ConsumerRebalanceListener() {
+                        @Override
+                        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                            commit(consumer);
+                            first.queue.removeIf(i -> partitions.contains(i.partition));
+                            pending.removeIf(i -> partitions.contains(i.partition));
+                            offsets.revoked(partitions);
+                        }
+
+                        @Override
+                        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                        }
+                    });
+            long lastCommit = System.currentTimeMillis();
+            while (!closed.get()) {
+                while (!pending.isEmpty() && first.queue.offer(pending.peek())) {
+                    pending.poll();
+                }
+                if (pending.isEmpty() && !consumer.paused().isEmpty()) {
+                    consumer.resume(consumer.paused());
+                }
+                var records = consumer.poll(
+                        pending.isEmpty() ? Duration.ofSeconds(1) : Duration.ofMillis(100));
+                for (var r : records) {
+                    var partition = new TopicPartition(r.topic(), r.partition());
+                    var generation = offsets.dispatched(partition, r.offset());
+                    var item = new Item(r.value(), partition, r.offset(), generation);
+                    if (!pending.isEmpty() || !first.queue.offer(item)) {
+                        pending.add(item);
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    consumer.pause(consumer.assignment());
+                }
+                if (System.currentTimeMillis() - lastCommit >= commitIntervalMs) {
+                    commit(consumer);
+                    lastCommit = System.currentTimeMillis();
+                }
+            }
+            joinWorkers();
+            commit(consumer);
+        }
+    }
+
+    /**
+     * Commits synchronously the offsets of records that have gone through the pipeline.
+     *
+     * @param consumer Kafka consumer
+     */
+    private void commit(KafkaConsumer<String, String> consumer) {
+        var committable = offsets.committable();
+        if (committable.isEmpty()) {
+            return;
+        }
+        try {
+            consumer.commitSync(committable);
+            offsets.committed(committable);
+        } catch (KafkaException e) {
+            logger.error("Commit failed", e);
+        }
+    }
+
+    /**
+     * Processes records from the queue of a stage with the given plugin instance, until the end
+     * of the input or until the pipeline is stopped.
+     *
+     * @param stage  stage of the worker
+     * @param worker a plugin instance used by this worker only
+     */
+    private void work(Stage stage, KafkaPlugin worker) {
+        try {
+            while (!closed.get()) {
+                var item = stage.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    continue;
+                }
+                if (item == END) {
+                    // The last worker of the stage to finish passes the end on
+                    if (stage.running.decrementAndGet() > 0) {
+                        stage.queue.put(END);
+                    } else if (stage.next != null) {
+                        handOver(stage.next, END);
+                    }
+                    return;
+                }
+                process(stage, worker, item);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Error occurred while processing call graphs", e);
+            closed.set(true);
+        }
+    }
+
+    /**
+     * Passes a record to a plugin instance, and its output to the next stage.
+     *
+     * @param stage  stage of the plugin instance
+     * @param worker plugin instance
+     * @param item   record to process
+     * @throws InterruptedException if interrupted while waiting for space in the next queue
+     */
+    private void process(Stage stage, KafkaPlugin worker, Item item)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        if (item.value instanceof String) {
+            stage.metrics.inputSize.observe(((String) item.value).length());
+            worker.consume((String) item.value);
+        } else {
+            ((PipelinePlugin) worker).consumeObject(item.value);
+        }
+        stage.metrics.consumeLatency.observeNanos(System.nanoTime() - start);
+        stage.metrics.consumed.increment();
+
+        Object output = null;
+        if (worker.getPluginError() != null) {
+            stage.metrics.failed.increment();
+            logger.error("{} could not process a record", worker.getClass().getSimpleName(),
+                    worker.getPluginError());
+        } else if (stage.next != null) {
+            output = output(worker, stage.next);
+        }
+        if (output != null) {
+            handOver(stage.next,
+                    new Item(output, item.partition, item.offset, item.generation));
+        } else if (item.partition != null) {
+            offsets.completed(item.partition, item.offset, item.generation);
+        }
+    }
+
+    /**
+     * Returns the output of a plugin instance, as an object if the next stage accepts it and as
+     * a string otherwise.
+     *
+     * @param worker plugin instance that processed a record
+     * @param next   next stage
+     * @return output of the plugin, or null if there is none
+     */
+    private static Object output(KafkaPlugin worker, Stage next) {
+        if (worker instanceof PipelinePlugin) {
+            var object = ((PipelinePlugin) worker).produceObject();
+            if (object.isPresent() && next.accepts(object.get())) {
+                return object.get();
+            }
+        }
+        return worker.produce().orElse(null);
+    }
+
+    /**
+     * Puts a record in the queue of a stage, waiting for space unless the pipeline is stopped.
+     *
+     * @param stage stage to hand the record over to
+     * @param item  record
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private void handOver(Stage stage, Item item) throws InterruptedException {
+        while (!closed.get()) {
+            if (stage.queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * A record going through the pipeline, with the partition and offset of the Kafka record it
+     * originates from.
+     */
+    private static final class Item {
+        /** A string, or an object accepted by the plugin of the stage. */
+        private final Object value;
+        /** Partition of the originating record, or null if read from a file. */
+        private final TopicPartition partition;
+        private final long offset;
+        /** Generation of the originating record in the {@link OffsetTracker}. */
+        private final long generation;
+
+        private Item(Object value, TopicPartition partition, long offset, long generation) {
+            this.value = value;
+            this.partition = partition;
+            this.offset = offset;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * The instances of a plugin and the queue they take records from.
+     */
+    private static final class Stage {
+        private final List<KafkaPlugin> workers;
+        private final BlockingQueue<Item> queue;
+        private final Stage next;
+        private final KafkaPluginMetrics metrics;
+        /** Workers that have not seen the end of the input yet. */
+        private final AtomicInteger running;
+
+        private Stage(List<KafkaPlugin> workers, int queueCapacity, Stage next,
+                      MetricsRegistry metricsRegistry) {
+            this.workers = workers;
+            this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, workers.size()));
+            this.next = next;
+            this.metrics = new KafkaPluginMetrics(metricsRegistry,
+                    workers.get(0).getClass().getSimpleName());
+            this.running = new AtomicInteger(workers.size());
+            metrics.gauge("fasten_queue_depth", "Records polled and waiting for a worker.",
+                    queue::size);
+        }
+
+        private boolean accepts(Object object) {
+            var plugin = workers.get(0);
+            return plugin instanceof PipelinePlugin && ((PipelinePlugin) plugin).accepts(object);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.server.plugins.kafka;
+
+import eu.fasten.core.metrics.Counter;
+import eu.fasten.core.metrics.Histogram;
+import eu.fasten.core.metrics.MetricsRegistry;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The metrics collected by the server for a Kafka plug-in, all labelled with the name of the
+ * plug-in. Throughput is obtained from the rate of the counters.
+ */
+public class KafkaPluginMetrics {
+
+    private final MetricsRegistry registry;
+    private final String plugin;
+
+    /** Records processed, successfully or not. */
+    final Counter consumed;
+    /** Records whose processing failed. */
+    final Counter failed;
+    /** Output payloads stored in the payload store instead of being sent inline. */
+    final Counter offloaded;
+    /** Time spent by the plug-in on a record, or on a batch of records. */
+    final Histogram consumeLatency;
+    /** Time between sending a message and its acknowledgement. */
+    final Histogram produceLatency;
+    /** Time taken by asynchronous commits. */
+    final Histogram commitAsyncLatency;
+    /** Time taken by synchronous commits, including flushing the producer. */
+    final Histogram commitSyncLatency;
+    /** Size in characters of consumed records. */
+    final Histogram inputSize;
+    /** Size in characters of output payloads, before offloading. */
+    final Histogram outputSize;
+
+    /**
+     * Creates the metrics of a plug-in.
+     *
+     * @param registry registry the metrics belong to
+     * @param plugin   name of the plug-in
+     */
+    public KafkaPluginMetrics(MetricsRegistry registry, String plugin) {
+        this.registry = registry;
+        this.plugin = plugin;
+        consumed = registry.counter("fasten_records_consumed_total",
+                "Records processed by the plug-in.", "plugin", plugin);
+        failed = registry.counter("fasten_records_failed_total",
+                "Records whose processing failed.", "plugin", plugin);
+        offloaded = registry.counter("fasten_payloads_offloaded_total",
+                "Output payloads stored in the payload store.", "plugin", plugin);
+        consumeLatency = registry.histogram("fasten_consume_seconds",
+                "Time spent by the plug-in on a record or batch.", Histogram.LATENCY_BUCKETS,
+                "plugin", plugin);
+        produceLatency = registry.histogram("fasten_produce_seconds",
+                "Time until output messages are acknowledged.", Histogram.LATENCY_BUCKETS,
+                "plugin", plugin);
+        commitAsyncLatency = registry.histogram("fasten_commit_seconds",
+                "Time taken by offset commits.", Histogram.LATENCY_BUCKETS,
+                "plugin", plugin, "mode", "async");
+        commitSyncLatency = registry.histogram("fasten_commit_seconds",
+                "Time taken by offset commits.", Histogram.LATENCY_BUCKETS,
+                "plugin", plugin, "mode", "sync");
+        inputSize = registry.histogram("fasten_input_record_size",
+                "Size in characters of consumed records.", Histogram.SIZE_BUCKETS,
+                "plugin", plugin);
+        outputSize = registry.histogram("fasten_output_payload_size",
+                "Size in characters of output payloads.", Histogram.SIZE_BUCKETS,
+                "plugin", plugin);
+    }
+
+    /**
+     * Registers a gauge labelled with the name of the plug-in.
+     *
+     * @param name  name of the gauge
+     * @param help  description of the gauge
+     * @param value supplier of the current value
+     */
+    void gauge(String name, String help, DoubleSupplier value) {
+        registry.gauge(name, help, value, "plugin", plugin);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.server.plugins.kafka;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Tracks, for each partition, the offsets of records that have been dispatched to workers but
+ * not processed yet. Since workers complete records out of order, the offset that can be
+ * committed for a partition is the smallest offset still in flight or, if there is none, the
+ * offset following the last dispatched record. All methods are thread safe.
+ *
+ * <p>Each dispatched record is tagged with the assignment generation, which changes whenever
+ * partitions are {@linkplain #revoked(Collection) revoked}. A record completed after its
+ * partition has been revoked and assigned again, and after the same offset has been dispatched
+ * again, is thus not mistaken for the record dispatched again.
+ */
+public class OffsetTracker {
+
+    /** Offsets dispatched but not completed yet, with their generation, by partition. */
+    private final Map<TopicPartition, TreeMap<Long, Long>> inFlight = new HashMap<>();
+    /** The offset following the last dispatched record, by partition. */
+    private final Map<TopicPartition, Long> next = new HashMap<>();
+    /** The last committed offset, by partition. */
+    private final Map<TopicPartition, Long> committed = new HashMap<>();
+    /** The number of records completed so far. */
+    private long completed;
+    /** The current assignment generation. */
+    private long generation;
+
+    /**
+     * Records that a record has been dispatched to a worker.
+     *
+     * @param partition partition of the record
+     * @param offset    offset of the record
+     * @return the generation of the record, to be passed to
+     *         {@link #completed(TopicPartition, long, long)}
+     */
+    public synchronized long dispatched(TopicPartition partition, long offset) {
+        inFlight.computeIfAbsent(partition, p -> new TreeMap<>()).put(offset, generation);
+        next.merge(partition, offset + 1, Math::max);
+        return generation;
+    }
+
+    /**
+     * Records that a record has been processed and its output acknowledged. Records of partitions
+     * that have been {@linkplain #revoked(Collection) revoked} meanwhile are ignored, even if
+     * the partition has been assigned again.
+     *
+     * @param partition  partition of the record
+     * @param offset     offset of the record
+     * @param generation generation returned when the record was dispatched
+     */
+    public synchronized void completed(TopicPartition partition, long offset, long generation) {
+        var offsets = inFlight.get(partition);
+        if (offsets != null) {
+            offsets.remove(offset, generation);
+        }
+        completed++;
+    }
+
+    /**
+     * Returns the number of records completed so far.
+     *
+     * @return number of completed records
+     */
+    public synchronized long completed() {
+        return completed;
+    }
+
+    /**
+     * Returns the offsets that can be committed and that are ahead of the last commit.
+     *
+     * @return map from partitions to offsets to commit (possibly empty)
+     */
+    public synchronized Map<TopicPartition, OffsetAndMetadata> committable() {
+        var result = new HashMap<TopicPartition, OffsetAndMetadata>();
+        for (var entry : next.entrySet()) {
+            var partition = entry.getKey();
+            var offsets = inFlight.get(partition);
+            long offset = offsets.isEmpty() ? entry.getValue() : offsets.firstKey();
+            if (offset > committed.getOrDefault(partition, -1L)) {
+                result.put(partition, new OffsetAndMetadata(offset));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Records that offsets have been committed successfully.
+     *
+     * @param offsets committed offsets
+     */
+    public synchronized void committed(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        offsets.forEach((partition, offset) -> {
+            if (next.containsKey(partition)) {
+                committed.merge(partition, offset.offset(), Math::max);
+            }
+        });
+    }
+
+    /**
+     * Forgets about partitions that are no longer assigned to this consumer.
+     *
+     * @param partitions revoked partitions
+     */
+    public synchronized void revoked(Collection<TopicPartition> partitions) {
+        generation++;
+        partitions.forEach(p -> {
+            inFlight.remove(p);
+            next.remove(p);
+            committed.remove(p);
+        });
+    }
+
+    /**
+     * Returns the number of records dispatched but not completed yet.
+     *
+     * @return number of records in flight
+     */
+    public synchronized int inFlight() {
+        return inFlight.values().stream().mapToInt(TreeMap::size).sum();
+    }
+}
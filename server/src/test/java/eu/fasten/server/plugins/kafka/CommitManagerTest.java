@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.fasten.server.plugins.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.fasten.core.metrics.SimpleMetricsRegistry;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CommitManagerTest {
+
+    private static final TopicPartition P0 = new TopicPartition("topic", 0);
+    private static final TopicPartition P1 = new TopicPartition("topic", 1);
+
+    private MockConsumer<String, String> consumer;
+    private MockProducer<String, String> producer;
+    private OffsetTracker offsets;
+
+    @BeforeEach
+    public void setUp() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(P0, P1));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L, P1, 0L));
+        producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+        offsets = new OffsetTracker();
+    }
+
+    private CommitManager commitManager(int maxRecords, long maxIntervalMs) {
+        return new CommitManager(consumer, producer, offsets, maxRecords, maxIntervalMs,
+                new KafkaPluginMetrics(new SimpleMetricsRegistry(), "test"));
+    }
+
+    private void dispatch(TopicPartition partition, long from, long to) {
+        for (long offset = from; offset < to; offset++) {
+            offsets.dispatched(partition, offset);
+        }
+    }
+
+    private long committed(TopicPartition partition) {
+        var committed = consumer.committed(partition);
+        return committed == null ? -1 : committed.offset();
+    }
+
+    @Test
+    public void recordThresholdTest() {
+        var commits = commitManager(3, Long.MAX_VALUE);
+        dispatch(P0, 0, 5);
+
+        offsets.completed(P0, 0, 0);
+        offsets.completed(P0, 1, 0);
+        commits.maybeCommit();
+        assertNull(consumer.committed(P0));
+
+        offsets.completed(P0, 2, 0);
+        commits.maybeCommit();
+        assertEquals(3, committed(P0));
+
+        // The threshold counts records completed since the last commit
+        offsets.completed(P0, 3, 0);
+        commits.maybeCommit();
+        assertEquals(3, committed(P0));
+    }
+
+    @Test
+    public void intervalThresholdTest() throws InterruptedException {
+        var commits = commitManager(Integer.MAX_VALUE, 50);
+        dispatch(P0, 0, 1);
+        offsets.completed(P0, 0, 0);
+        commits.maybeCommit();
+        assertNull(consumer.committed(P0));
+
+        Thread.sleep(60);
+        commits.maybeCommit();
+        assertEquals(1, committed(P0));
+    }
+
+    @Test
+    public void inFlightTest() {
+        var commits = commitManager(1, Long.MAX_VALUE);
+        dispatch(P0, 0, 4);
+        dispatch(P1, 10, 12);
+
+        // Completed records following a record in flight are not committed
+        offsets.completed(P0, 1, 0);
+        offsets.completed(P0, 2, 0);
+        offsets.completed(P1, 10, 0);
+        commits.maybeCommit();
+        assertEquals(0, committed(P0));
+        assertEquals(11, committed(P1));
+        // Nothing new can be committed until the first record is completed
+        assertTrue(offsets.committable().isEmpty());
+
+        offsets.completed(P0, 0, 0);
+        commits.maybeCommit();
+        assertEquals(3, committed(P0));
+        assertEquals(11, committed(P1));
+    }
+
+    @Test
+    public void acknowledgementTest() {
+        producer = new MockProducer<>(false, new StringSerializer(), new StringSerializer());
+        var commits = commitManager(1, Long.MAX_VALUE);
+        dispatch(P0, 0, 2);
+        offsets.completed(P0, 0, 0);
+
+        // The second record is completed only once its output is acknowledged
+        producer.send(new ProducerRecord<>("out", "output"), (metadata, e) -> {
+            if (e == null) {
+                offsets.completed(P0, 1, 0);
+            }
+        });
+        commits.maybeCommit();
+        assertFalse(producer.flushed());
+        assertEquals(1, committed(P0));
+
+        // A failed send leaves the record in flight
+        assertTrue(producer.errorNext(new KafkaException("failure")));
+        commits.commitSync();
+        assertEquals(1, committed(P0));
+        assertEquals(1, offsets.inFlight());
+
+        producer.send(new ProducerRecord<>("out", "output"), (metadata, e) -> {
+            if (e == null) {
+                offsets.completed(P0, 1, 0);
+            }
+        });
+        // Synchronous commits wait for pending output
+        commits.commitSync();
+        assertTrue(producer.flushed());
+        assertEquals(2, committed(P0));
+    }
+
+    @Test
+    public void commitSyncTest() {
+        var commits = commitManager(Integer.MAX_VALUE, Long.MAX_VALUE);
+        dispatch(P0, 0, 3);
+        dispatch(P1, 0, 1);
+        offsets.completed(P0, 0, 0);
+        offsets.completed(P0, 2, 0);
+        offsets.completed(P1, 0, 0);
+
+        commits.commitSync();
+        assertEquals(1, committed(P0));
+        assertEquals(1, committed(P1));
+        assertTrue(offsets.committable().isEmpty());
+
+        offsets.completed(P0, 1, 0);
+        commits.commitSync();
+        assertEquals(3, committed(P0));
+        assertTrue(offsets.committable().isEmpty());
+    }
+}
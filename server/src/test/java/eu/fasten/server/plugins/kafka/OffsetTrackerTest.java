@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.fasten.server.plugins.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+public class OffsetTrackerTest {
+
+    private static final TopicPartition P0 = new TopicPartition("topic", 0);
+    private static final TopicPartition P1 = new TopicPartition("topic", 1);
+
+    private static Map<TopicPartition, OffsetAndMetadata> offsets(TopicPartition partition,
+                                                                  long offset) {
+        return Map.of(partition, new OffsetAndMetadata(offset));
+    }
+
+    @Test
+    public void outOfOrderCompletionTest() {
+        var tracker = new OffsetTracker();
+        for (long offset = 10; offset < 15; offset++) {
+            tracker.dispatched(P0, offset);
+        }
+        assertEquals(offsets(P0, 10), tracker.committable());
+
+        // Records following the smallest in-flight offset cannot be committed
+        tracker.completed(P0, 12, 0);
+        tracker.completed(P0, 13, 0);
+        assertEquals(offsets(P0, 10), tracker.committable());
+        assertEquals(3, tracker.inFlight());
+
+        tracker.completed(P0, 10, 0);
+        assertEquals(offsets(P0, 11), tracker.committable());
+        tracker.completed(P0, 11, 0);
+        assertEquals(offsets(P0, 14), tracker.committable());
+        tracker.completed(P0, 14, 0);
+        assertEquals(offsets(P0, 15), tracker.committable());
+        assertEquals(0, tracker.inFlight());
+        assertEquals(5, tracker.completed());
+    }
+
+    @Test
+    public void commitTest() {
+        var tracker = new OffsetTracker();
+        tracker.dispatched(P0, 0);
+        tracker.dispatched(P0, 1);
+        tracker.dispatched(P1, 7);
+        tracker.completed(P0, 1, 0);
+        tracker.completed(P1, 7, 0);
+        var committable = tracker.committable();
+        assertEquals(Map.of(P0, new OffsetAndMetadata(0), P1, new OffsetAndMetadata(8)),
+                committable);
+
+        tracker.committed(committable);
+        // Nothing new to commit until the in-flight record is completed
+        assertTrue(tracker.committable().isEmpty());
+
+        // A commit never moves past a record still in flight
+        tracker.dispatched(P1, 8);
+        tracker.dispatched(P1, 9);
+        tracker.completed(P1, 9, 0);
+        assertTrue(tracker.committable().isEmpty());
+        tracker.completed(P1, 8, 0);
+        assertEquals(offsets(P1, 10), tracker.committable());
+
+        tracker.completed(P0, 0, 0);
+        assertEquals(Map.of(P0, new OffsetAndMetadata(2), P1, new OffsetAndMetadata(10)),
+                tracker.committable());
+    }
+
+    @Test
+    public void revokedTest() {
+        var tracker = new OffsetTracker();
+        tracker.dispatched(P0, 0);
+        tracker.dispatched(P0, 1);
+        tracker.dispatched(P1, 0);
+        tracker.revoked(List.of(P0));
+        assertEquals(1, tracker.inFlight());
+
+        // Records of the revoked partition completed later are ignored
+        tracker.completed(P0, 0, 0);
+        tracker.completed(P0, 1, 0);
+        assertEquals(offsets(P1, 0), tracker.committable());
+        // Late commits of the revoked partition are ignored as well
+        tracker.committed(offsets(P0, 2));
+        assertEquals(offsets(P1, 0), tracker.committable());
+
+        // The partition is tracked from scratch when it is assigned again
+        var generation = tracker.dispatched(P0, 5);
+        assertEquals(Map.of(P0, new OffsetAndMetadata(5), P1, new OffsetAndMetadata(0)),
+                tracker.committable());
+        tracker.completed(P0, 5, generation);
+        assertEquals(offsets(P0, 6).get(P0), tracker.committable().get(P0));
+    }
+
+    @Test
+    public void reassignedTest() {
+        var tracker = new OffsetTracker();
+        var before = tracker.dispatched(P0, 0);
+        tracker.revoked(List.of(P0));
+        // The record is consumed again after the partition is assigned again
+        var after = tracker.dispatched(P0, 0);
+        tracker.dispatched(P0, 1);
+
+        // A late completion of the first dispatch does not complete the record dispatched again
+        tracker.completed(P0, 0, before);
+        assertEquals(2, tracker.inFlight());
+        assertEquals(offsets(P0, 0), tracker.committable());
+
+        tracker.completed(P0, 0, after);
+        assertEquals(offsets(P0, 1), tracker.committable());
+    }
+}